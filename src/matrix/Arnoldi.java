@@ -0,0 +1,444 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/*
+ * Extreme eigenpairs of a large general square matrix by implicitly restarted Arnoldi
+ * (Sorensen), the method of ARPACK. The projection H is upper Hessenberg and its Ritz
+ * values come from ComplexHessenbergQR. At a restart the unwanted Ritz values are used as
+ * exact shifts, applied to H by implicit QR steps: a Givens sweep for each real shift and
+ * a Francis double step for each complex conjugate pair, so all arithmetic on the basis
+ * stays real. The shifted basis, cut back to the wanted directions plus half of the rest,
+ * is again an Arnoldi basis, and is extended from there.
+ * Ritz vectors of H are found by inverse iteration. A complex eigenvalue and its
+ * conjugate are never separated at a restart, though the k returned may end with only
+ * one of a pair.
+ */
+
+public class Arnoldi extends PartialEigendecomposition {
+    
+    // imaginary parts below this fraction of the largest Ritz value are taken as rounding
+    private final static double REAL_TOLERANCE = Math.pow(10, -12);
+    private final static int INVERSE_ITERATIONS = 2;
+    
+    /**
+     * The k eigenvalues of largest magnitude, with a default subspace and tolerance 1e-10
+     * @param matrix square Matrix instance
+     * @param count number k of eigenpairs, 1 <= k <= n
+     */
+    public Arnoldi(Matrix<BigDecimal> matrix, int count) {
+        this(new DenseOperator(matrix), count);
+    }
+    
+    /**
+     * The k eigenvalues of largest magnitude, with a default subspace and tolerance 1e-10
+     * @param operator square dense, sparse or implicit matrix
+     * @param count number k of eigenpairs, 1 <= k <= n
+     */
+    public Arnoldi(LinearOperator operator, int count) {
+        this(operator, count, Spectrum.LARGEST_MAGNITUDE);
+    }
+    
+    /**
+     * @param operator square dense, sparse or implicit matrix
+     * @param count number k of eigenpairs, 1 <= k <= n
+     * @param spectrum end of the spectrum to compute
+     */
+    public Arnoldi(LinearOperator operator, int count, Spectrum spectrum) {
+        this(operator, count, spectrum, defaultSubspace(count), DEFAULT_TOLERANCE);
+    }
+    
+    /**
+     * @param operator square dense, sparse or implicit matrix
+     * @param count number k of eigenpairs, 1 <= k <= n
+     * @param spectrum end of the spectrum to compute
+     * @param subspace maximum basis size m, k + 2 <= m, capped at n
+     * @param tolerance positive relative residual at which a pair is accepted
+     * @throws IncompatibleDimensionsException if operator is not square
+     * @throws IllegalArgumentException if a parameter is out of range
+     * @throws ArithmeticException if the QR iteration for the Ritz values fails
+     */
+    public Arnoldi(LinearOperator operator, int count, Spectrum spectrum, int subspace, double tolerance) {
+        super(operator, count, spectrum, subspace, tolerance);
+        int m = this.subspace;
+        double[][] basis = new double[m + 1][dimension];
+        double[][] scratch = new double[m][dimension];
+        double[][] h = new double[m + 1][m];
+        double[][] shifted = new double[m][m];
+        double[][] q = new double[m][m];
+        double[] coefficients = new double[m];
+        double[] correction = new double[m];
+        double[] yRe = new double[m];
+        double[] yIm = new double[m];
+        double[] verifiedRe = null;
+        double[] verifiedIm = null;
+        
+        randomUnit(basis[0]);
+        int start = 0;
+        int size;
+        double[][] ritz;
+        while (true) {
+            size = expand(basis, h, start, m, coefficients, correction);
+            ritz = ritzValues(h, size);
+            double[] ritzRe = ritz[0];
+            double[] ritzIm = ritz[1];
+            
+            double beta = h[size][size - 1];
+            converged = true;
+            for (int i = 0; i < required(verifiedRe != null, ritzRe.length); i++) {
+                ritzVector(h, size, ritzRe[i], ritzIm[i], yRe, yIm);
+                double estimate = Math.abs(beta) * Math.hypot(yRe[size - 1], yIm[size - 1]);
+                converged &= accepted(Math.hypot(ritzRe[i], ritzIm[i]), estimate);
+            }
+            if (converged) {
+                //a basis of the whole space leaves nothing to check
+                if (m == dimension || verifiedRe != null && unchanged(verifiedRe, verifiedIm, ritzRe, ritzIm)) {
+                    break;
+                }
+                verifiedRe = Arrays.copyOf(ritzRe, count);
+                verifiedIm = Arrays.copyOf(ritzIm, count);
+            }
+            if (restarts == MAX_RESTARTS) {
+                break;
+            }
+            
+            //keep the wanted values and half of the rest, or the wanted values alone if they are
+            //to be checked from a new direction, never splitting a conjugate pair
+            restarts++;
+            int wanted = ritzIm[count - 1] > 0 ? count + 1 : count;
+            int keep = converged ? wanted : wanted + (m - wanted) / 2;
+            if (ritzIm[keep - 1] > 0) {
+                keep = keep + 1 < ritzRe.length ? keep + 1 : keep - 1;
+            }
+            
+            //exact shifts with the unwanted Ritz values
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(h[i], 0, shifted[i], 0, size);
+                Arrays.fill(q[i], 0, size, 0);
+                q[i][i] = 1;
+            }
+            for (int i = keep; i < ritzRe.length; i++) {
+                if (ritzIm[i] >= 0) {
+                    shift(shifted, q, size, ritzRe[i], ritzIm[i]);
+                }
+            }
+            
+            //A V Q_k = V Q_k H_k + (h_(k+1,k) V Q e_(k+1) + beta q_(m,k) v_(m+1)) e_k^T
+            rotate(basis, size, q, keep + 1, scratch);
+            double[] residual = basis[keep];
+            scale(residual, shifted[keep][keep - 1]);
+            IterativeSolver.axpy(beta * q[size - 1][keep - 1], basis[size], residual);
+            for (double[] row : h) {
+                Arrays.fill(row, 0);
+            }
+            for (int i = 0; i < keep; i++) {
+                System.arraycopy(shifted[i], 0, h[i], 0, keep);
+            }
+            double residualNorm = orthogonalize(basis, keep, residual, coefficients, correction);
+            if (converged || residualNorm == 0) {
+                randomDirection(basis, keep, coefficients, correction);
+            } else {
+                h[keep][keep - 1] = residualNorm;
+                scale(residual, 1 / residualNorm);
+            }
+            start = keep;
+        }
+        
+        eigenvalues = new Complex[count];
+        vectorsRe = new double[count][];
+        vectorsIm = new double[count][];
+        residuals = new double[count];
+        double[] imageRe = new double[dimension];
+        double[] imageIm = new double[dimension];
+        for (int i = 0; i < count; i++) {
+            double valueRe = ritz[0][i];
+            double valueIm = ritz[1][i];
+            ritzVector(h, size, valueRe, valueIm, yRe, yIm);
+            double[] vectorRe = new double[dimension];
+            double[] vectorIm = new double[dimension];
+            for (int j = 0; j < size; j++) {
+                IterativeSolver.axpy(yRe[j], basis[j], vectorRe);
+                IterativeSolver.axpy(yIm[j], basis[j], vectorIm);
+            }
+            double norm = Math.hypot(IterativeSolver.norm(vectorRe), IterativeSolver.norm(vectorIm));
+            scale(vectorRe, 1 / norm);
+            scale(vectorIm, 1 / norm);
+            
+            //A x - lambda x, real and imaginary parts
+            operator.apply(vectorRe, imageRe);
+            operator.apply(vectorIm, imageIm);
+            IterativeSolver.axpy(-valueRe, vectorRe, imageRe);
+            IterativeSolver.axpy(valueIm, vectorIm, imageRe);
+            IterativeSolver.axpy(-valueRe, vectorIm, imageIm);
+            IterativeSolver.axpy(-valueIm, vectorRe, imageIm);
+            
+            eigenvalues[i] = new Complex(valueRe, valueIm);
+            vectorsRe[i] = vectorRe;
+            vectorsIm[i] = vectorIm;
+            residuals[i] = Math.hypot(IterativeSolver.norm(imageRe), IterativeSolver.norm(imageIm));
+        }
+    }
+    
+    /**
+     * Eigenvalues of the leading size x size block of h, with conjugate pairs made exact
+     * @return {real parts, imaginary parts} sorted by priority, the member of each pair
+     *         with positive imaginary part first
+     */
+    private double[][] ritzValues(double[][] h, int size) {
+        double[] re = new double[size * size];
+        double[] im = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(h[i], 0, re, i * size, size);
+        }
+        Complex[] values = ComplexHessenbergQR.eigenvalues(re, im, size);
+        double largest = 0;
+        for (Complex value : values) {
+            largest = Math.max(largest, value.magnitude());
+        }
+        
+        //take real values and upper half-plane values, mirroring the latter
+        double[] valuesRe = new double[2 * size];
+        double[] valuesIm = new double[2 * size];
+        int total = 0;
+        for (Complex value : values) {
+            if (Math.abs(value.getImag()) <= REAL_TOLERANCE * largest) {
+                valuesRe[total] = value.getReal();
+                valuesIm[total++] = 0;
+            } else if (value.getImag() > 0) {
+                valuesRe[total] = value.getReal();
+                valuesIm[total++] = value.getImag();
+                valuesRe[total] = value.getReal();
+                valuesIm[total++] = -value.getImag();
+            }
+        }
+        
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int comparison = Double.compare(priority(valuesRe[b], valuesIm[b]), priority(valuesRe[a], valuesIm[a]));
+            return comparison != 0 ? comparison : Double.compare(valuesIm[b], valuesIm[a]);
+        });
+        double[][] sorted = new double[2][total];
+        for (int i = 0; i < total; i++) {
+            sorted[0][i] = valuesRe[order[i]];
+            sorted[1][i] = valuesIm[order[i]];
+        }
+        return sorted;
+    }
+    
+    /**
+     * Unit eigenvector y of the leading size x size block of the Hessenberg matrix h for
+     * the Ritz value theta, by inverse iteration with H - theta I
+     * @param yRe overwritten with the real part of y
+     * @param yIm overwritten with the imaginary part of y
+     */
+    private static void ritzVector(double[][] h, int size, double thetaRe, double thetaIm, double[] yRe, double[] yIm) {
+        Complex[][] a = new Complex[size][size];
+        double norm = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                a[i][j] = i == j ? new Complex(h[i][j] - thetaRe, -thetaIm) : new Complex(h[i][j], 0);
+                norm = Math.max(norm, Math.abs(h[i][j]));
+            }
+        }
+        //theta is an eigenvalue, so tiny pivots are expected and are raised to a floor
+        double floor = EPSILON * Math.max(norm, SMALL_EIGENVALUE);
+        
+        //LU with partial pivoting, which for a Hessenberg matrix only ever swaps adjacent rows
+        boolean[] swapped = new boolean[size];
+        for (int k = 0; k < size; k++) {
+            if (k + 1 < size && a[k + 1][k].magnitude() > a[k][k].magnitude()) {
+                //swap only the unreduced parts, leaving earlier multipliers in place
+                for (int j = k; j < size; j++) {
+                    Complex swap = a[k][j];
+                    a[k][j] = a[k + 1][j];
+                    a[k + 1][j] = swap;
+                }
+                swapped[k] = true;
+            }
+            if (a[k][k].magnitude() < floor) {
+                a[k][k] = new Complex(floor, 0);
+            }
+            if (k + 1 < size) {
+                Complex multiplier = a[k + 1][k].div(a[k][k]);
+                a[k + 1][k] = multiplier;
+                for (int j = k + 1; j < size; j++) {
+                    a[k + 1][j] = a[k + 1][j].sub(multiplier.mult(a[k][j]));
+                }
+            }
+        }
+        
+        Complex[] y = new Complex[size];
+        Arrays.fill(y, new Complex(1, 0));
+        for (int iteration = 0; iteration < INVERSE_ITERATIONS; iteration++) {
+            for (int k = 0; k + 1 < size; k++) {
+                if (swapped[k]) {
+                    Complex swap = y[k];
+                    y[k] = y[k + 1];
+                    y[k + 1] = swap;
+                }
+                y[k + 1] = y[k + 1].sub(a[k + 1][k].mult(y[k]));
+            }
+            for (int i = size - 1; i >= 0; i--) {
+                Complex sum = y[i];
+                for (int j = i + 1; j < size; j++) {
+                    sum = sum.sub(a[i][j].mult(y[j]));
+                }
+                y[i] = sum.div(a[i][i]);
+            }
+            double length = 0;
+            for (Complex entry : y) {
+                length = Math.hypot(length, entry.magnitude());
+            }
+            for (int i = 0; i < size; i++) {
+                y[i] = y[i].div(length);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            yRe[i] = y[i].getReal();
+            yIm[i] = y[i].getImag();
+        }
+    }
+    
+    /**
+     * One implicit QR step on each unreduced diagonal block of the Hessenberg matrix h, with
+     * shift theta if it is real and with theta and its conjugate if not, accumulating Q.
+     * A chase from the top stops at the first zero subdiagonal, so without the split the
+     * shift would never reach the directions added after a locked or deflated block.
+     */
+    private static void shift(double[][] h, double[][] q, int size, double thetaRe, double thetaIm) {
+        int low = 0;
+        for (int k = 0; k < size; k++) {
+            boolean split = k + 1 == size;
+            if (!split && Math.abs(h[k + 1][k]) <= EPSILON * (Math.abs(h[k][k]) + Math.abs(h[k + 1][k + 1]))) {
+                h[k + 1][k] = 0;
+                split = true;
+            }
+            if (split) {
+                if (k > low) {
+                    if (thetaIm == 0) {
+                        realShift(h, q, size, low, k + 1, thetaRe);
+                    } else {
+                        doubleShift(h, q, size, low, k + 1, 2 * thetaRe, thetaRe * thetaRe + thetaIm * thetaIm);
+                    }
+                }
+                low = k + 1;
+            }
+        }
+    }
+    
+    /**
+     * Implicit QR step H <- G^T H G with a real shift on the unreduced block low to high - 1,
+     * by a chase of Givens rotations, accumulating Q <- Q G
+     */
+    private static void realShift(double[][] h, double[][] q, int size, int low, int high, double shift) {
+        double x = h[low][low] - shift;
+        double y = h[low + 1][low];
+        for (int k = low; k < high - 1; k++) {
+            double r = Math.hypot(x, y);
+            double c = r == 0 ? 1 : x / r;
+            double s = r == 0 ? 0 : y / r;
+            for (int j = Math.max(k - 1, low); j < size; j++) {
+                double upper = h[k][j];
+                double lower = h[k + 1][j];
+                h[k][j] = c * upper + s * lower;
+                h[k + 1][j] = c * lower - s * upper;
+            }
+            for (int i = 0; i <= Math.min(k + 2, high - 1); i++) {
+                double left = h[i][k];
+                double right = h[i][k + 1];
+                h[i][k] = c * left + s * right;
+                h[i][k + 1] = c * right - s * left;
+            }
+            for (int i = 0; i < size; i++) {
+                double left = q[i][k];
+                double right = q[i][k + 1];
+                q[i][k] = c * left + s * right;
+                q[i][k + 1] = c * right - s * left;
+            }
+            if (k > low) {
+                h[k + 1][k - 1] = 0;
+            }
+            if (k + 2 < high) {
+                x = h[k + 1][k];
+                y = h[k + 2][k];
+            }
+        }
+    }
+    
+    /**
+     * Implicit Francis double step with shifts mu and conj(mu), where sum = 2 Re(mu) and
+     * product = |mu|^2, on the unreduced block low to high - 1, by a chase of 3 x 3
+     * Householder reflections, accumulating Q
+     */
+    private static void doubleShift(double[][] h, double[][] q, int size, int low, int high, double sum, double product) {
+        //first column of H^2 - sum H + product I
+        double x = h[low][low] * h[low][low] + h[low][low + 1] * h[low + 1][low] - sum * h[low][low] + product;
+        double y = h[low + 1][low] * (h[low][low] + h[low + 1][low + 1] - sum);
+        double z = high - low > 2 ? h[low + 1][low] * h[low + 2][low + 1] : 0;
+        double[] v = new double[3];
+        for (int k = low; k < high - 1; k++) {
+            int length = Math.min(3, high - k);
+            if (length == 2) {
+                z = 0;
+            }
+            //scaled so that the squares below neither underflow nor overflow
+            double magnitude = Math.abs(x) + Math.abs(y) + Math.abs(z);
+            if (magnitude != 0) {
+                x /= magnitude;
+                y /= magnitude;
+                z /= magnitude;
+                double norm = Math.sqrt(x * x + y * y + z * z);
+                //reflection I - 2 v v^T / v^T v mapping (x, y, z) to a multiple of e_1
+                v[0] = x + (x >= 0 ? norm : -norm);
+                v[1] = y;
+                v[2] = z;
+                double vv = v[0] * v[0] + v[1] * v[1] + v[2] * v[2];
+                for (int j = Math.max(k - 1, low); j < size; j++) {
+                    double projection = 0;
+                    for (int l = 0; l < length; l++) {
+                        projection += v[l] * h[k + l][j];
+                    }
+                    projection *= 2 / vv;
+                    for (int l = 0; l < length; l++) {
+                        h[k + l][j] -= projection * v[l];
+                    }
+                }
+                for (int i = 0; i <= Math.min(k + 3, high - 1); i++) {
+                    double projection = 0;
+                    for (int l = 0; l < length; l++) {
+                        projection += h[i][k + l] * v[l];
+                    }
+                    projection *= 2 / vv;
+                    for (int l = 0; l < length; l++) {
+                        h[i][k + l] -= projection * v[l];
+                    }
+                }
+                for (int i = 0; i < size; i++) {
+                    double projection = 0;
+                    for (int l = 0; l < length; l++) {
+                        projection += q[i][k + l] * v[l];
+                    }
+                    projection *= 2 / vv;
+                    for (int l = 0; l < length; l++) {
+                        q[i][k + l] -= projection * v[l];
+                    }
+                }
+            }
+            if (k > low) {
+                h[k + 1][k - 1] = 0;
+                if (k + 2 < high) {
+                    h[k + 2][k - 1] = 0;
+                }
+            }
+            if (k + 2 < high) {
+                x = h[k + 1][k];
+                y = h[k + 2][k];
+                z = k + 3 < high ? h[k + 3][k] : 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * LU factorization P A = L U of a banded matrix with lower bandwidth kl and upper
+ * bandwidth ku, by Gaussian elimination with partial pivoting as in LAPACK's gbtf2.
+ *
+ * Row interchanges can widen the band of U to kl + ku, so the factors are held in band
+ * storage with kl extra rows of room for the fill: entry (i, j) of the working array is
+ * at factors[j * width + kl + ku + i - j], width = 2 kl + ku + 1. U occupies the
+ * diagonal and the kl + ku positions above it, the multipliers of L the kl below it.
+ * Factoring costs O(n kl (kl + ku)) and each solve O(n (2 kl + ku)), against O(n^3)
+ * and O(n^2) for a dense matrix.
+ */
+
+public class BandedLUDecomposition {
+    
+    private final int size;
+    private final int lower;
+    private final int diagonal;
+    private final int width;
+    private final double[] factors;
+    private final int[] pivots;
+    private final boolean oddSwaps;
+    
+    /**
+     * @param matrix banded matrix, not modified
+     * @throws ArithmeticException if matrix is singular
+     */
+    public BandedLUDecomposition(BandedMatrix matrix) {
+        size = matrix.size()[0];
+        lower = matrix.lowerBandwidth();
+        int upper = matrix.upperBandwidth();
+        diagonal = lower + upper;
+        width = 2 * lower + upper + 1;
+        factors = new double[size * width];
+        double[] band = matrix.band();
+        int bandWidth = lower + upper + 1;
+        for (int j = 0; j < size; j++) {
+            System.arraycopy(band, j * bandWidth, factors, j * width + lower, bandWidth);
+        }
+        pivots = new int[size];
+        oddSwaps = factor(upper);
+    }
+    
+    /**
+     * @return true if an odd number of rows were interchanged
+     */
+    private boolean factor(int upper) {
+        boolean odd = false;
+        //last column reached by the pivot rows chosen so far
+        int reach = 0;
+        for (int j = 0; j < size; j++) {
+            int below = Math.min(lower, size - 1 - j);
+            int column = j * width + diagonal;
+            int pivot = 0;
+            for (int r = 1; r <= below; r++) {
+                if (Math.abs(factors[column + r]) > Math.abs(factors[column + pivot])) {
+                    pivot = r;
+                }
+            }
+            if (factors[column + pivot] == 0) {
+                throw new ArithmeticException("Matrix is singular: zero pivot at " + j);
+            }
+            pivots[j] = j + pivot;
+            reach = Math.max(reach, Math.min(j + upper + pivot, size - 1));
+            if (pivot != 0) {
+                odd = !odd;
+                for (int c = j; c <= reach; c++) {
+                    int top = c * width + diagonal + j - c;
+                    double temp = factors[top];
+                    factors[top] = factors[top + pivot];
+                    factors[top + pivot] = temp;
+                }
+            }
+            double inverse = 1 / factors[column];
+            for (int r = 1; r <= below; r++) {
+                factors[column + r] *= inverse;
+            }
+            //rank-one update of the trailing block touched by row j
+            for (int c = j + 1; c <= reach; c++) {
+                int top = c * width + diagonal + j - c;
+                double factor = factors[top];
+                if (factor == 0) {
+                    continue;
+                }
+                for (int r = 1; r <= below; r++) {
+                    factors[top + r] -= factors[column + r] * factor;
+                }
+            }
+        }
+        return odd;
+    }
+    
+    /**
+     * @return determinant, the signed product of the pivots
+     */
+    public double determinant() {
+        double product = oddSwaps ? -1 : 1;
+        for (int j = 0; j < size; j++) {
+            product *= factors[j * width + diagonal];
+        }
+        return product;
+    }
+    
+    /**
+     * @param b right-hand side of length n, not modified
+     * @return x with A x = b
+     * @throws IncompatibleDimensionsException if b has the wrong length
+     */
+    public double[] solve(double[] b) throws IncompatibleDimensionsException {
+        if (b.length != size) {
+            throw new IncompatibleDimensionsException("Right-hand side must have length " + size);
+        }
+        double[] x = b.clone();
+        solveInPlace(x);
+        return x;
+    }
+    
+    /**
+     * @param b right-hand sides, n x k
+     * @return X with A X = B
+     * @throws IncompatibleDimensionsException if b does not have n rows
+     */
+    public Matrix<BigDecimal> solve(Matrix<BigDecimal> b) throws IncompatibleDimensionsException {
+        if (b.size()[0] != size) {
+            throw new IncompatibleDimensionsException("Right-hand side must have " + size + " rows");
+        }
+        double[][] rhs = BigDecimalMatrix.toArray(b);
+        int numRhs = rhs[0].length;
+        double[] column = new double[size];
+        for (int k = 0; k < numRhs; k++) {
+            for (int i = 0; i < size; i++) {
+                column[i] = rhs[i][k];
+            }
+            solveInPlace(column);
+            for (int i = 0; i < size; i++) {
+                rhs[i][k] = column[i];
+            }
+        }
+        return new BigDecimalMatrix(rhs);
+    }
+    
+    /**
+     * Overwrite x with A^(-1) x: interchanges and L forward, then U backward
+     */
+    void solveInPlace(double[] x) {
+        for (int j = 0; j < size; j++) {
+            int pivot = pivots[j];
+            double value = x[pivot];
+            x[pivot] = x[j];
+            x[j] = value;
+            if (value == 0) {
+                continue;
+            }
+            int column = j * width + diagonal;
+            int below = Math.min(lower, size - 1 - j);
+            for (int r = 1; r <= below; r++) {
+                x[j + r] -= factors[column + r] * value;
+            }
+        }
+        for (int j = size - 1; j >= 0; j--) {
+            int column = j * width + diagonal;
+            double value = x[j] / factors[column];
+            x[j] = value;
+            if (value == 0) {
+                continue;
+            }
+            for (int i = Math.max(0, j - diagonal); i < j; i++) {
+                x[i] -= factors[column + i - j] * value;
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/*
+ * Immutable real square matrix whose nonzero entries lie within a band: entry (i, j) may
+ * be nonzero only when -lower <= j - i <= upper. The band is held in LAPACK general band
+ * storage, column by column, with entry (i, j) at band[j * width + upper + i - j] and
+ * width = lower + upper + 1, so storage is O(n * width) and a matrix-vector product
+ * costs O(n * width). Positions of the band outside the matrix are stored as zero.
+ * Systems are solved through BandedLUDecomposition in O(n * lower * (lower + upper)), or
+ * for tridiagonal systems that need no pivoting by the Thomas algorithm.
+ */
+
+public class BandedMatrix implements LinearOperator {
+    
+    private final int size;
+    private final int lower;
+    private final int upper;
+    private final int width;
+    private final double[] band;
+    
+    /**
+     * Build from the diagonals of the band
+     * @param size positive number of rows and columns
+     * @param lower number of subdiagonals, nonnegative and less than size
+     * @param upper number of superdiagonals, nonnegative and less than size
+     * @param diagonals lower + upper + 1 arrays, diagonals[d] holding the entries (i, i + d - lower)
+     *        in increasing i, of length size - |d - lower|; not kept
+     * @throws IncompatibleDimensionsException if size, the bandwidths or the diagonal lengths do not agree
+     */
+    public BandedMatrix(int size, int lower, int upper, double[][] diagonals) {
+        this(size, lower, upper);
+        if (diagonals.length != width) {
+            throw new IncompatibleDimensionsException("Expected " + width + " diagonals");
+        }
+        for (int d = 0; d < width; d++) {
+            int offset = d - lower;
+            if (diagonals[d].length != size - Math.abs(offset)) {
+                throw new IncompatibleDimensionsException("Diagonal " + offset + " must have length " + (size - Math.abs(offset)));
+            }
+            int firstRow = Math.max(0, -offset);
+            for (int k = 0; k < diagonals[d].length; k++) {
+                int i = firstRow + k;
+                band[index(i, i + offset)] = diagonals[d][k];
+            }
+        }
+    }
+    
+    /**
+     * Build from a dense array, with the narrowest band holding its nonzero entries
+     * @param entries row-major square array, must be nonempty
+     * @throws IncompatibleDimensionsException if entries is not square
+     */
+    public BandedMatrix(double[][] entries) {
+        this(entries.length, bandwidth(entries, true), bandwidth(entries, false));
+        for (int i = 0; i < size; i++) {
+            for (int j = Math.max(0, i - lower); j <= Math.min(size - 1, i + upper); j++) {
+                band[index(i, j)] = entries[i][j];
+            }
+        }
+    }
+    
+    /**
+     * Build from a matrix with BigDecimal entries, with the narrowest band holding its nonzero entries
+     * @param matrix valid square Matrix instance
+     * @throws IncompatibleDimensionsException if matrix is not square
+     */
+    public BandedMatrix(Matrix<BigDecimal> matrix) {
+        this(BigDecimalMatrix.toArray(matrix));
+    }
+    
+    private BandedMatrix(int size, int lower, int upper) {
+        if (size <= 0) {
+            throw new IncompatibleDimensionsException("Matrix must have nonzero dimensions");
+        }
+        if (lower < 0 || upper < 0 || lower >= size || upper >= size) {
+            throw new IncompatibleDimensionsException("Bandwidths must lie between 0 and " + (size - 1));
+        }
+        this.size = size;
+        this.lower = lower;
+        this.upper = upper;
+        this.width = lower + upper + 1;
+        this.band = new double[size * width];
+    }
+    
+    /**
+     * @param subdiagonal entries (i + 1, i), length n - 1, not kept
+     * @param diagonal entries (i, i), length n, not kept
+     * @param superdiagonal entries (i, i + 1), length n - 1, not kept
+     * @return tridiagonal matrix with the given diagonals
+     * @throws IncompatibleDimensionsException if the lengths do not agree
+     */
+    public static BandedMatrix tridiagonal(double[] subdiagonal, double[] diagonal, double[] superdiagonal) {
+        if (diagonal.length == 1) {
+            return new BandedMatrix(1, 0, 0, new double[][] {diagonal});
+        }
+        return new BandedMatrix(diagonal.length, 1, 1, new double[][] {subdiagonal, diagonal, superdiagonal});
+    }
+    
+    /**
+     * Solve a tridiagonal system by the Thomas algorithm, Gaussian elimination without
+     * pivoting in 8n flops. Stable when the matrix is diagonally dominant or symmetric
+     * positive definite; otherwise use BandedLUDecomposition, which pivots.
+     * @param subdiagonal entries (i + 1, i), length n - 1, not modified
+     * @param diagonal entries (i, i), length n, not modified
+     * @param superdiagonal entries (i, i + 1), length n - 1, not modified
+     * @param b right-hand side of length n, not modified
+     * @return x with A x = b
+     * @throws IncompatibleDimensionsException if the lengths do not agree
+     * @throws ArithmeticException if elimination meets a zero pivot
+     */
+    public static double[] solveTridiagonal(double[] subdiagonal, double[] diagonal, double[] superdiagonal, double[] b) {
+        int n = diagonal.length;
+        if (n == 0 || b.length != n || subdiagonal.length != n - 1 || superdiagonal.length != n - 1) {
+            throw new IncompatibleDimensionsException("Diagonals of length n - 1, n, n - 1 and right-hand side of length n required");
+        }
+        //forward sweep: modified superdiagonal in scratch, modified right-hand side in x
+        double[] scratch = new double[n];
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            double pivot = diagonal[i];
+            double value = b[i];
+            if (i > 0) {
+                pivot -= subdiagonal[i - 1] * scratch[i - 1];
+                value -= subdiagonal[i - 1] * x[i - 1];
+            }
+            if (pivot == 0) {
+                throw new ArithmeticException("Zero pivot at " + i);
+            }
+            if (i < n - 1) {
+                scratch[i] = superdiagonal[i] / pivot;
+            }
+            x[i] = value / pivot;
+        }
+        for (int i = n - 2; i >= 0; i--) {
+            x[i] -= scratch[i] * x[i + 1];
+        }
+        return x;
+    }
+    
+    private static int bandwidth(double[][] entries, boolean below) {
+        int n = entries.length;
+        int bandwidth = 0;
+        for (int i = 0; i < n; i++) {
+            if (entries[i].length != n) {
+                throw new IncompatibleDimensionsException("Matrix must be square");
+            }
+            for (int j = 0; j < n; j++) {
+                if (entries[i][j] != 0) {
+                    bandwidth = Math.max(bandwidth, below ? i - j : j - i);
+                }
+            }
+        }
+        return bandwidth;
+    }
+    
+    private int index(int row, int column) {
+        return column * width + upper + row - column;
+    }
+    
+    @Override
+    public int[] size() {
+        int[] dimensions = {size, size};
+        return dimensions;
+    }
+    
+    /**
+     * @return number of subdiagonals in the band
+     */
+    public int lowerBandwidth() {
+        return lower;
+    }
+    
+    /**
+     * @return number of superdiagonals in the band
+     */
+    public int upperBandwidth() {
+        return upper;
+    }
+    
+    /**
+     * @return band storage, n * (lower + upper + 1) values column by column, not copied
+     */
+    double[] band() {
+        return band;
+    }
+    
+    /**
+     * @param row nonnegative integer value
+     * @param column nonnegative integer value
+     * @return entry at [row, column], zero outside the band
+     * @throws IndexOutOfBoundsException if row or column out of range
+     */
+    public double getElement(int row, int column) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= size || column < 0 || column >= size) {
+            throw new IndexOutOfBoundsException("Index (" + row + ", " + column + ") out of range");
+        }
+        if (column - row > upper || row - column > lower) {
+            return 0;
+        }
+        return band[index(row, column)];
+    }
+    
+    /**
+     * Column-oriented: each column of the band adds a multiple of itself to y
+     */
+    @Override
+    public void apply(double[] x, double[] y) {
+        Arrays.fill(y, 0, size, 0);
+        for (int j = 0; j < size; j++) {
+            double factor = x[j];
+            if (factor == 0) {
+                continue;
+            }
+            int offset = j * width + upper - j;
+            int end = Math.min(size, j + lower + 1);
+            for (int i = Math.max(0, j - upper); i < end; i++) {
+                y[i] += band[offset + i] * factor;
+            }
+        }
+    }
+    
+    /**
+     * Each column of the band is contiguous, so each entry of y is one contiguous dot product
+     */
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        for (int j = 0; j < size; j++) {
+            int offset = j * width + upper - j;
+            int end = Math.min(size, j + lower + 1);
+            double sum = 0;
+            for (int i = Math.max(0, j - upper); i < end; i++) {
+                sum += band[offset + i] * x[i];
+            }
+            y[j] = sum;
+        }
+    }
+    
+    /**
+     * @param b right-hand side of length n, not modified
+     * @return x with A x = b, by banded LU with partial pivoting
+     * @throws IncompatibleDimensionsException if b has the wrong length
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public double[] solve(double[] b) throws IncompatibleDimensionsException {
+        return new BandedLUDecomposition(this).solve(b);
+    }
+    
+    /**
+     * @return the transpose, with the bandwidths exchanged
+     */
+    public BandedMatrix transpose() {
+        BandedMatrix transpose = new BandedMatrix(size, upper, lower);
+        for (int j = 0; j < size; j++) {
+            for (int i = Math.max(0, j - upper); i <= Math.min(size - 1, j + lower); i++) {
+                transpose.band[transpose.index(j, i)] = band[index(i, j)];
+            }
+        }
+        return transpose;
+    }
+    
+    /**
+     * @return dense copy with BigDecimal entries
+     */
+    public Matrix<BigDecimal> toDense() {
+        double[][] dense = new double[size][size];
+        for (int j = 0; j < size; j++) {
+            for (int i = Math.max(0, j - upper); i <= Math.min(size - 1, j + lower); i++) {
+                dense[i][j] = band[index(i, j)];
+            }
+        }
+        return new BigDecimalMatrix(dense);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        output.append(size + " x " + size + ", " + lower + " subdiagonals, " + upper + " superdiagonals\n");
+        for (int d = -lower; d <= upper; d++) {
+            output.append(d + ":");
+            for (int i = Math.max(0, -d); i < Math.min(size, size - d); i++) {
+                output.append("\t" + band[index(i, i + d)]);
+            }
+            output.append("\n");
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,332 @@
+package matrix;
+
+import java.util.Arrays;
+
+/*
+ * LU factorizations P A = L U of every matrix in a square MatrixBatch, by Gaussian
+ * elimination with partial pivoting carried out on the whole batch at once.
+ *
+ * The batch is worked through a chunk at a time: the chunk is copied into a buffer
+ * with entry e of its l-th matrix at e * lanes + l, small enough to stay in cache,
+ * factored there and copied back out into the batch layout, L's multipliers below the
+ * diagonal and U on and above it. Each matrix chooses its own pivot rows, so the search
+ * and the row interchanges are done matrix by matrix, but they cost O(n^2) per matrix;
+ * the O(n^3) elimination and the substitutions run along the chunk with the same
+ * arithmetic for every matrix, reading the pivot row from a separate array so that the
+ * JIT can vectorize them.
+ *
+ * A singular matrix does not stop the others: its zero pivot is skipped, its determinant
+ * is zero and solving with it throws. MatrixBatch computes determinants and inverses
+ * without keeping the factors, finishing each chunk while it is still in cache.
+ */
+
+public class BatchLUDecomposition {
+    
+    private final int size;
+    private final int count;
+    // null when the factors are not kept
+    private final double[] factors;
+    // pivots[k * count + b] is the row interchanged with row k of matrix b
+    private final int[] pivots;
+    private final double[] determinants;
+    private final boolean[] singular;
+    
+    /**
+     * @param batch batch of square matrices, not modified
+     * @throws IncompatibleDimensionsException if the matrices are not square
+     */
+    public BatchLUDecomposition(MatrixBatch batch) {
+        this(batch, true, null);
+    }
+    
+    /**
+     * @param keepFactors false when the factors are only needed chunk by chunk
+     * @param inverse batch to receive the inverses of the nonsingular chunks, each computed
+     *        straight after the chunk is factored; null for none
+     */
+    private BatchLUDecomposition(MatrixBatch batch, boolean keepFactors, MatrixBatch inverse) {
+        if (batch.rows() != batch.columns()) {
+            throw new IncompatibleDimensionsException("Matrices must be square");
+        }
+        int n = batch.rows();
+        size = n;
+        count = batch.count();
+        factors = keepFactors ? new double[n * n * count] : null;
+        pivots = keepFactors ? new int[n * count] : null;
+        determinants = new double[count];
+        singular = new boolean[count];
+        MatrixBatch.forEachChunk(count, (from, to) -> {
+            int lanes = to - from;
+            double[] lu = new double[n * n * lanes];
+            int[] chunkPivots = new int[n * lanes];
+            gather(batch.data(), lu, n * n, from, lanes);
+            factor(lu, chunkPivots, from, lanes);
+            if (keepFactors) {
+                scatter(lu, factors, n * n, from, lanes);
+                for (int k = 0; k < n; k++) {
+                    System.arraycopy(chunkPivots, k * lanes, pivots, k * count + from, lanes);
+                }
+            }
+            if (inverse != null && !anySingular(from, to)) {
+                double[] work = new double[n * n * lanes];
+                for (int i = 0; i < n; i++) {
+                    Arrays.fill(work, (i * n + i) * lanes, (i * n + i + 1) * lanes, 1);
+                }
+                substitute(lu, chunkPivots, work, n, lanes);
+                scatter(work, inverse.data(), n * n, from, lanes);
+            }
+        });
+    }
+    
+    /**
+     * @return determinant of every matrix in batch, without keeping the factors
+     * @throws IncompatibleDimensionsException if the matrices are not square
+     */
+    static double[] determinants(MatrixBatch batch) {
+        return new BatchLUDecomposition(batch, false, null).determinants;
+    }
+    
+    /**
+     * @return inverse of every matrix in batch, without keeping the factors
+     * @throws IncompatibleDimensionsException if the matrices are not square
+     * @throws ArithmeticException if any matrix is singular
+     */
+    static MatrixBatch inverse(MatrixBatch batch) {
+        MatrixBatch inverse = new MatrixBatch(batch.rows(), batch.columns(), batch.count());
+        new BatchLUDecomposition(batch, false, inverse).checkNonsingular();
+        return inverse;
+    }
+    
+    /**
+     * Copy entries [0, entries) of the matrices [from, from + lanes) from the batch layout
+     * of data into the chunk layout of work
+     */
+    private void gather(double[] data, double[] work, int entries, int from, int lanes) {
+        for (int e = 0; e < entries; e++) {
+            System.arraycopy(data, e * count + from, work, e * lanes, lanes);
+        }
+    }
+    
+    /**
+     * Inverse of gather
+     */
+    private void scatter(double[] work, double[] data, int entries, int from, int lanes) {
+        for (int e = 0; e < entries; e++) {
+            System.arraycopy(work, e * lanes, data, e * count + from, lanes);
+        }
+    }
+    
+    private boolean anySingular(int from, int to) {
+        for (int b = from; b < to; b++) {
+            if (singular[b]) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void checkNonsingular() {
+        for (int b = 0; b < count; b++) {
+            if (singular[b]) {
+                throw new ArithmeticException("Matrix " + b + " of the batch is singular");
+            }
+        }
+    }
+    
+    /**
+     * Factor in place the chunk of matrices [from, from + lanes) held in a, recording
+     * their row interchanges in p and their determinants
+     */
+    private void factor(double[] a, int[] p, int from, int lanes) {
+        int n = size;
+        double[] largest = new double[lanes];
+        double[] inverses = new double[lanes];
+        //row k of U and column k of L, copied out so the update reads other arrays than it writes
+        double[] pivotRow = new double[n * lanes];
+        double[] multipliers = new double[lanes];
+        for (int l = 0; l < lanes; l++) {
+            determinants[from + l] = 1;
+        }
+        for (int k = 0; k < n; k++) {
+            int kk = (k * n + k) * lanes;
+            int pivotStart = k * lanes;
+            //pivot search, column k from the diagonal down
+            for (int l = 0; l < lanes; l++) {
+                largest[l] = Math.abs(a[kk + l]);
+                p[pivotStart + l] = k;
+            }
+            for (int i = k + 1; i < n; i++) {
+                int ik = (i * n + k) * lanes;
+                for (int l = 0; l < lanes; l++) {
+                    double magnitude = Math.abs(a[ik + l]);
+                    if (magnitude > largest[l]) {
+                        largest[l] = magnitude;
+                        p[pivotStart + l] = i;
+                    }
+                }
+            }
+            for (int l = 0; l < lanes; l++) {
+                int pivot = p[pivotStart + l];
+                int b = from + l;
+                if (pivot != k) {
+                    determinants[b] = -determinants[b];
+                    for (int j = 0; j < n; j++) {
+                        int top = (k * n + j) * lanes + l;
+                        int bottom = (pivot * n + j) * lanes + l;
+                        double temp = a[top];
+                        a[top] = a[bottom];
+                        a[bottom] = temp;
+                    }
+                }
+                double diagonal = a[kk + l];
+                determinants[b] *= diagonal;
+                if (diagonal == 0) {
+                    singular[b] = true;
+                }
+                //a zero pivot leaves its column's multipliers at zero
+                inverses[l] = diagonal == 0 ? 0 : 1 / diagonal;
+            }
+            System.arraycopy(a, kk + lanes, pivotRow, (k + 1) * lanes, (n - k - 1) * lanes);
+            for (int i = k + 1; i < n; i++) {
+                int ik = (i * n + k) * lanes;
+                for (int l = 0; l < lanes; l++) {
+                    double multiplier = a[ik + l] * inverses[l];
+                    a[ik + l] = multiplier;
+                    multipliers[l] = multiplier;
+                }
+                for (int j = k + 1; j < n; j++) {
+                    int ij = (i * n + j) * lanes;
+                    int kj = j * lanes;
+                    for (int l = 0; l < lanes; l++) {
+                        a[ij + l] -= multipliers[l] * pivotRow[kj + l];
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return number of matrices factored
+     */
+    public int count() {
+        return count;
+    }
+    
+    /**
+     * @return determinant of matrix index, the signed product of U's diagonal
+     */
+    public double determinant(int index) {
+        return determinants[index];
+    }
+    
+    /**
+     * @return determinant of every matrix, copied
+     */
+    public double[] determinants() {
+        return determinants.clone();
+    }
+    
+    /**
+     * @return true if matrix index had a zero pivot
+     */
+    public boolean isSingular(int index) {
+        return singular[index];
+    }
+    
+    /**
+     * Row interchanges, then forward substitution with L and back substitution with U,
+     * each run along the batch
+     * @param rhs batch of size x m right-hand sides, one per matrix
+     * @return batch of X with A X = B for each matrix A and right-hand side B
+     * @throws IncompatibleDimensionsException if rhs has the wrong number of rows or matrices
+     * @throws ArithmeticException if any matrix is singular
+     */
+    public MatrixBatch solve(MatrixBatch rhs) throws IncompatibleDimensionsException {
+        if (rhs.rows() != size || rhs.count() != count) {
+            throw new IncompatibleDimensionsException("Right-hand sides must be " + count + " matrices with "
+                    + size + " rows");
+        }
+        checkNonsingular();
+        int n = size;
+        int m = rhs.columns();
+        MatrixBatch solution = new MatrixBatch(n, m, count);
+        MatrixBatch.forEachChunk(count, (from, to) -> {
+            int lanes = to - from;
+            double[] lu = new double[n * n * lanes];
+            int[] chunkPivots = new int[n * lanes];
+            double[] work = new double[n * m * lanes];
+            gather(factors, lu, n * n, from, lanes);
+            for (int k = 0; k < n; k++) {
+                System.arraycopy(pivots, k * count + from, chunkPivots, k * lanes, lanes);
+            }
+            gather(rhs.data(), work, n * m, from, lanes);
+            substitute(lu, chunkPivots, work, m, lanes);
+            scatter(work, solution.data(), n * m, from, lanes);
+        });
+        return solution;
+    }
+    
+    /**
+     * Solve in place for the size x m right-hand sides of one chunk held in work, with the
+     * chunk's factors lu and row interchanges p
+     */
+    private void substitute(double[] lu, int[] p, double[] work, int m, int lanes) {
+        int n = size;
+        //row k of the right-hand sides, copied out so the updates read other arrays than they write
+        double[] row = new double[m * lanes];
+        for (int k = 0; k < n; k++) {
+            for (int l = 0; l < lanes; l++) {
+                int pivot = p[k * lanes + l];
+                if (pivot != k) {
+                    for (int c = 0; c < m; c++) {
+                        int top = (k * m + c) * lanes + l;
+                        int bottom = (pivot * m + c) * lanes + l;
+                        double temp = work[top];
+                        work[top] = work[bottom];
+                        work[bottom] = temp;
+                    }
+                }
+            }
+        }
+        for (int k = 0; k < n - 1; k++) {
+            System.arraycopy(work, k * m * lanes, row, 0, m * lanes);
+            for (int i = k + 1; i < n; i++) {
+                subtractRow(lu, (i * n + k) * lanes, row, work, i * m * lanes, m, lanes);
+            }
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            int kk = (k * n + k) * lanes;
+            for (int c = 0; c < m; c++) {
+                int kc = (k * m + c) * lanes;
+                for (int l = 0; l < lanes; l++) {
+                    work[kc + l] /= lu[kk + l];
+                }
+            }
+            System.arraycopy(work, k * m * lanes, row, 0, m * lanes);
+            for (int i = 0; i < k; i++) {
+                subtractRow(lu, (i * n + k) * lanes, row, work, i * m * lanes, m, lanes);
+            }
+        }
+    }
+    
+    /**
+     * Subtract lu[ik + l] times row from the m entries of the row of work at start, in each lane l
+     */
+    private static void subtractRow(double[] lu, int ik, double[] row, double[] work, int start, int m, int lanes) {
+        for (int c = 0; c < m; c++) {
+            int ic = start + c * lanes;
+            int kc = c * lanes;
+            for (int l = 0; l < lanes; l++) {
+                work[ic + l] -= lu[ik + l] * row[kc + l];
+            }
+        }
+    }
+    
+    /**
+     * @return batch of the inverses, solved against a batch of identities
+     * @throws ArithmeticException if any matrix is singular
+     */
+    public MatrixBatch inverse() {
+        return solve(MatrixBatch.identity(size, count));
+    }
+}
@@ -0,0 +1,113 @@
+package matrix;
+
+/*
+ * Biconjugate gradient stabilized method (van der Vorst) for general nonsingular systems.
+ * Two operator applications, two preconditioner applications and four inner products
+ * per iteration, with eight work vectors of length n regardless of the iteration
+ * count, so memory stays flat where GMRES would need long restarts. Convergence is
+ * not monotone; the method stops early, unconverged, if one of its recurrences
+ * breaks down. Preconditioning is on the right, A M^(-1) u = b with x = M^(-1) u,
+ * so the residual is that of the original system.
+ */
+
+public class BiCGSTAB extends IterativeSolver {
+    
+    /**
+     * Solver with relative tolerance 1e-10 and at most 1000 iterations
+     */
+    public BiCGSTAB() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+    
+    /**
+     * @param tolerance positive relative residual at which to stop
+     * @param maxIterations positive iteration limit
+     * @throws IllegalArgumentException if either is not positive
+     */
+    public BiCGSTAB(double tolerance, int maxIterations) {
+        this(tolerance, maxIterations, Preconditioner.IDENTITY);
+    }
+    
+    /**
+     * @param tolerance positive relative residual at which to stop
+     * @param maxIterations positive iteration limit
+     * @param preconditioner approximate inverse, applied on the right
+     * @throws IllegalArgumentException if either number is not positive or preconditioner is null
+     */
+    public BiCGSTAB(double tolerance, int maxIterations, Preconditioner preconditioner) {
+        super(tolerance, maxIterations, preconditioner);
+    }
+    
+    @Override
+    boolean iterate(LinearOperator operator, double[] b, double[] x, double bNorm, History history) {
+        int n = b.length;
+        double[] r = new double[n];
+        double[] shadow = new double[n];
+        double[] p = new double[n];
+        double[] pHat = new double[n];
+        double[] v = new double[n];
+        double[] s = new double[n];
+        double[] sHat = new double[n];
+        double[] t = new double[n];
+        
+        residual(operator, b, x, r);
+        double residualNorm = norm(r) / bNorm;
+        history.record(residualNorm);
+        if (residualNorm < tolerance) {
+            return true;
+        }
+        System.arraycopy(r, 0, shadow, 0, n);
+        double rho = 1;
+        double alpha = 1;
+        double omega = 1;
+        
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            double rhoNext = dot(shadow, r);
+            if (rhoNext == 0) {
+                return false;
+            }
+            double beta = (rhoNext / rho) * (alpha / omega);
+            rho = rhoNext;
+            for (int i = 0; i < n; i++) {
+                p[i] = r[i] + beta * (p[i] - omega * v[i]);
+            }
+            
+            preconditioner.apply(p, pHat);
+            operator.apply(pHat, v);
+            double projection = dot(shadow, v);
+            if (projection == 0) {
+                return false;
+            }
+            alpha = rho / projection;
+            for (int i = 0; i < n; i++) {
+                s[i] = r[i] - alpha * v[i];
+            }
+            double sNorm = norm(s) / bNorm;
+            if (sNorm < tolerance) {
+                axpy(alpha, pHat, x);
+                history.record(sNorm);
+                return true;
+            }
+            
+            preconditioner.apply(s, sHat);
+            operator.apply(sHat, t);
+            double tt = dot(t, t);
+            omega = tt == 0 ? 0 : dot(t, s) / tt;
+            for (int i = 0; i < n; i++) {
+                x[i] += alpha * pHat[i] + omega * sHat[i];
+                r[i] = s[i] - omega * t[i];
+            }
+            
+            residualNorm = norm(r) / bNorm;
+            history.record(residualNorm);
+            if (residualNorm < tolerance) {
+                return true;
+            }
+            if (omega == 0 || !Double.isFinite(residualNorm)) {
+                //breakdown, or the recurrences have lost all accuracy
+                return false;
+            }
+        }
+        return false;
+    }
+}
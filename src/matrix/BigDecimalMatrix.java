@@ -1,6 +1,7 @@
 package matrix;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -17,7 +18,9 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
     
     private final static Complex ONE = new Complex(1, 0);
     private final static Complex ZERO = new Complex(0, 0);
-    private final static BigDecimal ERROR = new BigDecimal(Math.pow(10, -5));
+    final static BigDecimal ERROR = new BigDecimal(Math.pow(10, -5));
+    // equals and hashCode round elements to this many decimal places, a grid of width ERROR
+    private final static int EQUALITY_SCALE = 5;
     private final static int RREF_INDEX = 0;
     private final static int INV_INDEX = 1;
     
@@ -73,12 +76,12 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
         numCols = entries.get(0).size();
     }
     
+    /**
+     * @param size positive number of rows and columns
+     * @return the identity, stored implicitly
+     */
     public static Matrix<BigDecimal> identity(int size) {
-        double[][] newMatrix = new double[size][size];
-        for (int i = 0; i < size; i++) {
-            newMatrix[i][i] = 1;
-        }
-        return new BigDecimalMatrix(newMatrix);
+        return new IdentityMatrix(size);
     }
     
     @Override
@@ -166,11 +169,21 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
             throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
         }
         
+        //structured, factored and blocked operands multiply through their own storage
+        if (matr instanceof RightFactor) {
+            return ((RightFactor)matr).multiplyLeft(this);
+        }
+        
+        //each column of matr is fetched once, not once per row
+        BigDecimal[][] columns = new BigDecimal[thatSize[1]][];
+        for (int column = 0; column < thatSize[1]; column++) {
+            columns[column] = matr.getColumn(column);
+        }
         BigDecimal[][] newMatrix = new BigDecimal[thisSize[0]][thatSize[1]];
         for (int row = 0; row < thisSize[0]; row++) {
             BigDecimal[] currentRow = matrix[row];
             for (int column = 0; column < thatSize[1]; column++) {
-                BigDecimal[] currentColumn = matr.getColumn(column);
+                BigDecimal[] currentColumn = columns[column];
                 BigDecimal dotProduct = BigDecimal.ZERO;
                 for (int i = 0; i < thisSize[1]; i++) {
                     BigDecimal partial = currentRow[i].multiply(currentColumn[i]);
@@ -183,6 +196,67 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
        return new BigDecimalMatrix(newMatrix);
     }
 
+    /**
+     * Product with a vector in double precision, each entry read straight from its
+     * BigDecimal and nothing kept, so a single product costs one pass over the matrix.
+     * Loops that multiply by the same matrix many times should convert it once through
+     * asOperator. Only this overload rounds: a Vector passed as a Matrix gets the
+     * BigDecimal product
+     * @param x vector of length n
+     * @return new vector A x
+     * @throws IncompatibleDimensionsException if x has the wrong length
+     */
+    public Vector multiply(Vector x) throws IncompatibleDimensionsException {
+        if (x.length() != numCols) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        double[] values = x.values();
+        double[] product = new double[numRows];
+        for (int row = 0; row < numRows; row++) {
+            BigDecimal[] currentRow = matrix[row];
+            double sum = 0;
+            for (int column = 0; column < numCols; column++) {
+                sum += currentRow[column].doubleValue() * values[column];
+            }
+            product[row] = sum;
+        }
+        return Vector.wrap(product);
+    }
+    
+    /**
+     * @param x vector of length m
+     * @return new vector A^T x, in double precision, converting entries as multiply(Vector)
+     * @throws IncompatibleDimensionsException if x has the wrong length
+     */
+    public Vector transposeMultiply(Vector x) throws IncompatibleDimensionsException {
+        if (x.length() != numRows) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        double[] values = x.values();
+        double[] product = new double[numCols];
+        for (int row = 0; row < numRows; row++) {
+            double factor = values[row];
+            if (factor == 0) {
+                continue;
+            }
+            BigDecimal[] currentRow = matrix[row];
+            for (int column = 0; column < numCols; column++) {
+                product[column] += factor * currentRow[column].doubleValue();
+            }
+        }
+        return Vector.wrap(product);
+    }
+    
+    /**
+     * View for iterative solvers and other loops of matrix-vector products: the entries
+     * are converted to doubles once, in a copy the caller holds for as long as it needs,
+     * and every product after that does no BigDecimal work
+     * @return operator applying this matrix in double precision
+     */
+    public DenseOperator asOperator() {
+        return new DenseOperator(this);
+    }
+    
     @Override
     public Matrix<BigDecimal> multiply(double element) {
         BigDecimal[][] newMatrix = new BigDecimal[matrix.length][matrix[0].length];
@@ -200,21 +274,13 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
 
     @Override
     public Matrix<BigDecimal> rref() {
-        return rrefAndPseudoInverse().get(RREF_INDEX);
+        return rrefAndPseudoInverse(false).get(RREF_INDEX);
     }
 
     @Override
     public int rank() {
-        int numNonzeroRows = 0;
-        Matrix<BigDecimal> ref = rref();
-        for (int row = 0; row < ref.size()[0]; row++) {
-            if (ref.rowNotZero(row)) {
-                numNonzeroRows += 1;
-            } else {
-                return numNonzeroRows;
-            }
-        }
-        return numNonzeroRows;
+        //numerical rank from the diagonal of a column-pivoted QR, robust to rounding unlike rref
+        return new QRDecomposition(this).rank();
     }
 
     @Override
@@ -248,7 +314,7 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
     
     /**
      * two matrices are considered equivalent if their dimensions are the same, and each element
-     * is equal up to an error of 10^(-15)
+     * is equal after rounding to a multiple of 10^(-5), see canonical
      * this and that must have both have BigDecimal elements
      */
     @Override
@@ -266,9 +332,7 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
         
         for (int i = 0; i < thisDim[0]; i++) {
             for (int j = 0; j < thisDim[1]; j++) {
-                BigDecimal thisElt = getElement(i, j);
-                BigDecimal thatElt = thatMat.getElement(i, j);
-                if (thisElt.subtract(thatElt).abs().compareTo(ERROR) == 1) {
+                if (!canonicalEquals(getElement(i, j), thatMat.getElement(i, j))) {
                     return false;
                 }
             }
@@ -276,17 +340,66 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
         return true;
     }
     
+    /**
+     * Hash of the dimensions and the canonical values of a sample of the elements, so equal
+     * matrices hash alike
+     */
     @Override
     public int hashCode() {
-        double sum = 0;
-        
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                sum += getElement(i, j).doubleValue();
+        return contentHash(this);
+    }
+    
+    /**
+     * Rounding every element to the nearest multiple of 10^(-5) (ties to even) makes equality
+     * transitive and lets hashCode agree with it. Elements within 10^(-5) of each other are
+     * usually, but not always, rounded alike
+     * @return value rounded to the grid used by equals
+     */
+    static BigDecimal canonical(BigDecimal value) {
+        return value.setScale(EQUALITY_SCALE, RoundingMode.HALF_EVEN);
+    }
+    
+    /**
+     * @return true iff first and second are equal elements in the sense of equals
+     */
+    static boolean canonicalEquals(BigDecimal first, BigDecimal second) {
+        return canonical(first).compareTo(canonical(second)) == 0;
+    }
+    
+    /**
+     * Shared by every Matrix<BigDecimal> type, so that equal matrices of different types hash
+     * alike; reads at most 16 x 16 elements, see MatrixHash.sample
+     * @return hash code of matrix consistent with equals
+     */
+    static int contentHash(Matrix<BigDecimal> matrix) {
+        int[] dimensions = matrix.size();
+        int[] rows = MatrixHash.sample(dimensions[0]);
+        int[] columns = MatrixHash.sample(dimensions[1]);
+        long hash = MatrixHash.mix(dimensions[0], dimensions[1]);
+        double[] buffer = new double[columns.length];
+        for (int row : rows) {
+            for (int k = 0; k < columns.length; k++) {
+                buffer[k] = canonical(matrix.getElement(row, columns[k])).doubleValue();
             }
+            hash = MatrixHash.fingerprint(buffer, hash);
         }
-        
-        return (int)sum % 10000;
+        return MatrixHash.fold(hash);
+    }
+    
+    /**
+     * @return row-major array of the double values of matrix, for the
+     *         double-precision routines shared by the Matrix<BigDecimal> types
+     */
+    static double[][] toArray(Matrix<BigDecimal> matrix) {
+        int[] dimensions = matrix.size();
+        double[][] entries = new double[dimensions[0]][dimensions[1]];
+        for (int i = 0; i < dimensions[0]; i++) {
+            BigDecimal[] row = matrix.getRow(i);
+            for (int j = 0; j < dimensions[1]; j++) {
+                entries[i][j] = row[j].doubleValue();
+            }
+        }
+        return entries;
     }
     
     @Override
@@ -354,39 +467,135 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
             throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
         }
         
-        return rrefAndPseudoInverse().get(INV_INDEX);
+        return rrefAndPseudoInverse(true).get(INV_INDEX);
     }
-
-    @Override
-    public Set<Matrix<BigDecimal>> nullspace() {
-        //perform same column operations on matrix and identity simultaneously, similarly to inverse
-        //any zero columns in augmented matrix correspond to columns in augmented id that are in nullspace of matrix
-        
-        //construct transpose of matrix
-        BigDecimalMatrix transpose = (BigDecimalMatrix)transpose();
-        
-        //find ref and inverse of transpose
-        List<Matrix<BigDecimal>> matrices = transpose.rrefAndPseudoInverse();
-        Matrix<BigDecimal> rref = matrices.get(RREF_INDEX);
-        Matrix<BigDecimal> inverse = matrices.get(INV_INDEX);
-        
-        int[] dimensions = rref.size();
-        
-        //any zero rows in ref correspond to the transpose of nullspace vectors in inverse
-        Set<Matrix<BigDecimal>> nullspace = new HashSet<>();
-        for (int row = 0; row < dimensions[1]; row++) {
-            if (!rref.rowNotZero(row)) {
-                BigDecimal[] nullArr = inverse.getRow(row);
-                BigDecimal[][] colArr = new BigDecimal[dimensions[1]][1];
-                for (int columnIndex = 0; columnIndex < dimensions[1]; columnIndex++) {
-                    colArr[columnIndex][0] = nullArr[columnIndex];
+    
+    /**
+     * Moore-Penrose pseudo-inverse, defined for every matrix including singular and non-square ones
+     * @return n x m matrix X minimizing the 2-norm of AX - I, computed from the singular value decomposition
+     */
+    public Matrix<BigDecimal> pseudoInverse() {
+        return new SingularValueDecomposition(this).pseudoInverse();
+    }
+    
+    /**
+     * @return 2-norm condition number, ratio of largest to smallest singular value,
+     *         infinite for rank-deficient matrices
+     */
+    public double conditionNumber() {
+        return new SingularValueDecomposition(this).conditionNumber();
+    }
+    
+    /**
+     * Cholesky factorization, for solving, inverting and taking log-determinants of
+     * symmetric positive-definite matrices at half the cost of elimination
+     * @return factorization A = L L^T
+     * @throws IncompatibleDimensionsException if matrix is not square or not symmetric
+     * @throws ArithmeticException if matrix is not positive definite
+     */
+    public CholeskyDecomposition cholesky() {
+        return new CholeskyDecomposition(this);
+    }
+    
+    /**
+     * @return true iff matrix is symmetric positive definite
+     */
+    public boolean isPositiveDefinite() {
+        return CholeskyDecomposition.isPositiveDefinite(this);
+    }
+    
+    /**
+     * Power by binary exponentiation, in O(log k) products; exact when every entry is an
+     * integer, as for the adjacency matrices of graphs, and in double precision otherwise
+     * @param k nonnegative exponent
+     * @return this^k, the identity for k = 0
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws IllegalArgumentException if k is negative
+     */
+    public Matrix<BigDecimal> pow(int k) {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Power not defined for non-square matrix");
+        }
+        if (k < 0) {
+            throw new IllegalArgumentException("Exponent must be nonnegative");
+        }
+        
+        long[][] integers = new long[numRows][numCols];
+        for (int row = 0; row < numRows; row++) {
+            for (int column = 0; column < numCols; column++) {
+                BigDecimal element = matrix[row][column];
+                if (element.signum() != 0 && element.stripTrailingZeros().scale() > 0) {
+                    return new BigDecimalMatrix(MatrixPower.pow(toArray(this), k));
+                }
+                if (element.abs().compareTo(new BigDecimal(Long.MAX_VALUE)) > 0) {
+                    return exactPower(k);
                 }
-                Matrix<BigDecimal> columnVec = new BigDecimalMatrix(colArr);
-                nullspace.add(columnVec);
+                integers[row][column] = element.longValueExact();
             }
         }
         
-        return nullspace;
+        long[][] power;
+        try {
+            power = MatrixPower.pow(integers, k);
+        } catch (ArithmeticException overflow) {
+            return exactPower(k);
+        }
+        BigDecimal[][] newMatrix = new BigDecimal[numRows][numCols];
+        for (int row = 0; row < numRows; row++) {
+            for (int column = 0; column < numCols; column++) {
+                newMatrix[row][column] = BigDecimal.valueOf(power[row][column]);
+            }
+        }
+        return new BigDecimalMatrix(newMatrix);
+    }
+    
+    /**
+     * Matrix exponential by Pade approximation with scaling and squaring; to evaluate
+     * e^(tA) at many times t, use a MatrixExponential, which keeps the powers of A
+     * @return e^A
+     * @throws IncompatibleDimensionsException if matrix is not square
+     */
+    public Matrix<BigDecimal> exponential() {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Exponential not defined for non-square matrix");
+        }
+        return new MatrixExponential(this).exponential();
+    }
+    
+    /**
+     * @return principal logarithm X, the real matrix with e^X = A whose eigenvalues
+     *         have imaginary parts in (-pi, pi)
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws ArithmeticException if matrix has an eigenvalue that is zero or negative
+     */
+    public Matrix<BigDecimal> logarithm() {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Logarithm not defined for non-square matrix");
+        }
+        return new BigDecimalMatrix(MatrixFunctions.logarithm(toArray(this)));
+    }
+    
+    /**
+     * @return principal square root X, the real matrix with X^2 = A whose eigenvalues
+     *         have nonnegative real parts
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws ArithmeticException if matrix has a negative eigenvalue or a repeated zero
+     *         eigenvalue that prevents a principal square root
+     */
+    public Matrix<BigDecimal> squareRoot() {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Square root not defined for non-square matrix");
+        }
+        return new BigDecimalMatrix(MatrixFunctions.squareRoot(toArray(this)));
+    }
+
+    /**
+     * Orthonormal basis from a column-pivoted QR decomposition, with the same tolerance as
+     * rank(), so that the basis always has nullity() vectors
+     */
+    @Override
+    public Set<Matrix<BigDecimal>> nullspace() {
+        return new QRDecomposition(this).nullspaceBasis();
     }
     
     @Override
@@ -419,7 +628,7 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
             throw new IncompatibleDimensionsException("Unable to stack due to different number of columns");
         }
         
-        BigDecimal[][] newMatrix = new BigDecimal[thisDims[0] + thatDims[1]][numCols];
+        BigDecimal[][] newMatrix = new BigDecimal[thisDims[0] + thatDims[0]][numCols];
         for (int i = 0; i < numRows; i++) {
             BigDecimal[] currentRow = this.getRow(i);
             newMatrix[i] = currentRow;
@@ -463,7 +672,8 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
             }
         }
         
-        Polynomial<Complex> determinant = BigDecimalMatrix.determinantFromArray(polyGrid);
+        //interpolate on a circle sized to the spectrum so every coefficient is resolved
+        Polynomial<Complex> determinant = new PolynomialMatrix(polyGrid).determinant(spectralRadiusBound());
         
         return determinant.zeroes((int)-Math.log(ERROR.doubleValue()));
     }
@@ -473,6 +683,10 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
         Map<Complex, Set<Matrix<Complex>>> mapping = new HashMap<>();
         Complex[] eigenvalues = this.eigenvalues();
         for (Complex ev: eigenvalues) {
+            //repeated roots come back identical, so each eigenspace is only computed once
+            if (mapping.containsKey(ev)) {
+                continue;
+            }
             Set<Matrix<Complex>> eigenvectors = this.eigenvectors(ev);
             mapping.put(ev, eigenvectors);
         }
@@ -517,61 +731,19 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
     }
     
     /**
-     * Returns minor two-dimensional array (must be square)
-     * @param grid two-dimensional array of complex polynomials
-     * @param row row index
-     * @param column column index
-     * @return two-dimensional grid representing minor matrix
-     * @throws ArrayIndexOutOfBoundsException if indices not in range 
+     * Every eigenvalue lies within the largest absolute row sum (infinity norm)
+     * @return a positive upper bound on the magnitude of the eigenvalues of this
      */
-    private static Polynomial<Complex>[][] minorFromArray(Polynomial<Complex>[][] grid, int row, int column)
-                                                    throws ArrayIndexOutOfBoundsException {
-        List<List<Polynomial<Complex>>> newGrid = new ArrayList<>();
-        for (int rowIndex = 0; rowIndex < grid.length; rowIndex++) {
-            if (rowIndex != row) {
-                List<Polynomial<Complex>> newRow = new ArrayList<>();
-                for (int colIndex = 0; colIndex < grid.length; colIndex++) {
-                    if (colIndex != column) {
-                        newRow.add(grid[rowIndex][colIndex]);
-                    }
-                }
-                newGrid.add(newRow);
-            }
-        }
-
-        Polynomial<Complex>[][] minorArray = new ComplexPoly[grid.length - 1][grid.length - 1];
-        for (int i = 0; i < newGrid.size(); i++) {
-            List<Polynomial<Complex>> currentRow = newGrid.get(i);
-            for (int j = 0; j < newGrid.size(); j++) {
-                minorArray[i][j] = currentRow.get(j);
+    private double spectralRadiusBound() {
+        double bound = 0;
+        for (int i = 0; i < numRows; i++) {
+            double rowSum = 0;
+            for (int j = 0; j < numCols; j++) {
+                rowSum += matrix[i][j].abs().doubleValue();
             }
+            bound = Math.max(bound, rowSum);
         }
-
-        return minorArray;
-    }
-    
-    /**
-     * Calculate the determinant of a two-dimensional array
-     * @param grid two-dimensional array representation of a matrix (must be square)
-     * @return determinant of two-dimensional grid
-     */
-    private static Polynomial<Complex> determinantFromArray(Polynomial<Complex>[][] grid) {
-        if (grid.length == 1) {
-            return grid[0][0];
-        }
-        
-        Polynomial<Complex>[] firstRow = grid[0];
-        Polynomial<Complex> determinant = new ComplexPoly(ZERO);
-        for (int i = 0; i < grid.length; i++) {
-            Polynomial<Complex> cofactor = firstRow[i];
-            double sign = Math.pow(-1, i);
-            
-            Polynomial<Complex>[][] minor = BigDecimalMatrix.minorFromArray(grid, 0, i);
-            Polynomial<Complex> minorDet = BigDecimalMatrix.determinantFromArray(minor);
-            determinant = determinant.add(cofactor.mult(minorDet).mult(sign));
-        }
-        
-        return determinant;
+        return bound > 0 ? bound : 1;
     }
     
     private Matrix<Complex> convertToComplex() {
@@ -587,16 +759,35 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
         return new ComplexMatrix(newGrid);
     }
     
+    /**
+     * Binary exponentiation in BigDecimal arithmetic, for integer entries whose powers
+     * overflow a long
+     */
+    private Matrix<BigDecimal> exactPower(int k) {
+        Matrix<BigDecimal> result = identity(numRows);
+        Matrix<BigDecimal> base = this;
+        for (int remaining = k; remaining > 0; remaining >>= 1) {
+            if ((remaining & 1) == 1) {
+                result = result.multiply(base);
+            }
+            if (remaining > 1) {
+                base = base.multiply(base);
+            }
+        }
+        return result;
+    }
+    
     /**
      * while reducing matrix A to rref, perform all necessary row operations on identity matrix I
      * @return an two-element list of Matrix objects
      *          the first element is A in rref, while the second element is the result of performing
-     *          the same row operations on I
+     *          the same row operations on I, or null if not tracked
+     * @param track false to skip the operations on I when only the rref is needed
      */
-    private List<Matrix<BigDecimal>> rrefAndPseudoInverse() {
+    private List<Matrix<BigDecimal>> rrefAndPseudoInverse(boolean track) {
         //perform same operations as ref, while copying row operations to identity matrix of same size
-        BigDecimal[][] id = new BigDecimal[numRows][numCols];
-        for (int i = 0; i < numRows; i++) {
+        BigDecimal[][] id = track ? new BigDecimal[numRows][numCols] : null;
+        for (int i = 0; track && i < numRows; i++) {
             for (int j = 0; j < numCols; j++) {
                 if (i == j) {
                     id[i][j] = BigDecimal.ONE;
@@ -630,13 +821,15 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
             }
             
             //retrieve same information from id matrix
-            BigDecimal[] idRow = id[index];
+            BigDecimal[] idRow = track ? id[index] : null;
             
             //simplify row so that first element is 1
             BigDecimal criticalElt = valueCheck;
             for (int j = 0; j < lowestRow.length; j++) {
                 lowestRow[j] = new BigDecimal(lowestRow[j].doubleValue() / criticalElt.doubleValue());
-                idRow[j] = new BigDecimal(idRow[j].doubleValue() / criticalElt.doubleValue());
+                if (track) {
+                    idRow[j] = new BigDecimal(idRow[j].doubleValue() / criticalElt.doubleValue());
+                }
             }
             
             //use simplified row to reduce rest of matrix
@@ -645,6 +838,13 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
                     BigDecimal[] rowToBeReduced = newMatrix[row];
                     BigDecimal entryFactor = rowToBeReduced[columnCheck];
                     
+                    for (int j = 0; j < numCols; j++) {
+                        rowToBeReduced[j] = rowToBeReduced[j].subtract(entryFactor.multiply(lowestRow[j]));
+                    }
+                    if (!track) {
+                        continue;
+                    }
+                    
                     BigDecimal[] idTBR = new BigDecimal[numCols];
                     for (int zero = 0; zero < numCols; zero++) {
                         idTBR[zero] = BigDecimal.ZERO;
@@ -654,7 +854,6 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
                     }
                     
                     for (int j = 0; j < numCols; j++) {
-                        rowToBeReduced[j] = rowToBeReduced[j].subtract(entryFactor.multiply(lowestRow[j]));
                         idTBR[j] = idTBR[j].subtract(entryFactor.multiply(idRow[j]));
                     }
                 }
@@ -665,9 +864,11 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
             newMatrix[columnCheck] = lowestRow;
             newMatrix[index] = tmp;
             
-            BigDecimal[] idTmp = id[columnCheck];
-            id[columnCheck] = idRow;
-            id[index] = idTmp;
+            if (track) {
+                BigDecimal[] idTmp = id[columnCheck];
+                id[columnCheck] = idRow;
+                id[index] = idTmp;
+            }
         }
         
         //move all zero rows to the bottom of the matrix
@@ -679,7 +880,7 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
                     newMatrix[j + 1] = newMatrix[j];
                     newMatrix[j] = tmp;
                     
-                    if (j < numCols) {
+                    if (track && j < numCols) {
                         BigDecimal[] idTmp = id[j + 1];
                         id[j + 1] = id[j];
                         id[j] = idTmp;
@@ -689,7 +890,7 @@ public class BigDecimalMatrix implements Matrix<BigDecimal> {
         }
         
         Matrix<BigDecimal> rref = new BigDecimalMatrix(newMatrix);
-        Matrix<BigDecimal> pseudoId = new BigDecimalMatrix(id);
+        Matrix<BigDecimal> pseudoId = track ? new BigDecimalMatrix(id) : null;
         List<Matrix<BigDecimal>> output = new ArrayList<>(Arrays.asList(rref, pseudoId));
         return output;
     }
@@ -0,0 +1,664 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Matrix over GF(2), the field {0, 1} in which addition is XOR and multiplication is AND,
+ * for rank, nullspace and the other linear algebra of binary codes. Entries are packed 64
+ * to a long: row i is words [i * words, (i + 1) * words) of bits, column j is bit j % 64
+ * of word j / 64 of its row, and the bits past the last column are kept zero. Adding one
+ * row to another is then one XOR per 64 entries.
+ *
+ * Products and elimination use the Method of Four Russians. A product X Y takes the rows
+ * of Y GROUP at a time, tabulates all 2^GROUP sums of the group, and adds a single table
+ * row into each row of the product, the one selected by the GROUP matching bits of the
+ * row of X (M4RM). Elimination finds up to GROUP pivots at a time, reduces them against
+ * each other, tabulates all sums of the pivot rows, and clears the pivot columns of every
+ * other row with one lookup and one row XOR (M4RI). Both take O(n^3 / (64 GROUP)) word
+ * operations for n x n matrices, where BigDecimalMatrix takes n^3 operations on entries
+ * and works over the reals rather than modulo 2.
+ */
+
+public class BitMatrix implements Matrix<Boolean> {
+    
+    // rows tabulated together by the Four Russians methods; divides 64, so a group never spans two words
+    private final static int GROUP = 8;
+    
+    private final int numRows;
+    private final int numCols;
+    // words per row
+    private final int words;
+    private final long[] bits;
+    
+    /**
+     * Zero matrix
+     * @throws IncompatibleDimensionsException if rows or columns is not positive
+     */
+    public BitMatrix(int rows, int columns) {
+        if (rows < 1 || columns < 1) {
+            throw new IncompatibleDimensionsException("Matrix must have at least one row and one column");
+        }
+        numRows = rows;
+        numCols = columns;
+        words = (columns + 63) >>> 6;
+        bits = new long[rows * words];
+    }
+    
+    /**
+     * @param bits packed rows as described above, not copied
+     */
+    BitMatrix(int rows, int columns, long[] bits) {
+        numRows = rows;
+        numCols = columns;
+        words = (columns + 63) >>> 6;
+        this.bits = bits;
+    }
+    
+    /**
+     * @param entries rectangular array of integers, each taken modulo 2
+     * @throws IncompatibleDimensionsException if entries is empty or not rectangular
+     */
+    public BitMatrix(int[][] entries) {
+        this(entries.length, entries.length == 0 ? 0 : entries[0].length);
+        for (int i = 0; i < numRows; i++) {
+            if (entries[i].length != numCols) {
+                throw new IncompatibleDimensionsException("Rows must all have the same length");
+            }
+            for (int j = 0; j < numCols; j++) {
+                if ((entries[i][j] & 1) != 0) {
+                    bits[i * words + (j >>> 6)] |= 1L << (j & 63);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @param entries rectangular array, true for 1
+     * @throws IncompatibleDimensionsException if entries is empty or not rectangular
+     */
+    public BitMatrix(boolean[][] entries) {
+        this(entries.length, entries.length == 0 ? 0 : entries[0].length);
+        for (int i = 0; i < numRows; i++) {
+            if (entries[i].length != numCols) {
+                throw new IncompatibleDimensionsException("Rows must all have the same length");
+            }
+            for (int j = 0; j < numCols; j++) {
+                if (entries[i][j]) {
+                    bits[i * words + (j >>> 6)] |= 1L << (j & 63);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @param matrix matrix of integers, each taken modulo 2
+     * @throws IllegalArgumentException if an entry is not an integer
+     */
+    public BitMatrix(Matrix<BigDecimal> matrix) {
+        this(matrix.size()[0], matrix.size()[1]);
+        for (int i = 0; i < numRows; i++) {
+            BigDecimal[] row = matrix.getRow(i);
+            for (int j = 0; j < numCols; j++) {
+                BigInteger value;
+                try {
+                    value = row[j].toBigIntegerExact();
+                } catch (ArithmeticException ex) {
+                    throw new IllegalArgumentException("Entry (" + i + ", " + j + ") is not an integer");
+                }
+                if (value.testBit(0)) {
+                    bits[i * words + (j >>> 6)] |= 1L << (j & 63);
+                }
+            }
+        }
+    }
+    
+    public static BitMatrix identity(int size) {
+        BitMatrix identity = new BitMatrix(size, size);
+        for (int i = 0; i < size; i++) {
+            identity.bits[i * identity.words + (i >>> 6)] = 1L << (i & 63);
+        }
+        return identity;
+    }
+    
+    /**
+     * @return matr as a BitMatrix, itself if it is one
+     */
+    private static BitMatrix toBits(Matrix<Boolean> matr) {
+        if (matr instanceof BitMatrix) {
+            return (BitMatrix)matr;
+        }
+        int[] dimensions = matr.size();
+        BitMatrix converted = new BitMatrix(dimensions[0], dimensions[1]);
+        for (int i = 0; i < dimensions[0]; i++) {
+            Boolean[] row = matr.getRow(i);
+            for (int j = 0; j < dimensions[1]; j++) {
+                if (row[j]) {
+                    converted.bits[i * converted.words + (j >>> 6)] |= 1L << (j & 63);
+                }
+            }
+        }
+        return converted;
+    }
+    
+    /**
+     * @return entry (row, column), true for 1
+     * @throws IndexOutOfBoundsException if row or column is out of range
+     */
+    public boolean get(int row, int column) {
+        if (row < 0 || row >= numRows || column < 0 || column >= numCols) {
+            throw new IndexOutOfBoundsException("Location out of bounds");
+        }
+        return bit(bits, row * words, column);
+    }
+    
+    private static boolean bit(long[] a, int rowStart, int column) {
+        return (a[rowStart + (column >>> 6)] & (1L << (column & 63))) != 0;
+    }
+    
+    /**
+     * a[to .. to + length) ^= b[from .. from + length)
+     */
+    private static void xorWords(long[] a, int to, long[] b, int from, int length) {
+        for (int w = 0; w < length; w++) {
+            a[to + w] ^= b[from + w];
+        }
+    }
+    
+    private static void swapRows(long[] a, int first, int second, int words) {
+        if (first != second) {
+            for (int w = 0; w < words; w++) {
+                long temp = a[first * words + w];
+                a[first * words + w] = a[second * words + w];
+                a[second * words + w] = temp;
+            }
+        }
+    }
+    
+    @Override
+    public Boolean getElement(int row, int column) throws IndexOutOfBoundsException {
+        return get(row, column);
+    }
+    
+    @Override
+    public int[] size() {
+        int[] dimensions = {numRows, numCols};
+        return dimensions;
+    }
+    
+    @Override
+    public Boolean[] getRow(int row) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= numRows) {
+            throw new IndexOutOfBoundsException("Row index out of bounds");
+        }
+        Boolean[] values = new Boolean[numCols];
+        for (int j = 0; j < numCols; j++) {
+            values[j] = bit(bits, row * words, j);
+        }
+        return values;
+    }
+    
+    @Override
+    public Boolean[] getColumn(int column) throws IndexOutOfBoundsException {
+        if (column < 0 || column >= numCols) {
+            throw new IndexOutOfBoundsException("Column index out of bounds");
+        }
+        Boolean[] values = new Boolean[numRows];
+        for (int i = 0; i < numRows; i++) {
+            values[i] = bit(bits, i * words, column);
+        }
+        return values;
+    }
+    
+    /**
+     * @return this + matr, entrywise XOR
+     */
+    @Override
+    public BitMatrix add(Matrix<Boolean> matr) throws IncompatibleDimensionsException {
+        BitMatrix that = toBits(matr);
+        if (numRows != that.numRows || numCols != that.numCols) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for addition");
+        }
+        long[] sum = bits.clone();
+        xorWords(sum, 0, that.bits, 0, sum.length);
+        return new BitMatrix(numRows, numCols, sum);
+    }
+    
+    /**
+     * @return this - matr, which over GF(2) is this + matr
+     */
+    @Override
+    public BitMatrix subtract(Matrix<Boolean> matr) throws IncompatibleDimensionsException {
+        return add(matr);
+    }
+    
+    /**
+     * Product over GF(2) by the Method of Four Russians (M4RM)
+     */
+    @Override
+    public BitMatrix multiply(Matrix<Boolean> matr) throws IncompatibleDimensionsException {
+        BitMatrix that = toBits(matr);
+        if (numCols != that.numRows) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        int outWords = that.words;
+        long[] product = new long[numRows * outWords];
+        long[] table = new long[(1 << GROUP) * outWords];
+        for (int g = 0; g < numCols; g += GROUP) {
+            int width = Math.min(GROUP, numCols - g);
+            //table row s is the sum of the rows g + t of that for the bits t set in s
+            for (int s = 1; s < (1 << width); s++) {
+                int previous = s & (s - 1);
+                int row = g + Integer.numberOfTrailingZeros(s);
+                for (int w = 0; w < outWords; w++) {
+                    table[s * outWords + w] = table[previous * outWords + w] ^ that.bits[row * outWords + w];
+                }
+            }
+            int word = g >>> 6;
+            int shift = g & 63;
+            int mask = (1 << width) - 1;
+            for (int i = 0; i < numRows; i++) {
+                int s = (int)(bits[i * words + word] >>> shift) & mask;
+                if (s != 0) {
+                    xorWords(product, i * outWords, table, s * outWords, outWords);
+                }
+            }
+        }
+        return new BitMatrix(numRows, that.numCols, product);
+    }
+    
+    /**
+     * @param element an integer, taken modulo 2
+     * @return this if element is odd, the zero matrix if it is even
+     * @throws IllegalArgumentException if element is not an integer
+     */
+    @Override
+    public BitMatrix multiply(double element) {
+        if (Double.isInfinite(element) || element != Math.rint(element)) {
+            throw new IllegalArgumentException("Scalar must be an integer");
+        }
+        if (element % 2 == 0) {
+            return new BitMatrix(numRows, numCols);
+        }
+        return new BitMatrix(numRows, numCols, bits.clone());
+    }
+    
+    /**
+     * Row reduce a, a rows x columns matrix packed as in this class, in place by the Method
+     * of Four Russians (M4RI)
+     * @param reduced true to clear each pivot column above its pivot as well as below it,
+     *        giving reduced row echelon form
+     * @param pivots receives the pivot column of each nonzero row of the result, may be null
+     * @return rank
+     */
+    private static int eliminate(long[] a, int rows, int columns, boolean reduced, int[] pivots) {
+        int words = (columns + 63) >>> 6;
+        long[] table = new long[(1 << GROUP) * words];
+        int[] group = new int[GROUP];
+        int rank = 0;
+        int column = 0;
+        while (column < columns && rank < rows) {
+            //find up to GROUP pivots, reducing each row searched against those already found
+            int found = 0;
+            for (; column < columns && found < GROUP && rank + found < rows; column++) {
+                for (int r = rank + found; r < rows; r++) {
+                    for (int t = 0; t < found; t++) {
+                        if (bit(a, r * words, group[t])) {
+                            xorWords(a, r * words, a, (rank + t) * words, words);
+                        }
+                    }
+                    if (bit(a, r * words, column)) {
+                        int pivotRow = rank + found;
+                        swapRows(a, r, pivotRow, words);
+                        //the pivot rows of a group are kept reduced against each other
+                        for (int t = 0; t < found; t++) {
+                            if (bit(a, (rank + t) * words, column)) {
+                                xorWords(a, (rank + t) * words, a, pivotRow * words, words);
+                            }
+                        }
+                        group[found++] = column;
+                        break;
+                    }
+                }
+            }
+            if (found == 0) {
+                break;
+            }
+            //rows from rank down are zero before the group's first pivot, so sums start at its word
+            int first = group[0] >>> 6;
+            int span = words - first;
+            for (int s = 1; s < (1 << found); s++) {
+                int previous = s & (s - 1);
+                int row = rank + Integer.numberOfTrailingZeros(s);
+                for (int w = first; w < words; w++) {
+                    table[s * words + w] = table[previous * words + w] ^ a[row * words + w];
+                }
+            }
+            //when the pivot columns are consecutive, as they mostly are, the index is read with one shift
+            boolean consecutive = group[found - 1] - group[0] == found - 1;
+            int shift = group[0] & 63;
+            int mask = (1 << found) - 1;
+            for (int r = reduced ? 0 : rank + found; r < rows; r++) {
+                if (r == rank) {
+                    r += found - 1;
+                    continue;
+                }
+                int s = 0;
+                if (consecutive) {
+                    long low = a[r * words + first] >>> shift;
+                    if (shift + found > 64) {
+                        low |= a[r * words + first + 1] << (64 - shift);
+                    }
+                    s = (int)low & mask;
+                } else {
+                    for (int t = 0; t < found; t++) {
+                        if (bit(a, r * words, group[t])) {
+                            s |= 1 << t;
+                        }
+                    }
+                }
+                if (s != 0) {
+                    xorWords(a, r * words + first, table, s * words + first, span);
+                }
+            }
+            if (pivots != null) {
+                System.arraycopy(group, 0, pivots, rank, found);
+            }
+            rank += found;
+        }
+        return rank;
+    }
+    
+    /**
+     * @return reduced row echelon form over GF(2)
+     */
+    @Override
+    public BitMatrix rref() {
+        long[] reduced = bits.clone();
+        eliminate(reduced, numRows, numCols, true, null);
+        return new BitMatrix(numRows, numCols, reduced);
+    }
+    
+    /**
+     * @return true if this is invertible over GF(2), the determinant modulo 2
+     */
+    @Override
+    public Boolean determinant() throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Determinant not defined for non-square matrix");
+        }
+        return rank() == numRows;
+    }
+    
+    @Override
+    public BitMatrix minor(int row, int column) throws IndexOutOfBoundsException, IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Matrix needs to be square");
+        }
+        if (row >= numRows || column >= numCols || row < 0 || column < 0) {
+            throw new IndexOutOfBoundsException("Indices out of range");
+        }
+        if (numRows == 1) {
+            throw new IncompatibleDimensionsException("Minor not defined for 1 x 1 matrix");
+        }
+        BitMatrix minor = new BitMatrix(numRows - 1, numCols - 1);
+        int word = column >>> 6;
+        long below = (1L << (column & 63)) - 1;
+        int target = 0;
+        for (int i = 0; i < numRows; i++) {
+            if (i != row) {
+                int from = i * words;
+                int to = target * minor.words;
+                //words before the column's are unchanged, later bits move down by one
+                System.arraycopy(bits, from, minor.bits, to, Math.min(word, minor.words));
+                for (int w = word; w < minor.words; w++) {
+                    long next = w + 1 < words ? bits[from + w + 1] : 0;
+                    long shifted = (bits[from + w] >>> 1) | (next << 63);
+                    minor.bits[to + w] = w == word ? (bits[from + w] & below) | (shifted & ~below) : shifted;
+                }
+                if ((numCols - 1) % 64 != 0) {
+                    minor.bits[to + minor.words - 1] &= (1L << ((numCols - 1) & 63)) - 1;
+                }
+                target++;
+            }
+        }
+        return minor;
+    }
+    
+    @Override
+    public int rank() {
+        return eliminate(bits.clone(), numRows, numCols, false, null);
+    }
+    
+    @Override
+    public int nullity() {
+        return numCols - rank();
+    }
+    
+    /**
+     * Gauss-Jordan elimination of [A | I] over GF(2), with I starting on a word boundary
+     */
+    @Override
+    public BitMatrix inverse() throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Inverse not defined for non-square matrix");
+        }
+        int n = numRows;
+        int augmentedWords = 2 * words;
+        long[] augmented = new long[n * augmentedWords];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(bits, i * words, augmented, i * augmentedWords, words);
+            augmented[i * augmentedWords + words + (i >>> 6)] = 1L << (i & 63);
+        }
+        int[] pivots = new int[n];
+        int rank = eliminate(augmented, n, 64 * words + n, true, pivots);
+        //the padding columns are zero, so a pivot past column n - 1 means A is singular
+        if (rank < n || pivots[n - 1] != n - 1) {
+            throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+        }
+        long[] inverse = new long[n * words];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(augmented, i * augmentedWords + words, inverse, i * words, words);
+        }
+        return new BitMatrix(n, n, inverse);
+    }
+    
+    /**
+     * @return a basis of the nullspace over GF(2), one vector per free column of the
+     *         reduced row echelon form, as BitMatrix columns
+     */
+    @Override
+    public Set<Matrix<Boolean>> nullspace() {
+        long[] reduced = bits.clone();
+        int[] pivots = new int[Math.min(numRows, numCols)];
+        int rank = eliminate(reduced, numRows, numCols, true, pivots);
+        boolean[] isPivot = new boolean[numCols];
+        for (int t = 0; t < rank; t++) {
+            isPivot[pivots[t]] = true;
+        }
+        Set<Matrix<Boolean>> nullspace = new HashSet<>();
+        for (int free = 0; free < numCols; free++) {
+            if (!isPivot[free]) {
+                BitMatrix vector = new BitMatrix(numCols, 1);
+                vector.bits[free] = 1;
+                for (int t = 0; t < rank; t++) {
+                    if (bit(reduced, t * words, free)) {
+                        vector.bits[pivots[t]] = 1;
+                    }
+                }
+                nullspace.add(vector);
+            }
+        }
+        return nullspace;
+    }
+    
+    /**
+     * Transposes 64 x 64 blocks in registers by swapping ever smaller off-diagonal quarters
+     */
+    @Override
+    public BitMatrix transpose() {
+        BitMatrix transpose = new BitMatrix(numCols, numRows);
+        long[] block = new long[64];
+        for (int rowBlock = 0; rowBlock < numRows; rowBlock += 64) {
+            int height = Math.min(64, numRows - rowBlock);
+            for (int w = 0; w < words; w++) {
+                for (int r = 0; r < 64; r++) {
+                    block[r] = r < height ? bits[(rowBlock + r) * words + w] : 0;
+                }
+                transpose64(block);
+                int width = Math.min(64, numCols - 64 * w);
+                for (int c = 0; c < width; c++) {
+                    transpose.bits[(64 * w + c) * transpose.words + (rowBlock >>> 6)] = block[c];
+                }
+            }
+        }
+        return transpose;
+    }
+    
+    /**
+     * Transpose in place the 64 x 64 block whose row r is a[r], column c being bit c
+     */
+    private static void transpose64(long[] a) {
+        long mask = 0x00000000FFFFFFFFL;
+        for (int j = 32; j != 0; j >>>= 1, mask ^= mask << j) {
+            for (int k = 0; k < 64; k = ((k | j) + 1) & ~j) {
+                long swap = ((a[k] >>> j) ^ a[k | j]) & mask;
+                a[k] ^= swap << j;
+                a[k | j] ^= swap;
+            }
+        }
+    }
+    
+    /**
+     * @return the eigenvalues that lie in GF(2), each once: 0 if this is singular and 1 if
+     *         this + I is, as Complex numbers
+     */
+    @Override
+    public Complex[] eigenvalues() throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Eigenvalues not defined for non-square matrix");
+        }
+        boolean zero = rank() < numRows;
+        boolean one = add(identity(numRows)).rank() < numRows;
+        Complex[] eigenvalues = new Complex[(zero ? 1 : 0) + (one ? 1 : 0)];
+        if (zero) {
+            eigenvalues[0] = new Complex(0, 0);
+        }
+        if (one) {
+            eigenvalues[eigenvalues.length - 1] = new Complex(1, 0);
+        }
+        return eigenvalues;
+    }
+    
+    @Override
+    public Map<Complex, Set<Matrix<Complex>>> eigenMap() throws IncompatibleDimensionsException {
+        Map<Complex, Set<Matrix<Complex>>> eigenMap = new HashMap<>();
+        for (Complex eigenvalue : eigenvalues()) {
+            eigenMap.put(eigenvalue, eigenvectors(eigenvalue));
+        }
+        return eigenMap;
+    }
+    
+    /**
+     * @param eigenvalue 0 or 1
+     * @return a basis over GF(2) of the eigenspace, as columns of 0s and 1s
+     * @throws IllegalArgumentException if eigenvalue is not 0 or 1
+     */
+    @Override
+    public Set<Matrix<Complex>> eigenvectors(Complex eigenvalue) throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Matrix must be square");
+        }
+        if (eigenvalue.getImag() != 0 || (eigenvalue.getReal() != 0 && eigenvalue.getReal() != 1)) {
+            throw new IllegalArgumentException("Eigenvalues over GF(2) are 0 or 1");
+        }
+        BitMatrix shifted = eigenvalue.getReal() == 0 ? this : add(identity(numRows));
+        Set<Matrix<Complex>> eigenvectors = new HashSet<>();
+        for (Matrix<Boolean> vector : shifted.nullspace()) {
+            Complex[][] column = new Complex[numRows][1];
+            for (int i = 0; i < numRows; i++) {
+                column[i][0] = new Complex(vector.getElement(i, 0) ? 1 : 0, 0);
+            }
+            eigenvectors.add(new ComplexMatrix(column));
+        }
+        return eigenvectors;
+    }
+    
+    @Override
+    public boolean rowNotZero(int row) {
+        for (int w = 0; w < words; w++) {
+            if (bits[row * words + w] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public BitMatrix stack(Matrix<Boolean> bottom) throws IncompatibleDimensionsException {
+        BitMatrix that = toBits(bottom);
+        if (numCols != that.numCols) {
+            throw new IncompatibleDimensionsException("Unable to stack due to different number of columns");
+        }
+        long[] stacked = Arrays.copyOf(bits, bits.length + that.bits.length);
+        System.arraycopy(that.bits, 0, stacked, bits.length, that.bits.length);
+        return new BitMatrix(numRows + that.numRows, numCols, stacked);
+    }
+    
+    /**
+     * 1 0 1
+     * 0 1 1
+     */
+    @Override
+    public String toString() {
+        StringBuilder grid = new StringBuilder();
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numCols; j++) {
+                grid.append(bit(bits, i * words, j) ? '1' : '0');
+                grid.append(j == numCols - 1 ? '\n' : '\t');
+            }
+        }
+        return grid.toString();
+    }
+    
+    /**
+     * two matrices are equal if they have the same dimensions and the same entries; that
+     * must have Boolean elements
+     */
+    @Override
+    public boolean equals(Object that) {
+        if (that instanceof BitMatrix) {
+            BitMatrix thatMatrix = (BitMatrix)that;
+            return numRows == thatMatrix.numRows && numCols == thatMatrix.numCols
+                    && Arrays.equals(bits, thatMatrix.bits);
+        }
+        if (!(that instanceof Matrix)) return false;
+        Matrix<?> thatMatrix = (Matrix<?>)that;
+        int[] thatDim = thatMatrix.size();
+        if (numRows != thatDim[0] || numCols != thatDim[1]) {
+            return false;
+        }
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numCols; j++) {
+                if (!Boolean.valueOf(bit(bits, i * words, j)).equals(thatMatrix.getElement(i, j))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public int hashCode() {
+        long hash = MatrixHash.mix(numRows, numCols);
+        for (long word : bits) {
+            hash = MatrixHash.mix(hash, word);
+        }
+        return MatrixHash.fold(hash);
+    }
+}
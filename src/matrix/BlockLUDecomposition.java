@@ -0,0 +1,134 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * Block LU factorization A = L U of a BlockMatrix whose diagonal blocks are square, by
+ * Gaussian elimination on the blocks themselves (block Crout form, without pivoting):
+ * for each k the diagonal block A_kk is factored by LU with partial pivoting, the blocks
+ * to its right become U_kj = A_kk^(-1) A_kj, and each trailing block is updated to its
+ * Schur complement A_ij - A_ik U_kj. L keeps the updated blocks on and below the diagonal
+ * and U has identity blocks on its diagonal.
+ *
+ * Every step runs through the children's own operations, zero blocks stay zero and are
+ * skipped, and nothing is flattened. Elimination without block pivoting needs each
+ * leading diagonal block, and each Schur complement, to be nonsingular; BlockMatrix
+ * falls back to pivoted LU of the dense matrix when one is not.
+ */
+
+public class BlockLUDecomposition {
+    
+    private final int[] offsets;
+    private final Matrix<BigDecimal>[][] lower;
+    private final Matrix<BigDecimal>[][] upper;
+    // LU of each Schur-complemented diagonal block
+    private final BandedLUDecomposition[] pivots;
+    
+    /**
+     * @param matrix square BlockMatrix with square diagonal blocks, not modified
+     * @throws IncompatibleDimensionsException if a diagonal block is not square
+     * @throws ArithmeticException if a diagonal block is singular once eliminated
+     */
+    public BlockLUDecomposition(BlockMatrix matrix) {
+        if (!matrix.hasSquareDiagonalBlocks()) {
+            throw new IncompatibleDimensionsException("Diagonal blocks must be square");
+        }
+        offsets = matrix.rowOffsets();
+        int n = matrix.blockRows();
+        lower = BlockMatrix.newGrid(n, n);
+        upper = BlockMatrix.newGrid(n, n);
+        pivots = new BandedLUDecomposition[n];
+        Matrix<BigDecimal>[][] work = BlockMatrix.newGrid(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                work[i][j] = matrix.getBlock(i, j);
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            if (work[k][k] == null) {
+                throw new ArithmeticException("Diagonal block " + k + " is singular");
+            }
+            pivots[k] = new BandedLUDecomposition(new BandedMatrix(work[k][k]));
+            upper[k][k] = new IdentityMatrix(offsets[k + 1] - offsets[k]);
+            for (int j = k + 1; j < n; j++) {
+                upper[k][j] = work[k][j] == null ? null : pivots[k].solve(work[k][j]);
+            }
+            for (int i = k; i < n; i++) {
+                lower[i][k] = work[i][k];
+            }
+            for (int i = k + 1; i < n; i++) {
+                for (int j = k + 1; j < n; j++) {
+                    work[i][j] = BlockMatrix.combine(work[i][j], BlockMatrix.product(work[i][k], upper[k][j]), -1);
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return block lower triangular factor L
+     */
+    public BlockMatrix getL() {
+        return new BlockMatrix(lower, offsets, offsets);
+    }
+    
+    /**
+     * @return block upper triangular factor U, with identity diagonal blocks
+     */
+    public BlockMatrix getU() {
+        return new BlockMatrix(upper, offsets, offsets);
+    }
+    
+    /**
+     * @return determinant, the product of the determinants of L's diagonal blocks
+     */
+    public double determinant() {
+        double product = 1;
+        for (BandedLUDecomposition pivot : pivots) {
+            product *= pivot.determinant();
+        }
+        return product;
+    }
+    
+    /**
+     * Forward substitution L Y = B then back substitution U X = Y, block by block
+     * @param b right-hand sides with as many rows as the matrix, cut to its row blocks
+     * @return X with A X = B, a BlockMatrix with the row blocks of A and the column blocks of b
+     * @throws IncompatibleDimensionsException if b has the wrong number of rows
+     */
+    public BlockMatrix solve(Matrix<BigDecimal> b) throws IncompatibleDimensionsException {
+        int n = pivots.length;
+        if (b.size()[0] != offsets[n]) {
+            throw new IncompatibleDimensionsException("Right-hand side must have " + offsets[n] + " rows");
+        }
+        int[] colOffsets = BlockMatrix.colOffsets(b);
+        Matrix<BigDecimal>[][] rhs = BlockMatrix.partition(b, offsets, colOffsets);
+        Matrix<BigDecimal>[][] solution = BlockMatrix.newGrid(n, colOffsets.length - 1);
+        for (int c = 0; c < colOffsets.length - 1; c++) {
+            for (int k = 0; k < n; k++) {
+                Matrix<BigDecimal> residual = rhs[k][c];
+                for (int i = 0; i < k; i++) {
+                    residual = BlockMatrix.combine(residual, BlockMatrix.product(lower[k][i], solution[i][c]), -1);
+                }
+                solution[k][c] = residual == null ? null : pivots[k].solve(residual);
+            }
+            for (int k = n - 2; k >= 0; k--) {
+                for (int j = k + 1; j < n; j++) {
+                    solution[k][c] = BlockMatrix.combine(solution[k][c], BlockMatrix.product(upper[k][j], solution[j][c]), -1);
+                }
+            }
+        }
+        return new BlockMatrix(solution, offsets, colOffsets);
+    }
+    
+    /**
+     * @return A^(-1), solved against the block-diagonal identity so that it keeps A's partition
+     */
+    public BlockMatrix inverse() {
+        int n = pivots.length;
+        Matrix<BigDecimal>[][] identity = BlockMatrix.newGrid(n, n);
+        for (int k = 0; k < n; k++) {
+            identity[k][k] = new IdentityMatrix(offsets[k + 1] - offsets[k]);
+        }
+        return solve(new BlockMatrix(identity, offsets, offsets));
+    }
+}
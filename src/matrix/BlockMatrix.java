@@ -0,0 +1,624 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Immutable matrix partitioned into a grid of child matrices, which are kept as given
+ * and never copied. Block (i, j) covers rows rowOffsets[i] to rowOffsets[i + 1] - 1 and
+ * columns colOffsets[j] to colOffsets[j + 1] - 1; a null block is zero and takes no
+ * space, so vertical and horizontal stacking and block-diagonal composition cost
+ * O(number of blocks) whatever the size of the children.
+ *
+ * Sums and products work block by block through the children's own operations, so
+ * structured children (diagonal, sparse, low rank, nested blocks) keep their structure,
+ * and zero blocks are skipped. An operand that is not partitioned the same way is cut to
+ * fit; cuts along the boundaries of a BlockMatrix operand reuse its children, and only
+ * other cuts copy entries. Square matrices whose diagonal blocks are square factor by
+ * block LU on the children (BlockLUDecomposition). The dense matrix is formed only for
+ * operations with no block form, and for equality and hashing.
+ */
+
+public class BlockMatrix implements Matrix<BigDecimal>, LinearOperator, RightFactor {
+    
+    private final Matrix<BigDecimal>[][] blocks;
+    private final int[] rowOffsets;
+    private final int[] colOffsets;
+    // products with vectors go through these, built on first use
+    private LinearOperator[][] operators;
+    
+    /**
+     * @param blocks nonempty rectangular grid of blocks, null for a zero block; every block
+     *        row and every block column needs a nonnull block to fix its size; the grid
+     *        is copied but the blocks are kept
+     * @throws IncompatibleDimensionsException if blocks in a block row differ in rows, or
+     *         blocks in a block column differ in columns
+     */
+    public BlockMatrix(Matrix<BigDecimal>[][] blocks) {
+        if (blocks.length == 0 || blocks[0].length == 0) {
+            throw new IncompatibleDimensionsException("Block grid must be nonempty");
+        }
+        int blockRows = blocks.length;
+        int blockCols = blocks[0].length;
+        this.blocks = newGrid(blockRows, blockCols);
+        rowOffsets = new int[blockRows + 1];
+        colOffsets = new int[blockCols + 1];
+        int[] heights = new int[blockRows];
+        int[] widths = new int[blockCols];
+        for (int i = 0; i < blockRows; i++) {
+            if (blocks[i].length != blockCols) {
+                throw new IncompatibleDimensionsException("Block grid must be rectangular");
+            }
+            for (int j = 0; j < blockCols; j++) {
+                this.blocks[i][j] = blocks[i][j];
+                if (blocks[i][j] == null) {
+                    continue;
+                }
+                int[] dimensions = blocks[i][j].size();
+                if ((heights[i] != 0 && heights[i] != dimensions[0]) || (widths[j] != 0 && widths[j] != dimensions[1])) {
+                    throw new IncompatibleDimensionsException("Blocks do not line up at block (" + i + ", " + j + ")");
+                }
+                heights[i] = dimensions[0];
+                widths[j] = dimensions[1];
+            }
+        }
+        for (int i = 0; i < blockRows; i++) {
+            if (heights[i] == 0) {
+                throw new IncompatibleDimensionsException("Block row " + i + " has no nonzero block");
+            }
+            rowOffsets[i + 1] = rowOffsets[i] + heights[i];
+        }
+        for (int j = 0; j < blockCols; j++) {
+            if (widths[j] == 0) {
+                throw new IncompatibleDimensionsException("Block column " + j + " has no nonzero block");
+            }
+            colOffsets[j + 1] = colOffsets[j] + widths[j];
+        }
+    }
+    
+    /**
+     * @param blocks grid of blocks fitting the offsets, null for zero blocks; kept
+     */
+    BlockMatrix(Matrix<BigDecimal>[][] blocks, int[] rowOffsets, int[] colOffsets) {
+        this.blocks = blocks;
+        this.rowOffsets = rowOffsets;
+        this.colOffsets = colOffsets;
+    }
+    
+    // warnings suppressed as arrays of a generic type cannot be created directly
+    @SuppressWarnings("unchecked")
+    static Matrix<BigDecimal>[][] newGrid(int blockRows, int blockCols) {
+        return (Matrix<BigDecimal>[][])new Matrix<?>[blockRows][blockCols];
+    }
+    
+    /**
+     * @param blocks matrices with the same number of columns
+     * @return the blocks one above the other, without copying them
+     * @throws IncompatibleDimensionsException if the blocks differ in columns
+     */
+    @SafeVarargs
+    public static BlockMatrix vstack(Matrix<BigDecimal>... blocks) {
+        Matrix<BigDecimal>[][] grid = newGrid(blocks.length, 1);
+        for (int i = 0; i < blocks.length; i++) {
+            grid[i][0] = blocks[i];
+        }
+        return new BlockMatrix(grid);
+    }
+    
+    /**
+     * @param blocks matrices with the same number of rows
+     * @return the blocks side by side, without copying them
+     * @throws IncompatibleDimensionsException if the blocks differ in rows
+     */
+    @SafeVarargs
+    public static BlockMatrix hstack(Matrix<BigDecimal>... blocks) {
+        Matrix<BigDecimal>[][] grid = newGrid(1, blocks.length);
+        for (int j = 0; j < blocks.length; j++) {
+            grid[0][j] = blocks[j];
+        }
+        return new BlockMatrix(grid);
+    }
+    
+    /**
+     * @param blocks matrices of any size
+     * @return the blocks along the diagonal with zero blocks elsewhere, without copying them
+     */
+    @SafeVarargs
+    public static BlockMatrix blockDiagonal(Matrix<BigDecimal>... blocks) {
+        Matrix<BigDecimal>[][] grid = newGrid(blocks.length, blocks.length);
+        for (int i = 0; i < blocks.length; i++) {
+            grid[i][i] = blocks[i];
+        }
+        return new BlockMatrix(grid);
+    }
+    
+    public int blockRows() {
+        return blocks.length;
+    }
+    
+    public int blockColumns() {
+        return blocks[0].length;
+    }
+    
+    /**
+     * @return block (i, j) itself, or null if it is zero
+     * @throws IndexOutOfBoundsException if i or j is out of range
+     */
+    public Matrix<BigDecimal> getBlock(int i, int j) {
+        return blocks[i][j];
+    }
+    
+    /**
+     * @return whether the diagonal blocks are square, as block LU needs
+     */
+    public boolean hasSquareDiagonalBlocks() {
+        return Arrays.equals(rowOffsets, colOffsets);
+    }
+    
+    int[] rowOffsets() {
+        return rowOffsets;
+    }
+    
+    int[] colOffsets() {
+        return colOffsets;
+    }
+    
+    /**
+     * @return index of the block containing the given row or column
+     */
+    private static int blockIndex(int[] offsets, int index) {
+        int position = Arrays.binarySearch(offsets, index);
+        return position >= 0 ? position : -position - 2;
+    }
+    
+    @Override
+    public int[] size() {
+        int[] dimensions = {rowOffsets[blocks.length], colOffsets[blocks[0].length]};
+        return dimensions;
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        int[] dimensions = size();
+        if (row < 0 || row >= dimensions[0] || column < 0 || column >= dimensions[1]) {
+            throw new IndexOutOfBoundsException("Location out of bounds");
+        }
+        int i = blockIndex(rowOffsets, row);
+        int j = blockIndex(colOffsets, column);
+        if (blocks[i][j] == null) {
+            return BigDecimal.ZERO;
+        }
+        return blocks[i][j].getElement(row - rowOffsets[i], column - colOffsets[j]);
+    }
+    
+    @Override
+    public BigDecimal[] getRow(int row) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= size()[0]) {
+            throw new IndexOutOfBoundsException("Row index out of bounds");
+        }
+        int i = blockIndex(rowOffsets, row);
+        BigDecimal[] currentRow = new BigDecimal[size()[1]];
+        for (int j = 0; j < blocks[i].length; j++) {
+            if (blocks[i][j] == null) {
+                Arrays.fill(currentRow, colOffsets[j], colOffsets[j + 1], BigDecimal.ZERO);
+            } else {
+                BigDecimal[] part = blocks[i][j].getRow(row - rowOffsets[i]);
+                System.arraycopy(part, 0, currentRow, colOffsets[j], part.length);
+            }
+        }
+        return currentRow;
+    }
+    
+    @Override
+    public BigDecimal[] getColumn(int column) throws IndexOutOfBoundsException {
+        if (column < 0 || column >= size()[1]) {
+            throw new IndexOutOfBoundsException("Column index out of bounds");
+        }
+        int j = blockIndex(colOffsets, column);
+        BigDecimal[] currentColumn = new BigDecimal[size()[0]];
+        for (int i = 0; i < blocks.length; i++) {
+            if (blocks[i][j] == null) {
+                Arrays.fill(currentColumn, rowOffsets[i], rowOffsets[i + 1], BigDecimal.ZERO);
+            } else {
+                BigDecimal[] part = blocks[i][j].getColumn(column - colOffsets[j]);
+                System.arraycopy(part, 0, currentColumn, rowOffsets[i], part.length);
+            }
+        }
+        return currentColumn;
+    }
+    
+    /**
+     * @return dense matrix with the same entries, the only operation that copies every child
+     */
+    public BigDecimalMatrix toDense() {
+        BigDecimal[][] entries = new BigDecimal[size()[0]][];
+        for (int row = 0; row < entries.length; row++) {
+            entries[row] = getRow(row);
+        }
+        return new BigDecimalMatrix(entries);
+    }
+    
+    /**
+     * @return the rows rowFrom to rowTo - 1 and columns colFrom to colTo - 1 of matr, null
+     *         if they are known to be zero; matr itself, a child or a grid of children of
+     *         a BlockMatrix when the cut follows its block boundaries, otherwise a copy
+     */
+    static Matrix<BigDecimal> slice(Matrix<BigDecimal> matr, int rowFrom, int rowTo, int colFrom, int colTo) {
+        int[] dimensions = matr.size();
+        if (rowFrom == 0 && colFrom == 0 && rowTo == dimensions[0] && colTo == dimensions[1]) {
+            return matr;
+        }
+        if (matr instanceof BlockMatrix) {
+            BlockMatrix that = (BlockMatrix)matr;
+            int top = Arrays.binarySearch(that.rowOffsets, rowFrom);
+            int bottom = Arrays.binarySearch(that.rowOffsets, rowTo);
+            int left = Arrays.binarySearch(that.colOffsets, colFrom);
+            int right = Arrays.binarySearch(that.colOffsets, colTo);
+            if (top >= 0 && bottom >= 0 && left >= 0 && right >= 0) {
+                if (bottom - top == 1 && right - left == 1) {
+                    return that.blocks[top][left];
+                }
+                Matrix<BigDecimal>[][] grid = newGrid(bottom - top, right - left);
+                for (int i = top; i < bottom; i++) {
+                    System.arraycopy(that.blocks[i], left, grid[i - top], 0, right - left);
+                }
+                return new BlockMatrix(grid, shift(that.rowOffsets, top, bottom), shift(that.colOffsets, left, right));
+            }
+        }
+        BigDecimal[][] entries = new BigDecimal[rowTo - rowFrom][];
+        for (int row = rowFrom; row < rowTo; row++) {
+            entries[row - rowFrom] = Arrays.copyOfRange(matr.getRow(row), colFrom, colTo);
+        }
+        return new BigDecimalMatrix(entries);
+    }
+    
+    /**
+     * @return offsets[from..to] less offsets[from]
+     */
+    private static int[] shift(int[] offsets, int from, int to) {
+        int[] shifted = new int[to - from + 1];
+        for (int k = from; k <= to; k++) {
+            shifted[k - from] = offsets[k] - offsets[from];
+        }
+        return shifted;
+    }
+    
+    /**
+     * @return matr cut into blocks at the given offsets
+     */
+    static Matrix<BigDecimal>[][] partition(Matrix<BigDecimal> matr, int[] rowOffsets, int[] colOffsets) {
+        if (matr instanceof BlockMatrix) {
+            BlockMatrix that = (BlockMatrix)matr;
+            if (Arrays.equals(that.rowOffsets, rowOffsets) && Arrays.equals(that.colOffsets, colOffsets)) {
+                return that.blocks;
+            }
+        }
+        Matrix<BigDecimal>[][] grid = newGrid(rowOffsets.length - 1, colOffsets.length - 1);
+        for (int i = 0; i < grid.length; i++) {
+            for (int j = 0; j < grid[i].length; j++) {
+                grid[i][j] = slice(matr, rowOffsets[i], rowOffsets[i + 1], colOffsets[j], colOffsets[j + 1]);
+            }
+        }
+        return grid;
+    }
+    
+    /**
+     * @return row offsets of matr's blocks if it is a BlockMatrix, or {0, rows}
+     */
+    static int[] rowOffsets(Matrix<BigDecimal> matr) {
+        if (matr instanceof BlockMatrix) {
+            return ((BlockMatrix)matr).rowOffsets;
+        }
+        int[] offsets = {0, matr.size()[0]};
+        return offsets;
+    }
+    
+    /**
+     * @return column offsets of matr's blocks if it is a BlockMatrix, or {0, columns}
+     */
+    static int[] colOffsets(Matrix<BigDecimal> matr) {
+        if (matr instanceof BlockMatrix) {
+            return ((BlockMatrix)matr).colOffsets;
+        }
+        int[] offsets = {0, matr.size()[1]};
+        return offsets;
+    }
+    
+    /**
+     * @return first + sign * second, with null standing for zero
+     */
+    static Matrix<BigDecimal> combine(Matrix<BigDecimal> first, Matrix<BigDecimal> second, int sign) {
+        if (second == null) {
+            return first;
+        }
+        if (first == null) {
+            return sign > 0 ? second : second.multiply(-1);
+        }
+        return sign > 0 ? first.add(second) : first.subtract(second);
+    }
+    
+    /**
+     * @return first * second, with null standing for zero
+     */
+    static Matrix<BigDecimal> product(Matrix<BigDecimal> first, Matrix<BigDecimal> second) {
+        return first == null || second == null ? null : first.multiply(second);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, 1);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, -1);
+    }
+    
+    /**
+     * @return this + sign * matr, block by block with matr cut to this partition
+     */
+    private Matrix<BigDecimal> combine(Matrix<BigDecimal> matr, int sign) {
+        int[] thisSize = size();
+        int[] thatSize = matr.size();
+        if (thisSize[0] != thatSize[0] || thisSize[1] != thatSize[1]) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for addition");
+        }
+        Matrix<BigDecimal>[][] other = partition(matr, rowOffsets, colOffsets);
+        Matrix<BigDecimal>[][] sum = newGrid(blocks.length, blocks[0].length);
+        for (int i = 0; i < sum.length; i++) {
+            for (int j = 0; j < sum[i].length; j++) {
+                sum[i][j] = combine(blocks[i][j], other[i][j], sign);
+            }
+        }
+        return new BlockMatrix(sum, rowOffsets, colOffsets);
+    }
+    
+    /**
+     * Block (i, j) of the product is the sum over k of block (i, k) of this times block
+     * (k, j) of matr, with matr cut to match this matrix's column partition
+     */
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr.size()[0] != size()[1]) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        int[] otherCols = colOffsets(matr);
+        return multiply(blocks, partition(matr, colOffsets, otherCols), rowOffsets, otherCols);
+    }
+    
+    /**
+     * @param matr matrix with as many columns as this has rows
+     * @return matr * this, block by block with matr cut to match this matrix's row partition
+     */
+    @Override
+    public Matrix<BigDecimal> multiplyLeft(Matrix<BigDecimal> matr) {
+        int[] otherRows = rowOffsets(matr);
+        return multiply(partition(matr, otherRows, rowOffsets), blocks, otherRows, colOffsets);
+    }
+    
+    private static BlockMatrix multiply(Matrix<BigDecimal>[][] first, Matrix<BigDecimal>[][] second, int[] rowOffsets, int[] colOffsets) {
+        Matrix<BigDecimal>[][] result = newGrid(first.length, second[0].length);
+        for (int i = 0; i < result.length; i++) {
+            for (int j = 0; j < result[i].length; j++) {
+                for (int k = 0; k < second.length; k++) {
+                    result[i][j] = combine(result[i][j], product(first[i][k], second[k][j]), 1);
+                }
+            }
+        }
+        return new BlockMatrix(result, rowOffsets, colOffsets);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        Matrix<BigDecimal>[][] scaled = newGrid(blocks.length, blocks[0].length);
+        for (int i = 0; i < blocks.length; i++) {
+            for (int j = 0; j < blocks[i].length; j++) {
+                scaled[i][j] = blocks[i][j] == null ? null : blocks[i][j].multiply(element);
+            }
+        }
+        return new BlockMatrix(scaled, rowOffsets, colOffsets);
+    }
+    
+    /**
+     * @return the transpose, the grid transposed with each child transposed
+     */
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        Matrix<BigDecimal>[][] transposed = newGrid(blocks[0].length, blocks.length);
+        for (int i = 0; i < blocks.length; i++) {
+            for (int j = 0; j < blocks[i].length; j++) {
+                transposed[j][i] = blocks[i][j] == null ? null : blocks[i][j].transpose();
+            }
+        }
+        return new BlockMatrix(transposed, colOffsets, rowOffsets);
+    }
+    
+    /**
+     * @return this above bottom, without copying either
+     */
+    @Override
+    public Matrix<BigDecimal> stack(Matrix<BigDecimal> bottom) throws IncompatibleDimensionsException {
+        if (bottom.size()[1] != size()[1]) {
+            throw new IncompatibleDimensionsException("Unable to stack due to different number of columns");
+        }
+        return vstack(this, bottom);
+    }
+    
+    private LinearOperator[][] operators() {
+        if (operators == null) {
+            LinearOperator[][] built = new LinearOperator[blocks.length][blocks[0].length];
+            for (int i = 0; i < blocks.length; i++) {
+                for (int j = 0; j < blocks[i].length; j++) {
+                    Matrix<BigDecimal> block = blocks[i][j];
+                    if (block != null) {
+                        built[i][j] = block instanceof LinearOperator ? (LinearOperator)block : new DenseOperator(block);
+                    }
+                }
+            }
+            operators = built;
+        }
+        return operators;
+    }
+    
+    /**
+     * y_i = sum over j of block (i, j) applied to x_j, through each child's own product
+     */
+    @Override
+    public void apply(double[] x, double[] y) {
+        product(operators(), x, y, rowOffsets, colOffsets, false);
+    }
+    
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        product(operators(), x, y, colOffsets, rowOffsets, true);
+    }
+    
+    private static void product(LinearOperator[][] operators, double[] x, double[] y, int[] outOffsets, int[] inOffsets, boolean transpose) {
+        Arrays.fill(y, 0, outOffsets[outOffsets.length - 1], 0);
+        for (int i = 0; i < operators.length; i++) {
+            for (int j = 0; j < operators[i].length; j++) {
+                LinearOperator operator = operators[i][j];
+                if (operator == null) {
+                    continue;
+                }
+                int out = transpose ? j : i;
+                int in = transpose ? i : j;
+                double[] part = new double[outOffsets[out + 1] - outOffsets[out]];
+                double[] input = Arrays.copyOfRange(x, inOffsets[in], inOffsets[in + 1]);
+                if (transpose) {
+                    operator.applyTranspose(input, part);
+                } else {
+                    operator.apply(input, part);
+                }
+                for (int k = 0; k < part.length; k++) {
+                    y[outOffsets[out] + k] += part[k];
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return determinant, by block LU when the diagonal blocks are square and
+     *         nonsingular, and by pivoted LU of the dense matrix otherwise
+     * @throws IncompatibleDimensionsException if the matrix is not square
+     */
+    @Override
+    public BigDecimal determinant() throws IncompatibleDimensionsException {
+        checkSquare("Determinant");
+        if (hasSquareDiagonalBlocks()) {
+            try {
+                return new BigDecimal(new BlockLUDecomposition(this).determinant());
+            } catch (ArithmeticException ex) {
+                //a singular diagonal block: fall through to pivoting
+            }
+        }
+        try {
+            return new BigDecimal(new BandedLUDecomposition(new BandedMatrix(toDense())).determinant());
+        } catch (ArithmeticException ex) {
+            return BigDecimal.ZERO;
+        }
+    }
+    
+    /**
+     * @return inverse, block by block from block LU when the diagonal blocks are square
+     *         and nonsingular, and by pivoted LU of the dense matrix otherwise
+     * @throws IncompatibleDimensionsException if the matrix is not square or is singular
+     */
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        checkSquare("Inverse");
+        if (hasSquareDiagonalBlocks()) {
+            try {
+                return new BlockLUDecomposition(this).inverse();
+            } catch (ArithmeticException ex) {
+                //a singular diagonal block: fall through to pivoting
+            }
+        }
+        try {
+            return new BandedLUDecomposition(new BandedMatrix(toDense())).solve(BigDecimalMatrix.identity(size()[0]));
+        } catch (ArithmeticException ex) {
+            throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+        }
+    }
+    
+    private void checkSquare(String operation) {
+        int[] dimensions = size();
+        if (dimensions[0] != dimensions[1]) {
+            throw new IncompatibleDimensionsException(operation + " not defined for non-square matrices");
+        }
+    }
+    
+    @Override
+    public Matrix<BigDecimal> rref() {
+        return toDense().rref();
+    }
+    
+    @Override
+    public Matrix<BigDecimal> minor(int row, int column) throws IndexOutOfBoundsException, IncompatibleDimensionsException {
+        return toDense().minor(row, column);
+    }
+    
+    @Override
+    public int rank() {
+        return toDense().rank();
+    }
+    
+    @Override
+    public int nullity() {
+        return size()[1] - rank();
+    }
+    
+    @Override
+    public Set<Matrix<BigDecimal>> nullspace() {
+        return toDense().nullspace();
+    }
+    
+    @Override
+    public Complex[] eigenvalues() throws IncompatibleDimensionsException {
+        return toDense().eigenvalues();
+    }
+    
+    @Override
+    public Map<Complex, Set<Matrix<Complex>>> eigenMap() throws IncompatibleDimensionsException {
+        return toDense().eigenMap();
+    }
+    
+    @Override
+    public Set<Matrix<Complex>> eigenvectors(Complex eigenvalue) throws IncompatibleDimensionsException {
+        return toDense().eigenvectors(eigenvalue);
+    }
+    
+    @Override
+    public boolean rowNotZero(int row) {
+        for (BigDecimal value : getRow(row)) {
+            if (value.signum() != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public String toString() {
+        return toDense().toString();
+    }
+    
+    /**
+     * Equal to any Matrix with the same dimensions and elements, as rounded by
+     * BigDecimalMatrix.equals
+     */
+    @Override
+    public boolean equals(Object that) {
+        return toDense().equals(that);
+    }
+    
+    /**
+     * Same as the hash code of the equal BigDecimalMatrix, without forming it
+     */
+    @Override
+    public int hashCode() {
+        return BigDecimalMatrix.contentHash(this);
+    }
+}
@@ -0,0 +1,273 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.stream.IntStream;
+
+/*
+ * Cholesky factorization A = L L^T of a symmetric positive-definite matrix, with L
+ * lower triangular with positive diagonal.
+ *
+ * The factorization is blocked and right-looking: each diagonal block of BLOCK_SIZE
+ * columns is factored, the panel below it solved against it, and the trailing matrix
+ * updated by the panel, which is where nearly all of the n^3 / 3 flops are spent. In
+ * parallel mode the panel solve and trailing update are split across rows.
+ * L is held as jagged rows of length 1, 2, ..., n so only the lower triangle is stored.
+ *
+ * A matrix that is not positive definite is rejected at the first nonpositive pivot,
+ * and the cheap necessary conditions (square, symmetric, positive diagonal) are checked
+ * before any elimination is done.
+ */
+
+public class CholeskyDecomposition {
+    
+    private final static int BLOCK_SIZE = 64;
+    
+    private final double[][] lower;
+    private final int size;
+    private final boolean parallel;
+    
+    /**
+     * Sequential factorization
+     * @param matrix valid symmetric positive-definite Matrix instance
+     * @throws IncompatibleDimensionsException if matrix is not square or not symmetric
+     * @throws ArithmeticException if matrix is not positive definite
+     */
+    public CholeskyDecomposition(Matrix<BigDecimal> matrix) {
+        this(matrix, false);
+    }
+    
+    /**
+     * @param matrix valid symmetric positive-definite Matrix instance
+     * @param parallel true to split the panel solves and trailing updates across threads
+     * @throws IncompatibleDimensionsException if matrix is not square or not symmetric
+     * @throws ArithmeticException if matrix is not positive definite
+     */
+    public CholeskyDecomposition(Matrix<BigDecimal> matrix, boolean parallel) {
+        this(BigDecimalMatrix.toArray(matrix), parallel);
+    }
+    
+    /**
+     * @param entries row-major symmetric positive-definite array, not modified
+     * @param parallel true to split the panel solves and trailing updates across threads
+     * @throws IncompatibleDimensionsException if entries is not square or not symmetric
+     * @throws ArithmeticException if entries is not positive definite
+     */
+    public CholeskyDecomposition(double[][] entries, boolean parallel) {
+        size = entries.length;
+        this.parallel = parallel;
+        SymmetricMatrix.checkSymmetric(entries);
+        for (int i = 0; i < size; i++) {
+            if (!(entries[i][i] > 0)) {
+                throw new ArithmeticException("Matrix is not positive definite: nonpositive diagonal at " + i);
+            }
+        }
+        
+        lower = lowerTriangle(entries);
+        int factored = factor(lower, parallel);
+        if (factored < size) {
+            throw new ArithmeticException("Matrix is not positive definite: nonpositive pivot at " + factored);
+        }
+    }
+    
+    /**
+     * @param matrix valid Matrix instance
+     * @return true iff matrix is square, symmetric and positive definite
+     *         (attempts the factorization, stopping at the first failing pivot)
+     */
+    public static boolean isPositiveDefinite(Matrix<BigDecimal> matrix) {
+        int[] dimensions = matrix.size();
+        if (dimensions[0] != dimensions[1]) {
+            return false;
+        }
+        double[][] entries = BigDecimalMatrix.toArray(matrix);
+        if (!SymmetricMatrix.isSymmetric(entries)) {
+            return false;
+        }
+        for (int i = 0; i < entries.length; i++) {
+            if (!(entries[i][i] > 0)) {
+                return false;
+            }
+        }
+        return factor(lowerTriangle(entries), false) == entries.length;
+    }
+    
+    /**
+     * @return the lower triangular factor L, in packed storage
+     */
+    public Matrix<BigDecimal> getL() {
+        //the jagged rows laid end to end are the packed lower triangle
+        double[] packed = new double[StructuredMatrix.packedLength(size)];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(lower[i], 0, packed, StructuredMatrix.packedIndex(i, 0), i + 1);
+        }
+        return new TriangularMatrix(packed, size, false, false);
+    }
+    
+    /**
+     * @return natural logarithm of the determinant, 2 * sum of log L_ii,
+     *         finite even where the determinant itself would overflow or underflow
+     */
+    public double logDeterminant() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += Math.log(lower[i][i]);
+        }
+        return 2 * sum;
+    }
+    
+    /**
+     * @param b right-hand side of length n, not modified
+     * @return x with A x = b
+     * @throws IncompatibleDimensionsException if b has the wrong length
+     */
+    public double[] solve(double[] b) throws IncompatibleDimensionsException {
+        if (b.length != size) {
+            throw new IncompatibleDimensionsException("Right-hand side must have length " + size);
+        }
+        double[] x = b.clone();
+        solveInPlace(x);
+        return x;
+    }
+    
+    /**
+     * @param b right-hand sides, n x k
+     * @return X with A X = B
+     * @throws IncompatibleDimensionsException if b does not have n rows
+     */
+    public Matrix<BigDecimal> solve(Matrix<BigDecimal> b) throws IncompatibleDimensionsException {
+        if (b.size()[0] != size) {
+            throw new IncompatibleDimensionsException("Right-hand side must have " + size + " rows");
+        }
+        double[][] rhs = BigDecimalMatrix.toArray(b);
+        int numRhs = rhs[0].length;
+        double[][] columns = new double[numRhs][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < numRhs; j++) {
+                columns[j][i] = rhs[i][j];
+            }
+        }
+        solveColumns(columns);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < numRhs; j++) {
+                rhs[i][j] = columns[j][i];
+            }
+        }
+        return new BigDecimalMatrix(rhs);
+    }
+    
+    /**
+     * @return A^(-1), solved column by column against the factorization
+     */
+    public Matrix<BigDecimal> inverse() {
+        double[][] columns = new double[size][size];
+        for (int j = 0; j < size; j++) {
+            columns[j][j] = 1;
+        }
+        solveColumns(columns);
+        //the inverse is symmetric, so its columns are also its rows
+        return new BigDecimalMatrix(columns);
+    }
+    
+    /**
+     * Overwrite x with A^(-1) x by forward substitution with L and back substitution with L^T
+     */
+    void solveInPlace(double[] x) {
+        for (int i = 0; i < size; i++) {
+            double[] row = lower[i];
+            double sum = x[i];
+            for (int p = 0; p < i; p++) {
+                sum -= row[p] * x[p];
+            }
+            x[i] = sum / row[i];
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            double value = x[i] / lower[i][i];
+            x[i] = value;
+            double[] row = lower[i];
+            for (int p = 0; p < i; p++) {
+                x[p] -= row[p] * value;
+            }
+        }
+    }
+    
+    private void solveColumns(double[][] columns) {
+        IntStream indices = IntStream.range(0, columns.length);
+        if (parallel) {
+            indices = indices.parallel();
+        }
+        indices.forEach(j -> solveInPlace(columns[j]));
+    }
+    
+    /**
+     * @return copy of the lower triangle of entries as jagged rows of length 1, 2, ..., n
+     */
+    private static double[][] lowerTriangle(double[][] entries) {
+        double[][] lower = new double[entries.length][];
+        for (int i = 0; i < entries.length; i++) {
+            lower[i] = new double[i + 1];
+            System.arraycopy(entries[i], 0, lower[i], 0, i + 1);
+        }
+        return lower;
+    }
+    
+    /**
+     * Overwrite the lower triangle of A with L, stopping at the first nonpositive pivot
+     * @param lower jagged rows of the lower triangle of A
+     * @param parallel true to split the panel solves and trailing updates across threads
+     * @return n if the factorization succeeded, otherwise the index of the first nonpositive pivot
+     */
+    private static int factor(double[][] lower, boolean parallel) {
+        int size = lower.length;
+        for (int start = 0; start < size; start += BLOCK_SIZE) {
+            int end = Math.min(start + BLOCK_SIZE, size);
+            final int blockStart = start;
+            
+            //diagonal block, unblocked
+            for (int j = start; j < end; j++) {
+                double[] pivotRow = lower[j];
+                double pivot = pivotRow[j];
+                for (int p = start; p < j; p++) {
+                    pivot -= pivotRow[p] * pivotRow[p];
+                }
+                if (!(pivot > 0)) {
+                    return j;
+                }
+                pivotRow[j] = Math.sqrt(pivot);
+                for (int i = j + 1; i < end; i++) {
+                    lower[i][j] = (lower[i][j] - dot(lower[i], pivotRow, start, j)) / pivotRow[j];
+                }
+            }
+            
+            //panel below the block, then trailing update, each row independently
+            rows(end, size, parallel).forEach(i -> {
+                double[] row = lower[i];
+                for (int j = blockStart; j < end; j++) {
+                    row[j] = (row[j] - dot(row, lower[j], blockStart, j)) / lower[j][j];
+                }
+            });
+            rows(end, size, parallel).forEach(i -> {
+                double[] row = lower[i];
+                for (int j = end; j <= i; j++) {
+                    row[j] -= dot(row, lower[j], blockStart, end);
+                }
+            });
+        }
+        return size;
+    }
+    
+    private static IntStream rows(int from, int to, boolean parallel) {
+        IntStream indices = IntStream.range(from, to);
+        return parallel ? indices.parallel() : indices;
+    }
+    
+    /**
+     * @return sum of first[p] * second[p] for from <= p < to
+     */
+    private static double dot(double[] first, double[] second, int from, int to) {
+        double sum = 0;
+        for (int p = from; p < to; p++) {
+            sum += first[p] * second[p];
+        }
+        return sum;
+    }
+}
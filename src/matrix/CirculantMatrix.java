@@ -0,0 +1,252 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * Square circulant matrix stored as its first column c, so that entry (i, j) is
+ * c[(i - j) mod n]. Every circulant matrix is diagonalized by the discrete Fourier
+ * transform, with eigenvalues the DFT of c, which is computed once on construction:
+ * products with vectors, solves and the inverse are then a transform, n scalings and an
+ * inverse transform, O(n log n) for any n, and products, sums and inverses of circulant
+ * matrices are circulant.
+ */
+
+public class CirculantMatrix extends StructuredMatrix implements LinearOperator {
+    
+    private final double[] column;
+    private final double[] spectrumRe;
+    private final double[] spectrumIm;
+    
+    /**
+     * @param column nonempty first column, not kept
+     */
+    public CirculantMatrix(double[] column) {
+        super(column.length);
+        this.column = column.clone();
+        spectrumRe = column.clone();
+        spectrumIm = new double[size];
+        FFT.transformAnyLength(spectrumRe, spectrumIm, false);
+    }
+    
+    /**
+     * @return the first column, which determines every entry
+     */
+    public double[] getColumn() {
+        return column.clone();
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        checkIndices(row, column);
+        return new BigDecimal(this.column[Math.floorMod(row - column, size)]);
+    }
+    
+    @Override
+    public void apply(double[] x, double[] y) {
+        diagonalScale(x, y, false, false);
+    }
+    
+    /**
+     * The transpose of a real circulant matrix has the conjugate eigenvalues
+     */
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        diagonalScale(x, y, true, false);
+    }
+    
+    /**
+     * y = F^(-1) D F x for D the eigenvalues, conjugated if conjugate, or inverted if invert
+     */
+    private void diagonalScale(double[] x, double[] y, boolean conjugate, boolean invert) {
+        double[] re = new double[size];
+        double[] im = new double[size];
+        System.arraycopy(x, 0, re, 0, size);
+        FFT.transformAnyLength(re, im, false);
+        for (int k = 0; k < size; k++) {
+            double lambdaRe = spectrumRe[k];
+            double lambdaIm = conjugate ? -spectrumIm[k] : spectrumIm[k];
+            double productRe;
+            if (invert) {
+                productRe = ComplexKernels.divRe(re[k], im[k], lambdaRe, lambdaIm);
+                im[k] = ComplexKernels.divIm(re[k], im[k], lambdaRe, lambdaIm);
+            } else {
+                productRe = ComplexKernels.multRe(re[k], im[k], lambdaRe, lambdaIm);
+                im[k] = ComplexKernels.multIm(re[k], im[k], lambdaRe, lambdaIm);
+            }
+            re[k] = productRe;
+        }
+        FFT.transformAnyLength(re, im, true);
+        System.arraycopy(re, 0, y, 0, size);
+    }
+    
+    /**
+     * @param b right-hand side of length n, not modified
+     * @return x with C x = b, dividing by the eigenvalues in the Fourier basis
+     * @throws IncompatibleDimensionsException if b has the wrong length
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public double[] solve(double[] b) throws IncompatibleDimensionsException {
+        if (b.length != size) {
+            throw new IncompatibleDimensionsException("Right-hand side must have length " + size);
+        }
+        if (rank() < size) {
+            throw new ArithmeticException("Circulant matrix is singular");
+        }
+        double[] x = new double[size];
+        diagonalScale(b, x, false, true);
+        return x;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, 1);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, -1);
+    }
+    
+    /**
+     * @return this + sign * matr, circulant when matr is circulant
+     */
+    private Matrix<BigDecimal> combine(Matrix<BigDecimal> matr, int sign) {
+        checkSameSize(matr, "addition");
+        if (matr instanceof CirculantMatrix) {
+            double[] other = ((CirculantMatrix)matr).column;
+            double[] sum = new double[size];
+            for (int k = 0; k < size; k++) {
+                sum[k] = column[k] + sign * other[k];
+            }
+            return new CirculantMatrix(sum);
+        }
+        return sign > 0 ? super.add(matr) : super.subtract(matr);
+    }
+    
+    /**
+     * Circulant when matr is circulant, its first column the product applied to c;
+     * otherwise each column of matr is multiplied through the transform
+     */
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr.size()[0] != size) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        if (matr instanceof CirculantMatrix) {
+            double[] product = new double[size];
+            apply(((CirculantMatrix)matr).column, product);
+            return new CirculantMatrix(product);
+        }
+        double[][] other = BigDecimalMatrix.toArray(matr);
+        int columns = other[0].length;
+        double[][] product = new double[size][columns];
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int c = 0; c < columns; c++) {
+            for (int i = 0; i < size; i++) {
+                x[i] = other[i][c];
+            }
+            apply(x, y);
+            for (int i = 0; i < size; i++) {
+                product[i][c] = y[i];
+            }
+        }
+        return new BigDecimalMatrix(product);
+    }
+    
+    /**
+     * @param matr matrix with as many columns as this has rows
+     * @return matr * this, each row of matr multiplied by the transpose through the transform
+     */
+    @Override
+    public Matrix<BigDecimal> multiplyLeft(Matrix<BigDecimal> matr) {
+        double[][] other = BigDecimalMatrix.toArray(matr);
+        double[][] product = new double[other.length][size];
+        for (int r = 0; r < other.length; r++) {
+            applyTranspose(other[r], product[r]);
+        }
+        return new BigDecimalMatrix(product);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        double[] scaled = new double[size];
+        for (int k = 0; k < size; k++) {
+            scaled[k] = column[k] * element;
+        }
+        return new CirculantMatrix(scaled);
+    }
+    
+    /**
+     * @return product of the eigenvalues
+     */
+    @Override
+    public BigDecimal determinant() {
+        double productRe = 1;
+        double productIm = 0;
+        for (int k = 0; k < size; k++) {
+            double nextRe = ComplexKernels.multRe(productRe, productIm, spectrumRe[k], spectrumIm[k]);
+            productIm = ComplexKernels.multIm(productRe, productIm, spectrumRe[k], spectrumIm[k]);
+            productRe = nextRe;
+        }
+        return new BigDecimal(productRe);
+    }
+    
+    /**
+     * @return number of nonzero eigenvalues, which is the rank since C is normal
+     */
+    @Override
+    public int rank() {
+        double largest = 0;
+        for (int k = 0; k < size; k++) {
+            largest = Math.max(largest, Math.hypot(spectrumRe[k], spectrumIm[k]));
+        }
+        double tolerance = size * Math.ulp(1.0) * largest;
+        int rank = 0;
+        for (int k = 0; k < size; k++) {
+            if (Math.hypot(spectrumRe[k], spectrumIm[k]) > tolerance) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+    
+    /**
+     * @return the inverse, circulant with eigenvalues the reciprocals of these
+     */
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        if (rank() < size) {
+            throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+        }
+        double[] unit = new double[size];
+        unit[0] = 1;
+        double[] inverseColumn = new double[size];
+        diagonalScale(unit, inverseColumn, false, true);
+        return new CirculantMatrix(inverseColumn);
+    }
+    
+    /**
+     * @return the transpose, circulant with first column c[-k mod n]
+     */
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        double[] reversed = new double[size];
+        for (int k = 0; k < size; k++) {
+            reversed[k] = column[Math.floorMod(-k, size)];
+        }
+        return new CirculantMatrix(reversed);
+    }
+    
+    /**
+     * @return the discrete Fourier transform of the first column
+     */
+    @Override
+    public Complex[] eigenvalues() {
+        Complex[] eigenvalues = new Complex[size];
+        for (int k = 0; k < size; k++) {
+            eigenvalues[k] = new Complex(spectrumRe[k], spectrumIm[k]);
+        }
+        return eigenvalues;
+    }
+}
@@ -52,9 +52,7 @@ public class Complex {
      * @return magnitude of this
      */
     public double magnitude() {
-        double sumOfSquares = Math.pow(this.getReal(), 2) + Math.pow(this.getImag(), 2);
-        double doubleRoot = Math.pow(sumOfSquares, 0.5);
-        return doubleRoot;
+        return Math.sqrt(ComplexKernels.magnitudeSquared(real, imaginary));
     }
     
     /**
@@ -120,12 +118,8 @@ public class Complex {
      * @return this * that
      */
     public Complex mult(Complex that) {
-        double ac = this.getReal() * that.getReal();
-        double bd = this.getImag() * that.getImag();
-        double ad = this.getReal() * that.getImag();
-        double bc = this.getImag() * that.getReal();
-        double newReal = ac - bd;
-        double newImag = ad + bc;
+        double newReal = ComplexKernels.multRe(real, imaginary, that.real, that.imaginary);
+        double newImag = ComplexKernels.multIm(real, imaginary, that.real, that.imaginary);
         return new Complex(newReal, newImag);
     }
     
@@ -147,10 +141,8 @@ public class Complex {
      * @throws ArithmeticException if that == 0
      */
     public Complex div(Complex that) throws ArithmeticException {
-        Complex numerator = this.mult(that.conjugate());
-        double denominator = Math.pow(that.magnitude(), 2);
-        double newReal = numerator.getReal() / denominator;
-        double newImag = numerator.getImag() / denominator;
+        double newReal = ComplexKernels.divRe(real, imaginary, that.real, that.imaginary);
+        double newImag = ComplexKernels.divIm(real, imaginary, that.real, that.imaginary);
         return new Complex(newReal, newImag);
     }
     
@@ -215,9 +207,13 @@ public class Complex {
         return real + " + " + imaginary + "i";
     }
     
+    /**
+     * Consistent with the exact comparison in equals, including 0.0 == -0.0
+     */
     @Override
     public int hashCode() {
-        return (int)(Math.pow(this.getReal(), 2) - Math.pow(this.getImag(), 2));
+        return MatrixHash.fold(MatrixHash.mix(Double.doubleToLongBits(real + 0.0),
+                                              Double.doubleToLongBits(imaginary + 0.0)));
     }
     
     public static void main(String[] args) {
@@ -0,0 +1,162 @@
+package matrix;
+
+/*
+ * Mutable complex number for hot loops such as dot products and running sums.
+ * Every operation updates this in place and returns this, so a chain of
+ * operations allocates nothing until toComplex() is called.
+ * Not thread safe.
+ */
+
+public final class ComplexAccumulator {
+    
+    private double real;
+    private double imaginary;
+    
+    /**
+     * Create an accumulator holding 0 + 0i
+     */
+    public ComplexAccumulator() {
+        this(0, 0);
+    }
+    
+    public ComplexAccumulator(double real, double imag) {
+        this.real = real;
+        this.imaginary = imag;
+    }
+    
+    /**
+     * @return the real part of the current value
+     */
+    public double getReal() {
+        return real;
+    }
+    
+    /**
+     * @return the imaginary part of the current value
+     */
+    public double getImag() {
+        return imaginary;
+    }
+    
+    /**
+     * @param real new real part
+     * @param imag new imaginary part
+     * @return this
+     */
+    public ComplexAccumulator set(double real, double imag) {
+        this.real = real;
+        this.imaginary = imag;
+        return this;
+    }
+    
+    /**
+     * @param value new value
+     * @return this
+     */
+    public ComplexAccumulator set(Complex value) {
+        return set(value.getReal(), value.getImag());
+    }
+    
+    /**
+     * this += (re + im i)
+     * @return this
+     */
+    public ComplexAccumulator add(double re, double im) {
+        real += re;
+        imaginary += im;
+        return this;
+    }
+    
+    /**
+     * this += that
+     * @return this
+     */
+    public ComplexAccumulator add(Complex that) {
+        return add(that.getReal(), that.getImag());
+    }
+    
+    /**
+     * this -= (re + im i)
+     * @return this
+     */
+    public ComplexAccumulator sub(double re, double im) {
+        real -= re;
+        imaginary -= im;
+        return this;
+    }
+    
+    /**
+     * this *= (re + im i)
+     * @return this
+     */
+    public ComplexAccumulator mult(double re, double im) {
+        double newReal = ComplexKernels.multRe(real, imaginary, re, im);
+        imaginary = ComplexKernels.multIm(real, imaginary, re, im);
+        real = newReal;
+        return this;
+    }
+    
+    /**
+     * this *= that
+     * @return this
+     */
+    public ComplexAccumulator mult(Complex that) {
+        return mult(that.getReal(), that.getImag());
+    }
+    
+    /**
+     * this /= (re + im i)
+     * @return this
+     */
+    public ComplexAccumulator div(double re, double im) {
+        double newReal = ComplexKernels.divRe(real, imaginary, re, im);
+        imaginary = ComplexKernels.divIm(real, imaginary, re, im);
+        real = newReal;
+        return this;
+    }
+    
+    /**
+     * this /= that
+     * @return this
+     */
+    public ComplexAccumulator div(Complex that) {
+        return div(that.getReal(), that.getImag());
+    }
+    
+    /**
+     * Fused update this += a * b, the inner step of a complex dot product
+     * @return this
+     */
+    public ComplexAccumulator addProduct(Complex a, Complex b) {
+        return addProduct(a.getReal(), a.getImag(), b.getReal(), b.getImag());
+    }
+    
+    /**
+     * Fused update this += (aRe + aIm i) * (bRe + bIm i)
+     * @return this
+     */
+    public ComplexAccumulator addProduct(double aRe, double aIm, double bRe, double bIm) {
+        real += ComplexKernels.multRe(aRe, aIm, bRe, bIm);
+        imaginary += ComplexKernels.multIm(aRe, aIm, bRe, bIm);
+        return this;
+    }
+    
+    /**
+     * @return squared magnitude of the current value
+     */
+    public double magnitudeSquared() {
+        return ComplexKernels.magnitudeSquared(real, imaginary);
+    }
+    
+    /**
+     * @return immutable snapshot of the current value
+     */
+    public Complex toComplex() {
+        return new Complex(real, imaginary);
+    }
+    
+    @Override
+    public String toString() {
+        return real + " + " + imaginary + "i";
+    }
+}
@@ -0,0 +1,345 @@
+package matrix;
+
+/*
+ * Eigenvalues of a complex upper Hessenberg matrix by balancing followed by
+ * single-shift QR iteration, or its Schur form by the same iteration unbalanced.
+ * Each QR step is performed with n - 1 Givens rotations, so it costs O(n^2)
+ * instead of the O(n^3) of a dense QR factorization.
+ *
+ * Matrices are stored row-major in split real/imaginary arrays of length n * n.
+ */
+
+final class ComplexHessenbergQR {
+    
+    private final static double EPSILON = Math.ulp(1.0);
+    private final static double RADIX = 2;
+    private final static int MAX_ITERATIONS_PER_EIGENVALUE = 30;
+    private final static int EXCEPTIONAL_SHIFT_PERIOD = 10;
+    
+    private ComplexHessenbergQR() {
+    }
+    
+    /**
+     * Calculate all eigenvalues of an upper Hessenberg matrix, destroying its contents
+     * @param re real parts, row-major, entries below the subdiagonal are ignored
+     * @param im imaginary parts, row-major
+     * @param n dimension of the matrix
+     * @return an array of the n eigenvalues
+     * @throws ArithmeticException if the iteration fails to converge
+     */
+    static Complex[] eigenvalues(double[] re, double[] im, int n) throws ArithmeticException {
+        balance(re, im, n);
+        return iterate(re, im, n, null, null);
+    }
+    
+    /**
+     * Reduce an upper Hessenberg matrix H to upper triangular T = Z^* H Z, the Schur form,
+     * by the same iteration with each rotation applied to whole rows and columns.
+     * Balancing is skipped, since it is not a unitary similarity.
+     * @param re real parts, row-major, overwritten with those of T, zero below the diagonal
+     * @param im imaginary parts, row-major, overwritten with those of T
+     * @param n dimension of the matrix
+     * @param zRe real parts of an n x n matrix, row-major, multiplied on the right by Z
+     * @param zIm imaginary parts of the same matrix
+     * @throws ArithmeticException if the iteration fails to converge
+     */
+    static void schur(double[] re, double[] im, int n, double[] zRe, double[] zIm) throws ArithmeticException {
+        iterate(re, im, n, zRe, zIm);
+        for (int i = 1; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                re[i * n + j] = 0;
+                im[i * n + j] = 0;
+            }
+        }
+    }
+    
+    /**
+     * Shifted QR iteration with deflation from the bottom, accumulating the rotations
+     * into z and applying them beyond the active block unless z is null
+     * @return the eigenvalues, in the order they deflate
+     */
+    private static Complex[] iterate(double[] re, double[] im, int n, double[] zRe, double[] zIm) {
+        Complex[] output = new Complex[n];
+        int hi = n - 1;
+        int iterations = 0;
+        int sinceDeflation = 0;
+        while (hi >= 0) {
+            //look for a negligible subdiagonal entry to split the problem
+            int lo = hi;
+            while (lo > 0) {
+                int sub = lo * n + lo - 1;
+                double diagonals = abs1(re, im, lo * n + lo) + abs1(re, im, (lo - 1) * n + lo - 1);
+                if (diagonals == 0) {
+                    diagonals = norm1(re, im, n, lo - 1, hi);
+                }
+                if (abs1(re, im, sub) <= EPSILON * diagonals) {
+                    re[sub] = 0;
+                    im[sub] = 0;
+                    break;
+                }
+                lo--;
+            }
+            
+            if (lo == hi) {
+                output[hi] = new Complex(re[hi * n + hi], im[hi * n + hi]);
+                hi--;
+                sinceDeflation = 0;
+                continue;
+            }
+            
+            iterations++;
+            sinceDeflation++;
+            if (iterations > MAX_ITERATIONS_PER_EIGENVALUE * n) {
+                throw new ArithmeticException("Hessenberg QR iteration did not converge");
+            }
+            
+            double[] shift = sinceDeflation % EXCEPTIONAL_SHIFT_PERIOD == 0
+                    ? exceptionalShift(re, im, n, hi)
+                    : wilkinsonShift(re, im, n, hi);
+            if (zRe == null) {
+                qrStep(re, im, n, lo, hi, shift[0], shift[1], lo, hi, null, null);
+            } else {
+                qrStep(re, im, n, lo, hi, shift[0], shift[1], 0, n - 1, zRe, zIm);
+            }
+        }
+        return output;
+    }
+    
+    /**
+     * One shifted QR step on the active block [lo, hi]: H - mu*I = QR, H <- RQ + mu*I,
+     * with the rotations applied to rows first to hi and columns lo to last
+     * @param zRe real parts of a matrix multiplied on the right by the rotations, or null
+     * @param zIm imaginary parts of the same matrix, or null
+     */
+    private static void qrStep(double[] re, double[] im, int n, int lo, int hi, double muRe, double muIm,
+            int first, int last, double[] zRe, double[] zIm) {
+        for (int k = lo; k <= hi; k++) {
+            re[k * n + k] -= muRe;
+            im[k * n + k] -= muIm;
+        }
+        
+        int steps = hi - lo;
+        double[] cos = new double[steps];
+        double[] sinRe = new double[steps];
+        double[] sinIm = new double[steps];
+        
+        //left rotations reduce the block to upper triangular form
+        for (int k = lo; k < hi; k++) {
+            int step = k - lo;
+            int top = k * n + k;
+            int bottom = (k + 1) * n + k;
+            double aRe = re[top];
+            double aIm = im[top];
+            double bRe = re[bottom];
+            double bIm = im[bottom];
+            double aAbs = Math.hypot(aRe, aIm);
+            double norm = Math.hypot(aAbs, Math.hypot(bRe, bIm));
+            double c;
+            double sRe;
+            double sIm;
+            if (norm == 0) {
+                c = 1;
+                sRe = 0;
+                sIm = 0;
+            } else if (aAbs == 0) {
+                c = 0;
+                sRe = bRe / norm;
+                sIm = -bIm / norm;
+            } else {
+                //s = (a / |a|) * conj(b) / norm
+                double uRe = aRe / aAbs;
+                double uIm = aIm / aAbs;
+                c = aAbs / norm;
+                sRe = (uRe * bRe + uIm * bIm) / norm;
+                sIm = (uIm * bRe - uRe * bIm) / norm;
+            }
+            cos[step] = c;
+            sinRe[step] = sRe;
+            sinIm[step] = sIm;
+            
+            for (int j = k; j <= last; j++) {
+                int upper = k * n + j;
+                int lower = (k + 1) * n + j;
+                double xRe = re[upper];
+                double xIm = im[upper];
+                double yRe = re[lower];
+                double yIm = im[lower];
+                //x' = c*x + s*y, y' = -conj(s)*x + c*y
+                re[upper] = c * xRe + sRe * yRe - sIm * yIm;
+                im[upper] = c * xIm + sRe * yIm + sIm * yRe;
+                re[lower] = c * yRe - (sRe * xRe + sIm * xIm);
+                im[lower] = c * yIm - (sRe * xIm - sIm * xRe);
+            }
+        }
+        
+        //right rotations by the conjugate transposes restore Hessenberg form
+        for (int k = lo; k < hi; k++) {
+            int step = k - lo;
+            double c = cos[step];
+            double sRe = sinRe[step];
+            double sIm = sinIm[step];
+            int lastRow = Math.min(k + 2, hi);
+            rotateColumns(re, im, n, k, first, lastRow, c, sRe, sIm);
+            if (zRe != null) {
+                rotateColumns(zRe, zIm, n, k, 0, n - 1, c, sRe, sIm);
+            }
+        }
+        
+        for (int k = lo; k <= hi; k++) {
+            re[k * n + k] += muRe;
+            im[k * n + k] += muIm;
+        }
+    }
+    
+    /**
+     * Rotate columns k and k + 1 over rows from to to on the right
+     */
+    private static void rotateColumns(double[] re, double[] im, int n, int k, int from, int to,
+            double c, double sRe, double sIm) {
+        for (int i = from; i <= to; i++) {
+            int left = i * n + k;
+            int right = i * n + k + 1;
+            double xRe = re[left];
+            double xIm = im[left];
+            double yRe = re[right];
+            double yIm = im[right];
+            //x' = c*x + conj(s)*y, y' = -s*x + c*y
+            re[left] = c * xRe + sRe * yRe + sIm * yIm;
+            im[left] = c * xIm + sRe * yIm - sIm * yRe;
+            re[right] = c * yRe - (sRe * xRe - sIm * xIm);
+            im[right] = c * yIm - (sRe * xIm + sIm * xRe);
+        }
+    }
+    
+    /**
+     * @return eigenvalue of the trailing 2x2 block closest to its last diagonal entry
+     */
+    private static double[] wilkinsonShift(double[] re, double[] im, int n, int hi) {
+        int a = (hi - 1) * n + hi - 1;
+        int b = (hi - 1) * n + hi;
+        int c = hi * n + hi - 1;
+        int d = hi * n + hi;
+        
+        //eigenvalues are d + h +- sqrt(h^2 + bc) where h = (a - d) / 2
+        double hRe = (re[a] - re[d]) / 2;
+        double hIm = (im[a] - im[d]) / 2;
+        double bcRe = re[b] * re[c] - im[b] * im[c];
+        double bcIm = re[b] * im[c] + im[b] * re[c];
+        double[] root = sqrt(hRe * hRe - hIm * hIm + bcRe, 2 * hRe * hIm + bcIm);
+        
+        //the closer eigenvalue is d + h - (+-root) = d - bc / (h +- root), taking the larger denominator
+        double denRe = hRe + root[0];
+        double denIm = hIm + root[1];
+        if (Math.hypot(denRe, denIm) < Math.hypot(hRe - root[0], hIm - root[1])) {
+            denRe = hRe - root[0];
+            denIm = hIm - root[1];
+        }
+        double[] shift = {re[d], im[d]};
+        double denom = denRe * denRe + denIm * denIm;
+        if (denom > 0) {
+            shift[0] -= (bcRe * denRe + bcIm * denIm) / denom;
+            shift[1] -= (bcIm * denRe - bcRe * denIm) / denom;
+        }
+        return shift;
+    }
+    
+    /**
+     * Ad hoc shift used periodically to break cycles of the Wilkinson shift
+     */
+    private static double[] exceptionalShift(double[] re, double[] im, int n, int hi) {
+        double[] shift = new double[2];
+        shift[0] = re[hi * n + hi] + 0.75 * Math.abs(re[hi * n + hi - 1]);
+        shift[1] = im[hi * n + hi] + 0.75 * Math.abs(im[hi * n + hi - 1]);
+        return shift;
+    }
+    
+    /**
+     * Similarity transform by a diagonal matrix of powers of two so that each row and
+     * column have comparable norms. Diagonal scaling preserves the Hessenberg form and
+     * the eigenvalues, and greatly improves the accuracy of companion matrices
+     */
+    private static void balance(double[] re, double[] im, int n) {
+        double radixSquared = RADIX * RADIX;
+        boolean done = false;
+        while (!done) {
+            done = true;
+            for (int i = 0; i < n; i++) {
+                double columnNorm = 0;
+                double rowNorm = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j != i) {
+                        columnNorm += abs1(re, im, j * n + i);
+                        rowNorm += abs1(re, im, i * n + j);
+                    }
+                }
+                if (columnNorm == 0 || rowNorm == 0) {
+                    continue;
+                }
+                
+                double g = rowNorm / RADIX;
+                double f = 1;
+                double sum = columnNorm + rowNorm;
+                while (columnNorm < g) {
+                    f *= RADIX;
+                    columnNorm *= radixSquared;
+                }
+                g = rowNorm * RADIX;
+                while (columnNorm > g) {
+                    f /= RADIX;
+                    columnNorm /= radixSquared;
+                }
+                
+                if ((columnNorm + rowNorm) / f < 0.95 * sum) {
+                    done = false;
+                    double inverse = 1 / f;
+                    for (int j = 0; j < n; j++) {
+                        re[i * n + j] *= inverse;
+                        im[i * n + j] *= inverse;
+                        re[j * n + i] *= f;
+                        im[j * n + i] *= f;
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return principal square root of re + im * i as {real part, imaginary part}
+     */
+    private static double[] sqrt(double re, double im) {
+        double[] root = new double[2];
+        double magnitude = Math.hypot(re, im);
+        if (magnitude == 0) {
+            return root;
+        }
+        double t = Math.sqrt((magnitude + Math.abs(re)) / 2);
+        if (re >= 0) {
+            root[0] = t;
+            root[1] = im / (2 * t);
+        } else {
+            root[0] = Math.abs(im) / (2 * t);
+            root[1] = Math.copySign(t, im);
+        }
+        return root;
+    }
+    
+    /**
+     * @return |re| + |im| of the entry at index, a cheap substitute for the modulus
+     */
+    private static double abs1(double[] re, double[] im, int index) {
+        return Math.abs(re[index]) + Math.abs(im[index]);
+    }
+    
+    /**
+     * @return sum of abs1 over the Hessenberg part of the block [lo, hi]
+     */
+    private static double norm1(double[] re, double[] im, int n, int lo, int hi) {
+        double norm = 0;
+        for (int i = lo; i <= hi; i++) {
+            for (int j = Math.max(lo, i - 1); j <= hi; j++) {
+                norm += abs1(re, im, i * n + j);
+            }
+        }
+        return norm;
+    }
+}
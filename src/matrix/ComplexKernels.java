@@ -0,0 +1,124 @@
+package matrix;
+
+/*
+ * Allocation-free complex arithmetic on primitive doubles.
+ * Complex numbers are passed as (real, imaginary) pairs, and complex vectors as
+ * split arrays of real and imaginary parts. Results are returned as one component
+ * at a time or written into caller-owned arrays, so hot loops create no objects.
+ */
+
+public final class ComplexKernels {
+    
+    private ComplexKernels() {
+    }
+    
+    /**
+     * @return real part of (aRe + aIm i) * (bRe + bIm i)
+     */
+    public static double multRe(double aRe, double aIm, double bRe, double bIm) {
+        return aRe * bRe - aIm * bIm;
+    }
+    
+    /**
+     * @return imaginary part of (aRe + aIm i) * (bRe + bIm i)
+     */
+    public static double multIm(double aRe, double aIm, double bRe, double bIm) {
+        return aRe * bIm + aIm * bRe;
+    }
+    
+    /**
+     * @return real part of (aRe + aIm i) / (bRe + bIm i)
+     */
+    public static double divRe(double aRe, double aIm, double bRe, double bIm) {
+        return (aRe * bRe + aIm * bIm) / (bRe * bRe + bIm * bIm);
+    }
+    
+    /**
+     * @return imaginary part of (aRe + aIm i) / (bRe + bIm i)
+     */
+    public static double divIm(double aRe, double aIm, double bRe, double bIm) {
+        return (aIm * bRe - aRe * bIm) / (bRe * bRe + bIm * bIm);
+    }
+    
+    /**
+     * @return squared magnitude re^2 + im^2, avoiding the square root
+     */
+    public static double magnitudeSquared(double re, double im) {
+        return re * re + im * im;
+    }
+    
+    /**
+     * y[i] += a * x[i] for from <= i < to
+     */
+    public static void axpy(double aRe, double aIm, double[] xRe, double[] xIm,
+                            double[] yRe, double[] yIm, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double re = xRe[i];
+            double im = xIm[i];
+            yRe[i] += aRe * re - aIm * im;
+            yIm[i] += aRe * im + aIm * re;
+        }
+    }
+    
+    /**
+     * x[i] *= a for from <= i < to
+     */
+    public static void scale(double aRe, double aIm, double[] xRe, double[] xIm, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double re = xRe[i];
+            double im = xIm[i];
+            xRe[i] = aRe * re - aIm * im;
+            xIm[i] = aRe * im + aIm * re;
+        }
+    }
+    
+    /**
+     * x[i] /= a for from <= i < to, using one reciprocal for the whole range
+     */
+    public static void divide(double aRe, double aIm, double[] xRe, double[] xIm, int from, int to) {
+        double denom = aRe * aRe + aIm * aIm;
+        scale(aRe / denom, -aIm / denom, xRe, xIm, from, to);
+    }
+    
+    /**
+     * Evaluate a polynomial at x by Horner's rule
+     * @param coeffRe real parts of the coefficients in ascending order of degree
+     * @param coeffIm imaginary parts of the coefficients
+     * @param out two-element array receiving {real part, imaginary part}
+     */
+    public static void horner(double[] coeffRe, double[] coeffIm, double xRe, double xIm, double[] out) {
+        double valRe = 0;
+        double valIm = 0;
+        for (int deg = coeffRe.length - 1; deg >= 0; deg--) {
+            double nextRe = valRe * xRe - valIm * xIm + coeffRe[deg];
+            valIm = valRe * xIm + valIm * xRe + coeffIm[deg];
+            valRe = nextRe;
+        }
+        out[0] = valRe;
+        out[1] = valIm;
+    }
+    
+    /**
+     * @param values Complex numbers to split
+     * @return array of real parts
+     */
+    public static double[] realParts(Complex[] values) {
+        double[] output = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            output[i] = values[i].getReal();
+        }
+        return output;
+    }
+    
+    /**
+     * @param values Complex numbers to split
+     * @return array of imaginary parts
+     */
+    public static double[] imagParts(Complex[] values) {
+        double[] output = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            output[i] = values[i].getImag();
+        }
+        return output;
+    }
+}
@@ -140,12 +140,11 @@ public class ComplexMatrix implements Matrix<Complex> {
             Complex[] currentRow = this.getRow(row);
             for (int column = 0; column < thatSize[1]; column++) {
                 Complex[] currentColumn = matr.getColumn(column);
-                Complex dotProduct = new Complex(0,0);
+                ComplexAccumulator dotProduct = new ComplexAccumulator();
                 for (int i = 0; i < numCols; i++) {
-                    Complex partial = currentRow[i].mult(currentColumn[i]);
-                    dotProduct = dotProduct.add(partial);
+                    dotProduct.addProduct(currentRow[i], currentColumn[i]);
                 }
-                newRow.add(dotProduct);
+                newRow.add(dotProduct.toComplex());
             }
             newGrid.add(newRow);
         }
@@ -259,6 +258,73 @@ public class ComplexMatrix implements Matrix<Complex> {
         
         return this.rrefAndPseudoInverse().get(INV_INDEX);
     }
+    
+    /**
+     * Matrix exponential, through the real matrix [[Re A, -Im A], [Im A, Re A]] whose
+     * exponential has the same block form
+     * @return e^A
+     * @throws IncompatibleDimensionsException if matrix is not square
+     */
+    public Matrix<Complex> exponential() throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Exponential not defined for non-square matrix");
+        }
+        int n = numRows;
+        double[][] embedding = new double[2 * n][2 * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                Complex elt = this.getElement(i, j);
+                embedding[i][j] = elt.getReal();
+                embedding[i + n][j + n] = elt.getReal();
+                embedding[i][j + n] = -elt.getImag();
+                embedding[i + n][j] = elt.getImag();
+            }
+        }
+        double[][] exponential = BigDecimalMatrix.toArray(new MatrixExponential(embedding).exponential());
+        double[][] re = new double[n][n];
+        double[][] im = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                re[i][j] = exponential[i][j];
+                im[i][j] = exponential[i + n][j];
+            }
+        }
+        return new ComplexMatrix(toComplexGrid(re, im));
+    }
+    
+    /**
+     * @return principal logarithm X, with e^X = A and eigenvalues whose imaginary parts
+     *         lie in (-pi, pi]
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws ArithmeticException if matrix is singular
+     */
+    public Matrix<Complex> logarithm() throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Logarithm not defined for non-square matrix");
+        }
+        double[] re = new double[numRows * numRows];
+        double[] im = new double[numRows * numRows];
+        flatten(re, im);
+        MatrixFunctions.logarithm(re, im, numRows, false);
+        return unflatten(re, im);
+    }
+    
+    /**
+     * @return principal square root X, with X^2 = A and eigenvalues whose real parts
+     *         are nonnegative
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws ArithmeticException if a repeated zero eigenvalue prevents a principal square root
+     */
+    public Matrix<Complex> squareRoot() throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Square root not defined for non-square matrix");
+        }
+        double[] re = new double[numRows * numRows];
+        double[] im = new double[numRows * numRows];
+        flatten(re, im);
+        MatrixFunctions.squareRoot(re, im, numRows, false);
+        return unflatten(re, im);
+    }
 
     @Override
     public Set<Matrix<Complex>> nullspace() {
@@ -331,7 +397,8 @@ public class ComplexMatrix implements Matrix<Complex> {
             }
         }
         
-        Polynomial<Complex> determinant = ComplexMatrix.determinantFromArray(polyGrid);
+        //interpolate on a circle sized to the spectrum so every coefficient is resolved
+        Polynomial<Complex> determinant = new PolynomialMatrix(polyGrid).determinant(spectralRadiusBound());
         
         return determinant.zeroes((int)-Math.log(ERROR));
     }
@@ -341,6 +408,10 @@ public class ComplexMatrix implements Matrix<Complex> {
         Map<Complex, Set<Matrix<Complex>>> mapping = new HashMap<>();
         Complex[] eigenvalues = this.eigenvalues();
         for (Complex ev: eigenvalues) {
+            //repeated roots come back identical, so each eigenspace is only computed once
+            if (mapping.containsKey(ev)) {
+                continue;
+            }
             Set<Matrix<Complex>> eigenvectors = this.eigenvectors(ev);
             mapping.put(ev, eigenvectors);
         }
@@ -424,8 +495,8 @@ public class ComplexMatrix implements Matrix<Complex> {
     }
     
     /**
-     * two matrices are considered equivalent if their dimensions are the same, and each element
-     * is equal up to an error of 10^(-15) each for the real and imaginary parts
+     * two matrices are considered equivalent if their dimensions are the same, and the real and
+     * imaginary parts of each element are equal after rounding to a multiple of 10^(-6)
      * this and that must have both have Complex elements
      */
     @Override
@@ -445,8 +516,8 @@ public class ComplexMatrix implements Matrix<Complex> {
             for (int j = 0; j < thisDim[1]; j++) {
                 Complex thisElt = this.getElement(i, j);
                 Complex thatElt = thatMat.getElement(i, j);
-                if (Math.abs(thisElt.getReal() - thatElt.getReal()) > ERROR ||
-                        Math.abs(thisElt.getImag() - thatElt.getImag()) > ERROR) {
+                if (Double.compare(canonical(thisElt.getReal()), canonical(thatElt.getReal())) != 0 ||
+                        Double.compare(canonical(thisElt.getImag()), canonical(thatElt.getImag())) != 0) {
                     return false;
                 }
             }
@@ -454,30 +525,50 @@ public class ComplexMatrix implements Matrix<Complex> {
         return true;
     }
     
+    /**
+     * Hash of the dimensions and the canonical parts of a sample of the elements, so equal
+     * matrices hash alike; reads at most 16 x 16 elements, see MatrixHash.sample
+     */
     @Override
     public int hashCode() {
-        Complex sum = ZERO;
-        
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                sum = sum.add(this.getElement(i, j));
+        int[] rows = MatrixHash.sample(numRows);
+        int[] columns = MatrixHash.sample(numCols);
+        long hash = MatrixHash.mix(numRows, numCols);
+        double[] buffer = new double[2 * columns.length];
+        for (int row : rows) {
+            List<Complex> currentRow = matrix.get(row);
+            for (int k = 0; k < columns.length; k++) {
+                Complex elt = currentRow.get(columns[k]);
+                buffer[2 * k] = canonical(elt.getReal());
+                buffer[2 * k + 1] = canonical(elt.getImag());
             }
+            hash = MatrixHash.fingerprint(buffer, hash);
         }
-        return sum.hashCode();
+        return MatrixHash.fold(hash);
     }
     
     /**
-     * checks whether row contains nonzero values
-     * @param row array of Complex numbers
-     * @return false if row only contains 0, true otherwise
+     * Rounding to a grid makes equality transitive and lets hashCode agree with it
+     * @return part as the nearest whole number of multiples of ERROR, ties to even; -0.0 as 0.0
      */
-    private static boolean rowIsZero(List<Complex> row) {
-        for (Complex elt: row) {
-            if (!elt.equals(ZERO)) {
-                return false;
+    private static double canonical(double part) {
+        return Math.rint(part / ERROR) + 0.0;
+    }
+    
+    /**
+     * Every eigenvalue lies within the largest absolute row sum (infinity norm)
+     * @return a positive upper bound on the magnitude of the eigenvalues of this
+     */
+    private double spectralRadiusBound() {
+        double bound = 0;
+        for (int i = 0; i < numRows; i++) {
+            double rowSum = 0;
+            for (int j = 0; j < numCols; j++) {
+                rowSum += this.getElement(i, j).magnitude();
             }
+            bound = Math.max(bound, rowSum);
         }
-        return true;
+        return bound > 0 ? bound : 1;
     }
     
     /**
@@ -487,166 +578,156 @@ public class ComplexMatrix implements Matrix<Complex> {
      *          the same row operations on I
      */
     private List<Matrix<Complex>> rrefAndPseudoInverse() {
+        //work on split real/imaginary rows so that the elimination allocates no Complex objects
         //perform same operations as ref, while copying row operations to identity matrix of same size
-        Complex[][] id = new Complex[numRows][numCols];
-        for (int i = 0; i < numRows; i++) {
-            for (int j = 0; j < numCols; j++) {
-                if (i == j) {
-                    id[i][j] = ONE;
-                } else {
-                    id[i][j] = ZERO;
-                }
-            }
+        double[][] idRe = new double[numRows][numCols];
+        double[][] idIm = new double[numRows][numCols];
+        for (int i = 0; i < Math.min(numRows, numCols); i++) {
+            idRe[i][i] = 1;
         }
         
-        List<List<Complex>> newMatrix = new ArrayList<>();
+        double[][] newRe = new double[numRows][numCols];
+        double[][] newIm = new double[numRows][numCols];
         for (int row = 0; row < numRows; row++) {
-            List<Complex> newRow = new ArrayList<>();
+            List<Complex> currentRow = matrix.get(row);
             for (int col = 0; col < numCols; col++) {
-                newRow.add(this.getElement(row, col));
+                Complex elt = currentRow.get(col);
+                newRe[row][col] = elt.getReal();
+                newIm[row][col] = elt.getImag();
             }
-            newMatrix.add(newRow);
         }
         
         // perform row swaps for each column
         for (int columnCheck = 0; columnCheck < numCols; columnCheck++) {
             
             // find any row with a nonzero value in this column
-            Complex valueCheck = ZERO;
-            List<Complex> lowestRow = new ArrayList<>();
+            double checkRe = 0;
+            double checkIm = 0;
             int index = columnCheck - 1;
-            while (valueCheck.equals(ZERO) && index < numRows - 1) {
+            while (checkRe == 0 && checkIm == 0 && index < numRows - 1) {
                 index++;
-                lowestRow = newMatrix.get(index);
-                valueCheck = lowestRow.get(columnCheck);
+                checkRe = newRe[index][columnCheck];
+                checkIm = newIm[index][columnCheck];
             }
-            if (valueCheck.equals(ZERO)) {
+            if (checkRe == 0 && checkIm == 0) {
                 continue;
             }
+            double[] lowestRe = newRe[index];
+            double[] lowestIm = newIm[index];
             
             // retrieve same information from id matrix
-            Complex[] idRow = id[index];
+            double[] idRowRe = idRe[index];
+            double[] idRowIm = idIm[index];
             
             // simplify row so that first element is 1
-            Complex criticalElt = valueCheck;
-            for (int j = 0; j < lowestRow.size(); j++) {
-                Complex temp = lowestRow.get(j).div(criticalElt);
-                lowestRow.set(j, temp);
-                idRow[j] = idRow[j].div(criticalElt);
+            for (int j = 0; j < numCols; j++) {
+                double re = lowestRe[j];
+                double im = lowestIm[j];
+                lowestRe[j] = ComplexKernels.divRe(re, im, checkRe, checkIm);
+                lowestIm[j] = ComplexKernels.divIm(re, im, checkRe, checkIm);
+                re = idRowRe[j];
+                im = idRowIm[j];
+                idRowRe[j] = ComplexKernels.divRe(re, im, checkRe, checkIm);
+                idRowIm[j] = ComplexKernels.divIm(re, im, checkRe, checkIm);
             }
             
             // use simplified row ot reduce rest of matrix
             for (int row = 0; row < numRows; row++) {
                 if (row != index) {
-                    List<Complex> rowToBeReduced = newMatrix.get(row);
-                    Complex entryFactor = rowToBeReduced.get(columnCheck);
-                    
-                    Complex[] idTBR = new Complex[numCols];
-                    for (int zero = 0; zero < numCols; zero++) {
-                        idTBR[zero] = ZERO;
-                    }
+                    double factorRe = -newRe[row][columnCheck];
+                    double factorIm = -newIm[row][columnCheck];
+                    ComplexKernels.axpy(factorRe, factorIm, lowestRe, lowestIm, newRe[row], newIm[row], 0, numCols);
                     if (row < numCols) {
-                        idTBR = id[row];
-                    }
-                    
-                    for (int j = 0; j < numCols; j++) {
-                        Complex temp = rowToBeReduced.get(j).sub(entryFactor.mult(lowestRow.get(j)));
-                        rowToBeReduced.set(j, temp);
-                        idTBR[j] = idTBR[j].sub(entryFactor.mult(idRow[j]));
+                        ComplexKernels.axpy(factorRe, factorIm, idRowRe, idRowIm, idRe[row], idIm[row], 0, numCols);
                     }
                 }
             }
             
             // swap rows
-            List<Complex> tmp = newMatrix.get(columnCheck);
-            newMatrix.set(columnCheck, lowestRow);
-            newMatrix.set(index, tmp);
-            
-            Complex[] idTmp = id[columnCheck];
-            id[columnCheck] = idRow;
-            id[index] = idTmp;
+            ComplexMatrix.swapRows(newRe, columnCheck, index);
+            ComplexMatrix.swapRows(newIm, columnCheck, index);
+            ComplexMatrix.swapRows(idRe, columnCheck, index);
+            ComplexMatrix.swapRows(idIm, columnCheck, index);
         }
         
         // move all zero rows to the bottom of the matrix
         for (int i = 0; i < numRows; i++) {
-            List<Complex> currentRow = newMatrix.get(i);
-            if(ComplexMatrix.rowIsZero(currentRow)) {
+            if (ComplexMatrix.rowIsZero(newRe[i], newIm[i])) {
                 for (int j = i; j < numRows - 1; j++) {
-                    List<Complex> tmp = newMatrix.get(j + 1);
-                    newMatrix.set(j + 1, newMatrix.get(j));
-                    newMatrix.set(j, tmp);
+                    ComplexMatrix.swapRows(newRe, j, j + 1);
+                    ComplexMatrix.swapRows(newIm, j, j + 1);
                     
                     if (j < numCols) {
-                        Complex[] idTmp = id[j + 1];
-                        id[j + 1] = id[j];
-                        id[j] = idTmp;
+                        ComplexMatrix.swapRows(idRe, j, j + 1);
+                        ComplexMatrix.swapRows(idIm, j, j + 1);
                     }
                 }
             }
         }
         
-        Matrix<Complex> rref = new ComplexMatrix(newMatrix);
-        Matrix<Complex> pseudoId = new ComplexMatrix(id);
+        Matrix<Complex> rref = new ComplexMatrix(ComplexMatrix.toComplexGrid(newRe, newIm));
+        Matrix<Complex> pseudoId = new ComplexMatrix(ComplexMatrix.toComplexGrid(idRe, idIm));
         List<Matrix<Complex>> output = new ArrayList<>(Arrays.asList(rref, pseudoId));
         return output;
     }
     
     /**
-     * Returns minor two-dimensional array (must be square)
-     * @param grid two-dimensional array of complex polynomials
-     * @param row row index
-     * @param column column index
-     * @return two-dimensional grid representing minor matrix
-     * @throws ArrayIndexOutOfBoundsException if indices not in range 
+     * checks whether a split real/imaginary row contains only zeros
+     * @return false if row contains a nonzero value, true otherwise
      */
-    private static Polynomial<Complex>[][] minorFromArray(Polynomial<Complex>[][] grid, int row, int column)
-                                                    throws ArrayIndexOutOfBoundsException {
-        List<List<Polynomial<Complex>>> newGrid = new ArrayList<>();
-        for (int rowIndex = 0; rowIndex < grid.length; rowIndex++) {
-            if (rowIndex != row) {
-                List<Polynomial<Complex>> newRow = new ArrayList<>();
-                for (int colIndex = 0; colIndex < grid.length; colIndex++) {
-                    if (colIndex != column) {
-                        newRow.add(grid[rowIndex][colIndex]);
-                    }
-                }
-                newGrid.add(newRow);
+    private static boolean rowIsZero(double[] re, double[] im) {
+        for (int j = 0; j < re.length; j++) {
+            if (re[j] != 0 || im[j] != 0) {
+                return false;
             }
         }
-
-        Polynomial<Complex>[][] minorArray = new ComplexPoly[grid.length - 1][grid.length - 1];
-        for (int i = 0; i < newGrid.size(); i++) {
-            List<Polynomial<Complex>> currentRow = newGrid.get(i);
-            for (int j = 0; j < newGrid.size(); j++) {
-                minorArray[i][j] = currentRow.get(j);
+        return true;
+    }
+    
+    private static void swapRows(double[][] grid, int first, int second) {
+        double[] tmp = grid[first];
+        grid[first] = grid[second];
+        grid[second] = tmp;
+    }
+    
+    /**
+     * Copy the entries row-major into split real and imaginary arrays
+     */
+    private void flatten(double[] re, double[] im) {
+        for (int i = 0; i < numRows; i++) {
+            List<Complex> currentRow = matrix.get(i);
+            for (int j = 0; j < numCols; j++) {
+                re[i * numCols + j] = currentRow.get(j).getReal();
+                im[i * numCols + j] = currentRow.get(j).getImag();
             }
         }
-
-        return minorArray;
     }
     
     /**
-     * Calculate the determinant of a two-dimensional array
-     * @param grid two-dimensional array representation of a matrix (must be square)
-     * @return determinant of two-dimensional grid
+     * @return square matrix assembled from row-major split real and imaginary arrays
      */
-    private static Polynomial<Complex> determinantFromArray(Polynomial<Complex>[][] grid) {
-        if (grid.length == 1) {
-            return grid[0][0];
+    private ComplexMatrix unflatten(double[] re, double[] im) {
+        Complex[][] grid = new Complex[numRows][numCols];
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numCols; j++) {
+                grid[i][j] = new Complex(re[i * numCols + j], im[i * numCols + j]);
+            }
         }
-        
-        Polynomial<Complex>[] firstRow = grid[0];
-        Polynomial<Complex> determinant = new ComplexPoly(ZERO);
-        for (int i = 0; i < grid.length; i++) {
-            Polynomial<Complex> cofactor = firstRow[i];
-            double sign = Math.pow(-1, i);
-            
-            Polynomial<Complex>[][] minor = ComplexMatrix.minorFromArray(grid, 0, i);
-            Polynomial<Complex> minorDet = ComplexMatrix.determinantFromArray(minor);
-            determinant = determinant.add(cofactor.mult(minorDet).mult(sign));
+        return new ComplexMatrix(grid);
+    }
+    
+    /**
+     * @return two-dimensional array of Complex numbers assembled from split parts
+     */
+    private static Complex[][] toComplexGrid(double[][] re, double[][] im) {
+        Complex[][] grid = new Complex[re.length][];
+        for (int i = 0; i < re.length; i++) {
+            grid[i] = new Complex[re[i].length];
+            for (int j = 0; j < re[i].length; j++) {
+                grid[i][j] = new Complex(re[i][j], im[i][j]);
+            }
         }
-        
-        return determinant;
+        return grid;
     }
     
     public static void main(String[] args) {
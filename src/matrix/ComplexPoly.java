@@ -1,10 +1,32 @@
 package matrix;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class ComplexPoly implements Polynomial<Complex> {
     
+    /**
+     * Strategies available for finding the zeroes of a polynomial
+     */
+    public enum RootMethod {
+        /** simultaneous Weierstrass iteration on all roots */
+        DURAND_KERNER,
+        /** eigenvalues of the balanced companion matrix by Hessenberg QR, polished by Newton's method */
+        COMPANION_MATRIX
+    }
+    
     private final static Complex ONE = new Complex(1, 0);
     private final static Complex ZERO = new Complex(0, 0);
     private final static Complex ROOT_START = new Complex(0.4, 0.9);
+    private final static double GCD_ERROR = Math.pow(10, -8);
+    private final static double UNIT_ROUNDOFF = Math.ulp(1.0) / 2;
+    private final static int MAX_ITERATIONS = 10000;
+    private final static int NEWTON_STEPS = 2;
+    private final static int QUOTIENT_INDEX = 0;
+    private final static int REMAINDER_INDEX = 1;
     
     private final Complex[] coefficients;
     private final int degree;
@@ -182,52 +204,535 @@ public class ComplexPoly implements Polynomial<Complex> {
         return this.mult(factor);
     }
 
+    /**
+     * Roots are found one squarefree factor at a time with Durand-Kerner, so each distinct root
+     * is solved once on a well-conditioned polynomial and then repeated according to its multiplicity.
+     * Roots that differ by more than 10^(-numPlaces) are never reported as one repeated root
+     * @throws ArithmeticException if the Durand-Kerner iteration fails to converge
+     */
     @Override
     public Complex[] zeroes(int numPlaces) {
+        return this.zeroes(numPlaces, RootMethod.DURAND_KERNER);
+    }
+    
+    /**
+     * Calculate the zeroes of the polynomial with the given strategy, solving each squarefree
+     * factor separately and repeating each root according to its multiplicity
+     * @param numPlaces desired number of decimal places of accuracy
+     * @param method root finding strategy
+     * @return an array of approximations of the roots
+     * @throws ArithmeticException if the Durand-Kerner or companion matrix iteration fails to converge
+     */
+    public Complex[] zeroes(int numPlaces, RootMethod method) throws ArithmeticException {
+        Complex[] output = new Complex[this.degree()];
+        int index = 0;
+        List<Complex[]> factorRoots = this.rootsByMultiplicity(numPlaces, method);
+        for (int i = 0; i < factorRoots.size(); i++) {
+            for (Complex root: factorRoots.get(i)) {
+                for (int multiplicity = 0; multiplicity <= i; multiplicity++) {
+                    output[index] = root;
+                    index++;
+                }
+            }
+        }
+        return output;
+    }
+    
+    /**
+     * Calculate the distinct zeroes of the polynomial along with their multiplicities
+     * @param numPlaces desired number of decimal places of accuracy
+     * @return mapping of each distinct root to the number of times it repeats
+     * @throws ArithmeticException if the Durand-Kerner iteration fails to converge
+     */
+    public Map<Complex, Integer> distinctZeroes(int numPlaces) {
+        Map<Complex, Integer> output = new LinkedHashMap<>();
+        List<Complex[]> factorRoots = this.rootsByMultiplicity(numPlaces, RootMethod.DURAND_KERNER);
+        for (int i = 0; i < factorRoots.size(); i++) {
+            for (Complex root: factorRoots.get(i)) {
+                Integer previous = output.get(root);
+                output.put(root, previous == null ? i + 1 : previous + i + 1);
+            }
+        }
+        return output;
+    }
+    
+    /**
+     * @return the derivative of this with respect to x
+     */
+    public Polynomial<Complex> derivative() {
+        if (this.degree() == 0) {
+            return new ComplexPoly(ZERO);
+        }
+        return new ComplexPoly(ComplexPoly.derivative(this.coefficients));
+    }
+    
+    /**
+     * Compute the greatest common divisor by the Euclidean algorithm. Remainders smaller
+     * than 10^(-8) relative to the inputs are treated as zero, so roots closer together
+     * than roughly 10^(-4) are considered repeated
+     * @param that Polynomial
+     * @return monic greatest common divisor of this and that
+     */
+    public Polynomial<Complex> gcd(Polynomial<Complex> that) {
+        return new ComplexPoly(ComplexPoly.gcd(this.coefficients, that.coefficients()));
+    }
+    
+    /**
+     * Squarefree factorization by Yun's algorithm: this = c * f_1 * f_2^2 * ... * f_k^k
+     * where each f_i is monic, has only simple roots, and shares no roots with any other f_j
+     * @return list whose element at index i is f_(i + 1), a constant 1 if no root repeats exactly i + 1 times
+     */
+    public List<Polynomial<Complex>> squarefreeFactors() {
+        List<Polynomial<Complex>> factors = new ArrayList<>();
+        if (this.degree() == 0) {
+            return factors;
+        }
+        
+        Complex[] derivative = ComplexPoly.derivative(this.coefficients);
+        Complex[] common = ComplexPoly.gcd(this.coefficients, derivative);
+        Complex[] b = ComplexPoly.divide(this.coefficients, common).get(QUOTIENT_INDEX);
+        Complex[] c = ComplexPoly.divide(derivative, common).get(QUOTIENT_INDEX);
+        Complex[] d = ComplexPoly.yunDifference(c, ComplexPoly.derivative(b));
+        
+        //at most degree() factors can be produced, which also guards against numerical stalls
+        while (b.length > 1 && factors.size() < this.degree()) {
+            Complex[] factor = ComplexPoly.gcd(b, d);
+            factors.add(new ComplexPoly(factor));
+            b = ComplexPoly.divide(b, factor).get(QUOTIENT_INDEX);
+            c = ComplexPoly.divide(d, factor).get(QUOTIENT_INDEX);
+            d = ComplexPoly.yunDifference(c, ComplexPoly.derivative(b));
+        }
+        
+        //drop trailing constant factors left when the highest multiplicity is reached early
+        while (!factors.isEmpty() && factors.get(factors.size() - 1).degree() == 0) {
+            factors.remove(factors.size() - 1);
+        }
+        
+        //if the tolerances misjudged a near-repeated root, treat the polynomial as squarefree
+        if (b.length > 1 || !this.isProductOf(factors)) {
+            factors.clear();
+            factors.add(new ComplexPoly(ComplexPoly.monic(this.coefficients)));
+        }
+        return factors;
+    }
+    
+    /**
+     * Solve each squarefree factor. The gcd tolerance can merge distinct roots that are close
+     * together into one repeated root, so every repeated root is checked against this: if its
+     * cluster of roots is wider than the requested accuracy, this is solved as if squarefree
+     * @param numPlaces desired number of decimal places of accuracy
+     * @param method root finding strategy
+     * @return list whose element at index i holds the roots of multiplicity i + 1, rounded to numPlaces
+     */
+    private List<Complex[]> rootsByMultiplicity(int numPlaces, RootMethod method) {
+        List<Complex[]> output = new ArrayList<>();
+        List<Polynomial<Complex>> factors = this.squarefreeFactors();
+        boolean resolved = true;
+        for (int i = 0; i < factors.size(); i++) {
+            Complex[] roots = ((ComplexPoly)factors.get(i)).simpleZeroes(numPlaces, method);
+            for (int j = 0; i > 0 && j < roots.length; j++) {
+                roots[j] = this.repeatedRoot(roots[j], i + 1, numPlaces);
+                resolved &= roots[j] != null;
+            }
+            output.add(roots);
+        }
+        if (!resolved) {
+            output.clear();
+            output.add(new ComplexPoly(ComplexPoly.monic(this.coefficients)).simpleZeroes(numPlaces, method));
+        }
+        
+        for (Complex[] roots: output) {
+            for (int j = 0; j < roots.length; j++) {
+                roots[j] = roots[j].round(numPlaces);
+            }
+        }
+        return output;
+    }
+    
+    /**
+     * Check a root found with multiplicity m against this. The m roots of this that it
+     * stands for average to the zero of the (m - 1)th derivative, found by Newton's method;
+     * about that center the Taylor coefficients a_k of this, with a_(m - 1) = 0, bound the
+     * distance of those roots from it by 2 max (|a_k| / |a_m|)^(1 / (m - k)) over k < m - 1.
+     * The parts of a_k within the rounding error of computing them are discarded
+     * @param root approximation of a root of a squarefree factor
+     * @param multiplicity m >= 2
+     * @param numPlaces desired number of decimal places of accuracy
+     * @return center of the m roots near root if they all lie within half of 10^(-numPlaces)
+     *         of it, null otherwise
+     */
+    private Complex repeatedRoot(Complex root, int multiplicity, int numPlaces) {
+        Complex center = root;
+        Complex[] taylor = this.taylorCoefficients(center, multiplicity);
+        for (int step = 0; step < NEWTON_STEPS; step++) {
+            if (taylor[multiplicity].equals(ZERO)) {
+                return null;
+            }
+            center = center.sub(taylor[multiplicity - 1].div(taylor[multiplicity].mult(multiplicity)));
+            taylor = this.taylorCoefficients(center, multiplicity);
+        }
+        
+        Complex[] magnitudes = new Complex[this.degree() + 1];
+        for (int deg = 0; deg <= this.degree(); deg++) {
+            magnitudes[deg] = new Complex(this.coefficients[deg].magnitude(), 0);
+        }
+        Complex[] bounds = new ComplexPoly(magnitudes).taylorCoefficients(new Complex(center.magnitude(), 0),
+                multiplicity);
+        double lead = taylor[multiplicity].magnitude();
+        double radius = 0;
+        for (int k = 0; k < multiplicity - 1; k++) {
+            double rounding = 4 * this.degree() * UNIT_ROUNDOFF * bounds[k].getReal();
+            double excess = Math.max(0, taylor[k].magnitude() - rounding);
+            radius = Math.max(radius, 2 * Math.pow(excess / lead, 1.0 / (multiplicity - k)));
+        }
+        if (!(radius < Math.pow(10, -numPlaces) / 2)) {
+            return null;
+        }
+        return center;
+    }
+    
+    /**
+     * Taylor coefficients about center by repeated synthetic division
+     * @param center point to expand about
+     * @param count highest coefficient needed
+     * @return coefficients a_0, ..., a_count with this(x) = sum of a_k (x - center)^k
+     */
+    private Complex[] taylorCoefficients(Complex center, int count) {
+        Complex[] work = Arrays.copyOf(this.coefficients, this.degree() + 1);
+        Complex[] output = new Complex[count + 1];
+        for (int k = 0; k <= count; k++) {
+            if (k > this.degree()) {
+                output[k] = ZERO;
+                continue;
+            }
+            for (int deg = this.degree() - 1; deg >= k; deg--) {
+                work[deg] = work[deg].add(work[deg + 1].mult(center));
+            }
+            output[k] = work[k];
+        }
+        return output;
+    }
+    
+    /**
+     * Find the roots of a polynomial without repeated roots
+     * @param numPlaces desired number of decimal places of accuracy
+     * @param method root finding strategy
+     * @return an array of approximations of the roots, not rounded
+     */
+    private Complex[] simpleZeroes(int numPlaces, RootMethod method) {
+        if (method == RootMethod.COMPANION_MATRIX) {
+            return this.companionRoots(numPlaces);
+        }
+        return this.durandKerner(numPlaces);
+    }
+    
+    /**
+     * Eigenvalues of the companion matrix, which is upper Hessenberg with the negated
+     * normalized coefficients in its first row and ones on its subdiagonal
+     * @param numPlaces desired number of decimal places of accuracy
+     * @return an array of approximations of the roots, not rounded
+     */
+    private Complex[] companionRoots(int numPlaces) {
+        int n = this.degree();
+        if (n == 0) {
+            return new Complex[0];
+        }
+        
+        Complex lead = this.coeffAtDeg(n);
+        double[] re = new double[n * n];
+        double[] im = new double[n * n];
+        for (int j = 0; j < n; j++) {
+            Complex entry = this.coeffAtDeg(n - 1 - j).div(lead);
+            re[j] = -entry.getReal();
+            im[j] = -entry.getImag();
+        }
+        for (int i = 1; i < n; i++) {
+            re[i * n + i - 1] = 1;
+        }
+        
+        Complex[] roots = ComplexHessenbergQR.eigenvalues(re, im, n);
+        for (int i = 0; i < n; i++) {
+            for (int step = 0; step < NEWTON_STEPS; step++) {
+                roots[i] = this.newtonStep(roots[i]);
+            }
+        }
+        return roots;
+    }
+    
+    /**
+     * One step of Newton's method, evaluating this and its derivative together by Horner's rule
+     * @param root current approximation of a simple root
+     * @return improved approximation, or root itself if the derivative vanishes
+     */
+    private Complex newtonStep(Complex root) {
+        Complex value = this.coeffAtDeg(this.degree());
+        Complex slope = ZERO;
+        for (int deg = this.degree() - 1; deg >= 0; deg--) {
+            slope = slope.mult(root).add(value);
+            value = value.mult(root).add(this.coeffAtDeg(deg));
+        }
+        if (slope.equals(ZERO)) {
+            return root;
+        }
+        return root.sub(value.div(slope));
+    }
+    
+    /**
+     * Durand-Kerner (Weierstrass) iteration for all roots simultaneously
+     * Converges quadratically when the roots are simple
+     * @param numPlaces desired number of decimal places of accuracy
+     * @return an array of approximations of the roots, not rounded
+     * @throws ArithmeticException if the iteration fails to converge within MAX_ITERATIONS
+     */
+    private Complex[] durandKerner(int numPlaces) {
         double errorBound = Math.pow(10, numPlaces * -1);
-        ComplexPoly altered = (ComplexPoly)this.div(this.coeffAtDeg(this.degree()));
+        int n = this.degree();
         
-        Complex[] current = new Complex[this.degree()];
-        Complex[] next = new Complex[this.degree()];
-        for (int i = 0; i < current.length; i++) {
-            current[i] = ROOT_START.pow(i);
-            next[i] = current[i];
+        //normalize to a monic polynomial, held as split primitive arrays for the inner loops
+        Complex leadInverse = this.coeffAtDeg(n).pow(-1);
+        double[] coeffRe = new double[n + 1];
+        double[] coeffIm = new double[n + 1];
+        for (int deg = 0; deg <= n; deg++) {
+            Complex co = this.coeffAtDeg(deg).mult(leadInverse);
+            coeffRe[deg] = co.getReal();
+            coeffIm[deg] = co.getImag();
         }
         
+        double[] currentRe = new double[n];
+        double[] currentIm = new double[n];
+        double startRe = 1;
+        double startIm = 0;
+        for (int i = 0; i < n; i++) {
+            currentRe[i] = startRe;
+            currentIm[i] = startIm;
+            double nextStart = ComplexKernels.multRe(startRe, startIm, ROOT_START.getReal(), ROOT_START.getImag());
+            startIm = ComplexKernels.multIm(startRe, startIm, ROOT_START.getReal(), ROOT_START.getImag());
+            startRe = nextStart;
+        }
+        double[] nextRe = currentRe.clone();
+        double[] nextIm = currentIm.clone();
+        double[] value = new double[2];
+        
         boolean notCloseEnough = true;
-        while (notCloseEnough) {
-            for (int root = 0; root < current.length; root++) {
-                Complex currentValue = current[root];
-                Complex delta = altered.plugIn(currentValue);
-                for (int otherRoot = 0; otherRoot < current.length; otherRoot++) {
+        int iterations = 0;
+        while (notCloseEnough && iterations < MAX_ITERATIONS) {
+            iterations++;
+            for (int root = 0; root < n; root++) {
+                double re = currentRe[root];
+                double im = currentIm[root];
+                ComplexKernels.horner(coeffRe, coeffIm, re, im, value);
+                double deltaRe = value[0];
+                double deltaIm = value[1];
+                for (int otherRoot = 0; otherRoot < n; otherRoot++) {
                     if (otherRoot != root) {
-                        Complex otherValue = current[otherRoot];
-                        Complex partial = currentValue.sub(otherValue);
-                        delta = delta.div(partial);
+                        double partialRe = re - currentRe[otherRoot];
+                        double partialIm = im - currentIm[otherRoot];
+                        double quotientRe = ComplexKernels.divRe(deltaRe, deltaIm, partialRe, partialIm);
+                        deltaIm = ComplexKernels.divIm(deltaRe, deltaIm, partialRe, partialIm);
+                        deltaRe = quotientRe;
                     }
                 }
-                next[root] = next[root].sub(delta);
+                nextRe[root] -= deltaRe;
+                nextIm[root] -= deltaIm;
             }
             
             notCloseEnough = false;
-            for (int rootCheck = 0; rootCheck < current.length; rootCheck++) {
-                Complex oldValue = current[rootCheck];
-                Complex newValue = next[rootCheck];
-                Complex valueCheck = newValue.sub(oldValue);
-                if (valueCheck.magnitude() > errorBound) {
+            double boundSquared = errorBound * errorBound;
+            for (int rootCheck = 0; rootCheck < n; rootCheck++) {
+                double diffRe = nextRe[rootCheck] - currentRe[rootCheck];
+                double diffIm = nextIm[rootCheck] - currentIm[rootCheck];
+                if (ComplexKernels.magnitudeSquared(diffRe, diffIm) > boundSquared) {
                     notCloseEnough = true;
                     break;
                 }
             }
-            for (int i = 0; i < current.length; i++) {
-                current[i] = next[i];
+            System.arraycopy(nextRe, 0, currentRe, 0, n);
+            System.arraycopy(nextIm, 0, currentIm, 0, n);
+        }
+        if (notCloseEnough) {
+            throw new ArithmeticException("Durand-Kerner iteration did not converge");
+        }
+        
+        Complex[] output = new Complex[n];
+        for (int i = 0; i < n; i++) {
+            output[i] = new Complex(nextRe[i], nextIm[i]);
+        }
+        return output;
+    }
+    
+    /**
+     * Check a squarefree factorization against this
+     * @param factors list whose element at index i has multiplicity i + 1
+     * @return true if the product of the factors matches this, up to its leading coefficient
+     */
+    private boolean isProductOf(List<Polynomial<Complex>> factors) {
+        Polynomial<Complex> product = new ComplexPoly(ONE);
+        for (int i = 0; i < factors.size(); i++) {
+            for (int multiplicity = 0; multiplicity <= i; multiplicity++) {
+                product = product.mult(factors.get(i));
+            }
+        }
+        if (product.degree() != this.degree()) {
+            return false;
+        }
+        
+        Complex[] expected = ComplexPoly.monic(this.coefficients);
+        double cutoff = Math.sqrt(GCD_ERROR) * ComplexPoly.largestMagnitude(expected);
+        for (int deg = 0; deg <= this.degree(); deg++) {
+            if (expected[deg].sub(product.coeffAtDeg(deg)).magnitude() > cutoff) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * The difference c - b' in Yun's algorithm, which is exactly zero once every factor
+     * has been found. Rounding noise relative to the inputs is cleared so that the zero is detected
+     * @return coefficients of c - b', the constant 0 if the difference is negligible
+     */
+    private static Complex[] yunDifference(Complex[] c, Complex[] bPrime) {
+        double cutoff = GCD_ERROR * Math.max(ComplexPoly.largestMagnitude(c), ComplexPoly.largestMagnitude(bPrime));
+        Complex[] difference = ComplexPoly.trim(ComplexPoly.subtract(c, bPrime), cutoff);
+        if (difference.length == 1 && difference[0].magnitude() <= cutoff) {
+            Complex[] zero = {ZERO};
+            return zero;
+        }
+        return difference;
+    }
+    
+    /**
+     * @param coeffs coefficients in ascending order of degree
+     * @return largest magnitude among coeffs
+     */
+    private static double largestMagnitude(Complex[] coeffs) {
+        double largest = 0;
+        for (Complex co: coeffs) {
+            largest = Math.max(largest, co.magnitude());
+        }
+        return largest;
+    }
+    
+    /**
+     * Remove leading coefficients with magnitude at most cutoff, keeping at least the constant term
+     * @param coeffs coefficients in ascending order of degree
+     * @param cutoff nonnegative threshold
+     * @return trimmed copy of coeffs
+     */
+    private static Complex[] trim(Complex[] coeffs, double cutoff) {
+        int degree = coeffs.length - 1;
+        while (degree > 0 && coeffs[degree].magnitude() <= cutoff) {
+            degree--;
+        }
+        return Arrays.copyOf(coeffs, degree + 1);
+    }
+    
+    /**
+     * @param coeffs coefficients in ascending order of degree
+     * @return coefficients of the derivative, the constant 0 for a constant input
+     */
+    private static Complex[] derivative(Complex[] coeffs) {
+        if (coeffs.length == 1) {
+            Complex[] zero = {ZERO};
+            return zero;
+        }
+        Complex[] output = new Complex[coeffs.length - 1];
+        for (int deg = 1; deg < coeffs.length; deg++) {
+            output[deg - 1] = coeffs[deg].mult(deg);
+        }
+        return output;
+    }
+    
+    /**
+     * @return coefficients of first - second, with exactly cancelled leading terms removed
+     */
+    private static Complex[] subtract(Complex[] first, Complex[] second) {
+        Complex[] output = new Complex[Math.max(first.length, second.length)];
+        for (int deg = 0; deg < output.length; deg++) {
+            Complex a = deg < first.length ? first[deg] : ZERO;
+            Complex b = deg < second.length ? second[deg] : ZERO;
+            output[deg] = a.sub(b);
+        }
+        return ComplexPoly.trim(output, 0);
+    }
+    
+    /**
+     * Polynomial long division
+     * @param numerator coefficients in ascending order of degree
+     * @param denominator coefficients in ascending order of degree with nonzero leading term
+     * @return two-element list: {quotient, remainder}
+     */
+    private static List<Complex[]> divide(Complex[] numerator, Complex[] denominator) {
+        int denDegree = denominator.length - 1;
+        Complex lead = denominator[denDegree];
+        Complex[] remainder = Arrays.copyOf(numerator, numerator.length);
+        if (numerator.length <= denDegree) {
+            Complex[] zero = {ZERO};
+            return new ArrayList<>(Arrays.asList(zero, remainder));
+        }
+        
+        Complex[] quotient = new Complex[numerator.length - denDegree];
+        for (int deg = quotient.length - 1; deg >= 0; deg--) {
+            Complex factor = remainder[deg + denDegree].div(lead);
+            quotient[deg] = factor;
+            for (int j = 0; j <= denDegree; j++) {
+                remainder[deg + j] = remainder[deg + j].sub(factor.mult(denominator[j]));
+            }
+        }
+        Complex[] rest = denDegree == 0 ? new Complex[] {ZERO} : Arrays.copyOf(remainder, denDegree);
+        return new ArrayList<>(Arrays.asList(quotient, ComplexPoly.trim(rest, 0)));
+    }
+    
+    /**
+     * @param coeffs coefficients in ascending order of degree with nonzero leading term
+     * @return coeffs divided by the leading coefficient
+     */
+    private static Complex[] monic(Complex[] coeffs) {
+        Complex lead = coeffs[coeffs.length - 1];
+        Complex[] output = new Complex[coeffs.length];
+        for (int deg = 0; deg < coeffs.length; deg++) {
+            output[deg] = coeffs[deg].div(lead);
+        }
+        return output;
+    }
+    
+    /**
+     * Euclidean algorithm on monic remainders. A remainder is treated as zero once all of its
+     * coefficients are below 10^(-8) relative to the polynomials being divided
+     * @param first coefficients in ascending order of degree
+     * @param second coefficients in ascending order of degree
+     * @return coefficients of the monic greatest common divisor of first and second,
+     *         the constant 0 if both are identically zero
+     */
+    private static Complex[] gcd(Complex[] first, Complex[] second) {
+        if (ComplexPoly.largestMagnitude(first) == 0) {
+            if (ComplexPoly.largestMagnitude(second) == 0) {
+                Complex[] zero = {ZERO};
+                return zero;
             }
+            return ComplexPoly.gcd(second, first);
+        }
+        Complex[] a = ComplexPoly.monic(ComplexPoly.trim(first, GCD_ERROR * ComplexPoly.largestMagnitude(first)));
+        double secondScale = ComplexPoly.largestMagnitude(second);
+        if (secondScale == 0) {
+            return a;
+        }
+        Complex[] b = ComplexPoly.monic(ComplexPoly.trim(second, GCD_ERROR * secondScale));
+        if (a.length < b.length) {
+            Complex[] tmp = a;
+            a = b;
+            b = tmp;
         }
         
-        for (int i = 0; i < next.length; i++) {
-            next[i] = next[i].round(numPlaces);
+        while (true) {
+            Complex[] remainder = ComplexPoly.divide(a, b).get(REMAINDER_INDEX);
+            double scale = Math.max(ComplexPoly.largestMagnitude(a), ComplexPoly.largestMagnitude(b));
+            if (ComplexPoly.largestMagnitude(remainder) <= GCD_ERROR * scale) {
+                return b;
+            }
+            a = b;
+            b = ComplexPoly.monic(ComplexPoly.trim(remainder, GCD_ERROR * scale));
         }
-        return next;
     }
     
     @Override
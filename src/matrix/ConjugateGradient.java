@@ -0,0 +1,86 @@
+package matrix;
+
+/*
+ * Conjugate gradient method for symmetric positive-definite systems.
+ * One operator application, one preconditioner application and two inner products
+ * per iteration, with four work vectors of length n. The preconditioner must also be
+ * symmetric positive definite, e.g. Jacobi, SSOR or incomplete Cholesky.
+ * In exact arithmetic it converges in at most n iterations, and the error contracts
+ * by roughly (sqrt(k) - 1) / (sqrt(k) + 1) per iteration for condition number k of
+ * the preconditioned system.
+ */
+
+public class ConjugateGradient extends IterativeSolver {
+    
+    /**
+     * Solver with relative tolerance 1e-10 and at most 1000 iterations
+     */
+    public ConjugateGradient() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+    
+    /**
+     * @param tolerance positive relative residual at which to stop
+     * @param maxIterations positive iteration limit
+     * @throws IllegalArgumentException if either is not positive
+     */
+    public ConjugateGradient(double tolerance, int maxIterations) {
+        this(tolerance, maxIterations, Preconditioner.IDENTITY);
+    }
+    
+    /**
+     * @param tolerance positive relative residual at which to stop
+     * @param maxIterations positive iteration limit
+     * @param preconditioner symmetric positive-definite approximate inverse
+     * @throws IllegalArgumentException if either number is not positive or preconditioner is null
+     */
+    public ConjugateGradient(double tolerance, int maxIterations, Preconditioner preconditioner) {
+        super(tolerance, maxIterations, preconditioner);
+    }
+    
+    @Override
+    boolean iterate(LinearOperator operator, double[] b, double[] x, double bNorm, History history) {
+        int n = b.length;
+        double[] r = new double[n];
+        double[] z = new double[n];
+        double[] p = new double[n];
+        double[] ap = new double[n];
+        
+        residual(operator, b, x, r);
+        double residualNorm = norm(r) / bNorm;
+        history.record(residualNorm);
+        if (residualNorm < tolerance) {
+            return true;
+        }
+        preconditioner.apply(r, z);
+        System.arraycopy(z, 0, p, 0, n);
+        double rz = dot(r, z);
+        
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            operator.apply(p, ap);
+            double curvature = dot(p, ap);
+            if (!(curvature > 0)) {
+                //operator is not positive definite along p
+                return false;
+            }
+            double alpha = rz / curvature;
+            axpy(alpha, p, x);
+            axpy(-alpha, ap, r);
+            
+            residualNorm = norm(r) / bNorm;
+            history.record(residualNorm);
+            if (residualNorm < tolerance) {
+                return true;
+            }
+            
+            preconditioner.apply(r, z);
+            double rzNext = dot(r, z);
+            double beta = rzNext / rz;
+            rz = rzNext;
+            for (int i = 0; i < n; i++) {
+                p[i] = z[i] + beta * p[i];
+            }
+        }
+        return false;
+    }
+}
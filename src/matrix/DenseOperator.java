@@ -0,0 +1,96 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/*
+ * LinearOperator backed by a dense row-major copy of a matrix in primitive doubles.
+ * Converting a BigDecimalMatrix once up front lets iterative algorithms run their
+ * matrix-vector products without BigDecimal arithmetic.
+ */
+
+public final class DenseOperator implements LinearOperator {
+    
+    private final double[][] entries;
+    private final int numRows;
+    private final int numCols;
+    
+    /**
+     * @param entries row-major array, must be nonempty and rectangular; copied
+     */
+    public DenseOperator(double[][] entries) {
+        numRows = entries.length;
+        numCols = entries[0].length;
+        this.entries = new double[numRows][];
+        for (int i = 0; i < numRows; i++) {
+            this.entries[i] = entries[i].clone();
+        }
+    }
+    
+    /**
+     * @param matrix valid Matrix instance
+     */
+    public DenseOperator(Matrix<BigDecimal> matrix) {
+        entries = BigDecimalMatrix.toArray(matrix);
+        numRows = entries.length;
+        numCols = entries[0].length;
+    }
+    
+    @Override
+    public int[] size() {
+        int[] dimensions = {numRows, numCols};
+        return dimensions;
+    }
+    
+    @Override
+    public void apply(double[] x, double[] y) {
+        for (int i = 0; i < numRows; i++) {
+            y[i] = dot(entries[i], x);
+        }
+    }
+    
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        Arrays.fill(y, 0, numCols, 0);
+        for (int i = 0; i < numRows; i++) {
+            double factor = x[i];
+            if (factor == 0) {
+                continue;
+            }
+            double[] row = entries[i];
+            for (int j = 0; j < numCols; j++) {
+                y[j] += factor * row[j];
+            }
+        }
+    }
+    
+    /**
+     * Rows are independent, so they are split across threads with identical results
+     */
+    @Override
+    public void applyParallel(double[] x, double[] y) {
+        IntStream.range(0, numRows).parallel().forEach(i -> y[i] = dot(entries[i], x));
+    }
+    
+    /**
+     * Parallel over rows rather than vectors, so each row is read once per block
+     */
+    @Override
+    public void applyBlock(double[][] x, double[][] y) {
+        IntStream.range(0, numRows).parallel().forEach(i -> {
+            double[] row = entries[i];
+            for (int j = 0; j < x.length; j++) {
+                y[j][i] = dot(row, x[j]);
+            }
+        });
+    }
+    
+    private static double dot(double[] first, double[] second) {
+        double sum = 0;
+        for (int i = 0; i < first.length; i++) {
+            sum += first[i] * second[i];
+        }
+        return sum;
+    }
+}
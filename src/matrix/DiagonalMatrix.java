@@ -0,0 +1,204 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/*
+ * Square diagonal matrix stored as its n diagonal entries. Products with other matrices
+ * scale their rows or columns in O(n^2), products and sums of diagonal matrices stay
+ * diagonal in O(n), and the determinant, inverse and eigenvalues are read off the
+ * diagonal.
+ */
+
+public class DiagonalMatrix extends StructuredMatrix {
+    
+    // reciprocals in the inverse are rounded to 34 significant digits, not to a double
+    final static MathContext INVERSE_PRECISION = MathContext.DECIMAL128;
+    
+    private final BigDecimal[] diagonal;
+    
+    /**
+     * @param diagonal nonempty diagonal entries, not kept
+     */
+    public DiagonalMatrix(BigDecimal[] diagonal) {
+        super(diagonal.length);
+        this.diagonal = diagonal.clone();
+    }
+    
+    /**
+     * @param diagonal nonempty diagonal entries
+     */
+    public DiagonalMatrix(double[] diagonal) {
+        super(diagonal.length);
+        this.diagonal = new BigDecimal[diagonal.length];
+        for (int i = 0; i < diagonal.length; i++) {
+            this.diagonal[i] = new BigDecimal(diagonal[i]);
+        }
+    }
+    
+    /**
+     * For subclasses whose diagonal entries are not stored one by one
+     */
+    protected DiagonalMatrix(int size) {
+        super(size);
+        this.diagonal = null;
+    }
+    
+    /**
+     * @param index nonnegative index less than the size
+     * @return the diagonal entry in row and column index
+     */
+    public BigDecimal getDiagonalElement(int index) {
+        return diagonal[index];
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        checkIndices(row, column);
+        return row == column ? getDiagonalElement(row) : BigDecimal.ZERO;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, false);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, true);
+    }
+    
+    /**
+     * @return this + matr, or this - matr if subtract, diagonal when matr is diagonal
+     */
+    private Matrix<BigDecimal> combine(Matrix<BigDecimal> matr, boolean subtract) {
+        checkSameSize(matr, "addition");
+        if (matr instanceof DiagonalMatrix) {
+            DiagonalMatrix that = (DiagonalMatrix)matr;
+            BigDecimal[] newDiagonal = new BigDecimal[size];
+            for (int i = 0; i < size; i++) {
+                BigDecimal other = that.getDiagonalElement(i);
+                newDiagonal[i] = subtract ? getDiagonalElement(i).subtract(other) : getDiagonalElement(i).add(other);
+            }
+            return new DiagonalMatrix(newDiagonal);
+        }
+        BigDecimal[][] newMatrix = new BigDecimal[size][];
+        for (int row = 0; row < size; row++) {
+            newMatrix[row] = matr.getRow(row);
+            for (int column = 0; subtract && column < size; column++) {
+                newMatrix[row][column] = newMatrix[row][column].negate();
+            }
+            newMatrix[row][row] = newMatrix[row][row].add(getDiagonalElement(row));
+        }
+        return new BigDecimalMatrix(newMatrix);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr.size()[0] != size) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        if (matr instanceof DiagonalMatrix) {
+            DiagonalMatrix that = (DiagonalMatrix)matr;
+            BigDecimal[] newDiagonal = new BigDecimal[size];
+            for (int i = 0; i < size; i++) {
+                newDiagonal[i] = getDiagonalElement(i).multiply(that.getDiagonalElement(i));
+            }
+            return new DiagonalMatrix(newDiagonal);
+        }
+        return scaleRows(matr);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        BigDecimal factor = new BigDecimal(element);
+        BigDecimal[] newDiagonal = new BigDecimal[size];
+        for (int i = 0; i < size; i++) {
+            newDiagonal[i] = getDiagonalElement(i).multiply(factor);
+        }
+        return new DiagonalMatrix(newDiagonal);
+    }
+    
+    /**
+     * @param matr matrix with as many rows as this
+     * @return this * matr, row i of matr scaled by the i-th diagonal entry
+     */
+    Matrix<BigDecimal> scaleRows(Matrix<BigDecimal> matr) {
+        BigDecimal[][] newMatrix = new BigDecimal[size][];
+        for (int row = 0; row < size; row++) {
+            BigDecimal factor = getDiagonalElement(row);
+            newMatrix[row] = matr.getRow(row);
+            for (int column = 0; column < newMatrix[row].length; column++) {
+                newMatrix[row][column] = newMatrix[row][column].multiply(factor);
+            }
+        }
+        return new BigDecimalMatrix(newMatrix);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiplyLeft(Matrix<BigDecimal> matr) {
+        return scaleColumns(matr);
+    }
+    
+    /**
+     * @param matr matrix with as many columns as this has rows
+     * @return matr * this, column j of matr scaled by the j-th diagonal entry
+     */
+    Matrix<BigDecimal> scaleColumns(Matrix<BigDecimal> matr) {
+        int rows = matr.size()[0];
+        BigDecimal[][] newMatrix = new BigDecimal[rows][];
+        for (int row = 0; row < rows; row++) {
+            newMatrix[row] = matr.getRow(row);
+            for (int column = 0; column < size; column++) {
+                newMatrix[row][column] = newMatrix[row][column].multiply(getDiagonalElement(column));
+            }
+        }
+        return new BigDecimalMatrix(newMatrix);
+    }
+    
+    @Override
+    public BigDecimal determinant() {
+        BigDecimal determinant = BigDecimal.ONE;
+        for (int i = 0; i < size; i++) {
+            determinant = determinant.multiply(getDiagonalElement(i));
+        }
+        return determinant;
+    }
+    
+    @Override
+    public int rank() {
+        int rank = 0;
+        for (int i = 0; i < size; i++) {
+            if (getDiagonalElement(i).signum() != 0) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        BigDecimal[] newDiagonal = new BigDecimal[size];
+        for (int i = 0; i < size; i++) {
+            if (getDiagonalElement(i).signum() == 0) {
+                throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+            }
+            newDiagonal[i] = BigDecimal.ONE.divide(getDiagonalElement(i), INVERSE_PRECISION);
+        }
+        return new DiagonalMatrix(newDiagonal);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        return this;
+    }
+    
+    @Override
+    public Complex[] eigenvalues() {
+        Complex[] eigenvalues = new Complex[size];
+        for (int i = 0; i < size; i++) {
+            eigenvalues[i] = new Complex(getDiagonalElement(i).doubleValue(), 0);
+        }
+        return eigenvalues;
+    }
+}
@@ -0,0 +1,71 @@
+package matrix;
+
+/*
+ * Outcome of a power iteration: the eigenvalue estimate, the unit eigenvector estimate,
+ * whether it met the requested tolerance, and the relative eigen-residual
+ * ||A x - lambda x|| / ||A x|| recorded for the starting vector and after each iteration.
+ */
+
+public final class EigenpairResult {
+    
+    private final double eigenvalue;
+    private final double[] eigenvector;
+    private final boolean converged;
+    private final double[] residualHistory;
+    
+    EigenpairResult(double eigenvalue, double[] eigenvector, boolean converged, double[] residualHistory) {
+        this.eigenvalue = eigenvalue;
+        this.eigenvector = eigenvector;
+        this.converged = converged;
+        this.residualHistory = residualHistory;
+    }
+    
+    /**
+     * @return the eigenvalue estimate
+     */
+    public double getEigenvalue() {
+        return eigenvalue;
+    }
+    
+    /**
+     * @return the eigenvector estimate, of unit length except for PageRank vectors,
+     *         which sum to one
+     */
+    public double[] getEigenvector() {
+        return eigenvector.clone();
+    }
+    
+    /**
+     * @return true iff the relative residual fell below the tolerance
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+    
+    /**
+     * @return number of iterations performed
+     */
+    public int getIterations() {
+        return residualHistory.length - 1;
+    }
+    
+    /**
+     * @return relative residual norms, entry 0 for the starting vector and entry k after iteration k
+     */
+    public double[] getResidualHistory() {
+        return residualHistory.clone();
+    }
+    
+    /**
+     * @return the last recorded relative residual norm
+     */
+    public double getRelativeResidual() {
+        return residualHistory[residualHistory.length - 1];
+    }
+    
+    @Override
+    public String toString() {
+        return "eigenvalue " + eigenvalue + ", " + (converged ? "converged" : "did not converge") + " after "
+                + getIterations() + " iterations, relative residual " + getRelativeResidual();
+    }
+}
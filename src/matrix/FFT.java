@@ -0,0 +1,158 @@
+package matrix;
+
+/*
+ * In-place radix-2 fast Fourier transform over split real/imaginary arrays.
+ * Lengths must be powers of two, except in transformAnyLength, which reduces a transform
+ * of any length to power-of-two transforms by Bluestein's chirp-z algorithm.
+ */
+
+final class FFT {
+    
+    private FFT() {
+    }
+    
+    /**
+     * @param n positive integer
+     * @return smallest power of two that is at least n
+     */
+    static int nextPowerOfTwo(int n) {
+        int size = 1;
+        while (size < n) {
+            size <<= 1;
+        }
+        return size;
+    }
+    
+    /**
+     * Transform (re, im) in place, computing X_k = sum_j x_j * e^(-2 pi i jk / n)
+     * The inverse transform uses the opposite sign and divides by n
+     * @param re real parts, length must be a power of two
+     * @param im imaginary parts, same length as re
+     * @param inverse true for the inverse transform
+     * @throws IncompatibleDimensionsException if lengths differ or are not a power of two
+     */
+    static void transform(double[] re, double[] im, boolean inverse) throws IncompatibleDimensionsException {
+        int n = re.length;
+        if (im.length != n || Integer.bitCount(n) != 1) {
+            throw new IncompatibleDimensionsException("FFT length must be a power of two");
+        }
+        
+        //bit reversal permutation
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                double tmp = re[i];
+                re[i] = re[j];
+                re[j] = tmp;
+                tmp = im[i];
+                im[i] = im[j];
+                im[j] = tmp;
+            }
+        }
+        
+        //twiddle factors for the full length, strided for shorter spans
+        double sign = inverse ? 1 : -1;
+        double[] twiddleRe = new double[n / 2];
+        double[] twiddleIm = new double[n / 2];
+        for (int k = 0; k < n / 2; k++) {
+            double angle = sign * 2 * Math.PI * k / n;
+            twiddleRe[k] = Math.cos(angle);
+            twiddleIm[k] = Math.sin(angle);
+        }
+        
+        //butterflies, doubling the span each pass
+        for (int span = 2; span <= n; span <<= 1) {
+            int half = span >> 1;
+            int stride = n / span;
+            for (int start = 0; start < n; start += span) {
+                for (int k = 0; k < half; k++) {
+                    double wRe = twiddleRe[k * stride];
+                    double wIm = twiddleIm[k * stride];
+                    int even = start + k;
+                    int odd = even + half;
+                    double tRe = re[odd] * wRe - im[odd] * wIm;
+                    double tIm = re[odd] * wIm + im[odd] * wRe;
+                    re[odd] = re[even] - tRe;
+                    im[odd] = im[even] - tIm;
+                    re[even] += tRe;
+                    im[even] += tIm;
+                }
+            }
+        }
+        
+        if (inverse) {
+            for (int i = 0; i < n; i++) {
+                re[i] /= n;
+                im[i] /= n;
+            }
+        }
+    }
+    
+    /**
+     * Transform (re, im) in place as transform does, for any positive length n, in
+     * O(n log n): the chirp-z identity jk = (j^2 + k^2 - (k - j)^2) / 2 turns the DFT into
+     * a convolution, computed by power-of-two transforms of length at least 2n - 1
+     * @param re real parts
+     * @param im imaginary parts, same length as re
+     * @param inverse true for the inverse transform
+     * @throws IncompatibleDimensionsException if lengths differ or are zero
+     */
+    static void transformAnyLength(double[] re, double[] im, boolean inverse) throws IncompatibleDimensionsException {
+        int n = re.length;
+        if (im.length != n || n == 0) {
+            throw new IncompatibleDimensionsException("FFT arrays must be nonempty and of equal length");
+        }
+        if (Integer.bitCount(n) == 1) {
+            transform(re, im, inverse);
+            return;
+        }
+        
+        //chirp w_k = e^(-+ pi i k^2 / n), with k^2 reduced mod 2n to keep the angle small
+        double sign = inverse ? 1 : -1;
+        double[] chirpRe = new double[n];
+        double[] chirpIm = new double[n];
+        for (int k = 0; k < n; k++) {
+            double angle = sign * Math.PI * ((long)k * k % (2L * n)) / n;
+            chirpRe[k] = Math.cos(angle);
+            chirpIm[k] = Math.sin(angle);
+        }
+        int m = nextPowerOfTwo(2 * n - 1);
+        double[] aRe = new double[m];
+        double[] aIm = new double[m];
+        double[] bRe = new double[m];
+        double[] bIm = new double[m];
+        for (int k = 0; k < n; k++) {
+            aRe[k] = re[k] * chirpRe[k] - im[k] * chirpIm[k];
+            aIm[k] = re[k] * chirpIm[k] + im[k] * chirpRe[k];
+        }
+        //b_k = conj(w_|k|) for -n < k < n, wrapped around the end of the array
+        bRe[0] = chirpRe[0];
+        bIm[0] = -chirpIm[0];
+        for (int k = 1; k < n; k++) {
+            bRe[k] = chirpRe[k];
+            bIm[k] = -chirpIm[k];
+            bRe[m - k] = chirpRe[k];
+            bIm[m - k] = -chirpIm[k];
+        }
+        transform(aRe, aIm, false);
+        transform(bRe, bIm, false);
+        for (int k = 0; k < m; k++) {
+            double productRe = aRe[k] * bRe[k] - aIm[k] * bIm[k];
+            aIm[k] = aRe[k] * bIm[k] + aIm[k] * bRe[k];
+            aRe[k] = productRe;
+        }
+        transform(aRe, aIm, true);
+        for (int k = 0; k < n; k++) {
+            re[k] = aRe[k] * chirpRe[k] - aIm[k] * chirpIm[k];
+            im[k] = aRe[k] * chirpIm[k] + aIm[k] * chirpRe[k];
+            if (inverse) {
+                re[k] /= n;
+                im[k] /= n;
+            }
+        }
+    }
+}
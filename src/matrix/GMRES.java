@@ -0,0 +1,154 @@
+package matrix;
+
+import java.util.Arrays;
+
+/*
+ * Restarted generalized minimal residual method, GMRES(m), for general nonsingular systems.
+ *
+ * Each cycle builds an orthonormal Krylov basis of up to m vectors by Arnoldi with
+ * modified Gram-Schmidt, reducing the residual minimization to an (m + 1) x m upper
+ * Hessenberg least-squares problem. That problem is triangularized one column at a time
+ * with Givens rotations, so the residual norm of the current iterate is available after
+ * every operator application without forming the iterate. At the end of a cycle the
+ * iterate is updated and the method restarts from its true residual.
+ * Preconditioning is on the right, A M^(-1) u = b with x = M^(-1) u, so the residual
+ * estimates are those of the original system.
+ * Work storage is (m + 3) vectors of length n plus O(m^2), fixed for the whole solve.
+ */
+
+public class GMRES extends IterativeSolver {
+    
+    private final static int DEFAULT_RESTART = 30;
+    
+    private final int restart;
+    
+    /**
+     * GMRES(30) with relative tolerance 1e-10 and at most 1000 iterations
+     */
+    public GMRES() {
+        this(DEFAULT_RESTART, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+    
+    /**
+     * @param restart positive Krylov dimension m after which the method restarts
+     * @param tolerance positive relative residual at which to stop
+     * @param maxIterations positive limit on the total number of inner iterations
+     * @throws IllegalArgumentException if any argument is not positive
+     */
+    public GMRES(int restart, double tolerance, int maxIterations) {
+        this(restart, tolerance, maxIterations, Preconditioner.IDENTITY);
+    }
+    
+    /**
+     * @param restart positive Krylov dimension m after which the method restarts
+     * @param tolerance positive relative residual at which to stop
+     * @param maxIterations positive limit on the total number of inner iterations
+     * @param preconditioner approximate inverse, applied on the right
+     * @throws IllegalArgumentException if any number is not positive or preconditioner is null
+     */
+    public GMRES(int restart, double tolerance, int maxIterations, Preconditioner preconditioner) {
+        super(tolerance, maxIterations, preconditioner);
+        if (restart < 1) {
+            throw new IllegalArgumentException("Restart length must be positive");
+        }
+        this.restart = restart;
+    }
+    
+    @Override
+    boolean iterate(LinearOperator operator, double[] b, double[] x, double bNorm, History history) {
+        int n = b.length;
+        int m = Math.min(restart, n);
+        double[][] basis = new double[m + 1][n];
+        double[][] hessenberg = new double[m + 1][m];
+        double[] cosines = new double[m];
+        double[] sines = new double[m];
+        double[] rhs = new double[m + 1];
+        double[] y = new double[m];
+        double[] combination = new double[n];
+        double[] preconditioned = new double[n];
+        
+        residual(operator, b, x, basis[0]);
+        double beta = norm(basis[0]);
+        double residualNorm = beta / bNorm;
+        history.record(residualNorm);
+        
+        while (residualNorm >= tolerance && history.iterations() < maxIterations) {
+            for (int i = 0; i < n; i++) {
+                basis[0][i] /= beta;
+            }
+            Arrays.fill(rhs, 0);
+            rhs[0] = beta;
+            
+            int size = 0;
+            boolean breakdown = false;
+            while (size < m && history.iterations() < maxIterations && residualNorm >= tolerance && !breakdown) {
+                int j = size;
+                double[] w = basis[j + 1];
+                preconditioner.apply(basis[j], preconditioned);
+                operator.apply(preconditioned, w);
+                for (int i = 0; i <= j; i++) {
+                    double h = dot(w, basis[i]);
+                    hessenberg[i][j] = h;
+                    axpy(-h, basis[i], w);
+                }
+                double subdiagonal = norm(w);
+                hessenberg[j + 1][j] = subdiagonal;
+                if (subdiagonal > 0) {
+                    for (int i = 0; i < n; i++) {
+                        w[i] /= subdiagonal;
+                    }
+                } else {
+                    //the Krylov space is invariant, so the exact solution lies in it
+                    breakdown = true;
+                }
+                
+                for (int i = 0; i < j; i++) {
+                    double upper = hessenberg[i][j];
+                    double lower = hessenberg[i + 1][j];
+                    hessenberg[i][j] = cosines[i] * upper + sines[i] * lower;
+                    hessenberg[i + 1][j] = -sines[i] * upper + cosines[i] * lower;
+                }
+                double radius = Math.hypot(hessenberg[j][j], subdiagonal);
+                if (radius == 0) {
+                    cosines[j] = 1;
+                    sines[j] = 0;
+                } else {
+                    cosines[j] = hessenberg[j][j] / radius;
+                    sines[j] = subdiagonal / radius;
+                }
+                hessenberg[j][j] = radius;
+                hessenberg[j + 1][j] = 0;
+                rhs[j + 1] = -sines[j] * rhs[j];
+                rhs[j] = cosines[j] * rhs[j];
+                
+                size++;
+                residualNorm = Math.abs(rhs[size]) / bNorm;
+                history.record(residualNorm);
+            }
+            
+            //back substitution for the least-squares coefficients, then x += M^(-1) V y
+            for (int i = size - 1; i >= 0; i--) {
+                double sum = rhs[i];
+                for (int k = i + 1; k < size; k++) {
+                    sum -= hessenberg[i][k] * y[k];
+                }
+                y[i] = hessenberg[i][i] == 0 ? 0 : sum / hessenberg[i][i];
+            }
+            Arrays.fill(combination, 0);
+            for (int i = 0; i < size; i++) {
+                axpy(y[i], basis[i], combination);
+            }
+            preconditioner.apply(combination, preconditioned);
+            axpy(1, preconditioned, x);
+            
+            if (residualNorm < tolerance || breakdown) {
+                break;
+            }
+            //restart from the true residual, which rounding may have pulled away from the estimate
+            residual(operator, b, x, basis[0]);
+            beta = norm(basis[0]);
+            residualNorm = beta / bNorm;
+        }
+        return residualNorm < tolerance;
+    }
+}
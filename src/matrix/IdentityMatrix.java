@@ -0,0 +1,46 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * Identity matrix of a given size, stored as the size alone. Multiplying by it returns
+ * the other operand, which is immutable, without copying.
+ */
+
+public class IdentityMatrix extends ScalarMatrix {
+    
+    /**
+     * @param size positive number of rows and columns
+     */
+    public IdentityMatrix(int size) {
+        super(size, BigDecimal.ONE);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr.size()[0] != size) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        return matr;
+    }
+    
+    @Override
+    Matrix<BigDecimal> scaleRows(Matrix<BigDecimal> matr) {
+        return matr;
+    }
+    
+    @Override
+    Matrix<BigDecimal> scaleColumns(Matrix<BigDecimal> matr) {
+        return matr;
+    }
+    
+    @Override
+    public BigDecimal determinant() {
+        return BigDecimal.ONE;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> inverse() {
+        return this;
+    }
+}
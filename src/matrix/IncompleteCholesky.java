@@ -0,0 +1,119 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * Zero fill-in incomplete Cholesky preconditioner IC(0), M = L L^T, where L keeps the
+ * sparsity pattern of the lower triangle of a symmetric positive-definite A.
+ * Only the lower triangle of A is read. M is symmetric positive definite whenever the
+ * factorization succeeds, so it is the natural companion of ConjugateGradient.
+ */
+
+public class IncompleteCholesky implements Preconditioner {
+    
+    private final int size;
+    // rows of L in CSR form with the diagonal stored last in each row
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] values;
+    
+    /**
+     * @param matrix square sparse symmetric positive-definite matrix
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws ArithmeticException if a pivot is not positive, which can happen
+     *         for positive-definite matrices that are far from diagonally dominant
+     */
+    public IncompleteCholesky(SparseMatrix matrix) {
+        size = matrix.squareSize();
+        int[] aPointers = matrix.rowPointers();
+        int[] aIndices = matrix.columnIndices();
+        double[] aValues = matrix.values();
+        
+        rowPointers = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            int count = 0;
+            for (int k = aPointers[i]; k < aPointers[i + 1] && aIndices[k] < i; k++) {
+                count++;
+            }
+            rowPointers[i + 1] = rowPointers[i] + count + 1;
+        }
+        columnIndices = new int[rowPointers[size]];
+        values = new double[rowPointers[size]];
+        
+        for (int i = 0; i < size; i++) {
+            int position = rowPointers[i];
+            double diagonal = 0;
+            for (int k = aPointers[i]; k < aPointers[i + 1] && aIndices[k] <= i; k++) {
+                int j = aIndices[k];
+                if (j == i) {
+                    diagonal = aValues[k];
+                    break;
+                }
+                //l_ij = (a_ij - sum over k < j of l_ik l_jk) / l_jj
+                double sum = aValues[k] - sparseDot(rowPointers[i], position, rowPointers[j], rowPointers[j + 1] - 1);
+                double value = sum / values[rowPointers[j + 1] - 1];
+                columnIndices[position] = j;
+                values[position++] = value;
+            }
+            for (int k = rowPointers[i]; k < position; k++) {
+                diagonal -= values[k] * values[k];
+            }
+            if (!(diagonal > 0)) {
+                throw new ArithmeticException("Incomplete Cholesky breakdown: nonpositive pivot at " + i);
+            }
+            columnIndices[position] = i;
+            values[position] = Math.sqrt(diagonal);
+        }
+    }
+    
+    /**
+     * @param matrix square symmetric positive-definite Matrix instance
+     */
+    public IncompleteCholesky(Matrix<BigDecimal> matrix) {
+        this(new SparseMatrix(matrix));
+    }
+    
+    @Override
+    public void apply(double[] r, double[] z) {
+        //forward substitution with L
+        for (int i = 0; i < size; i++) {
+            int last = rowPointers[i + 1] - 1;
+            double sum = r[i];
+            for (int k = rowPointers[i]; k < last; k++) {
+                sum -= values[k] * z[columnIndices[k]];
+            }
+            z[i] = sum / values[last];
+        }
+        //back substitution with L^T, scattering each solved entry up its row of L
+        for (int i = size - 1; i >= 0; i--) {
+            int last = rowPointers[i + 1] - 1;
+            double value = z[i] / values[last];
+            z[i] = value;
+            for (int k = rowPointers[i]; k < last; k++) {
+                z[columnIndices[k]] -= values[k] * value;
+            }
+        }
+    }
+    
+    /**
+     * @return sum of products of the entries of two segments of L that share a column,
+     *         each segment sorted by column
+     */
+    private double sparseDot(int firstStart, int firstEnd, int secondStart, int secondEnd) {
+        double sum = 0;
+        int a = firstStart;
+        int b = secondStart;
+        while (a < firstEnd && b < secondEnd) {
+            int columnA = columnIndices[a];
+            int columnB = columnIndices[b];
+            if (columnA == columnB) {
+                sum += values[a++] * values[b++];
+            } else if (columnA < columnB) {
+                a++;
+            } else {
+                b++;
+            }
+        }
+        return sum;
+    }
+}
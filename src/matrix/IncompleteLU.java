@@ -0,0 +1,303 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/*
+ * Incomplete LU preconditioner M = L U, with L unit lower triangular and U upper
+ * triangular, both sparse. Two variants:
+ *      ILU(0): L + U keeps exactly the sparsity pattern of A, and fill outside it is discarded
+ *      ILUT(t, p): row-wise elimination where fill is admitted by size, dropping entries
+ *                  below t times the norm of their row of A and keeping at most the p
+ *                  largest entries in each row of L and of U (Saad's dual threshold rule)
+ * The factors share one CSR structure: in each row, entries of L in increasing column
+ * order, then the diagonal of U, then the rest of U. Applying M^(-1) is a forward and a
+ * backward substitution over that structure.
+ */
+
+public class IncompleteLU implements Preconditioner {
+    
+    private final int size;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] values;
+    private final int[] diagonal;
+    
+    /**
+     * ILU(0) factorization
+     * @param matrix square sparse matrix whose diagonal is stored
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws ArithmeticException if a pivot is zero or missing from the pattern
+     */
+    public IncompleteLU(SparseMatrix matrix) {
+        size = matrix.squareSize();
+        rowPointers = matrix.rowPointers();
+        columnIndices = matrix.columnIndices();
+        values = matrix.values().clone();
+        diagonal = new int[size];
+        
+        int[] position = new int[size];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < size; i++) {
+            int start = rowPointers[i];
+            int end = rowPointers[i + 1];
+            diagonal[i] = -1;
+            for (int k = start; k < end; k++) {
+                position[columnIndices[k]] = k;
+                if (columnIndices[k] == i) {
+                    diagonal[i] = k;
+                }
+            }
+            if (diagonal[i] < 0) {
+                throw new ArithmeticException("Zero pivot at " + i);
+            }
+            
+            for (int k = start; k < diagonal[i]; k++) {
+                int pivotRow = columnIndices[k];
+                double multiplier = values[k] / values[diagonal[pivotRow]];
+                values[k] = multiplier;
+                for (int j = diagonal[pivotRow] + 1; j < rowPointers[pivotRow + 1]; j++) {
+                    int target = position[columnIndices[j]];
+                    if (target >= 0) {
+                        values[target] -= multiplier * values[j];
+                    }
+                }
+            }
+            if (values[diagonal[i]] == 0) {
+                throw new ArithmeticException("Zero pivot at " + i);
+            }
+            
+            for (int k = start; k < end; k++) {
+                position[columnIndices[k]] = -1;
+            }
+        }
+    }
+    
+    /**
+     * ILU(0) factorization of a dense matrix's nonzero pattern
+     * @param matrix square Matrix instance
+     */
+    public IncompleteLU(Matrix<BigDecimal> matrix) {
+        this(new SparseMatrix(matrix));
+    }
+    
+    /**
+     * ILUT factorization
+     * @param matrix square sparse matrix
+     * @param dropTolerance nonnegative relative threshold t
+     * @param fillLimit positive maximum number p of off-diagonal entries per row of L and of U
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws IllegalArgumentException if dropTolerance is negative or fillLimit not positive
+     * @throws ArithmeticException if a pivot is zero
+     */
+    public IncompleteLU(SparseMatrix matrix, double dropTolerance, int fillLimit) {
+        if (!(dropTolerance >= 0) || fillLimit < 1) {
+            throw new IllegalArgumentException("Drop tolerance must be nonnegative and fill limit positive");
+        }
+        size = matrix.squareSize();
+        int[] aPointers = matrix.rowPointers();
+        int[] aIndices = matrix.columnIndices();
+        double[] aValues = matrix.values();
+        
+        int capacity = Math.max(aValues.length, size);
+        int[] pointers = new int[size + 1];
+        int[] indices = new int[capacity];
+        double[] data = new double[capacity];
+        int[] diagonalPositions = new int[size];
+        int count = 0;
+        
+        //dense work row, with the list of its occupied columns and a min-heap of those left of the diagonal
+        double[] work = new double[size];
+        boolean[] occupied = new boolean[size];
+        int[] pattern = new int[size];
+        int[] heap = new int[size];
+        int[] lower = new int[size];
+        int[] upper = new int[size];
+        
+        for (int i = 0; i < size; i++) {
+            int patternSize = 0;
+            int heapSize = 0;
+            double rowNorm = 0;
+            for (int k = aPointers[i]; k < aPointers[i + 1]; k++) {
+                int column = aIndices[k];
+                work[column] = aValues[k];
+                occupied[column] = true;
+                pattern[patternSize++] = column;
+                rowNorm = Math.hypot(rowNorm, aValues[k]);
+                if (column < i) {
+                    heapSize = heapPush(heap, heapSize, column);
+                }
+            }
+            if (!occupied[i]) {
+                occupied[i] = true;
+                work[i] = 0;
+                pattern[patternSize++] = i;
+            }
+            double threshold = dropTolerance * rowNorm;
+            
+            //eliminate left of the diagonal in increasing column order, including fill
+            while (heapSize > 0) {
+                int k = heap[0];
+                heapSize = heapPop(heap, heapSize);
+                double multiplier = work[k] / data[diagonalPositions[k]];
+                if (Math.abs(multiplier) <= threshold) {
+                    work[k] = 0;
+                    continue;
+                }
+                work[k] = multiplier;
+                for (int j = diagonalPositions[k] + 1; j < pointers[k + 1]; j++) {
+                    int column = indices[j];
+                    if (!occupied[column]) {
+                        occupied[column] = true;
+                        work[column] = 0;
+                        pattern[patternSize++] = column;
+                        if (column < i) {
+                            heapSize = heapPush(heap, heapSize, column);
+                        }
+                    }
+                    work[column] -= multiplier * data[j];
+                }
+            }
+            
+            //dual threshold dropping, then append L, diagonal, U in column order
+            int lowerSize = 0;
+            int upperSize = 0;
+            for (int p = 0; p < patternSize; p++) {
+                int column = pattern[p];
+                if (column == i || Math.abs(work[column]) <= threshold || work[column] == 0) {
+                    continue;
+                }
+                if (column < i) {
+                    lower[lowerSize++] = column;
+                } else {
+                    upper[upperSize++] = column;
+                }
+            }
+            lowerSize = keepLargest(lower, lowerSize, fillLimit, work);
+            upperSize = keepLargest(upper, upperSize, fillLimit, work);
+            if (work[i] == 0) {
+                throw new ArithmeticException("Zero pivot at " + i);
+            }
+            
+            int needed = count + lowerSize + upperSize + 1;
+            if (needed > indices.length) {
+                int grown = Math.max(needed, 2 * indices.length);
+                indices = Arrays.copyOf(indices, grown);
+                data = Arrays.copyOf(data, grown);
+            }
+            for (int p = 0; p < lowerSize; p++) {
+                indices[count] = lower[p];
+                data[count++] = work[lower[p]];
+            }
+            diagonalPositions[i] = count;
+            indices[count] = i;
+            data[count++] = work[i];
+            for (int p = 0; p < upperSize; p++) {
+                indices[count] = upper[p];
+                data[count++] = work[upper[p]];
+            }
+            pointers[i + 1] = count;
+            
+            for (int p = 0; p < patternSize; p++) {
+                work[pattern[p]] = 0;
+                occupied[pattern[p]] = false;
+            }
+        }
+        
+        rowPointers = pointers;
+        columnIndices = Arrays.copyOf(indices, count);
+        values = Arrays.copyOf(data, count);
+        diagonal = diagonalPositions;
+    }
+    
+    /**
+     * @return number of stored entries of L and U together, counting the diagonal once
+     */
+    public int nonZeros() {
+        return values.length;
+    }
+    
+    @Override
+    public void apply(double[] r, double[] z) {
+        //forward substitution with unit lower L
+        for (int i = 0; i < size; i++) {
+            double sum = r[i];
+            for (int k = rowPointers[i]; k < diagonal[i]; k++) {
+                sum -= values[k] * z[columnIndices[k]];
+            }
+            z[i] = sum;
+        }
+        //back substitution with U
+        for (int i = size - 1; i >= 0; i--) {
+            double sum = z[i];
+            for (int k = diagonal[i] + 1; k < rowPointers[i + 1]; k++) {
+                sum -= values[k] * z[columnIndices[k]];
+            }
+            z[i] = sum / values[diagonal[i]];
+        }
+    }
+    
+    /**
+     * Reduce columns[0:count] to the limit entries of largest magnitude in work, sorted by column
+     * @return new count
+     */
+    private static int keepLargest(int[] columns, int count, int limit, double[] work) {
+        if (count > limit) {
+            Integer[] order = new Integer[count];
+            for (int p = 0; p < count; p++) {
+                order[p] = columns[p];
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(Math.abs(work[b]), Math.abs(work[a])));
+            for (int p = 0; p < limit; p++) {
+                columns[p] = order[p];
+            }
+            count = limit;
+        }
+        Arrays.sort(columns, 0, count);
+        return count;
+    }
+    
+    /**
+     * @return heap size after inserting value into the binary min-heap heap[0:size]
+     */
+    private static int heapPush(int[] heap, int size, int value) {
+        int child = size;
+        while (child > 0) {
+            int parent = (child - 1) / 2;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[child] = heap[parent];
+            child = parent;
+        }
+        heap[child] = value;
+        return size + 1;
+    }
+    
+    /**
+     * Remove the minimum heap[0] from the binary min-heap heap[0:size]
+     * @return heap size after removal
+     */
+    private static int heapPop(int[] heap, int size) {
+        int last = heap[--size];
+        int parent = 0;
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[parent] = heap[child];
+            parent = child;
+        }
+        if (size > 0) {
+            heap[parent] = last;
+        }
+        return size;
+    }
+}
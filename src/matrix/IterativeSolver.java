@@ -0,0 +1,145 @@
+package matrix;
+
+import java.util.Arrays;
+
+/*
+ * Base class of the Krylov solvers for square systems A x = b. A is accessed only
+ * through LinearOperator.apply, so sparse, dense and implicit operators are all
+ * supported. Iteration stops once the relative residual ||b - A x|| / ||b|| drops
+ * below the tolerance or the iteration limit is reached.
+ *
+ * A Preconditioner M, the identity by default, replaces the system by a better
+ * conditioned one with the same solution; the residual that is reported and tested
+ * against the tolerance is always the residual of the original system.
+ *
+ * Every work vector a solve needs is allocated once before its first iteration, so
+ * the iterations themselves allocate nothing. Solvers hold only their settings and
+ * may be shared between threads.
+ */
+
+public abstract class IterativeSolver {
+    
+    final static double DEFAULT_TOLERANCE = Math.pow(10, -10);
+    final static int DEFAULT_MAX_ITERATIONS = 1000;
+    
+    final double tolerance;
+    final int maxIterations;
+    final Preconditioner preconditioner;
+    
+    /**
+     * @param tolerance positive relative residual at which to stop
+     * @param maxIterations positive iteration limit
+     * @param preconditioner approximate inverse applied to residuals
+     * @throws IllegalArgumentException if either number is not positive or preconditioner is null
+     */
+    IterativeSolver(double tolerance, int maxIterations, Preconditioner preconditioner) {
+        if (!(tolerance > 0) || maxIterations < 1) {
+            throw new IllegalArgumentException("Tolerance and iteration limit must be positive");
+        }
+        if (preconditioner == null) {
+            throw new IllegalArgumentException("Preconditioner must not be null, use Preconditioner.IDENTITY");
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.preconditioner = preconditioner;
+    }
+    
+    /**
+     * Solve starting from the zero vector
+     * @param operator square n x n operator
+     * @param b right-hand side of length n, not modified
+     * @return result holding the final iterate and residual history
+     * @throws IncompatibleDimensionsException if operator is not square or b has the wrong length
+     */
+    public SolverResult solve(LinearOperator operator, double[] b) throws IncompatibleDimensionsException {
+        return solve(operator, b, new double[b.length]);
+    }
+    
+    /**
+     * @param operator square n x n operator
+     * @param b right-hand side of length n, not modified
+     * @param initialGuess starting iterate of length n, not modified
+     * @return result holding the final iterate and residual history
+     * @throws IncompatibleDimensionsException if operator is not square or a vector has the wrong length
+     */
+    public SolverResult solve(LinearOperator operator, double[] b, double[] initialGuess) throws IncompatibleDimensionsException {
+        int[] dimensions = operator.size();
+        if (dimensions[0] != dimensions[1]) {
+            throw new IncompatibleDimensionsException("Iterative solvers require a square operator");
+        }
+        if (b.length != dimensions[0] || initialGuess.length != dimensions[0]) {
+            throw new IncompatibleDimensionsException("Vectors must have length " + dimensions[0]);
+        }
+        
+        double[] x = initialGuess.clone();
+        double bNorm = norm(b);
+        if (bNorm == 0) {
+            Arrays.fill(x, 0);
+            double[] history = {0};
+            return new SolverResult(x, true, history);
+        }
+        History history = new History(maxIterations + 1);
+        boolean converged = iterate(operator, b, x, bNorm, history);
+        return new SolverResult(x, converged, history.toArray());
+    }
+    
+    /**
+     * Run the method from x, overwriting x with the final iterate
+     * Must record the initial relative residual and then one value per iteration
+     * @return true iff the tolerance was met
+     */
+    abstract boolean iterate(LinearOperator operator, double[] b, double[] x, double bNorm, History history);
+    
+    /**
+     * Overwrite r with b - A x
+     */
+    static void residual(LinearOperator operator, double[] b, double[] x, double[] r) {
+        operator.apply(x, r);
+        for (int i = 0; i < r.length; i++) {
+            r[i] = b[i] - r[i];
+        }
+    }
+    
+    static double dot(double[] first, double[] second) {
+        return Vector.dot(first, second);
+    }
+    
+    static double norm(double[] vector) {
+        return Vector.norm(vector);
+    }
+    
+    /**
+     * y += a * x
+     */
+    static void axpy(double a, double[] x, double[] y) {
+        Vector.axpy(a, x, y);
+    }
+    
+    /**
+     * Preallocated record of relative residuals
+     */
+    static final class History {
+        
+        private final double[] values;
+        private int count;
+        
+        History(int capacity) {
+            values = new double[capacity];
+        }
+        
+        void record(double relativeResidual) {
+            values[count++] = relativeResidual;
+        }
+        
+        /**
+         * @return number of iterations recorded after the initial residual
+         */
+        int iterations() {
+            return count - 1;
+        }
+        
+        double[] toArray() {
+            return Arrays.copyOf(values, count);
+        }
+    }
+}
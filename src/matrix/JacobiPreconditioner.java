@@ -0,0 +1,46 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * Jacobi (diagonal) preconditioner M = diag(A). Cheapest possible, one multiplication
+ * per entry, and effective when the rows of A are badly scaled relative to each other.
+ */
+
+public class JacobiPreconditioner implements Preconditioner {
+    
+    private final double[] inverseDiagonal;
+    
+    /**
+     * @param matrix square sparse matrix with nonzero diagonal
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws ArithmeticException if a diagonal entry is zero
+     */
+    public JacobiPreconditioner(SparseMatrix matrix) {
+        int size = matrix.squareSize();
+        inverseDiagonal = new double[size];
+        for (int i = 0; i < size; i++) {
+            double diagonal = matrix.getElement(i, i);
+            if (diagonal == 0) {
+                throw new ArithmeticException("Zero diagonal entry at " + i);
+            }
+            inverseDiagonal[i] = 1 / diagonal;
+        }
+    }
+    
+    /**
+     * @param matrix square Matrix instance with nonzero diagonal
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws ArithmeticException if a diagonal entry is zero
+     */
+    public JacobiPreconditioner(Matrix<BigDecimal> matrix) {
+        this(new SparseMatrix(matrix));
+    }
+    
+    @Override
+    public void apply(double[] r, double[] z) {
+        for (int i = 0; i < inverseDiagonal.length; i++) {
+            z[i] = r[i] * inverseDiagonal[i];
+        }
+    }
+}
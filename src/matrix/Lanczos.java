@@ -0,0 +1,239 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/*
+ * Extreme eigenpairs of a large symmetric matrix by thick-restart Lanczos (Wu and Simon),
+ * which is mathematically equivalent to implicitly restarted Lanczos with exact shifts.
+ * The projection H = V^T A V is symmetric, tridiagonal apart from one arrow row and
+ * column left by each restart, and its eigenpairs are found by cyclic Jacobi rotations.
+ * At a restart the basis is compressed onto the wanted Ritz vectors plus half of the
+ * remaining space, whose projection is diagonal, and the residual vector is kept.
+ * Repeated eigenvalues, as on the symmetric meshes of graph Laplacians, are found with
+ * their full multiplicity among the k returned.
+ * Eigenvalues and eigenvectors are real.
+ */
+
+public class Lanczos extends PartialEigendecomposition {
+    
+    private final static int MAX_SWEEPS = 100;
+    
+    /**
+     * The k largest eigenvalues, with a default subspace and tolerance 1e-10
+     * @param matrix square symmetric Matrix instance
+     * @param count number k of eigenpairs, 1 <= k <= n
+     */
+    public Lanczos(Matrix<BigDecimal> matrix, int count) {
+        this(new DenseOperator(matrix), count);
+    }
+    
+    /**
+     * The k largest eigenvalues, with a default subspace and tolerance 1e-10
+     * @param operator square symmetric dense, sparse or implicit matrix
+     * @param count number k of eigenpairs, 1 <= k <= n
+     */
+    public Lanczos(LinearOperator operator, int count) {
+        this(operator, count, Spectrum.LARGEST_REAL);
+    }
+    
+    /**
+     * @param operator square symmetric dense, sparse or implicit matrix
+     * @param count number k of eigenpairs, 1 <= k <= n
+     * @param spectrum end of the spectrum to compute
+     */
+    public Lanczos(LinearOperator operator, int count, Spectrum spectrum) {
+        this(operator, count, spectrum, defaultSubspace(count), DEFAULT_TOLERANCE);
+    }
+    
+    /**
+     * @param operator square symmetric dense, sparse or implicit matrix; only its action
+     *        is used, so a nonsymmetric operator gives meaningless results
+     * @param count number k of eigenpairs, 1 <= k <= n
+     * @param spectrum end of the spectrum to compute
+     * @param subspace maximum basis size m, k + 2 <= m, capped at n
+     * @param tolerance positive relative residual at which a pair is accepted
+     * @throws IncompatibleDimensionsException if operator is not square
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public Lanczos(LinearOperator operator, int count, Spectrum spectrum, int subspace, double tolerance) {
+        super(operator, count, spectrum, subspace, tolerance);
+        int m = this.subspace;
+        double[][] basis = new double[m + 1][dimension];
+        double[][] scratch = new double[m][dimension];
+        double[][] h = new double[m + 1][m];
+        double[][] t = new double[m][m];
+        double[][] y = new double[m][m];
+        double[][] q = new double[m][m];
+        double[] values = new double[m];
+        double[] coefficients = new double[m];
+        double[] correction = new double[m];
+        Integer[] order = new Integer[m];
+        double[] wanted = new double[count];
+        double[] imaginary = new double[count];
+        double[] verified = null;
+        
+        randomUnit(basis[0]);
+        int start = 0;
+        int size;
+        while (true) {
+            size = expand(basis, h, start, m, coefficients, correction);
+            //symmetric projection from the upper triangle, which holds the computed coefficients
+            for (int j = 0; j < size; j++) {
+                for (int i = 0; i <= j; i++) {
+                    t[i][j] = h[i][j];
+                    t[j][i] = h[i][j];
+                }
+            }
+            symmetricEigen(t, size, values, y);
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, 0, size, (a, b) -> Double.compare(priority(values[b], 0), priority(values[a], 0)));
+            
+            double beta = h[size][size - 1];
+            converged = true;
+            for (int i = 0; i < required(verified != null, size); i++) {
+                double estimate = Math.abs(beta * y[size - 1][order[i]]);
+                converged &= accepted(Math.abs(values[order[i]]), estimate);
+            }
+            for (int i = 0; i < count; i++) {
+                wanted[i] = values[order[i]];
+            }
+            if (converged) {
+                //a basis of the whole space leaves nothing to check
+                if (m == dimension || verified != null && unchanged(verified, imaginary, wanted, imaginary)) {
+                    break;
+                }
+                verified = wanted.clone();
+            }
+            if (restarts == MAX_RESTARTS) {
+                break;
+            }
+            
+            //thick restart on the wanted Ritz vectors and half of the rest, or on the
+            //wanted vectors alone, locked, if they are to be checked from a new direction
+            restarts++;
+            int keep = converged ? count : count + (m - count) / 2;
+            for (int j = 0; j < size; j++) {
+                for (int i = 0; i < keep; i++) {
+                    q[j][i] = y[j][order[i]];
+                }
+            }
+            rotate(basis, size, q, keep, scratch);
+            for (double[] row : h) {
+                Arrays.fill(row, 0);
+            }
+            for (int i = 0; i < keep; i++) {
+                h[i][i] = values[order[i]];
+            }
+            if (converged) {
+                randomDirection(basis, keep, coefficients, correction);
+            } else {
+                double[] swap = basis[keep];
+                basis[keep] = basis[size];
+                basis[size] = swap;
+                for (int i = 0; i < keep; i++) {
+                    h[keep][i] = beta * q[size - 1][i];
+                }
+            }
+            start = keep;
+        }
+        
+        eigenvalues = new Complex[count];
+        vectorsRe = new double[count][];
+        residuals = new double[count];
+        double[] image = new double[dimension];
+        for (int i = 0; i < count; i++) {
+            double value = values[order[i]];
+            double[] vector = new double[dimension];
+            for (int j = 0; j < size; j++) {
+                IterativeSolver.axpy(y[j][order[i]], basis[j], vector);
+            }
+            scale(vector, 1 / IterativeSolver.norm(vector));
+            operator.apply(vector, image);
+            IterativeSolver.axpy(-value, vector, image);
+            eigenvalues[i] = new Complex(value, 0);
+            vectorsRe[i] = vector;
+            residuals[i] = IterativeSolver.norm(image);
+        }
+    }
+    
+    /**
+     * @param index nonnegative index less than k
+     * @return copy of the real unit eigenvector for the index-th eigenvalue
+     */
+    public double[] getRealEigenvector(int index) {
+        return vectorsRe[index].clone();
+    }
+    
+    /**
+     * Eigendecomposition of the leading size x size block of a symmetric matrix by cyclic
+     * Jacobi rotations, destroying its contents
+     * @param values overwritten with the eigenvalues
+     * @param vectors overwritten with the eigenvectors as columns
+     * @throws ArithmeticException if the rotations fail to converge
+     */
+    private static void symmetricEigen(double[][] a, int size, double[] values, double[][] vectors) {
+        for (int i = 0; i < size; i++) {
+            Arrays.fill(vectors[i], 0, size, 0);
+            vectors[i][i] = 1;
+        }
+        double scale = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                scale = Math.hypot(scale, a[i][j]);
+            }
+        }
+        for (int sweep = 0; ; sweep++) {
+            boolean rotated = false;
+            for (int p = 0; p < size - 1; p++) {
+                for (int r = p + 1; r < size; r++) {
+                    //entries negligible beside their diagonal entries are dropped
+                    double diagonal = Math.max(Math.sqrt(Math.abs(a[p][p] * a[r][r])), EPSILON * scale);
+                    if (Math.abs(a[p][r]) <= EPSILON * diagonal) {
+                        a[p][r] = 0;
+                        a[r][p] = 0;
+                        continue;
+                    }
+                    if (sweep == MAX_SWEEPS) {
+                        throw new ArithmeticException("Jacobi eigenvalue iteration did not converge");
+                    }
+                    rotated = true;
+                    //rotation angle that annihilates a[p][r]
+                    double theta = (a[r][r] - a[p][p]) / (2 * a[p][r]);
+                    double tangent = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
+                    if (theta == 0) {
+                        tangent = 1;
+                    }
+                    double c = 1 / Math.sqrt(tangent * tangent + 1);
+                    double s = tangent * c;
+                    for (int k = 0; k < size; k++) {
+                        double kp = a[k][p];
+                        double kr = a[k][r];
+                        a[k][p] = c * kp - s * kr;
+                        a[k][r] = s * kp + c * kr;
+                    }
+                    for (int k = 0; k < size; k++) {
+                        double pk = a[p][k];
+                        double rk = a[r][k];
+                        a[p][k] = c * pk - s * rk;
+                        a[r][k] = s * pk + c * rk;
+                    }
+                    for (int k = 0; k < size; k++) {
+                        double kp = vectors[k][p];
+                        double kr = vectors[k][r];
+                        vectors[k][p] = c * kp - s * kr;
+                        vectors[k][r] = s * kp + c * kr;
+                    }
+                }
+            }
+            if (!rotated) {
+                break;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            values[i] = a[i][i];
+        }
+    }
+}
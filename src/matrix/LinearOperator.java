@@ -0,0 +1,80 @@
+package matrix;
+
+import java.util.stream.IntStream;
+
+/*
+ * A real m x n matrix seen only through its action on vectors, so that algorithms
+ * needing nothing but matrix-vector products run on dense, sparse or implicit matrices
+ * alike. Implementations must allow concurrent calls that use distinct buffers.
+ */
+public interface LinearOperator {
+    
+    /**
+     * @return a two-element array: {number rows, number columns}
+     */
+    public int[] size();
+    
+    /**
+     * Overwrite y with A x
+     * @param x vector of length n, not modified
+     * @param y vector of length m, distinct from x
+     */
+    public void apply(double[] x, double[] y);
+    
+    /**
+     * Overwrite y with A^T x
+     * @param x vector of length m, not modified
+     * @param y vector of length n, distinct from x
+     */
+    public void applyTranspose(double[] x, double[] y);
+    
+    /**
+     * @param x vector of length n
+     * @return new vector A x
+     * @throws IncompatibleDimensionsException if x has the wrong length
+     */
+    public default Vector multiply(Vector x) {
+        Vector y = new Vector(size()[0]);
+        Vector.gemv(1, this, x, 0, y);
+        return y;
+    }
+    
+    /**
+     * @param x vector of length m
+     * @return new vector A^T x
+     * @throws IncompatibleDimensionsException if x has the wrong length
+     */
+    public default Vector transposeMultiply(Vector x) {
+        Vector y = new Vector(size()[1]);
+        Vector.gemvTranspose(1, this, x, 0, y);
+        return y;
+    }
+    
+    /**
+     * Overwrite y with A x, splitting the product across threads where the
+     * implementation supports it; by default the same as apply
+     * @param x vector of length n, not modified
+     * @param y vector of length m, distinct from x
+     */
+    public default void applyParallel(double[] x, double[] y) {
+        apply(x, y);
+    }
+    
+    /**
+     * Apply the operator to a block of vectors, one vector per thread
+     * @param x array of vectors of length n
+     * @param y array of the same number of vectors of length m, overwritten with A x[j]
+     */
+    public default void applyBlock(double[][] x, double[][] y) {
+        IntStream.range(0, x.length).parallel().forEach(j -> apply(x[j], y[j]));
+    }
+    
+    /**
+     * Apply the transpose to a block of vectors, one vector per thread
+     * @param x array of vectors of length m
+     * @param y array of the same number of vectors of length n, overwritten with A^T x[j]
+     */
+    public default void applyTransposeBlock(double[][] x, double[][] y) {
+        IntStream.range(0, x.length).parallel().forEach(j -> applyTranspose(x[j], y[j]));
+    }
+}
@@ -0,0 +1,649 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Immutable real m x n matrix A = U V^T held only as its factors, U of size m x k and
+ * V of size n x k, so that storage and the cost of most operations scale with
+ * (m + n) k instead of m n.
+ *
+ * Entries are computed on demand in O(k), products with vectors cost O((m + n) k), and
+ * the transpose exchanges the factors without copying. Products with other matrices
+ * stay factored: A B = U (B^T V)^T. Sums concatenate the factors and then recompress
+ * them: with U = Q_u R_u and V = Q_v R_v, the SVD W S Z^T of the small core R_u R_v^T
+ * gives A = (Q_u W S)(Q_v Z)^T, and singular values negligible against the summed terms
+ * are dropped, so rank grows only as far as the sum needs. Operations with no low-rank
+ * form go through the dense matrix; equality and hashing never form it.
+ */
+
+public class LowRankMatrix implements Matrix<BigDecimal>, LinearOperator, RightFactor {
+    
+    // recompression drops singular values below max(m, n) times this, relative to the factors
+    private final static double EPSILON = Math.ulp(1.0);
+    
+    private final int numRows;
+    private final int numCols;
+    // factors stored as arrays of columns, left[p] of length m and right[p] of length n
+    private final double[][] left;
+    private final double[][] right;
+    
+    /**
+     * @param u row-major m x k array U, not kept
+     * @param v row-major n x k array V, not kept
+     * @throws IncompatibleDimensionsException if the factors are empty or differ in k
+     */
+    public LowRankMatrix(double[][] u, double[][] v) {
+        this(u.length, v.length, columns(u), columns(v));
+        if (u[0].length != v[0].length) {
+            throw new IncompatibleDimensionsException("Factors must have the same number of columns");
+        }
+    }
+    
+    /**
+     * @param u m x k factor U
+     * @param v n x k factor V
+     * @throws IncompatibleDimensionsException if the factors differ in k
+     */
+    public LowRankMatrix(Matrix<BigDecimal> u, Matrix<BigDecimal> v) {
+        this(BigDecimalMatrix.toArray(u), BigDecimalMatrix.toArray(v));
+    }
+    
+    /**
+     * @param left columns of U, kept
+     * @param right columns of V, kept
+     */
+    LowRankMatrix(int numRows, int numCols, double[][] left, double[][] right) {
+        if (numRows <= 0 || numCols <= 0) {
+            throw new IncompatibleDimensionsException("Matrix must have nonzero dimensions");
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        this.left = left;
+        this.right = right;
+    }
+    
+    private static double[][] columns(double[][] entries) {
+        if (entries.length == 0) {
+            throw new IncompatibleDimensionsException("Factors must be nonempty");
+        }
+        int rank = entries[0].length;
+        double[][] columns = new double[rank][entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            if (entries[i].length != rank) {
+                throw new IncompatibleDimensionsException("Factor must be rectangular");
+            }
+            for (int p = 0; p < rank; p++) {
+                columns[p][i] = entries[i][p];
+            }
+        }
+        return columns;
+    }
+    
+    private static double[][] rows(double[][] columns, int length) {
+        double[][] entries = new double[length][columns.length];
+        for (int p = 0; p < columns.length; p++) {
+            for (int i = 0; i < length; i++) {
+                entries[i][p] = columns[p][i];
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * @return k, the number of columns of each factor and a bound on the rank
+     */
+    public int factorRank() {
+        return left.length;
+    }
+    
+    /**
+     * @return the m x k factor U
+     */
+    public Matrix<BigDecimal> getU() {
+        return new BigDecimalMatrix(rows(left, numRows));
+    }
+    
+    /**
+     * @return the n x k factor V
+     */
+    public Matrix<BigDecimal> getV() {
+        return new BigDecimalMatrix(rows(right, numCols));
+    }
+    
+    @Override
+    public int[] size() {
+        int[] dimensions = {numRows, numCols};
+        return dimensions;
+    }
+    
+    private void checkRow(int row) {
+        if (row < 0 || row >= numRows) {
+            throw new IndexOutOfBoundsException("Row index out of bounds");
+        }
+    }
+    
+    private void checkColumn(int column) {
+        if (column < 0 || column >= numCols) {
+            throw new IndexOutOfBoundsException("Column index out of bounds");
+        }
+    }
+    
+    /**
+     * @return the dot product of row row of U with row column of V, in O(k)
+     */
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        checkRow(row);
+        checkColumn(column);
+        double sum = 0;
+        for (int p = 0; p < left.length; p++) {
+            sum += left[p][row] * right[p][column];
+        }
+        return new BigDecimal(sum);
+    }
+    
+    @Override
+    public BigDecimal[] getRow(int row) throws IndexOutOfBoundsException {
+        checkRow(row);
+        double[] values = new double[numCols];
+        for (int p = 0; p < left.length; p++) {
+            IterativeSolver.axpy(left[p][row], right[p], values);
+        }
+        return toBigDecimals(values);
+    }
+    
+    @Override
+    public BigDecimal[] getColumn(int column) throws IndexOutOfBoundsException {
+        checkColumn(column);
+        double[] values = new double[numRows];
+        for (int p = 0; p < left.length; p++) {
+            IterativeSolver.axpy(right[p][column], left[p], values);
+        }
+        return toBigDecimals(values);
+    }
+    
+    private static BigDecimal[] toBigDecimals(double[] values) {
+        BigDecimal[] output = new BigDecimal[values.length];
+        for (int i = 0; i < values.length; i++) {
+            output[i] = new BigDecimal(values[i]);
+        }
+        return output;
+    }
+    
+    /**
+     * y = U (V^T x), k dot products then k vector updates
+     */
+    @Override
+    public void apply(double[] x, double[] y) {
+        product(left, right, x, y, numRows);
+    }
+    
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        product(right, left, x, y, numCols);
+    }
+    
+    private static void product(double[][] outer, double[][] inner, double[] x, double[] y, int length) {
+        Arrays.fill(y, 0, length, 0);
+        for (int p = 0; p < outer.length; p++) {
+            IterativeSolver.axpy(IterativeSolver.dot(inner[p], x), outer[p], y);
+        }
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, 1);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, -1);
+    }
+    
+    /**
+     * @return this + sign * matr, recompressed when matr is low rank
+     */
+    private Matrix<BigDecimal> combine(Matrix<BigDecimal> matr, int sign) {
+        int[] thatSize = matr.size();
+        if (thatSize[0] != numRows || thatSize[1] != numCols) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for addition");
+        }
+        if (!(matr instanceof LowRankMatrix)) {
+            return sign > 0 ? toDense().add(matr) : toDense().subtract(matr);
+        }
+        LowRankMatrix that = (LowRankMatrix)matr;
+        double[][] newLeft = Arrays.copyOf(left, left.length + that.left.length);
+        double[][] newRight = Arrays.copyOf(right, right.length + that.right.length);
+        for (int p = 0; p < that.left.length; p++) {
+            newLeft[left.length + p] = that.left[p];
+            newRight[right.length + p] = sign > 0 ? that.right[p] : scale(that.right[p], -1);
+        }
+        return new LowRankMatrix(numRows, numCols, newLeft, newRight).compress(defaultTolerance());
+    }
+    
+    private static double[] scale(double[] vector, double factor) {
+        double[] scaled = new double[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            scaled[i] = vector[i] * factor;
+        }
+        return scaled;
+    }
+    
+    private double defaultTolerance() {
+        return Math.max(numRows, numCols) * EPSILON;
+    }
+    
+    /**
+     * Recompress the factors through QR of each and an SVD of the k x k core
+     * @param tolerance singular values below tolerance times the sum of the norms
+     *        ||u_p|| ||v_p|| of the rank-one terms are dropped; that sum bounds the
+     *        largest singular value, and rounding errors scale with it even when the
+     *        terms cancel
+     * @return the same matrix, up to the dropped singular values, with orthogonal
+     *         columns in V and the fewest columns the tolerance allows
+     */
+    public LowRankMatrix compress(double tolerance) {
+        int rank = left.length;
+        if (rank == 0) {
+            return this;
+        }
+        double[][] leftQ = new double[numRows][];
+        double[][] rightQ = new double[numCols][];
+        double[][] leftR = orthogonalize(left, numRows, leftQ);
+        double[][] rightR = orthogonalize(right, numCols, rightQ);
+        //core R_u R_v^T, small: at most k x k
+        double[][] core = new double[leftR.length][rightR.length];
+        for (int i = 0; i < leftR.length; i++) {
+            for (int j = 0; j < rightR.length; j++) {
+                core[i][j] = IterativeSolver.dot(leftR[i], rightR[j]);
+            }
+        }
+        SingularValueDecomposition svd = new SingularValueDecomposition(core, false, false);
+        double[] singularValues = svd.getSingularValues();
+        double scale = 0;
+        for (int p = 0; p < rank; p++) {
+            scale += IterativeSolver.norm(left[p]) * IterativeSolver.norm(right[p]);
+        }
+        int kept = 0;
+        while (kept < singularValues.length && singularValues[kept] > tolerance * scale) {
+            kept++;
+        }
+        double[][] newLeft = new double[kept][numRows];
+        double[][] newRight = new double[kept][numCols];
+        for (int p = 0; p < kept; p++) {
+            double[] w = column(svd.leftVectors(), p);
+            double[] z = column(svd.rightVectors(), p);
+            for (int i = 0; i < numRows; i++) {
+                newLeft[p][i] = IterativeSolver.dot(leftQ[i], w) * singularValues[p];
+            }
+            for (int j = 0; j < numCols; j++) {
+                newRight[p][j] = IterativeSolver.dot(rightQ[j], z);
+            }
+        }
+        return new LowRankMatrix(numRows, numCols, newLeft, newRight);
+    }
+    
+    private static double[] column(double[][] entries, int index) {
+        double[] column = new double[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            column[i] = entries[i][index];
+        }
+        return column;
+    }
+    
+    /**
+     * Thin QR factorization F = Q R of the factor with the given columns
+     * @param q filled with the rows of Q, length x min(length, k)
+     * @return R with its columns unpivoted, min(length, k) x k, as rows
+     */
+    private static double[][] orthogonalize(double[][] columns, int length, double[][] q) {
+        QRDecomposition qr = new QRDecomposition(rows(columns, length));
+        double[][] thinQ = qr.thinQ();
+        System.arraycopy(thinQ, 0, q, 0, length);
+        double[][] r = qr.upperTriangle();
+        int[] pivot = qr.getPivot();
+        //column j of R belongs to column pivot[j] of the factor
+        double[][] unpivoted = new double[r.length][columns.length];
+        for (int i = 0; i < r.length; i++) {
+            for (int j = 0; j < columns.length; j++) {
+                unpivoted[i][pivot[j]] = r[i][j];
+            }
+        }
+        return unpivoted;
+    }
+    
+    /**
+     * Low rank whatever matr is: U V^T B = U (B^T V)^T, and for low-rank B = X Y^T,
+     * U (V^T X) Y^T
+     */
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr.size()[0] != numCols) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        if (matr instanceof LowRankMatrix) {
+            LowRankMatrix that = (LowRankMatrix)matr;
+            //U (V^T X): column q of the new left factor is sum_p (v_p . x_q) u_p
+            double[][] newLeft = new double[that.left.length][numRows];
+            for (int q = 0; q < that.left.length; q++) {
+                for (int p = 0; p < left.length; p++) {
+                    IterativeSolver.axpy(IterativeSolver.dot(right[p], that.left[q]), left[p], newLeft[q]);
+                }
+            }
+            return new LowRankMatrix(numRows, that.numCols, newLeft, that.right);
+        }
+        LinearOperator other = matr instanceof LinearOperator ? (LinearOperator)matr : new DenseOperator(matr);
+        int columns = matr.size()[1];
+        double[][] newRight = new double[right.length][columns];
+        for (int p = 0; p < right.length; p++) {
+            other.applyTranspose(right[p], newRight[p]);
+        }
+        return new LowRankMatrix(numRows, columns, left, newRight);
+    }
+    
+    /**
+     * @param matr matrix with as many columns as this has rows
+     * @return matr * this = (B U) V^T, still low rank
+     */
+    @Override
+    public Matrix<BigDecimal> multiplyLeft(Matrix<BigDecimal> matr) {
+        LinearOperator other = matr instanceof LinearOperator ? (LinearOperator)matr : new DenseOperator(matr);
+        int rows = matr.size()[0];
+        double[][] newLeft = new double[left.length][rows];
+        for (int p = 0; p < left.length; p++) {
+            other.apply(left[p], newLeft[p]);
+        }
+        return new LowRankMatrix(rows, numCols, newLeft, right);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        double[][] newLeft = new double[left.length][];
+        for (int p = 0; p < left.length; p++) {
+            newLeft[p] = scale(left[p], element);
+        }
+        return new LowRankMatrix(numRows, numCols, newLeft, right);
+    }
+    
+    /**
+     * @return the transpose V U^T, sharing this matrix's factors
+     */
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        return new LowRankMatrix(numCols, numRows, right, left);
+    }
+    
+    /**
+     * @return number of singular values above the default tolerance, found by recompression
+     */
+    @Override
+    public int rank() {
+        return compress(defaultTolerance()).left.length;
+    }
+    
+    @Override
+    public int nullity() {
+        return numCols - rank();
+    }
+    
+    /**
+     * @return zero when k < n, since the rank is then below n
+     * @throws IncompatibleDimensionsException if the matrix is not square
+     */
+    @Override
+    public BigDecimal determinant() throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Determinant not defined for non-square matrices");
+        }
+        return left.length < numRows ? BigDecimal.ZERO : toDense().determinant();
+    }
+    
+    /**
+     * @throws IncompatibleDimensionsException if the matrix is not square or has k < n
+     */
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Inverse not defined for non-square matrices");
+        }
+        if (left.length < numRows) {
+            throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+        }
+        return toDense().inverse();
+    }
+    
+    /**
+     * @return the k eigenvalues of the small matrix V^T U, which are the nonzero
+     *         eigenvalues of U V^T, followed by n - k zeros
+     * @throws IncompatibleDimensionsException if the matrix is not square
+     */
+    @Override
+    public Complex[] eigenvalues() throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Eigenvalues not defined for non-square matrices");
+        }
+        int rank = Math.min(left.length, numRows);
+        Complex[] eigenvalues = new Complex[numRows];
+        Arrays.fill(eigenvalues, new Complex(0, 0));
+        if (rank == left.length && rank > 0) {
+            double[][] small = new double[rank][rank];
+            for (int p = 0; p < rank; p++) {
+                for (int q = 0; q < rank; q++) {
+                    small[p][q] = IterativeSolver.dot(right[p], left[q]);
+                }
+            }
+            System.arraycopy(new BigDecimalMatrix(small).eigenvalues(), 0, eigenvalues, 0, rank);
+            return eigenvalues;
+        }
+        return rank == 0 ? eigenvalues : toDense().eigenvalues();
+    }
+    
+    @Override
+    public Map<Complex, Set<Matrix<Complex>>> eigenMap() throws IncompatibleDimensionsException {
+        return toDense().eigenMap();
+    }
+    
+    @Override
+    public Set<Matrix<Complex>> eigenvectors(Complex eigenvalue) throws IncompatibleDimensionsException {
+        return toDense().eigenvectors(eigenvalue);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> rref() {
+        return toDense().rref();
+    }
+    
+    /**
+     * @return the minor, still low rank: each factor loses one row
+     * @throws IncompatibleDimensionsException if the matrix is not square or is 1 x 1
+     */
+    @Override
+    public Matrix<BigDecimal> minor(int row, int column) throws IndexOutOfBoundsException, IncompatibleDimensionsException {
+        checkRow(row);
+        checkColumn(column);
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Matrix needs to be square");
+        }
+        if (numRows == 1) {
+            throw new IncompatibleDimensionsException("Minor not defined for 1 x 1 matrices");
+        }
+        double[][] newLeft = new double[left.length][];
+        double[][] newRight = new double[right.length][];
+        for (int p = 0; p < left.length; p++) {
+            newLeft[p] = remove(left[p], row);
+            newRight[p] = remove(right[p], column);
+        }
+        return new LowRankMatrix(numRows - 1, numCols - 1, newLeft, newRight);
+    }
+    
+    private static double[] remove(double[] vector, int index) {
+        double[] removed = new double[vector.length - 1];
+        System.arraycopy(vector, 0, removed, 0, index);
+        System.arraycopy(vector, index + 1, removed, index, removed.length - index);
+        return removed;
+    }
+    
+    @Override
+    public Set<Matrix<BigDecimal>> nullspace() {
+        return toDense().nullspace();
+    }
+    
+    @Override
+    public boolean rowNotZero(int row) {
+        for (BigDecimal value : getRow(row)) {
+            if (value.signum() != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * @return this above bottom, low rank when bottom is: [U_1 0; 0 U_2] [V_1 V_2]^T
+     */
+    @Override
+    public Matrix<BigDecimal> stack(Matrix<BigDecimal> bottom) throws IncompatibleDimensionsException {
+        if (bottom.size()[1] != numCols) {
+            throw new IncompatibleDimensionsException("Unable to stack due to different number of columns");
+        }
+        if (!(bottom instanceof LowRankMatrix)) {
+            return toDense().stack(bottom);
+        }
+        LowRankMatrix that = (LowRankMatrix)bottom;
+        int rows = numRows + that.numRows;
+        double[][] newLeft = new double[left.length + that.left.length][];
+        double[][] newRight = Arrays.copyOf(right, right.length + that.right.length);
+        for (int p = 0; p < left.length; p++) {
+            newLeft[p] = Arrays.copyOf(left[p], rows);
+        }
+        for (int p = 0; p < that.left.length; p++) {
+            newLeft[left.length + p] = new double[rows];
+            System.arraycopy(that.left[p], 0, newLeft[left.length + p], numRows, that.numRows);
+            newRight[right.length + p] = that.right[p];
+        }
+        return new LowRankMatrix(rows, numCols, newLeft, newRight);
+    }
+    
+    /**
+     * @return dense m x n matrix U V^T
+     */
+    public Matrix<BigDecimal> toDense() {
+        double[][] dense = new double[numRows][numCols];
+        for (int p = 0; p < left.length; p++) {
+            for (int i = 0; i < numRows; i++) {
+                IterativeSolver.axpy(left[p][i], right[p], dense[i]);
+            }
+        }
+        return new BigDecimalMatrix(dense);
+    }
+    
+    @Override
+    public String toString() {
+        return toDense().toString();
+    }
+    
+    /**
+     * Equal to any Matrix with the same dimensions and elements, as rounded by
+     * BigDecimalMatrix.equals, compared row by row. Against another low-rank matrix, identical
+     * factors are equal outright, and a factored difference with an entry larger than two grid
+     * cells (see differenceWithin) rules equality out without the rows
+     */
+    @Override
+    public boolean equals(Object that) {
+        if (!(that instanceof Matrix)) return false;
+        // warnings suppressed as javadoc requires that to be Matrix<BigDecimal>
+        @SuppressWarnings("unchecked")
+        Matrix<BigDecimal> thatMat = (Matrix<BigDecimal>)that;
+        
+        int[] thatDim = thatMat.size();
+        if (numRows != thatDim[0] || numCols != thatDim[1]) {
+            return false;
+        }
+        LowRankMatrix thatLowRank = null;
+        if (that instanceof LowRankMatrix) {
+            thatLowRank = (LowRankMatrix)that;
+            if (Arrays.deepEquals(left, thatLowRank.left) && Arrays.deepEquals(right, thatLowRank.right)) {
+                return true;
+            }
+            //elements rounded alike differ by at most one grid cell, the rest is rounding slack
+            if (!differenceWithin(thatLowRank, 2 * BigDecimalMatrix.ERROR.doubleValue())) {
+                return false;
+            }
+        }
+        for (int i = 0; i < numRows; i++) {
+            BigDecimal[] thisRow = getRow(i);
+            BigDecimal[] thatRow = thatLowRank == null ? null : thatLowRank.getRow(i);
+            for (int j = 0; j < numCols; j++) {
+                BigDecimal thatElt = thatRow == null ? thatMat.getElement(i, j) : thatRow[j];
+                if (!BigDecimalMatrix.canonicalEquals(thisRow[j], thatElt)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * With the difference factored as D = P Q^T and Q = Q' R for orthonormal Q',
+     * |D_ij| <= ||row i of P R^T|| ||row j of Q'||, so only entries whose bound exceeds
+     * the tolerance are computed, in O(k) each. Equal matrices have P R^T = D Q' of
+     * rounding size and need none, in O((m + n) k^2) overall.
+     * @param that low-rank matrix of the same size
+     * @return true iff every entry of this - that is at most tolerance in magnitude
+     */
+    private boolean differenceWithin(LowRankMatrix that, double tolerance) {
+        int rank = left.length + that.left.length;
+        if (rank == 0) {
+            return true;
+        }
+        double[][] differenceLeft = Arrays.copyOf(left, rank);
+        double[][] differenceRight = Arrays.copyOf(right, rank);
+        for (int p = 0; p < that.left.length; p++) {
+            differenceLeft[left.length + p] = that.left[p];
+            differenceRight[left.length + p] = scale(that.right[p], -1);
+        }
+        double[][] rightQ = new double[numCols][];
+        double[][] rightR = orthogonalize(differenceRight, numCols, rightQ);
+        //rows of P R^T
+        double[][] leftRows = new double[numRows][rightR.length];
+        for (int i = 0; i < numRows; i++) {
+            for (int s = 0; s < rightR.length; s++) {
+                double sum = 0;
+                for (int p = 0; p < rank; p++) {
+                    sum += differenceLeft[p][i] * rightR[s][p];
+                }
+                leftRows[i][s] = sum;
+            }
+        }
+        double[] rightNorms = new double[numCols];
+        double largestRight = 0;
+        for (int j = 0; j < numCols; j++) {
+            rightNorms[j] = IterativeSolver.norm(rightQ[j]);
+            largestRight = Math.max(largestRight, rightNorms[j]);
+        }
+        for (int i = 0; i < numRows; i++) {
+            double leftNorm = IterativeSolver.norm(leftRows[i]);
+            if (leftNorm * largestRight <= tolerance) {
+                continue;
+            }
+            for (int j = 0; j < numCols; j++) {
+                if (leftNorm * rightNorms[j] > tolerance
+                        && Math.abs(IterativeSolver.dot(leftRows[i], rightQ[j])) > tolerance) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Same as the hash code of the equal BigDecimalMatrix, without forming it
+     */
+    @Override
+    public int hashCode() {
+        return BigDecimalMatrix.contentHash(this);
+    }
+}
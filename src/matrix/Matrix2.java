@@ -0,0 +1,282 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * 2 x 2 real matrix held in four fields, for code that works through very many small
+ * transforms. Products, the determinant and the inverse are written out in closed form
+ * with no arrays, loops or BigDecimal arithmetic, and each has an *Into variant that
+ * writes its result into a matrix the caller supplies, so that a loop over transforms
+ * allocates nothing. Results are computed before the destination is written, so the
+ * destination may be either operand.
+ *
+ * Unlike the other matrix types these are mutable, through set and the *Into methods.
+ * Through the Matrix interface they behave as any other 2 x 2 matrix, converting to
+ * BigDecimalMatrix for operations without a closed form here.
+ */
+
+public class Matrix2 extends StructuredMatrix implements LinearOperator {
+    
+    // entry (i, j) is mij
+    private double m00, m01;
+    private double m10, m11;
+    
+    /**
+     * Zero matrix
+     */
+    public Matrix2() {
+        super(2);
+    }
+    
+    /**
+     * @param m00 entries in row-major order
+     */
+    public Matrix2(double m00, double m01, double m10, double m11) {
+        super(2);
+        set(m00, m01, m10, m11);
+    }
+    
+    /**
+     * @param matrix any 2 x 2 matrix
+     * @throws IncompatibleDimensionsException if matrix is not 2 x 2
+     */
+    public Matrix2(Matrix<BigDecimal> matrix) {
+        super(2);
+        int[] dimensions = matrix.size();
+        if (dimensions[0] != 2 || dimensions[1] != 2) {
+            throw new IncompatibleDimensionsException("Matrix must be 2 x 2");
+        }
+        for (int i = 0; i < 2; i++) {
+            BigDecimal[] row = matrix.getRow(i);
+            for (int j = 0; j < 2; j++) {
+                set(i, j, row[j].doubleValue());
+            }
+        }
+    }
+    
+    public static Matrix2 identity() {
+        return new Matrix2().setIdentity();
+    }
+    
+    /**
+     * Overwrite every entry, in row-major order
+     * @return this
+     */
+    public Matrix2 set(double m00, double m01, double m10, double m11) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m10 = m10;
+        this.m11 = m11;
+        return this;
+    }
+    
+    /**
+     * @return this, overwritten with the entries of that
+     */
+    public Matrix2 set(Matrix2 that) {
+        return set(that.m00, that.m01, that.m10, that.m11);
+    }
+    
+    /**
+     * @return this, overwritten with the identity
+     */
+    public Matrix2 setIdentity() {
+        return set(1, 0, 0, 1);
+    }
+    
+    /**
+     * @throws IndexOutOfBoundsException if row or column is out of range
+     */
+    public double get(int row, int column) {
+        checkIndices(row, column);
+        switch (row * 2 + column) {
+            case 0: return m00;
+            case 1: return m01;
+            case 2: return m10;
+            default: return m11;
+        }
+    }
+    
+    /**
+     * @return this, with entry (row, column) overwritten
+     * @throws IndexOutOfBoundsException if row or column is out of range
+     */
+    public Matrix2 set(int row, int column, double value) {
+        checkIndices(row, column);
+        switch (row * 2 + column) {
+            case 0: m00 = value; break;
+            case 1: m01 = value; break;
+            case 2: m10 = value; break;
+            default: m11 = value; break;
+        }
+        return this;
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        return new BigDecimal(get(row, column));
+    }
+    
+    /**
+     * @param dest matrix to hold the product, may be this or that
+     * @return dest, overwritten with this * that
+     */
+    public Matrix2 multiplyInto(Matrix2 that, Matrix2 dest) {
+        double p00 = m00 * that.m00 + m01 * that.m10;
+        double p01 = m00 * that.m01 + m01 * that.m11;
+        double p10 = m10 * that.m00 + m11 * that.m10;
+        double p11 = m10 * that.m01 + m11 * that.m11;
+        return dest.set(p00, p01, p10, p11);
+    }
+    
+    public Matrix2 multiply(Matrix2 that) {
+        return multiplyInto(that, new Matrix2());
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof Matrix2) {
+            return multiply((Matrix2)matr);
+        }
+        return toDense().multiply(matr);
+    }
+    
+    /**
+     * @param dest matrix to hold the sum, may be this or that
+     * @return dest, overwritten with this + that
+     */
+    public Matrix2 addInto(Matrix2 that, Matrix2 dest) {
+        return dest.set(m00 + that.m00, m01 + that.m01, m10 + that.m10, m11 + that.m11);
+    }
+    
+    /**
+     * @param dest matrix to hold the difference, may be this or that
+     * @return dest, overwritten with this - that
+     */
+    public Matrix2 subtractInto(Matrix2 that, Matrix2 dest) {
+        return dest.set(m00 - that.m00, m01 - that.m01, m10 - that.m10, m11 - that.m11);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof Matrix2) {
+            return addInto((Matrix2)matr, new Matrix2());
+        }
+        return super.add(matr);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof Matrix2) {
+            return subtractInto((Matrix2)matr, new Matrix2());
+        }
+        return super.subtract(matr);
+    }
+    
+    /**
+     * @param dest matrix to hold the result, may be this
+     * @return dest, overwritten with element * this
+     */
+    public Matrix2 scaleInto(double element, Matrix2 dest) {
+        return dest.set(m00 * element, m01 * element, m10 * element, m11 * element);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        return scaleInto(element, new Matrix2());
+    }
+    
+    /**
+     * @param dest matrix to hold the transpose, may be this
+     * @return dest, overwritten with the transpose of this
+     */
+    public Matrix2 transposeInto(Matrix2 dest) {
+        return dest.set(m00, m10, m01, m11);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        return transposeInto(new Matrix2());
+    }
+    
+    /**
+     * @return the determinant in double precision
+     */
+    public double det() {
+        return m00 * m11 - m01 * m10;
+    }
+    
+    @Override
+    public BigDecimal determinant() {
+        return new BigDecimal(det());
+    }
+    
+    /**
+     * @return 2 if the determinant is nonzero, otherwise the rank of the dense matrix
+     */
+    @Override
+    public int rank() {
+        return det() != 0 ? 2 : toDense().rank();
+    }
+    
+    /**
+     * @param dest matrix to hold the inverse, may be this
+     * @return dest, overwritten with the inverse of this
+     * @throws IncompatibleDimensionsException if the determinant is zero
+     */
+    public Matrix2 inverseInto(Matrix2 dest) throws IncompatibleDimensionsException {
+        double det = det();
+        checkInvertible(det);
+        double scale = 1 / det;
+        return dest.set(m11 * scale, -m01 * scale, -m10 * scale, m00 * scale);
+    }
+    
+    private static void checkInvertible(double det) {
+        if (det == 0) {
+            throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+        }
+    }
+    
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        return inverseInto(new Matrix2());
+    }
+    
+    /**
+     * y = A x; y may be x
+     */
+    @Override
+    public void apply(double[] x, double[] y) {
+        double y0 = m00 * x[0] + m01 * x[1];
+        double y1 = m10 * x[0] + m11 * x[1];
+        y[0] = y0;
+        y[1] = y1;
+    }
+    
+    /**
+     * y = A^T x; y may be x
+     */
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        double y0 = m00 * x[0] + m10 * x[1];
+        double y1 = m01 * x[0] + m11 * x[1];
+        y[0] = y0;
+        y[1] = y1;
+    }
+    
+    /**
+     * @return roots of the characteristic polynomial x^2 - tr x + det
+     */
+    @Override
+    public Complex[] eigenvalues() {
+        double half = (m00 + m11) / 2;
+        double discriminant = half * half - det();
+        double root = Math.sqrt(Math.abs(discriminant));
+        if (discriminant < 0) {
+            Complex[] eigenvalues = {new Complex(half, root), new Complex(half, -root)};
+            return eigenvalues;
+        }
+        Complex[] eigenvalues = {new Complex(half + root, 0), new Complex(half - root, 0)};
+        return eigenvalues;
+    }
+}
@@ -0,0 +1,317 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * 3 x 3 real matrix held in nine fields, the fixed-size counterpart of Matrix2 for
+ * rotations and other transforms of 3D space, and for 2D transforms in homogeneous
+ * coordinates. The determinant is expanded along the first row and the inverse is the
+ * adjugate over the determinant; as for Matrix2, the *Into variants allocate nothing
+ * and accept a destination that is one of the operands.
+ */
+
+public class Matrix3 extends StructuredMatrix implements LinearOperator {
+    
+    // entry (i, j) is mij
+    private double m00, m01, m02;
+    private double m10, m11, m12;
+    private double m20, m21, m22;
+    
+    /**
+     * Zero matrix
+     */
+    public Matrix3() {
+        super(3);
+    }
+    
+    /**
+     * @param m00 entries in row-major order
+     */
+    public Matrix3(double m00, double m01, double m02,
+            double m10, double m11, double m12,
+            double m20, double m21, double m22) {
+        super(3);
+        set(m00, m01, m02,
+            m10, m11, m12,
+            m20, m21, m22);
+    }
+    
+    /**
+     * @param matrix any 3 x 3 matrix
+     * @throws IncompatibleDimensionsException if matrix is not 3 x 3
+     */
+    public Matrix3(Matrix<BigDecimal> matrix) {
+        super(3);
+        int[] dimensions = matrix.size();
+        if (dimensions[0] != 3 || dimensions[1] != 3) {
+            throw new IncompatibleDimensionsException("Matrix must be 3 x 3");
+        }
+        for (int i = 0; i < 3; i++) {
+            BigDecimal[] row = matrix.getRow(i);
+            for (int j = 0; j < 3; j++) {
+                set(i, j, row[j].doubleValue());
+            }
+        }
+    }
+    
+    public static Matrix3 identity() {
+        return new Matrix3().setIdentity();
+    }
+    
+    /**
+     * Overwrite every entry, in row-major order
+     * @return this
+     */
+    public Matrix3 set(double m00, double m01, double m02,
+            double m10, double m11, double m12,
+            double m20, double m21, double m22) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+        return this;
+    }
+    
+    /**
+     * @return this, overwritten with the entries of that
+     */
+    public Matrix3 set(Matrix3 that) {
+        return set(that.m00, that.m01, that.m02,
+            that.m10, that.m11, that.m12,
+            that.m20, that.m21, that.m22);
+    }
+    
+    /**
+     * @return this, overwritten with the identity
+     */
+    public Matrix3 setIdentity() {
+        return set(1, 0, 0,
+            0, 1, 0,
+            0, 0, 1);
+    }
+    
+    /**
+     * @throws IndexOutOfBoundsException if row or column is out of range
+     */
+    public double get(int row, int column) {
+        checkIndices(row, column);
+        switch (row * 3 + column) {
+            case 0: return m00;
+            case 1: return m01;
+            case 2: return m02;
+            case 3: return m10;
+            case 4: return m11;
+            case 5: return m12;
+            case 6: return m20;
+            case 7: return m21;
+            default: return m22;
+        }
+    }
+    
+    /**
+     * @return this, with entry (row, column) overwritten
+     * @throws IndexOutOfBoundsException if row or column is out of range
+     */
+    public Matrix3 set(int row, int column, double value) {
+        checkIndices(row, column);
+        switch (row * 3 + column) {
+            case 0: m00 = value; break;
+            case 1: m01 = value; break;
+            case 2: m02 = value; break;
+            case 3: m10 = value; break;
+            case 4: m11 = value; break;
+            case 5: m12 = value; break;
+            case 6: m20 = value; break;
+            case 7: m21 = value; break;
+            default: m22 = value; break;
+        }
+        return this;
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        return new BigDecimal(get(row, column));
+    }
+    
+    /**
+     * @param dest matrix to hold the product, may be this or that
+     * @return dest, overwritten with this * that
+     */
+    public Matrix3 multiplyInto(Matrix3 that, Matrix3 dest) {
+        double p00 = m00 * that.m00 + m01 * that.m10 + m02 * that.m20;
+        double p01 = m00 * that.m01 + m01 * that.m11 + m02 * that.m21;
+        double p02 = m00 * that.m02 + m01 * that.m12 + m02 * that.m22;
+        double p10 = m10 * that.m00 + m11 * that.m10 + m12 * that.m20;
+        double p11 = m10 * that.m01 + m11 * that.m11 + m12 * that.m21;
+        double p12 = m10 * that.m02 + m11 * that.m12 + m12 * that.m22;
+        double p20 = m20 * that.m00 + m21 * that.m10 + m22 * that.m20;
+        double p21 = m20 * that.m01 + m21 * that.m11 + m22 * that.m21;
+        double p22 = m20 * that.m02 + m21 * that.m12 + m22 * that.m22;
+        return dest.set(p00, p01, p02,
+            p10, p11, p12,
+            p20, p21, p22);
+    }
+    
+    public Matrix3 multiply(Matrix3 that) {
+        return multiplyInto(that, new Matrix3());
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof Matrix3) {
+            return multiply((Matrix3)matr);
+        }
+        return toDense().multiply(matr);
+    }
+    
+    /**
+     * @param dest matrix to hold the sum, may be this or that
+     * @return dest, overwritten with this + that
+     */
+    public Matrix3 addInto(Matrix3 that, Matrix3 dest) {
+        return dest.set(m00 + that.m00, m01 + that.m01, m02 + that.m02,
+            m10 + that.m10, m11 + that.m11, m12 + that.m12,
+            m20 + that.m20, m21 + that.m21, m22 + that.m22);
+    }
+    
+    /**
+     * @param dest matrix to hold the difference, may be this or that
+     * @return dest, overwritten with this - that
+     */
+    public Matrix3 subtractInto(Matrix3 that, Matrix3 dest) {
+        return dest.set(m00 - that.m00, m01 - that.m01, m02 - that.m02,
+            m10 - that.m10, m11 - that.m11, m12 - that.m12,
+            m20 - that.m20, m21 - that.m21, m22 - that.m22);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof Matrix3) {
+            return addInto((Matrix3)matr, new Matrix3());
+        }
+        return super.add(matr);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof Matrix3) {
+            return subtractInto((Matrix3)matr, new Matrix3());
+        }
+        return super.subtract(matr);
+    }
+    
+    /**
+     * @param dest matrix to hold the result, may be this
+     * @return dest, overwritten with element * this
+     */
+    public Matrix3 scaleInto(double element, Matrix3 dest) {
+        return dest.set(m00 * element, m01 * element, m02 * element,
+            m10 * element, m11 * element, m12 * element,
+            m20 * element, m21 * element, m22 * element);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        return scaleInto(element, new Matrix3());
+    }
+    
+    /**
+     * @param dest matrix to hold the transpose, may be this
+     * @return dest, overwritten with the transpose of this
+     */
+    public Matrix3 transposeInto(Matrix3 dest) {
+        return dest.set(m00, m10, m20,
+            m01, m11, m21,
+            m02, m12, m22);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        return transposeInto(new Matrix3());
+    }
+    
+    /**
+     * @return the determinant in double precision
+     */
+    public double det() {
+        return m00 * (m11 * m22 - m12 * m21) + m01 * (m12 * m20 - m10 * m22) + m02 * (m10 * m21 - m11 * m20);
+    }
+    
+    @Override
+    public BigDecimal determinant() {
+        return new BigDecimal(det());
+    }
+    
+    /**
+     * @return 3 if the determinant is nonzero, otherwise the rank of the dense matrix
+     */
+    @Override
+    public int rank() {
+        return det() != 0 ? 3 : toDense().rank();
+    }
+    
+    /**
+     * @param dest matrix to hold the inverse, may be this
+     * @return dest, overwritten with the inverse of this
+     * @throws IncompatibleDimensionsException if the determinant is zero
+     */
+    public Matrix3 inverseInto(Matrix3 dest) throws IncompatibleDimensionsException {
+        //cofactors of the first row, which also give the determinant
+        double c00 = m11 * m22 - m12 * m21;
+        double c01 = m12 * m20 - m10 * m22;
+        double c02 = m10 * m21 - m11 * m20;
+        double det = m00 * c00 + m01 * c01 + m02 * c02;
+        checkInvertible(det);
+        double scale = 1 / det;
+        return dest.set(c00 * scale, (m02 * m21 - m01 * m22) * scale, (m01 * m12 - m02 * m11) * scale,
+            c01 * scale, (m00 * m22 - m02 * m20) * scale, (m02 * m10 - m00 * m12) * scale,
+            c02 * scale, (m01 * m20 - m00 * m21) * scale, (m00 * m11 - m01 * m10) * scale);
+    }
+    
+    private static void checkInvertible(double det) {
+        if (det == 0) {
+            throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+        }
+    }
+    
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        return inverseInto(new Matrix3());
+    }
+    
+    /**
+     * y = A x; y may be x
+     */
+    @Override
+    public void apply(double[] x, double[] y) {
+        double y0 = m00 * x[0] + m01 * x[1] + m02 * x[2];
+        double y1 = m10 * x[0] + m11 * x[1] + m12 * x[2];
+        double y2 = m20 * x[0] + m21 * x[1] + m22 * x[2];
+        y[0] = y0;
+        y[1] = y1;
+        y[2] = y2;
+    }
+    
+    /**
+     * y = A^T x; y may be x
+     */
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        double y0 = m00 * x[0] + m10 * x[1] + m20 * x[2];
+        double y1 = m01 * x[0] + m11 * x[1] + m21 * x[2];
+        double y2 = m02 * x[0] + m12 * x[1] + m22 * x[2];
+        y[0] = y0;
+        y[1] = y1;
+        y[2] = y2;
+    }
+    
+    @Override
+    public Complex[] eigenvalues() {
+        return toDense().eigenvalues();
+    }
+}
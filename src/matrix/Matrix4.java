@@ -0,0 +1,398 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * 4 x 4 real matrix held in sixteen fields, the fixed-size counterpart of Matrix2 for
+ * 3D transforms in homogeneous coordinates. The determinant and inverse come from the
+ * twelve 2 x 2 minors of the top two and bottom two rows (Laplace expansion along row
+ * pairs), about half the work of cofactor expansion; as for Matrix2, the *Into variants
+ * allocate nothing and accept a destination that is one of the operands.
+ */
+
+public class Matrix4 extends StructuredMatrix implements LinearOperator {
+    
+    // entry (i, j) is mij
+    private double m00, m01, m02, m03;
+    private double m10, m11, m12, m13;
+    private double m20, m21, m22, m23;
+    private double m30, m31, m32, m33;
+    
+    /**
+     * Zero matrix
+     */
+    public Matrix4() {
+        super(4);
+    }
+    
+    /**
+     * @param m00 entries in row-major order
+     */
+    public Matrix4(double m00, double m01, double m02, double m03,
+            double m10, double m11, double m12, double m13,
+            double m20, double m21, double m22, double m23,
+            double m30, double m31, double m32, double m33) {
+        super(4);
+        set(m00, m01, m02, m03,
+            m10, m11, m12, m13,
+            m20, m21, m22, m23,
+            m30, m31, m32, m33);
+    }
+    
+    /**
+     * @param matrix any 4 x 4 matrix
+     * @throws IncompatibleDimensionsException if matrix is not 4 x 4
+     */
+    public Matrix4(Matrix<BigDecimal> matrix) {
+        super(4);
+        int[] dimensions = matrix.size();
+        if (dimensions[0] != 4 || dimensions[1] != 4) {
+            throw new IncompatibleDimensionsException("Matrix must be 4 x 4");
+        }
+        for (int i = 0; i < 4; i++) {
+            BigDecimal[] row = matrix.getRow(i);
+            for (int j = 0; j < 4; j++) {
+                set(i, j, row[j].doubleValue());
+            }
+        }
+    }
+    
+    public static Matrix4 identity() {
+        return new Matrix4().setIdentity();
+    }
+    
+    /**
+     * Overwrite every entry, in row-major order
+     * @return this
+     */
+    public Matrix4 set(double m00, double m01, double m02, double m03,
+            double m10, double m11, double m12, double m13,
+            double m20, double m21, double m22, double m23,
+            double m30, double m31, double m32, double m33) {
+        this.m00 = m00;
+        this.m01 = m01;
+        this.m02 = m02;
+        this.m03 = m03;
+        this.m10 = m10;
+        this.m11 = m11;
+        this.m12 = m12;
+        this.m13 = m13;
+        this.m20 = m20;
+        this.m21 = m21;
+        this.m22 = m22;
+        this.m23 = m23;
+        this.m30 = m30;
+        this.m31 = m31;
+        this.m32 = m32;
+        this.m33 = m33;
+        return this;
+    }
+    
+    /**
+     * @return this, overwritten with the entries of that
+     */
+    public Matrix4 set(Matrix4 that) {
+        return set(that.m00, that.m01, that.m02, that.m03,
+            that.m10, that.m11, that.m12, that.m13,
+            that.m20, that.m21, that.m22, that.m23,
+            that.m30, that.m31, that.m32, that.m33);
+    }
+    
+    /**
+     * @return this, overwritten with the identity
+     */
+    public Matrix4 setIdentity() {
+        return set(1, 0, 0, 0,
+            0, 1, 0, 0,
+            0, 0, 1, 0,
+            0, 0, 0, 1);
+    }
+    
+    /**
+     * @throws IndexOutOfBoundsException if row or column is out of range
+     */
+    public double get(int row, int column) {
+        checkIndices(row, column);
+        switch (row * 4 + column) {
+            case 0: return m00;
+            case 1: return m01;
+            case 2: return m02;
+            case 3: return m03;
+            case 4: return m10;
+            case 5: return m11;
+            case 6: return m12;
+            case 7: return m13;
+            case 8: return m20;
+            case 9: return m21;
+            case 10: return m22;
+            case 11: return m23;
+            case 12: return m30;
+            case 13: return m31;
+            case 14: return m32;
+            default: return m33;
+        }
+    }
+    
+    /**
+     * @return this, with entry (row, column) overwritten
+     * @throws IndexOutOfBoundsException if row or column is out of range
+     */
+    public Matrix4 set(int row, int column, double value) {
+        checkIndices(row, column);
+        switch (row * 4 + column) {
+            case 0: m00 = value; break;
+            case 1: m01 = value; break;
+            case 2: m02 = value; break;
+            case 3: m03 = value; break;
+            case 4: m10 = value; break;
+            case 5: m11 = value; break;
+            case 6: m12 = value; break;
+            case 7: m13 = value; break;
+            case 8: m20 = value; break;
+            case 9: m21 = value; break;
+            case 10: m22 = value; break;
+            case 11: m23 = value; break;
+            case 12: m30 = value; break;
+            case 13: m31 = value; break;
+            case 14: m32 = value; break;
+            default: m33 = value; break;
+        }
+        return this;
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        return new BigDecimal(get(row, column));
+    }
+    
+    /**
+     * @param dest matrix to hold the product, may be this or that
+     * @return dest, overwritten with this * that
+     */
+    public Matrix4 multiplyInto(Matrix4 that, Matrix4 dest) {
+        double p00 = m00 * that.m00 + m01 * that.m10 + m02 * that.m20 + m03 * that.m30;
+        double p01 = m00 * that.m01 + m01 * that.m11 + m02 * that.m21 + m03 * that.m31;
+        double p02 = m00 * that.m02 + m01 * that.m12 + m02 * that.m22 + m03 * that.m32;
+        double p03 = m00 * that.m03 + m01 * that.m13 + m02 * that.m23 + m03 * that.m33;
+        double p10 = m10 * that.m00 + m11 * that.m10 + m12 * that.m20 + m13 * that.m30;
+        double p11 = m10 * that.m01 + m11 * that.m11 + m12 * that.m21 + m13 * that.m31;
+        double p12 = m10 * that.m02 + m11 * that.m12 + m12 * that.m22 + m13 * that.m32;
+        double p13 = m10 * that.m03 + m11 * that.m13 + m12 * that.m23 + m13 * that.m33;
+        double p20 = m20 * that.m00 + m21 * that.m10 + m22 * that.m20 + m23 * that.m30;
+        double p21 = m20 * that.m01 + m21 * that.m11 + m22 * that.m21 + m23 * that.m31;
+        double p22 = m20 * that.m02 + m21 * that.m12 + m22 * that.m22 + m23 * that.m32;
+        double p23 = m20 * that.m03 + m21 * that.m13 + m22 * that.m23 + m23 * that.m33;
+        double p30 = m30 * that.m00 + m31 * that.m10 + m32 * that.m20 + m33 * that.m30;
+        double p31 = m30 * that.m01 + m31 * that.m11 + m32 * that.m21 + m33 * that.m31;
+        double p32 = m30 * that.m02 + m31 * that.m12 + m32 * that.m22 + m33 * that.m32;
+        double p33 = m30 * that.m03 + m31 * that.m13 + m32 * that.m23 + m33 * that.m33;
+        return dest.set(p00, p01, p02, p03,
+            p10, p11, p12, p13,
+            p20, p21, p22, p23,
+            p30, p31, p32, p33);
+    }
+    
+    public Matrix4 multiply(Matrix4 that) {
+        return multiplyInto(that, new Matrix4());
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof Matrix4) {
+            return multiply((Matrix4)matr);
+        }
+        return toDense().multiply(matr);
+    }
+    
+    /**
+     * @param dest matrix to hold the sum, may be this or that
+     * @return dest, overwritten with this + that
+     */
+    public Matrix4 addInto(Matrix4 that, Matrix4 dest) {
+        return dest.set(m00 + that.m00, m01 + that.m01, m02 + that.m02, m03 + that.m03,
+            m10 + that.m10, m11 + that.m11, m12 + that.m12, m13 + that.m13,
+            m20 + that.m20, m21 + that.m21, m22 + that.m22, m23 + that.m23,
+            m30 + that.m30, m31 + that.m31, m32 + that.m32, m33 + that.m33);
+    }
+    
+    /**
+     * @param dest matrix to hold the difference, may be this or that
+     * @return dest, overwritten with this - that
+     */
+    public Matrix4 subtractInto(Matrix4 that, Matrix4 dest) {
+        return dest.set(m00 - that.m00, m01 - that.m01, m02 - that.m02, m03 - that.m03,
+            m10 - that.m10, m11 - that.m11, m12 - that.m12, m13 - that.m13,
+            m20 - that.m20, m21 - that.m21, m22 - that.m22, m23 - that.m23,
+            m30 - that.m30, m31 - that.m31, m32 - that.m32, m33 - that.m33);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof Matrix4) {
+            return addInto((Matrix4)matr, new Matrix4());
+        }
+        return super.add(matr);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof Matrix4) {
+            return subtractInto((Matrix4)matr, new Matrix4());
+        }
+        return super.subtract(matr);
+    }
+    
+    /**
+     * @param dest matrix to hold the result, may be this
+     * @return dest, overwritten with element * this
+     */
+    public Matrix4 scaleInto(double element, Matrix4 dest) {
+        return dest.set(m00 * element, m01 * element, m02 * element, m03 * element,
+            m10 * element, m11 * element, m12 * element, m13 * element,
+            m20 * element, m21 * element, m22 * element, m23 * element,
+            m30 * element, m31 * element, m32 * element, m33 * element);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        return scaleInto(element, new Matrix4());
+    }
+    
+    /**
+     * @param dest matrix to hold the transpose, may be this
+     * @return dest, overwritten with the transpose of this
+     */
+    public Matrix4 transposeInto(Matrix4 dest) {
+        return dest.set(m00, m10, m20, m30,
+            m01, m11, m21, m31,
+            m02, m12, m22, m32,
+            m03, m13, m23, m33);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        return transposeInto(new Matrix4());
+    }
+    
+    /**
+     * @return the determinant in double precision
+     */
+    public double det() {
+        //minors of the top two rows, s, and of the bottom two, c
+        double s0 = m00 * m11 - m10 * m01;
+        double s1 = m00 * m12 - m10 * m02;
+        double s2 = m00 * m13 - m10 * m03;
+        double s3 = m01 * m12 - m11 * m02;
+        double s4 = m01 * m13 - m11 * m03;
+        double s5 = m02 * m13 - m12 * m03;
+        double c5 = m22 * m33 - m32 * m23;
+        double c4 = m21 * m33 - m31 * m23;
+        double c3 = m21 * m32 - m31 * m22;
+        double c2 = m20 * m33 - m30 * m23;
+        double c1 = m20 * m32 - m30 * m22;
+        double c0 = m20 * m31 - m30 * m21;
+        return s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+    }
+    
+    @Override
+    public BigDecimal determinant() {
+        return new BigDecimal(det());
+    }
+    
+    /**
+     * @return 4 if the determinant is nonzero, otherwise the rank of the dense matrix
+     */
+    @Override
+    public int rank() {
+        return det() != 0 ? 4 : toDense().rank();
+    }
+    
+    /**
+     * @param dest matrix to hold the inverse, may be this
+     * @return dest, overwritten with the inverse of this
+     * @throws IncompatibleDimensionsException if the determinant is zero
+     */
+    public Matrix4 inverseInto(Matrix4 dest) throws IncompatibleDimensionsException {
+        double s0 = m00 * m11 - m10 * m01;
+        double s1 = m00 * m12 - m10 * m02;
+        double s2 = m00 * m13 - m10 * m03;
+        double s3 = m01 * m12 - m11 * m02;
+        double s4 = m01 * m13 - m11 * m03;
+        double s5 = m02 * m13 - m12 * m03;
+        double c5 = m22 * m33 - m32 * m23;
+        double c4 = m21 * m33 - m31 * m23;
+        double c3 = m21 * m32 - m31 * m22;
+        double c2 = m20 * m33 - m30 * m23;
+        double c1 = m20 * m32 - m30 * m22;
+        double c0 = m20 * m31 - m30 * m21;
+        double det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        checkInvertible(det);
+        double scale = 1 / det;
+        double b00 = (m11 * c5 - m12 * c4 + m13 * c3) * scale;
+        double b01 = (-m01 * c5 + m02 * c4 - m03 * c3) * scale;
+        double b02 = (m31 * s5 - m32 * s4 + m33 * s3) * scale;
+        double b03 = (-m21 * s5 + m22 * s4 - m23 * s3) * scale;
+        double b10 = (-m10 * c5 + m12 * c2 - m13 * c1) * scale;
+        double b11 = (m00 * c5 - m02 * c2 + m03 * c1) * scale;
+        double b12 = (-m30 * s5 + m32 * s2 - m33 * s1) * scale;
+        double b13 = (m20 * s5 - m22 * s2 + m23 * s1) * scale;
+        double b20 = (m10 * c4 - m11 * c2 + m13 * c0) * scale;
+        double b21 = (-m00 * c4 + m01 * c2 - m03 * c0) * scale;
+        double b22 = (m30 * s4 - m31 * s2 + m33 * s0) * scale;
+        double b23 = (-m20 * s4 + m21 * s2 - m23 * s0) * scale;
+        double b30 = (-m10 * c3 + m11 * c1 - m12 * c0) * scale;
+        double b31 = (m00 * c3 - m01 * c1 + m02 * c0) * scale;
+        double b32 = (-m30 * s3 + m31 * s1 - m32 * s0) * scale;
+        double b33 = (m20 * s3 - m21 * s1 + m22 * s0) * scale;
+        return dest.set(b00, b01, b02, b03,
+            b10, b11, b12, b13,
+            b20, b21, b22, b23,
+            b30, b31, b32, b33);
+    }
+    
+    private static void checkInvertible(double det) {
+        if (det == 0) {
+            throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+        }
+    }
+    
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        return inverseInto(new Matrix4());
+    }
+    
+    /**
+     * y = A x; y may be x
+     */
+    @Override
+    public void apply(double[] x, double[] y) {
+        double y0 = m00 * x[0] + m01 * x[1] + m02 * x[2] + m03 * x[3];
+        double y1 = m10 * x[0] + m11 * x[1] + m12 * x[2] + m13 * x[3];
+        double y2 = m20 * x[0] + m21 * x[1] + m22 * x[2] + m23 * x[3];
+        double y3 = m30 * x[0] + m31 * x[1] + m32 * x[2] + m33 * x[3];
+        y[0] = y0;
+        y[1] = y1;
+        y[2] = y2;
+        y[3] = y3;
+    }
+    
+    /**
+     * y = A^T x; y may be x
+     */
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        double y0 = m00 * x[0] + m10 * x[1] + m20 * x[2] + m30 * x[3];
+        double y1 = m01 * x[0] + m11 * x[1] + m21 * x[2] + m31 * x[3];
+        double y2 = m02 * x[0] + m12 * x[1] + m22 * x[2] + m32 * x[3];
+        double y3 = m03 * x[0] + m13 * x[1] + m23 * x[2] + m33 * x[3];
+        y[0] = y0;
+        y[1] = y1;
+        y[2] = y2;
+        y[3] = y3;
+    }
+    
+    @Override
+    public Complex[] eigenvalues() {
+        return toDense().eigenvalues();
+    }
+}
@@ -0,0 +1,292 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/*
+ * A batch of count independent matrices of the same shape, stored together in
+ * struct-of-arrays layout: entry (i, j) of every matrix in the batch is held in one
+ * contiguous run of count doubles, so that entry (i, j) of matrix b is at
+ * data[(i * columns + j) * count + b].
+ *
+ * Each batched operation walks the entries of one matrix in the usual order, but its
+ * innermost loop runs along the batch, applying the same arithmetic to consecutive
+ * matrices with unit stride and no branches, which the JIT compiles to SIMD
+ * instructions. The batch is cut into chunks of CHUNK matrices, small enough that a
+ * chunk of an 8 x 8 batch stays in cache, and the chunks are run in parallel.
+ *
+ * Nothing is converted to BigDecimal: the batch is meant for very many small problems
+ * in double precision, with get and getMatrix to move single matrices in and out.
+ */
+
+public class MatrixBatch {
+    
+    // matrices handled together by one task
+    private final static int CHUNK = 256;
+    
+    private final int rows;
+    private final int columns;
+    private final int count;
+    private final double[] data;
+    
+    /**
+     * Work on the batch positions [from, to)
+     */
+    interface ChunkKernel {
+        void run(int from, int to);
+    }
+    
+    /**
+     * Batch of zero matrices
+     * @param rows number of rows of each matrix
+     * @param columns number of columns of each matrix
+     * @param count number of matrices
+     * @throws IncompatibleDimensionsException if rows or columns is not positive
+     * @throws IllegalArgumentException if count is not positive
+     */
+    public MatrixBatch(int rows, int columns, int count) {
+        if (rows < 1 || columns < 1) {
+            throw new IncompatibleDimensionsException("Matrices must have at least one row and one column");
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("Batch must hold at least one matrix");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.count = count;
+        data = new double[rows * columns * count];
+    }
+    
+    /**
+     * Batch of square zero matrices
+     */
+    public MatrixBatch(int size, int count) {
+        this(size, size, count);
+    }
+    
+    /**
+     * @param matrices matrices of the same shape, copied into the batch
+     * @throws IncompatibleDimensionsException if the matrices differ in shape
+     */
+    @SafeVarargs
+    public static MatrixBatch of(Matrix<BigDecimal>... matrices) {
+        if (matrices.length == 0) {
+            throw new IllegalArgumentException("Batch must hold at least one matrix");
+        }
+        int[] dimensions = matrices[0].size();
+        MatrixBatch batch = new MatrixBatch(dimensions[0], dimensions[1], matrices.length);
+        for (int b = 0; b < matrices.length; b++) {
+            batch.set(b, matrices[b]);
+        }
+        return batch;
+    }
+    
+    /**
+     * @return batch of count size x size identity matrices
+     */
+    public static MatrixBatch identity(int size, int count) {
+        MatrixBatch batch = new MatrixBatch(size, count);
+        for (int i = 0; i < size; i++) {
+            int start = (i * size + i) * count;
+            Arrays.fill(batch.data, start, start + count, 1);
+        }
+        return batch;
+    }
+    
+    public int rows() {
+        return rows;
+    }
+    
+    public int columns() {
+        return columns;
+    }
+    
+    public int count() {
+        return count;
+    }
+    
+    /**
+     * @return backing array in struct-of-arrays layout, not copied
+     */
+    double[] data() {
+        return data;
+    }
+    
+    private int position(int index, int row, int column) {
+        if (index < 0 || index >= count || row < 0 || row >= rows || column < 0 || column >= columns) {
+            throw new IndexOutOfBoundsException("Entry (" + row + ", " + column + ") of matrix " + index
+                    + " is out of range");
+        }
+        return (row * columns + column) * count + index;
+    }
+    
+    /**
+     * @return entry (row, column) of matrix index
+     * @throws IndexOutOfBoundsException if any argument is out of range
+     */
+    public double get(int index, int row, int column) {
+        return data[position(index, row, column)];
+    }
+    
+    /**
+     * @return this, with entry (row, column) of matrix index overwritten
+     * @throws IndexOutOfBoundsException if any argument is out of range
+     */
+    public MatrixBatch set(int index, int row, int column, double value) {
+        data[position(index, row, column)] = value;
+        return this;
+    }
+    
+    /**
+     * @return this, with matrix index overwritten by entries
+     * @throws IncompatibleDimensionsException if entries has the wrong shape
+     */
+    public MatrixBatch set(int index, double[][] entries) {
+        if (entries.length != rows) {
+            throw new IncompatibleDimensionsException("Matrix must be " + rows + " x " + columns);
+        }
+        for (int i = 0; i < rows; i++) {
+            if (entries[i].length != columns) {
+                throw new IncompatibleDimensionsException("Matrix must be " + rows + " x " + columns);
+            }
+            for (int j = 0; j < columns; j++) {
+                data[position(index, i, j)] = entries[i][j];
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * @return this, with matrix index overwritten by matrix
+     * @throws IncompatibleDimensionsException if matrix has the wrong shape
+     */
+    public MatrixBatch set(int index, Matrix<BigDecimal> matrix) {
+        int[] dimensions = matrix.size();
+        if (dimensions[0] != rows || dimensions[1] != columns) {
+            throw new IncompatibleDimensionsException("Matrix must be " + rows + " x " + columns);
+        }
+        for (int i = 0; i < rows; i++) {
+            BigDecimal[] row = matrix.getRow(i);
+            for (int j = 0; j < columns; j++) {
+                data[position(index, i, j)] = row[j].doubleValue();
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * @return copy of the entries of matrix index
+     */
+    public double[][] toArray(int index) {
+        double[][] entries = new double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                entries[i][j] = data[position(index, i, j)];
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * @return matrix index as a BigDecimalMatrix
+     */
+    public BigDecimalMatrix getMatrix(int index) {
+        return new BigDecimalMatrix(toArray(index));
+    }
+    
+    /**
+     * Run kernel over the batch positions [0, count) a chunk at a time, in parallel when
+     * there is more than one chunk
+     */
+    static void forEachChunk(int count, ChunkKernel kernel) {
+        int chunks = (count + CHUNK - 1) / CHUNK;
+        IntStream indices = IntStream.range(0, chunks);
+        if (chunks > 1) {
+            indices = indices.parallel();
+        }
+        indices.forEach(c -> kernel.run(c * CHUNK, Math.min(count, (c + 1) * CHUNK)));
+    }
+    
+    /**
+     * @param dest batch to hold the products, distinct from this and that
+     * @return dest, with matrix b overwritten by matrix b of this times matrix b of that
+     * @throws IncompatibleDimensionsException if the shapes or counts do not match
+     */
+    public MatrixBatch multiplyInto(MatrixBatch that, MatrixBatch dest) {
+        if (columns != that.rows || count != that.count) {
+            throw new IncompatibleDimensionsException("Batches must hold the same number of "
+                    + "matrices, with the columns of the first matching the rows of the second");
+        }
+        if (dest.rows != rows || dest.columns != that.columns || dest.count != count) {
+            throw new IncompatibleDimensionsException("Destination must hold " + count + " matrices of size "
+                    + rows + " x " + that.columns);
+        }
+        if (dest == this || dest == that) {
+            throw new IllegalArgumentException("Destination must not be an operand");
+        }
+        int inner = columns;
+        int outer = that.columns;
+        double[] left = data;
+        double[] right = that.data;
+        double[] product = dest.data;
+        forEachChunk(count, (from, to) -> {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < outer; j++) {
+                    int ij = (i * outer + j) * count;
+                    Arrays.fill(product, ij + from, ij + to, 0);
+                    for (int k = 0; k < inner; k++) {
+                        int ik = (i * inner + k) * count;
+                        int kj = (k * outer + j) * count;
+                        for (int b = from; b < to; b++) {
+                            product[ij + b] += left[ik + b] * right[kj + b];
+                        }
+                    }
+                }
+            }
+        });
+        return dest;
+    }
+    
+    /**
+     * @return batch of the products of corresponding matrices
+     * @throws IncompatibleDimensionsException if the shapes or counts do not match
+     */
+    public MatrixBatch multiply(MatrixBatch that) {
+        return multiplyInto(that, new MatrixBatch(rows, that.columns, count));
+    }
+    
+    /**
+     * @return determinant of each matrix, zero for singular matrices
+     * @throws IncompatibleDimensionsException if the matrices are not square
+     */
+    public double[] determinants() {
+        return BatchLUDecomposition.determinants(this);
+    }
+    
+    /**
+     * @return batch of the inverses of the matrices
+     * @throws IncompatibleDimensionsException if the matrices are not square, or any is singular
+     */
+    public MatrixBatch inverse() throws IncompatibleDimensionsException {
+        try {
+            return BatchLUDecomposition.inverse(this);
+        } catch (ArithmeticException ex) {
+            throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+        }
+    }
+    
+    /**
+     * @param rhs batch of right-hand sides, one per matrix
+     * @return batch of X with A X = B for each matrix A of this and B of rhs
+     * @throws IncompatibleDimensionsException if the shapes or counts do not match, or any
+     *         matrix is singular
+     */
+    public MatrixBatch solve(MatrixBatch rhs) throws IncompatibleDimensionsException {
+        try {
+            return new BatchLUDecomposition(this).solve(rhs);
+        } catch (ArithmeticException ex) {
+            throw new IncompatibleDimensionsException("Solution not defined for matrices with determinant of zero");
+        }
+    }
+}
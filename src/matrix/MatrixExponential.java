@@ -0,0 +1,309 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * Matrix exponential e^(tA) of a fixed square matrix A for any number of times t, by
+ * Pade approximation with scaling and squaring (Higham, 2005): e^(tA) = (r_m(tA / 2^s))^(2^s)
+ * where r_m = (V - U)^-1 (V + U) is the [m/m] Pade approximant, with U the odd and V the
+ * even part. The degree m in {3, 5, 7, 9, 13} and s are the smallest for which
+ * ||tA||_1 / 2^s stays below the bound giving double precision backward error.
+ *
+ * U and V only need the even powers of B = tA / 2^s, which are the even powers of A
+ * scaled by (t / 2^s)^(2k). Those are computed once per instance (A^2, A^4, A^6, and A^8
+ * when degree 9 is used), so each new t costs at most three matrix products, one linear
+ * solve and s squarings. For time stepping with a fixed step, apply caches e^(tA) for the
+ * last t, so each further step is a single matrix-vector product.
+ *
+ * Matrices are held row-major in flat arrays of length n * n.
+ */
+
+public class MatrixExponential {
+    
+    private final static int[] DEGREES = {3, 5, 7, 9, 13};
+    // largest ||A||_1 for which each degree's backward error is below the unit roundoff
+    private final static double[] THETA = {1.495585217958292e-2, 2.539398330063230e-1,
+            9.504178996162932e-1, 2.097847961257068e0, 5.371920351148152e0};
+    private final static double[][] PADE = {
+            {120, 60, 12, 1},
+            {30240, 15120, 3360, 420, 30, 1},
+            {17297280, 8648640, 1995840, 277200, 25200, 1512, 56, 1},
+            {17643225600.0, 8821612800.0, 2075673600, 302702400, 30270240, 2162160, 110880, 3960, 90, 1},
+            {64764752532480000.0, 32382376266240000.0, 7771770303897600.0, 1187353796428800.0,
+                    129060195264000.0, 10559470521600.0, 670442572800.0, 33522128640.0, 1323241920,
+                    40840800, 960960, 16380, 182, 1}};
+    
+    private final double[] a;
+    private final int size;
+    private final double norm;
+    // evenPowers[k] = A^(2k), filled as higher degrees are first needed
+    private final double[][] evenPowers = new double[5][];
+    private volatile Step last;
+    
+    /**
+     * e^(tA) for fixed t, kept with t so a reader never sees one without the other
+     */
+    private static final class Step {
+        private final double time;
+        private final double[] exponential;
+        
+        private Step(double time, double[] exponential) {
+            this.time = time;
+            this.exponential = exponential;
+        }
+    }
+    
+    /**
+     * @param matrix valid square Matrix instance
+     * @throws IncompatibleDimensionsException if matrix is not square
+     */
+    public MatrixExponential(Matrix<BigDecimal> matrix) {
+        this(BigDecimalMatrix.toArray(matrix));
+    }
+    
+    /**
+     * @param entries row-major square array, not modified
+     * @throws IncompatibleDimensionsException if entries is not square
+     */
+    public MatrixExponential(double[][] entries) {
+        size = entries.length;
+        a = new double[size * size];
+        for (int i = 0; i < size; i++) {
+            if (entries[i].length != size) {
+                throw new IncompatibleDimensionsException("Exponential not defined for non-square matrix");
+            }
+            System.arraycopy(entries[i], 0, a, i * size, size);
+        }
+        double max = 0;
+        for (int j = 0; j < size; j++) {
+            double column = 0;
+            for (int i = 0; i < size; i++) {
+                column += Math.abs(a[i * size + j]);
+            }
+            max = Math.max(max, column);
+        }
+        norm = max;
+    }
+    
+    /**
+     * @return e^A
+     */
+    public Matrix<BigDecimal> exponential() {
+        return exponential(1);
+    }
+    
+    /**
+     * @param t finite time
+     * @return e^(tA)
+     */
+    public Matrix<BigDecimal> exponential(double t) {
+        double[] exponential = compute(t);
+        double[][] entries = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(exponential, i * size, entries[i], 0, size);
+        }
+        return new BigDecimalMatrix(entries);
+    }
+    
+    /**
+     * Advance the solution of x' = A x by time t, reusing e^(tA) when t is the same as in
+     * the previous call
+     * @param t finite time
+     * @param x state of length n, not modified
+     * @return e^(tA) x
+     * @throws IncompatibleDimensionsException if x has the wrong length
+     */
+    public double[] apply(double t, double[] x) {
+        if (x.length != size) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        Step step = last;
+        if (step == null || Double.compare(step.time, t) != 0) {
+            step = new Step(t, compute(t));
+            last = step;
+        }
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            double sum = 0;
+            for (int j = 0; j < size; j++) {
+                sum += step.exponential[i * size + j] * x[j];
+            }
+            y[i] = sum;
+        }
+        return y;
+    }
+    
+    /**
+     * @return e^(tA) as a flat row-major array
+     */
+    private double[] compute(double t) {
+        if (Double.isNaN(t) || Double.isInfinite(t)) {
+            throw new IllegalArgumentException("Time must be finite");
+        }
+        int n = size;
+        double scaledNorm = Math.abs(t) * norm;
+        int degree = 0;
+        while (degree < DEGREES.length - 1 && scaledNorm > THETA[degree]) {
+            degree++;
+        }
+        int squarings = 0;
+        if (scaledNorm > THETA[degree]) {
+            double ratio = scaledNorm / THETA[degree];
+            squarings = Math.getExponent(ratio);
+            if (ratio > Math.scalb(1.0, squarings)) {
+                squarings++;
+            }
+        }
+        double c = Math.scalb(t, -squarings);
+        double[] coefficients = PADE[degree];
+        
+        //scaled even powers B^(2k) = c^(2k) A^(2k)
+        int highest = DEGREES[degree] == 13 ? 3 : DEGREES[degree] / 2;
+        double[][] b = new double[highest + 1][];
+        double c2 = c * c;
+        double factor = 1;
+        for (int k = 1; k <= highest; k++) {
+            factor *= c2;
+            double[] power = evenPower(k);
+            b[k] = new double[n * n];
+            for (int i = 0; i < n * n; i++) {
+                b[k][i] = factor * power[i];
+            }
+        }
+        
+        double[] oddSum = new double[n * n];
+        double[] v = new double[n * n];
+        if (DEGREES[degree] == 13) {
+            //U = B [B^6 (b13 B^6 + b11 B^4 + b9 B^2) + b7 B^6 + b5 B^4 + b3 B^2 + b1 I], V likewise
+            double[] inner = new double[n * n];
+            for (int i = 0; i < n * n; i++) {
+                inner[i] = coefficients[13] * b[3][i] + coefficients[11] * b[2][i] + coefficients[9] * b[1][i];
+            }
+            oddSum = multiply(b[3], inner, n);
+            for (int i = 0; i < n * n; i++) {
+                inner[i] = coefficients[12] * b[3][i] + coefficients[10] * b[2][i] + coefficients[8] * b[1][i];
+            }
+            v = multiply(b[3], inner, n);
+            for (int i = 0; i < n * n; i++) {
+                oddSum[i] += coefficients[7] * b[3][i] + coefficients[5] * b[2][i] + coefficients[3] * b[1][i];
+                v[i] += coefficients[6] * b[3][i] + coefficients[4] * b[2][i] + coefficients[2] * b[1][i];
+            }
+        } else {
+            for (int k = 1; k <= highest; k++) {
+                for (int i = 0; i < n * n; i++) {
+                    oddSum[i] += coefficients[2 * k + 1] * b[k][i];
+                    v[i] += coefficients[2 * k] * b[k][i];
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            oddSum[i * n + i] += coefficients[1];
+            v[i * n + i] += coefficients[0];
+        }
+        
+        //U = B * oddSum, with B = c A
+        double[] u = multiply(a, oddSum, n);
+        double[] denominator = new double[n * n];
+        double[] result = new double[n * n];
+        for (int i = 0; i < n * n; i++) {
+            u[i] *= c;
+            denominator[i] = v[i] - u[i];
+            result[i] = v[i] + u[i];
+        }
+        solveInPlace(denominator, result, n);
+        for (int k = 0; k < squarings; k++) {
+            result = multiply(result, result, n);
+        }
+        return result;
+    }
+    
+    /**
+     * @return A^(2k), computing and keeping it on first use
+     */
+    private synchronized double[] evenPower(int k) {
+        if (evenPowers[k] == null) {
+            if (k == 1) {
+                evenPowers[k] = multiply(a, a, size);
+            } else {
+                int half = k / 2;
+                evenPowers[k] = multiply(evenPower(half), evenPower(k - half), size);
+            }
+        }
+        return evenPowers[k];
+    }
+    
+    /**
+     * @return x y for flat row-major n x n arrays
+     */
+    private static double[] multiply(double[] x, double[] y, int n) {
+        double[] product = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < n; k++) {
+                double factor = x[i * n + k];
+                if (factor == 0) {
+                    continue;
+                }
+                for (int j = 0; j < n; j++) {
+                    product[i * n + j] += factor * y[k * n + j];
+                }
+            }
+        }
+        return product;
+    }
+    
+    /**
+     * Overwrite rhs with m^-1 rhs by Gaussian elimination with partial pivoting,
+     * destroying m
+     * @throws ArithmeticException if m is singular, which for the Pade denominator only
+     *         happens when A has non-finite entries
+     */
+    private static void solveInPlace(double[] m, double[] rhs, int n) {
+        for (int k = 0; k < n; k++) {
+            int pivot = k;
+            for (int i = k + 1; i < n; i++) {
+                if (Math.abs(m[i * n + k]) > Math.abs(m[pivot * n + k])) {
+                    pivot = i;
+                }
+            }
+            if (!(Math.abs(m[pivot * n + k]) > 0)) {
+                throw new ArithmeticException("Pade denominator is singular");
+            }
+            if (pivot != k) {
+                swapRows(m, n, k, pivot);
+                swapRows(rhs, n, k, pivot);
+            }
+            for (int i = k + 1; i < n; i++) {
+                double multiplier = m[i * n + k] / m[k * n + k];
+                if (multiplier == 0) {
+                    continue;
+                }
+                for (int j = k + 1; j < n; j++) {
+                    m[i * n + j] -= multiplier * m[k * n + j];
+                }
+                for (int j = 0; j < n; j++) {
+                    rhs[i * n + j] -= multiplier * rhs[k * n + j];
+                }
+            }
+        }
+        for (int k = n - 1; k >= 0; k--) {
+            for (int i = k + 1; i < n; i++) {
+                double factor = m[k * n + i];
+                for (int j = 0; j < n; j++) {
+                    rhs[k * n + j] -= factor * rhs[i * n + j];
+                }
+            }
+            double diagonal = m[k * n + k];
+            for (int j = 0; j < n; j++) {
+                rhs[k * n + j] /= diagonal;
+            }
+        }
+    }
+    
+    private static void swapRows(double[] m, int n, int first, int second) {
+        for (int j = 0; j < n; j++) {
+            double tmp = m[first * n + j];
+            m[first * n + j] = m[second * n + j];
+            m[second * n + j] = tmp;
+        }
+    }
+}
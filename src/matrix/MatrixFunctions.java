@@ -0,0 +1,470 @@
+package matrix;
+
+import java.util.Arrays;
+
+/*
+ * Principal square root, logarithm and integer powers of a square matrix through its
+ * complex Schur form A = Z T Z^*, found by Householder reduction to Hessenberg form
+ * followed by ComplexHessenbergQR. Since f(A) = Z f(T) Z^*, only a triangular function
+ * is needed: the square root by the Bjorck-Hammarling recurrence, the logarithm by
+ * inverse scaling and squaring, taking square roots of T until it is close to I and
+ * then applying a Pade approximant of log(I + X), and powers by the Parlett recurrence,
+ * each at O(n^3) for the triangle.
+ *
+ * A real matrix has a real principal square root and logarithm when none of its
+ * eigenvalues lie on the closed negative real axis, so they are computed in complex
+ * arithmetic and the rounding left in the imaginary parts is dropped.
+ *
+ * Matrices are stored row-major in split real/imaginary arrays of length n * n.
+ */
+
+final class MatrixFunctions {
+    
+    private final static double EPSILON = Math.ulp(1.0);
+    // ||T - I||_1 below which the Pade approximant of log(I + X) is accurate to rounding
+    private final static double LOG_THRESHOLD = 0.25;
+    private final static int PADE_DEGREE = 8;
+    private final static int MAX_SQUARE_ROOTS = 100;
+    // Gauss-Legendre nodes and weights on [0, 1], whose quadrature rule for
+    // log(I + X) = int_0^1 X (I + t X)^-1 dt is the [m/m] Pade approximant
+    private final static double[] NODES = new double[PADE_DEGREE];
+    private final static double[] WEIGHTS = new double[PADE_DEGREE];
+    
+    static {
+        //Newton's method on the Legendre polynomial from the Chebyshev-like initial guesses
+        for (int i = 0; i < PADE_DEGREE; i++) {
+            double x = Math.cos(Math.PI * (i + 0.75) / (PADE_DEGREE + 0.5));
+            double derivative = 0;
+            for (int iteration = 0; iteration < 100; iteration++) {
+                double current = 1;
+                double previous = 0;
+                for (int k = 1; k <= PADE_DEGREE; k++) {
+                    double next = ((2 * k - 1) * x * current - (k - 1) * previous) / k;
+                    previous = current;
+                    current = next;
+                }
+                derivative = PADE_DEGREE * (x * current - previous) / (x * x - 1);
+                double step = current / derivative;
+                x -= step;
+                if (Math.abs(step) <= EPSILON) {
+                    break;
+                }
+            }
+            NODES[i] = (1 - x) / 2;
+            WEIGHTS[i] = 1 / ((1 - x * x) * derivative * derivative);
+        }
+    }
+    
+    private MatrixFunctions() {
+    }
+    
+    /**
+     * @param entries square real matrix, row-major, not modified
+     * @return its principal square root
+     * @throws ArithmeticException if an eigenvalue is negative, or zero with multiplicity
+     *         more than one, so that no principal square root is defined
+     */
+    static double[][] squareRoot(double[][] entries) {
+        int n = entries.length;
+        double[] re = flatten(entries);
+        double[] im = new double[n * n];
+        squareRoot(re, im, n, true);
+        return unflatten(re, n);
+    }
+    
+    /**
+     * @param entries square real matrix, row-major, not modified
+     * @return its principal logarithm
+     * @throws ArithmeticException if an eigenvalue is negative or zero
+     */
+    static double[][] logarithm(double[][] entries) {
+        int n = entries.length;
+        double[] re = flatten(entries);
+        double[] im = new double[n * n];
+        logarithm(re, im, n, true);
+        return unflatten(re, n);
+    }
+    
+    /**
+     * Overwrite a matrix with its principal square root, taking the principal square
+     * root of each eigenvalue
+     * @param real true to refuse negative eigenvalues, whose square roots are not real
+     * @throws ArithmeticException if no principal square root is defined
+     */
+    static void squareRoot(double[] re, double[] im, int n, boolean real) {
+        double[] zRe = new double[n * n];
+        double[] zIm = new double[n * n];
+        schur(re, im, n, zRe, zIm);
+        if (real) {
+            checkNegativeAxis(re, im, n, false, true);
+        }
+        double[][] root = triangularSquareRoot(re, im, n);
+        backTransform(root[0], root[1], n, zRe, zIm, re, im);
+    }
+    
+    /**
+     * Overwrite a matrix with its principal logarithm, whose eigenvalues have imaginary
+     * parts in (-pi, pi]
+     * @param real true to refuse negative eigenvalues, whose logarithms are not real
+     * @throws ArithmeticException if the matrix is singular or a refused eigenvalue is found
+     */
+    static void logarithm(double[] re, double[] im, int n, boolean real) {
+        double[] zRe = new double[n * n];
+        double[] zIm = new double[n * n];
+        schur(re, im, n, zRe, zIm);
+        checkNegativeAxis(re, im, n, true, real);
+        double[][] log = triangularLogarithm(re, im, n);
+        backTransform(log[0], log[1], n, zRe, zIm, re, im);
+    }
+    
+    /**
+     * Overwrite a matrix with its k-th power through the Schur form, at a cost that does
+     * not depend on k, by the Parlett recurrence
+     * f_ij = (t_ij (f_jj - f_ii) + sum_(i < m < j) (t_im f_mj - f_im t_mj)) / (t_jj - t_ii),
+     * which needs the eigenvalues to be well separated
+     * @param k nonnegative exponent
+     * @param separation smallest allowed |t_ii - t_jj| relative to the largest |t_ii|
+     * @return false, leaving the matrix in an unspecified state, if two eigenvalues are
+     *         closer than separation allows
+     */
+    static boolean power(double[] re, double[] im, int n, int k, double separation) {
+        double[] zRe = new double[n * n];
+        double[] zIm = new double[n * n];
+        schur(re, im, n, zRe, zIm);
+        double scale = 0;
+        for (int i = 0; i < n; i++) {
+            scale = Math.max(scale, Math.hypot(re[i * n + i], im[i * n + i]));
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (Math.hypot(re[j * n + j] - re[i * n + i], im[j * n + j] - im[i * n + i]) <= separation * scale) {
+                    return false;
+                }
+            }
+        }
+        double[] fRe = new double[n * n];
+        double[] fIm = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            double valueRe = re[i * n + i];
+            double valueIm = im[i * n + i];
+            double magnitude = Math.pow(Math.hypot(valueRe, valueIm), k);
+            double angle = k * Math.atan2(valueIm, valueRe);
+            fRe[i * n + i] = magnitude * Math.cos(angle);
+            fIm[i * n + i] = magnitude * Math.sin(angle);
+        }
+        for (int j = 1; j < n; j++) {
+            for (int i = j - 1; i >= 0; i--) {
+                double sumRe = ComplexKernels.multRe(re[i * n + j], im[i * n + j],
+                        fRe[j * n + j] - fRe[i * n + i], fIm[j * n + j] - fIm[i * n + i]);
+                double sumIm = ComplexKernels.multIm(re[i * n + j], im[i * n + j],
+                        fRe[j * n + j] - fRe[i * n + i], fIm[j * n + j] - fIm[i * n + i]);
+                for (int m = i + 1; m < j; m++) {
+                    sumRe += ComplexKernels.multRe(re[i * n + m], im[i * n + m], fRe[m * n + j], fIm[m * n + j])
+                            - ComplexKernels.multRe(fRe[i * n + m], fIm[i * n + m], re[m * n + j], im[m * n + j]);
+                    sumIm += ComplexKernels.multIm(re[i * n + m], im[i * n + m], fRe[m * n + j], fIm[m * n + j])
+                            - ComplexKernels.multIm(fRe[i * n + m], fIm[i * n + m], re[m * n + j], im[m * n + j]);
+                }
+                double differenceRe = re[j * n + j] - re[i * n + i];
+                double differenceIm = im[j * n + j] - im[i * n + i];
+                fRe[i * n + j] = ComplexKernels.divRe(sumRe, sumIm, differenceRe, differenceIm);
+                fIm[i * n + j] = ComplexKernels.divIm(sumRe, sumIm, differenceRe, differenceIm);
+            }
+        }
+        backTransform(fRe, fIm, n, zRe, zIm, re, im);
+        return true;
+    }
+    
+    /**
+     * Overwrite A with its Schur form T and z with the unitary Z such that A = Z T Z^*,
+     * reducing A to Hessenberg form by Householder reflections I - 2 v v^* / (v^* v)
+     */
+    static void schur(double[] re, double[] im, int n, double[] zRe, double[] zIm) {
+        for (int i = 0; i < n; i++) {
+            Arrays.fill(zRe, i * n, (i + 1) * n, 0);
+            Arrays.fill(zIm, i * n, (i + 1) * n, 0);
+            zRe[i * n + i] = 1;
+        }
+        double[] vRe = new double[n];
+        double[] vIm = new double[n];
+        for (int k = 0; k < n - 2; k++) {
+            double norm = 0;
+            for (int i = k + 1; i < n; i++) {
+                norm = Math.hypot(norm, Math.hypot(re[i * n + k], im[i * n + k]));
+            }
+            if (norm == 0) {
+                continue;
+            }
+            //v = x - alpha e_1 with alpha = -(x_1 / |x_1|) ||x||, avoiding cancellation
+            double headRe = re[(k + 1) * n + k];
+            double headIm = im[(k + 1) * n + k];
+            double head = Math.hypot(headRe, headIm);
+            double phaseRe = head == 0 ? 1 : headRe / head;
+            double phaseIm = head == 0 ? 0 : headIm / head;
+            double vv = 0;
+            for (int i = k + 1; i < n; i++) {
+                vRe[i] = re[i * n + k];
+                vIm[i] = im[i * n + k];
+            }
+            vRe[k + 1] += phaseRe * norm;
+            vIm[k + 1] += phaseIm * norm;
+            for (int i = k + 1; i < n; i++) {
+                vv += vRe[i] * vRe[i] + vIm[i] * vIm[i];
+            }
+            
+            //A <- H A: rows k + 1 to n - 1
+            for (int j = k; j < n; j++) {
+                double dotRe = 0;
+                double dotIm = 0;
+                for (int i = k + 1; i < n; i++) {
+                    //conj(v_i) a_ij
+                    dotRe += vRe[i] * re[i * n + j] + vIm[i] * im[i * n + j];
+                    dotIm += vRe[i] * im[i * n + j] - vIm[i] * re[i * n + j];
+                }
+                dotRe *= 2 / vv;
+                dotIm *= 2 / vv;
+                for (int i = k + 1; i < n; i++) {
+                    re[i * n + j] -= vRe[i] * dotRe - vIm[i] * dotIm;
+                    im[i * n + j] -= vRe[i] * dotIm + vIm[i] * dotRe;
+                }
+            }
+            //A <- A H and Z <- Z H: columns k + 1 to n - 1
+            reflectColumns(re, im, n, k + 1, vRe, vIm, vv);
+            reflectColumns(zRe, zIm, n, k + 1, vRe, vIm, vv);
+            for (int i = k + 2; i < n; i++) {
+                re[i * n + k] = 0;
+                im[i * n + k] = 0;
+            }
+        }
+        ComplexHessenbergQR.schur(re, im, n, zRe, zIm);
+    }
+    
+    /**
+     * M <- M (I - 2 v v^* / vv) on columns from to n - 1 of every row
+     */
+    private static void reflectColumns(double[] re, double[] im, int n, int from, double[] vRe, double[] vIm, double vv) {
+        for (int i = 0; i < n; i++) {
+            double dotRe = 0;
+            double dotIm = 0;
+            for (int j = from; j < n; j++) {
+                //m_ij v_j
+                dotRe += re[i * n + j] * vRe[j] - im[i * n + j] * vIm[j];
+                dotIm += re[i * n + j] * vIm[j] + im[i * n + j] * vRe[j];
+            }
+            dotRe *= 2 / vv;
+            dotIm *= 2 / vv;
+            for (int j = from; j < n; j++) {
+                //subtract (M v) conj(v_j)
+                re[i * n + j] -= dotRe * vRe[j] + dotIm * vIm[j];
+                im[i * n + j] -= dotIm * vRe[j] - dotRe * vIm[j];
+            }
+        }
+    }
+    
+    /**
+     * @param zero true to refuse zero eigenvalues
+     * @param negative true to refuse negative eigenvalues
+     * @throws ArithmeticException if a diagonal entry of T lies on a refused part of the real axis
+     */
+    private static void checkNegativeAxis(double[] re, double[] im, int n, boolean zero, boolean negative) {
+        double scale = 0;
+        for (int i = 0; i < n; i++) {
+            scale = Math.max(scale, Math.hypot(re[i * n + i], im[i * n + i]));
+        }
+        //eigenvalues come out of the iteration with rounding, so real and zero ones are not exact
+        double tolerance = n * EPSILON * scale;
+        for (int i = 0; i < n; i++) {
+            double valueRe = re[i * n + i];
+            double valueIm = im[i * n + i];
+            if (zero && Math.hypot(valueRe, valueIm) <= tolerance) {
+                throw new ArithmeticException("Logarithm not defined for singular matrix");
+            }
+            if (negative && valueRe < 0 && Math.abs(valueIm) <= tolerance) {
+                throw new ArithmeticException("No real principal value for matrix with negative eigenvalue");
+            }
+        }
+    }
+    
+    /**
+     * Square root R of an upper triangular T with R^2 = T, column by column:
+     * r_jj = sqrt(t_jj), r_ij = (t_ij - sum_(i < k < j) r_ik r_kj) / (r_ii + r_jj)
+     * @return {real parts, imaginary parts} of R
+     * @throws ArithmeticException if r_ii + r_jj vanishes, as for a repeated zero eigenvalue
+     */
+    private static double[][] triangularSquareRoot(double[] re, double[] im, int n) {
+        double[] rootRe = new double[n * n];
+        double[] rootIm = new double[n * n];
+        for (int j = 0; j < n; j++) {
+            double[] diagonal = sqrt(re[j * n + j], im[j * n + j]);
+            rootRe[j * n + j] = diagonal[0];
+            rootIm[j * n + j] = diagonal[1];
+            for (int i = j - 1; i >= 0; i--) {
+                double sumRe = re[i * n + j];
+                double sumIm = im[i * n + j];
+                for (int k = i + 1; k < j; k++) {
+                    sumRe -= ComplexKernels.multRe(rootRe[i * n + k], rootIm[i * n + k], rootRe[k * n + j], rootIm[k * n + j]);
+                    sumIm -= ComplexKernels.multIm(rootRe[i * n + k], rootIm[i * n + k], rootRe[k * n + j], rootIm[k * n + j]);
+                }
+                double denominatorRe = rootRe[i * n + i] + rootRe[j * n + j];
+                double denominatorIm = rootIm[i * n + i] + rootIm[j * n + j];
+                if (denominatorRe == 0 && denominatorIm == 0) {
+                    if (sumRe == 0 && sumIm == 0) {
+                        continue;
+                    }
+                    throw new ArithmeticException("Square root not defined for repeated zero eigenvalue");
+                }
+                rootRe[i * n + j] = ComplexKernels.divRe(sumRe, sumIm, denominatorRe, denominatorIm);
+                rootIm[i * n + j] = ComplexKernels.divIm(sumRe, sumIm, denominatorRe, denominatorIm);
+            }
+        }
+        double[][] root = {rootRe, rootIm};
+        return root;
+    }
+    
+    /**
+     * Logarithm of an upper triangular T with nonzero diagonal: s square roots bring
+     * X = T^(1 / 2^s) - I below LOG_THRESHOLD, then
+     * log T = 2^s sum_j w_j X (I + x_j X)^-1 with the diagonal replaced by log t_ii
+     * @return {real parts, imaginary parts} of log T
+     */
+    private static double[][] triangularLogarithm(double[] re, double[] im, int n) {
+        double[] rootRe = re.clone();
+        double[] rootIm = im.clone();
+        int roots = 0;
+        while (distanceFromIdentity(rootRe, rootIm, n) > LOG_THRESHOLD) {
+            if (roots == MAX_SQUARE_ROOTS) {
+                throw new ArithmeticException("Square roots did not approach the identity");
+            }
+            double[][] root = triangularSquareRoot(rootRe, rootIm, n);
+            rootRe = root[0];
+            rootIm = root[1];
+            roots++;
+        }
+        for (int i = 0; i < n; i++) {
+            rootRe[i * n + i] -= 1;
+        }
+        
+        double[] logRe = new double[n * n];
+        double[] logIm = new double[n * n];
+        double[] termRe = new double[n * n];
+        double[] termIm = new double[n * n];
+        double factor = Math.scalb(1.0, roots);
+        for (int node = 0; node < PADE_DEGREE; node++) {
+            //(I + x_j X) term = X by back substitution, column by column
+            double x = NODES[node];
+            for (int j = 0; j < n; j++) {
+                for (int i = j; i >= 0; i--) {
+                    double sumRe = rootRe[i * n + j];
+                    double sumIm = rootIm[i * n + j];
+                    for (int k = i + 1; k <= j; k++) {
+                        sumRe -= x * ComplexKernels.multRe(rootRe[i * n + k], rootIm[i * n + k], termRe[k * n + j], termIm[k * n + j]);
+                        sumIm -= x * ComplexKernels.multIm(rootRe[i * n + k], rootIm[i * n + k], termRe[k * n + j], termIm[k * n + j]);
+                    }
+                    double diagonalRe = 1 + x * rootRe[i * n + i];
+                    double diagonalIm = x * rootIm[i * n + i];
+                    termRe[i * n + j] = ComplexKernels.divRe(sumRe, sumIm, diagonalRe, diagonalIm);
+                    termIm[i * n + j] = ComplexKernels.divIm(sumRe, sumIm, diagonalRe, diagonalIm);
+                }
+            }
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i <= j; i++) {
+                    logRe[i * n + j] += factor * WEIGHTS[node] * termRe[i * n + j];
+                    logIm[i * n + j] += factor * WEIGHTS[node] * termIm[i * n + j];
+                }
+            }
+        }
+        //the diagonal is known exactly
+        for (int i = 0; i < n; i++) {
+            double valueRe = re[i * n + i];
+            double valueIm = im[i * n + i];
+            logRe[i * n + i] = Math.log(Math.hypot(valueRe, valueIm));
+            logIm[i * n + i] = Math.atan2(valueIm, valueRe);
+        }
+        double[][] log = {logRe, logIm};
+        return log;
+    }
+    
+    /**
+     * @return ||T - I||_1 for upper triangular T
+     */
+    private static double distanceFromIdentity(double[] re, double[] im, int n) {
+        double norm = 0;
+        for (int j = 0; j < n; j++) {
+            double column = 0;
+            for (int i = 0; i <= j; i++) {
+                column += Math.hypot(i == j ? re[i * n + j] - 1 : re[i * n + j], im[i * n + j]);
+            }
+            norm = Math.max(norm, column);
+        }
+        return norm;
+    }
+    
+    /**
+     * Overwrite out with Z F Z^* for upper triangular F
+     */
+    private static void backTransform(double[] fRe, double[] fIm, int n, double[] zRe, double[] zIm,
+            double[] outRe, double[] outIm) {
+        //W = Z F, using the zeros of F below the diagonal
+        double[] wRe = new double[n * n];
+        double[] wIm = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < n; k++) {
+                double aRe = zRe[i * n + k];
+                double aIm = zIm[i * n + k];
+                for (int j = k; j < n; j++) {
+                    wRe[i * n + j] += ComplexKernels.multRe(aRe, aIm, fRe[k * n + j], fIm[k * n + j]);
+                    wIm[i * n + j] += ComplexKernels.multIm(aRe, aIm, fRe[k * n + j], fIm[k * n + j]);
+                }
+            }
+        }
+        //W Z^*, entry (i, j) the sum over k of w_ik conj(z_jk)
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sumRe = 0;
+                double sumIm = 0;
+                for (int k = 0; k < n; k++) {
+                    sumRe += ComplexKernels.multRe(wRe[i * n + k], wIm[i * n + k], zRe[j * n + k], -zIm[j * n + k]);
+                    sumIm += ComplexKernels.multIm(wRe[i * n + k], wIm[i * n + k], zRe[j * n + k], -zIm[j * n + k]);
+                }
+                outRe[i * n + j] = sumRe;
+                outIm[i * n + j] = sumIm;
+            }
+        }
+    }
+    
+    /**
+     * @return principal square root of re + im * i as {real part, imaginary part}
+     */
+    private static double[] sqrt(double re, double im) {
+        double[] root = new double[2];
+        double magnitude = Math.hypot(re, im);
+        if (magnitude == 0) {
+            return root;
+        }
+        double t = Math.sqrt((magnitude + Math.abs(re)) / 2);
+        if (re >= 0) {
+            root[0] = t;
+            root[1] = im / (2 * t);
+        } else {
+            root[0] = Math.abs(im) / (2 * t);
+            root[1] = Math.copySign(t, im);
+        }
+        return root;
+    }
+    
+    private static double[] flatten(double[][] entries) {
+        int n = entries.length;
+        double[] flat = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(entries[i], 0, flat, i * n, n);
+        }
+        return flat;
+    }
+    
+    private static double[][] unflatten(double[] flat, int n) {
+        double[][] entries = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(flat, i * n, entries[i], 0, n);
+        }
+        return entries;
+    }
+}
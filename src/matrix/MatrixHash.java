@@ -0,0 +1,112 @@
+package matrix;
+
+/*
+ * 64-bit hashing of primitive matrix data.
+ *
+ * Values are consumed four at a time into independent accumulators (an xxHash64-style
+ * round), so the inner loop has no cross-iteration dependency and the JIT can keep the
+ * four lanes in registers. Matrix types compare elements after rounding them to a fixed
+ * grid, so their hash codes fingerprint the rounded values of a sample of the elements:
+ * at most SAMPLES rows and columns, spread evenly, so hashing a huge matrix stays cheap
+ */
+
+final class MatrixHash {
+    
+    private final static long PRIME_1 = 0x9E3779B185EBCA87L;
+    private final static long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private final static long PRIME_3 = 0x165667B19E3779F9L;
+    private final static long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private final static long PRIME_5 = 0x27D4EB2F165667C5L;
+    private final static int SAMPLES = 16;
+    
+    private MatrixHash() {
+    }
+    
+    /**
+     * @param data values to hash
+     * @param seed starting value, e.g. the hash of the preceding rows
+     * @return exact 64-bit content hash; 0.0 and -0.0 hash the same
+     */
+    static long fingerprint(double[] data, long seed) {
+        long acc1 = seed + PRIME_1 + PRIME_2;
+        long acc2 = seed + PRIME_2;
+        long acc3 = seed;
+        long acc4 = seed - PRIME_1;
+        
+        int length = data.length;
+        int blocks = length - (length % 4);
+        int i = 0;
+        for (; i < blocks; i += 4) {
+            acc1 = round(acc1, lane(data[i]));
+            acc2 = round(acc2, lane(data[i + 1]));
+            acc3 = round(acc3, lane(data[i + 2]));
+            acc4 = round(acc4, lane(data[i + 3]));
+        }
+        
+        long hash = Long.rotateLeft(acc1, 1) + Long.rotateLeft(acc2, 7)
+                + Long.rotateLeft(acc3, 12) + Long.rotateLeft(acc4, 18);
+        hash += length;
+        for (; i < length; i++) {
+            hash ^= round(0, lane(data[i]));
+            hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+        }
+        return avalanche(hash);
+    }
+    
+    /**
+     * @param length number of rows or columns, positive
+     * @return increasing indices of the rows or columns to hash, all of them if there are
+     *         at most SAMPLES
+     */
+    static int[] sample(int length) {
+        int count = Math.min(length, SAMPLES);
+        int[] indices = new int[count];
+        for (int k = 0; k < count; k++) {
+            indices[k] = (int)((long)k * length / count);
+        }
+        return indices;
+    }
+    
+    /**
+     * @return the 64-bit hash folded to 32 bits
+     */
+    static int fold(long hash) {
+        return (int)(hash ^ (hash >>> 32));
+    }
+    
+    /**
+     * Combine two 64-bit values into a well-mixed hash
+     */
+    static long mix(long seed, long value) {
+        long acc = round(PRIME_5, spread(seed));
+        return avalanche(round(acc, spread(value)));
+    }
+    
+    private static long lane(double value) {
+        //adding zero maps -0.0 to 0.0, matching == comparisons
+        return spread(Double.doubleToLongBits(value + 0.0));
+    }
+    
+    /**
+     * Multiplication only carries information upwards, so fold the high bits (where the
+     * exponent and leading mantissa bits of a double live) into the low bits first
+     */
+    private static long spread(long bits) {
+        return bits ^ (bits >>> 32);
+    }
+    
+    private static long round(long acc, long lane) {
+        acc += lane * PRIME_2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME_1;
+    }
+    
+    private static long avalanche(long hash) {
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+}
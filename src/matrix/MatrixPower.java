@@ -0,0 +1,276 @@
+package matrix;
+
+import java.util.Arrays;
+
+/*
+ * Integer powers A^k of square matrices by binary exponentiation: the bits of k are read
+ * from the lowest, squaring the base at each bit and multiplying it into the result at
+ * each set bit, so A^k takes floor(log2 k) + popcount(k) - 1 products instead of k - 1.
+ * The result, base and product are three buffers allocated once and exchanged, so no
+ * further arrays are allocated however large k is.
+ *
+ * A diagonalizable matrix with well separated eigenvalues can instead be raised through
+ * its Schur form, whose cost does not grow with k. That costs 20 to 60 products, more
+ * than the squarings for any int k below 2^24, and the eigenvalues on the unit circle
+ * that keep such high powers finite are perturbed by rounding and then raised to the
+ * k-th power, so it is a separate method rather than chosen automatically.
+ *
+ * Long entries give exact results, either overflow-checked or reduced modulo m.
+ */
+
+public final class MatrixPower {
+    
+    // smallest relative eigenvalue gap for which the Parlett recurrence is accurate
+    private final static double SEPARATION = Math.pow(10, -2);
+    // largest modulus whose reduced residues multiply without overflow
+    private final static long SMALL_MODULUS = 1L << 31;
+    // sums of products of small residues are reduced once they pass this bound
+    private final static long REDUCTION_BOUND = 1L << 62;
+    
+    private MatrixPower() {
+    }
+    
+    /**
+     * @param entries row-major square array, not modified
+     * @param k nonnegative exponent
+     * @return entries^k, the identity for k = 0
+     * @throws IncompatibleDimensionsException if entries is not square
+     * @throws IllegalArgumentException if k is negative
+     */
+    public static double[][] pow(double[][] entries, int k) {
+        checkExponent(k);
+        int n = entries.length;
+        double[] a = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            if (entries[i].length != n) {
+                throw new IncompatibleDimensionsException("Power not defined for non-square matrix");
+            }
+            System.arraycopy(entries[i], 0, a, i * n, n);
+        }
+        
+        double[] result = null;
+        double[] base = a;
+        double[] scratch = new double[n * n];
+        int remaining = k;
+        while (remaining > 0) {
+            if ((remaining & 1) == 1) {
+                if (result == null) {
+                    result = base.clone();
+                } else {
+                    multiplyInto(result, base, scratch, n);
+                    double[] tmp = result;
+                    result = scratch;
+                    scratch = tmp;
+                }
+            }
+            remaining >>= 1;
+            if (remaining > 0) {
+                multiplyInto(base, base, scratch, n);
+                double[] tmp = base;
+                base = scratch;
+                scratch = tmp;
+            }
+        }
+        if (result == null) {
+            result = new double[n * n];
+            for (int i = 0; i < n; i++) {
+                result[i * n + i] = 1;
+            }
+        }
+        return unflatten(result, n);
+    }
+    
+    /**
+     * Power through the Schur form A = Z T Z^*, as Z T^k Z^*, at a cost independent of k
+     * @param entries row-major square array with well separated eigenvalues, not modified
+     * @param k nonnegative exponent
+     * @return entries^k
+     * @throws IncompatibleDimensionsException if entries is not square
+     * @throws IllegalArgumentException if k is negative
+     * @throws ArithmeticException if two eigenvalues are too close for the recurrence
+     */
+    public static double[][] powDiagonalizable(double[][] entries, int k) {
+        checkExponent(k);
+        int n = entries.length;
+        double[] re = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            if (entries[i].length != n) {
+                throw new IncompatibleDimensionsException("Power not defined for non-square matrix");
+            }
+            System.arraycopy(entries[i], 0, re, i * n, n);
+        }
+        if (!MatrixFunctions.power(re, new double[n * n], n, k, SEPARATION)) {
+            throw new ArithmeticException("Eigenvalues too close for power through the Schur form");
+        }
+        return unflatten(re, n);
+    }
+    
+    /**
+     * Exact power, such as the number of walks of length k between vertices of a graph
+     * given by its adjacency matrix
+     * @param entries row-major square array, not modified
+     * @param k nonnegative exponent
+     * @return entries^k, the identity for k = 0
+     * @throws IncompatibleDimensionsException if entries is not square
+     * @throws IllegalArgumentException if k is negative
+     * @throws ArithmeticException if an entry of a product overflows a long
+     */
+    public static long[][] pow(long[][] entries, int k) {
+        return power(entries, k, 0);
+    }
+    
+    /**
+     * Exact power modulo m, such as walk counts too large for a long
+     * @param entries row-major square array, not modified
+     * @param k nonnegative exponent
+     * @param modulus positive modulus m
+     * @return entries^k with every entry reduced to [0, m)
+     * @throws IncompatibleDimensionsException if entries is not square
+     * @throws IllegalArgumentException if k is negative or m is not positive
+     */
+    public static long[][] pow(long[][] entries, int k, long modulus) {
+        if (modulus <= 0) {
+            throw new IllegalArgumentException("Modulus must be positive");
+        }
+        return power(entries, k, modulus);
+    }
+    
+    /**
+     * @param modulus positive modulus, or 0 for overflow-checked exact arithmetic
+     */
+    private static long[][] power(long[][] entries, int k, long modulus) {
+        checkExponent(k);
+        int n = entries.length;
+        long[] a = new long[n * n];
+        for (int i = 0; i < n; i++) {
+            if (entries[i].length != n) {
+                throw new IncompatibleDimensionsException("Power not defined for non-square matrix");
+            }
+            for (int j = 0; j < n; j++) {
+                a[i * n + j] = modulus == 0 ? entries[i][j] : Math.floorMod(entries[i][j], modulus);
+            }
+        }
+        
+        long[] result = null;
+        long[] base = a;
+        long[] scratch = new long[n * n];
+        int remaining = k;
+        while (remaining > 0) {
+            if ((remaining & 1) == 1) {
+                if (result == null) {
+                    result = base.clone();
+                } else {
+                    multiplyInto(result, base, scratch, n, modulus);
+                    long[] tmp = result;
+                    result = scratch;
+                    scratch = tmp;
+                }
+            }
+            remaining >>= 1;
+            if (remaining > 0) {
+                multiplyInto(base, base, scratch, n, modulus);
+                long[] tmp = base;
+                base = scratch;
+                scratch = tmp;
+            }
+        }
+        if (result == null) {
+            result = new long[n * n];
+            for (int i = 0; i < n; i++) {
+                result[i * n + i] = modulus == 1 ? 0 : 1;
+            }
+        }
+        long[][] power = new long[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(result, i * n, power[i], 0, n);
+        }
+        return power;
+    }
+    
+    /**
+     * out = x y for flat row-major n x n arrays, out distinct from both
+     */
+    private static void multiplyInto(double[] x, double[] y, double[] out, int n) {
+        Arrays.fill(out, 0);
+        for (int i = 0; i < n; i++) {
+            for (int m = 0; m < n; m++) {
+                double factor = x[i * n + m];
+                if (factor == 0) {
+                    continue;
+                }
+                for (int j = 0; j < n; j++) {
+                    out[i * n + j] += factor * y[m * n + j];
+                }
+            }
+        }
+    }
+    
+    /**
+     * out = x y for flat row-major n x n arrays of residues, out distinct from both
+     * @param modulus positive modulus, or 0 for overflow-checked exact arithmetic
+     */
+    private static void multiplyInto(long[] x, long[] y, long[] out, int n, long modulus) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                long sum = 0;
+                for (int m = 0; m < n; m++) {
+                    long left = x[i * n + m];
+                    long right = y[m * n + j];
+                    if (modulus == 0) {
+                        sum = Math.addExact(sum, Math.multiplyExact(left, right));
+                    } else if (modulus <= SMALL_MODULUS) {
+                        //residues below 2^31 have products below 2^62, so reduction can wait
+                        sum += left * right;
+                        if (sum >= REDUCTION_BOUND) {
+                            sum %= modulus;
+                        }
+                    } else {
+                        sum = addMod(sum, multiplyMod(left, right, modulus), modulus);
+                    }
+                }
+                out[i * n + j] = modulus == 0 ? sum : sum % modulus;
+            }
+        }
+    }
+    
+    /**
+     * @return (x + y) mod m for residues x, y in [0, m), without overflow
+     */
+    private static long addMod(long x, long y, long modulus) {
+        long sum = x - (modulus - y);
+        return sum < 0 ? sum + modulus : sum;
+    }
+    
+    /**
+     * Product of residues modulo m too large for the product to fit in a long, by doubling
+     * @return (x y) mod m for residues x, y in [0, m)
+     */
+    private static long multiplyMod(long x, long y, long modulus) {
+        long product = 0;
+        long doubled = x;
+        for (long bits = y; bits > 0; bits >>= 1) {
+            if ((bits & 1) == 1) {
+                product = addMod(product, doubled, modulus);
+            }
+            doubled = addMod(doubled, doubled, modulus);
+        }
+        return product;
+    }
+    
+    /**
+     * @throws IllegalArgumentException if k is negative
+     */
+    private static void checkExponent(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Exponent must be nonnegative");
+        }
+    }
+    
+    private static double[][] unflatten(double[] flat, int n) {
+        double[][] entries = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(flat, i * n, entries[i], 0, n);
+        }
+        return entries;
+    }
+}
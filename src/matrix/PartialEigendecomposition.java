@@ -0,0 +1,311 @@
+package matrix;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/*
+ * A few eigenpairs of a large square matrix found by a restarted Krylov method, which
+ * touches the matrix only through LinearOperator.apply. At most m + 1 basis vectors
+ * of length n are stored, with m a small multiple of the number k of wanted eigenpairs,
+ * so memory is O(nk) where the characteristic polynomial route of eigenvalues() needs
+ * O(n^2) and far more time.
+ *
+ * Each cycle extends an orthonormal Krylov basis V to m vectors by Arnoldi steps with
+ * repeated classical Gram-Schmidt, so that A V = V H + f e_m^T with H the m x m
+ * projection of A. The wanted eigenvalues of H (the Ritz values) approximate those of A,
+ * and the residual norm ||A x - theta x|| of each Ritz pair is |f| times the last entry
+ * of its eigenvector of H, available without touching A. Until the wanted pairs have
+ * converged the basis is compressed onto the wanted Ritz directions and extended again.
+ *
+ * A single Krylov sequence sees only one direction of each repeated eigenvalue, up to
+ * rounding, and may be slow to find an eigenvalue its start vector barely touches.
+ * So once the wanted pairs have converged they are locked, and the basis is extended
+ * from a fresh random direction orthogonal to them until the best Ritz pair outside
+ * them has converged as well. The decomposition is accepted when the wanted values
+ * survive such a check unchanged; otherwise the new wanted pairs are checked in turn.
+ */
+
+public abstract class PartialEigendecomposition {
+    
+    /**
+     * Which end of the spectrum to compute
+     */
+    public enum Spectrum {
+        LARGEST_MAGNITUDE, LARGEST_REAL, SMALLEST_REAL
+    }
+    
+    final static double DEFAULT_TOLERANCE = Math.pow(10, -10);
+    final static int MIN_SUBSPACE = 30;
+    final static int MAX_RESTARTS = 1000;
+    final static double EPSILON = Math.ulp(1.0);
+    // floor for the convergence test, so that zero eigenvalues can converge
+    final static double SMALL_EIGENVALUE = Math.pow(EPSILON, 2.0 / 3);
+    private final static long SEED = 0;
+    
+    final LinearOperator operator;
+    final int dimension;
+    final int count;
+    final Spectrum spectrum;
+    final int subspace;
+    final double tolerance;
+    final Random random = new Random(SEED);
+    
+    Complex[] eigenvalues;
+    // eigenvectors as arrays of unit vectors, split into real and imaginary parts
+    double[][] vectorsRe;
+    double[][] vectorsIm;
+    double[] residuals;
+    boolean converged;
+    int restarts;
+    
+    /**
+     * @param operator square dense, sparse or implicit matrix
+     * @param count number k of eigenpairs, 1 <= k <= n
+     * @param spectrum end of the spectrum to compute
+     * @param subspace maximum basis size m, k + 2 <= m, capped at n
+     * @param tolerance positive relative residual at which a pair is accepted
+     * @throws IncompatibleDimensionsException if operator is not square
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    PartialEigendecomposition(LinearOperator operator, int count, Spectrum spectrum, int subspace, double tolerance) {
+        int[] dimensions = operator.size();
+        if (dimensions[0] != dimensions[1]) {
+            throw new IncompatibleDimensionsException("Eigenvalues not defined for non-square matrix");
+        }
+        dimension = dimensions[0];
+        if (count < 1 || count > dimension) {
+            throw new IllegalArgumentException("Number of eigenpairs must be between 1 and " + dimension);
+        }
+        if (subspace < count + 2 && subspace < dimension) {
+            throw new IllegalArgumentException("Subspace must hold at least two more vectors than the eigenpairs");
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("Tolerance must be positive");
+        }
+        this.operator = operator;
+        this.count = count;
+        this.spectrum = spectrum;
+        this.subspace = Math.min(subspace, dimension);
+        this.tolerance = tolerance;
+    }
+    
+    /**
+     * @return default basis size for count eigenpairs
+     */
+    static int defaultSubspace(int count) {
+        return Math.max(3 * count, MIN_SUBSPACE);
+    }
+    
+    /**
+     * @return the k computed eigenvalues, in order of the requested end of the spectrum
+     */
+    public Complex[] getEigenvalues() {
+        return eigenvalues.clone();
+    }
+    
+    /**
+     * @param index nonnegative index less than k
+     * @return unit eigenvector for the index-th eigenvalue, as an n x 1 column vector
+     */
+    public Matrix<Complex> getEigenvector(int index) {
+        Complex[][] column = new Complex[dimension][1];
+        for (int i = 0; i < dimension; i++) {
+            column[i][0] = new Complex(vectorsRe[index][i], vectorsIm == null ? 0 : vectorsIm[index][i]);
+        }
+        return new ComplexMatrix(column);
+    }
+    
+    /**
+     * Eigenvalues that agree to within their residual norms, or to within the tolerance,
+     * are taken as one repeated eigenvalue, keyed by the first of them, with all of their vectors
+     * @return mapping of each computed eigenvalue to a set of its eigenvectors, in the
+     *         same form as Matrix.eigenMap but restricted to the k computed pairs
+     */
+    public Map<Complex, Set<Matrix<Complex>>> eigenMap() {
+        Map<Complex, Set<Matrix<Complex>>> mapping = new HashMap<>();
+        for (int i = 0; i < eigenvalues.length; i++) {
+            Complex key = eigenvalues[i];
+            for (int j = 0; j < i; j++) {
+                Complex other = eigenvalues[j];
+                double scale = Math.max(Math.max(key.magnitude(), other.magnitude()), SMALL_EIGENVALUE);
+                double separation = Math.max(residuals[i] + residuals[j], tolerance * scale);
+                if (key.sub(other).magnitude() <= separation) {
+                    key = other;
+                    break;
+                }
+            }
+            mapping.computeIfAbsent(key, k -> new HashSet<>()).add(getEigenvector(i));
+        }
+        return mapping;
+    }
+    
+    /**
+     * @return residual norms ||A x - lambda x|| of the computed unit eigenvectors
+     */
+    public double[] getResidualNorms() {
+        return residuals.clone();
+    }
+    
+    /**
+     * @return true iff every computed pair met the tolerance within the restart limit
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+    
+    /**
+     * @return number of times the basis was compressed and extended again
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+    
+    /**
+     * @return key by which eigenvalues are sorted, larger first
+     */
+    double priority(double re, double im) {
+        switch (spectrum) {
+            case LARGEST_REAL:
+                return re;
+            case SMALLEST_REAL:
+                return -re;
+            default:
+                return Math.hypot(re, im);
+        }
+    }
+    
+    /**
+     * @return true iff a Ritz pair with this value and residual estimate is accepted
+     */
+    boolean accepted(double magnitude, double residual) {
+        return residual <= tolerance * Math.max(magnitude, SMALL_EIGENVALUE);
+    }
+    
+    /**
+     * @param checking true iff converged pairs are being checked from a new direction
+     * @param available number of Ritz values
+     * @return number of leading Ritz pairs that must converge
+     */
+    int required(boolean checking, int available) {
+        return checking ? Math.min(count + 1, available) : count;
+    }
+    
+    /**
+     * @return true iff each of the k wanted values agrees with the one previously found
+     */
+    boolean unchanged(double[] previousRe, double[] previousIm, double[] re, double[] im) {
+        double agreement = Math.sqrt(tolerance);
+        for (int i = 0; i < count; i++) {
+            double scale = Math.max(Math.hypot(re[i], im[i]), SMALL_EIGENVALUE);
+            if (Math.hypot(re[i] - previousRe[i], im[i] - previousIm[i]) > agreement * scale) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Overwrite basis[size] with a random unit vector orthogonal to basis[0:size]
+     */
+    void randomDirection(double[][] basis, int size, double[] coefficients, double[] correction) {
+        randomUnit(basis[size]);
+        scale(basis[size], 1 / orthogonalize(basis, size, basis[size], coefficients, correction));
+    }
+    
+    /**
+     * Overwrite vector with a random unit vector
+     */
+    void randomUnit(double[] vector) {
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = random.nextGaussian();
+        }
+        scale(vector, 1 / IterativeSolver.norm(vector));
+    }
+    
+    /**
+     * Arnoldi steps from column from to column to - 1, extending basis[from] to basis[0:to + 1]
+     * and filling columns from to to - 1 of the (m + 1) x m projection h
+     * @param basis m + 1 rows, the first from + 1 orthonormal
+     * @param coefficients work array of length m
+     * @param correction work array of length m
+     * @return number of basis vectors spanning an invariant subspace, or to if there is none
+     */
+    int expand(double[][] basis, double[][] h, int from, int to, double[] coefficients, double[] correction) {
+        for (int j = from; j < to; j++) {
+            double[] w = basis[j + 1];
+            operator.apply(basis[j], w);
+            double scale = IterativeSolver.norm(w);
+            double beta = orthogonalize(basis, j + 1, w, coefficients, correction);
+            for (int i = 0; i <= j; i++) {
+                h[i][j] = coefficients[i];
+            }
+            if (j + 1 == dimension) {
+                //the basis spans the whole space, so the projection is exact
+                h[j + 1][j] = 0;
+                return j + 1;
+            }
+            if (beta <= dimension * EPSILON * scale) {
+                //invariant subspace: carry on from a random direction orthogonal to the basis
+                randomDirection(basis, j + 1, correction, coefficients);
+                h[j + 1][j] = 0;
+            } else {
+                h[j + 1][j] = beta;
+                scale(w, 1 / beta);
+            }
+        }
+        return to;
+    }
+    
+    /**
+     * Orthogonalize w against basis[0:size] by classical Gram-Schmidt, applied twice
+     * @param coefficients overwritten with the projections of the original w onto the basis
+     * @param correction work array of length at least size
+     * @return norm of the orthogonalized w
+     */
+    static double orthogonalize(double[][] basis, int size, double[] w, double[] coefficients, double[] correction) {
+        for (int i = 0; i < size; i++) {
+            coefficients[i] = 0;
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < size; i++) {
+                correction[i] = IterativeSolver.dot(basis[i], w);
+            }
+            for (int i = 0; i < size; i++) {
+                IterativeSolver.axpy(-correction[i], basis[i], w);
+                coefficients[i] += correction[i];
+            }
+        }
+        return IterativeSolver.norm(w);
+    }
+    
+    /**
+     * Replace basis[0:columns] by the columns of basis[0:size] q, swapping rows with scratch
+     * @param q size x columns (or wider) coefficients
+     * @param scratch at least columns rows of length n
+     */
+    static void rotate(double[][] basis, int size, double[][] q, int columns, double[][] scratch) {
+        for (int i = 0; i < columns; i++) {
+            double[] target = scratch[i];
+            for (int l = 0; l < target.length; l++) {
+                target[l] = 0;
+            }
+            for (int j = 0; j < size; j++) {
+                IterativeSolver.axpy(q[j][i], basis[j], target);
+            }
+        }
+        for (int i = 0; i < columns; i++) {
+            double[] swap = basis[i];
+            basis[i] = scratch[i];
+            scratch[i] = swap;
+        }
+    }
+    
+    static void scale(double[] vector, double factor) {
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= factor;
+        }
+    }
+}
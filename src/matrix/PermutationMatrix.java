@@ -0,0 +1,162 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * Square permutation matrix stored as its permutation: row i has its single one in
+ * column permutation[i], so (P A) has row permutation[i] of A as its row i. Products with
+ * other matrices move rows or columns in O(n^2) without arithmetic, products of
+ * permutation matrices compose in O(n), and the inverse is the transpose.
+ */
+
+public class PermutationMatrix extends StructuredMatrix {
+    
+    private final int[] permutation;
+    
+    /**
+     * @param permutation nonempty arrangement of 0, ..., n - 1, not kept
+     * @throws IllegalArgumentException if permutation is not a permutation
+     */
+    public PermutationMatrix(int[] permutation) {
+        super(permutation.length);
+        boolean[] seen = new boolean[size];
+        for (int column : permutation) {
+            if (column < 0 || column >= size || seen[column]) {
+                throw new IllegalArgumentException("Not a permutation of 0 to " + (size - 1));
+            }
+            seen[column] = true;
+        }
+        this.permutation = permutation.clone();
+    }
+    
+    /**
+     * @return column of the one in each row
+     */
+    public int[] getPermutation() {
+        return permutation.clone();
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        checkIndices(row, column);
+        return permutation[row] == column ? BigDecimal.ONE : BigDecimal.ZERO;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr.size()[0] != size) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        if (matr instanceof PermutationMatrix) {
+            int[] other = ((PermutationMatrix)matr).permutation;
+            int[] composed = new int[size];
+            for (int i = 0; i < size; i++) {
+                composed[i] = other[permutation[i]];
+            }
+            return new PermutationMatrix(composed);
+        }
+        return permuteRows(matr);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        return toDense().multiply(element);
+    }
+    
+    /**
+     * @param matr matrix with as many rows as this
+     * @return this * matr, whose row i is row permutation[i] of matr
+     */
+    Matrix<BigDecimal> permuteRows(Matrix<BigDecimal> matr) {
+        BigDecimal[][] newMatrix = new BigDecimal[size][];
+        for (int row = 0; row < size; row++) {
+            newMatrix[row] = matr.getRow(permutation[row]);
+        }
+        return new BigDecimalMatrix(newMatrix);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiplyLeft(Matrix<BigDecimal> matr) {
+        return permuteColumns(matr);
+    }
+    
+    /**
+     * @param matr matrix with as many columns as this has rows
+     * @return matr * this, whose column permutation[k] is column k of matr
+     */
+    Matrix<BigDecimal> permuteColumns(Matrix<BigDecimal> matr) {
+        int rows = matr.size()[0];
+        BigDecimal[][] newMatrix = new BigDecimal[rows][size];
+        for (int row = 0; row < rows; row++) {
+            BigDecimal[] currentRow = matr.getRow(row);
+            for (int k = 0; k < size; k++) {
+                newMatrix[row][permutation[k]] = currentRow[k];
+            }
+        }
+        return new BigDecimalMatrix(newMatrix);
+    }
+    
+    /**
+     * @return the sign of the permutation, (-1)^(n - number of cycles)
+     */
+    @Override
+    public BigDecimal determinant() {
+        boolean[] visited = new boolean[size];
+        int parity = 0;
+        for (int start = 0; start < size; start++) {
+            if (visited[start]) {
+                continue;
+            }
+            for (int i = start; !visited[i]; i = permutation[i]) {
+                visited[i] = true;
+                parity++;
+            }
+            parity--;
+        }
+        return parity % 2 == 0 ? BigDecimal.ONE : BigDecimal.ONE.negate();
+    }
+    
+    @Override
+    public int rank() {
+        return size;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> inverse() {
+        return transpose();
+    }
+    
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        int[] inverse = new int[size];
+        for (int i = 0; i < size; i++) {
+            inverse[permutation[i]] = i;
+        }
+        return new PermutationMatrix(inverse);
+    }
+    
+    /**
+     * @return for each cycle of length L, the L-th roots of unity
+     */
+    @Override
+    public Complex[] eigenvalues() {
+        Complex[] eigenvalues = new Complex[size];
+        boolean[] visited = new boolean[size];
+        int k = 0;
+        for (int start = 0; start < size; start++) {
+            if (visited[start]) {
+                continue;
+            }
+            int length = 0;
+            for (int i = start; !visited[i]; i = permutation[i]) {
+                visited[i] = true;
+                length++;
+            }
+            for (int root = 0; root < length; root++) {
+                double angle = 2 * Math.PI * root / length;
+                eigenvalues[k++] = new Complex(Math.cos(angle), Math.sin(angle));
+            }
+        }
+        return eigenvalues;
+    }
+}
@@ -0,0 +1,271 @@
+package matrix;
+
+import java.util.stream.IntStream;
+
+/*
+ * Immutable square matrix whose entries are complex polynomials, such as the
+ * grid xI - A used to build a characteristic polynomial.
+ *
+ * The determinant is found by evaluation and interpolation: the matrix is evaluated
+ * at N >= degree + 1 (scaled) roots of unity, the numeric determinants are taken by
+ * LU decomposition in parallel, and the coefficients are recovered with an inverse FFT.
+ */
+
+public class PolynomialMatrix {
+    
+    private final static Complex ZERO = new Complex(0, 0);
+    private final static double SNAP_ERROR = Math.pow(10, -11);
+    
+    // coefficients stored per entry in ascending order of degree, split into real and imaginary parts
+    private final double[][][] realCoeffs;
+    private final double[][][] imagCoeffs;
+    private final Polynomial<Complex>[][] grid;
+    private final int size;
+    
+    /**
+     * Create a polynomial matrix from a two-dimensional array
+     * @param grid must be nonempty and square
+     * @throws IncompatibleDimensionsException if grid is not square
+     */
+    @SuppressWarnings("unchecked")
+    public PolynomialMatrix(Polynomial<Complex>[][] grid) throws IncompatibleDimensionsException {
+        size = grid.length;
+        this.grid = (Polynomial<Complex>[][])new Polynomial<?>[size][size];
+        realCoeffs = new double[size][size][];
+        imagCoeffs = new double[size][size][];
+        for (int row = 0; row < size; row++) {
+            if (grid[row].length != size) {
+                throw new IncompatibleDimensionsException("Polynomial matrix must be square");
+            }
+            for (int column = 0; column < size; column++) {
+                Polynomial<Complex> entry = grid[row][column];
+                this.grid[row][column] = entry;
+                Complex[] coeffs = entry.coefficients();
+                realCoeffs[row][column] = new double[coeffs.length];
+                imagCoeffs[row][column] = new double[coeffs.length];
+                for (int deg = 0; deg < coeffs.length; deg++) {
+                    realCoeffs[row][column][deg] = coeffs[deg].getReal();
+                    imagCoeffs[row][column][deg] = coeffs[deg].getImag();
+                }
+            }
+        }
+    }
+    
+    /**
+     * @param row nonnegative integer value
+     * @param column nonnegative integer value
+     * @return element at Matrix[row, column]
+     * @throws IndexOutOfBoundsException if row or column out of range
+     */
+    public Polynomial<Complex> getElement(int row, int column) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= size || column < 0 || column >= size) {
+            throw new IndexOutOfBoundsException("Location out of bounds");
+        }
+        return grid[row][column];
+    }
+    
+    /**
+     * @return a two-element array: {number rows, number columns}
+     */
+    public int[] size() {
+        int[] dimensions = {size, size};
+        return dimensions;
+    }
+    
+    /**
+     * The determinant is a sum of products taking one entry from each row,
+     * so its degree cannot exceed the sum of the largest degree in each row
+     * @return upper bound on the degree of the determinant
+     */
+    public int degreeBound() {
+        int bound = 0;
+        for (int row = 0; row < size; row++) {
+            int rowMax = 0;
+            for (int column = 0; column < size; column++) {
+                rowMax = Math.max(rowMax, realCoeffs[row][column].length - 1);
+            }
+            bound += rowMax;
+        }
+        return bound;
+    }
+    
+    /**
+     * Calculate the determinant by interpolating on the unit circle
+     * @return the determinant of this
+     */
+    public Polynomial<Complex> determinant() {
+        return determinant(1);
+    }
+    
+    /**
+     * Calculate the determinant by interpolating on the circle |x| = radius
+     * Choosing a radius near the magnitude of the roots of the determinant
+     * (e.g. a norm of A for the grid xI - A) keeps all coefficients well resolved
+     * @param radius positive radius of the interpolation points
+     * @return the determinant of this
+     * @throws IllegalArgumentException if radius is not positive
+     */
+    public Polynomial<Complex> determinant(double radius) throws IllegalArgumentException {
+        if (!(radius > 0) || Double.isInfinite(radius)) {
+            throw new IllegalArgumentException("Interpolation radius must be positive and finite");
+        }
+        
+        int bound = degreeBound();
+        int numPoints = FFT.nextPowerOfTwo(bound + 1);
+        double[] detRe = new double[numPoints];
+        double[] detIm = new double[numPoints];
+        
+        //each evaluation point is independent, so the numeric determinants are taken in parallel
+        IntStream.range(0, numPoints).parallel().forEach(k -> {
+            double angle = -2 * Math.PI * k / numPoints;
+            double[] det = evaluateDeterminant(radius * Math.cos(angle), radius * Math.sin(angle));
+            detRe[k] = det[0];
+            detIm[k] = det[1];
+        });
+        
+        //values at r * e^(-2 pi i k / N) are the DFT of c_j * r^j, so invert the transform
+        FFT.transform(detRe, detIm, true);
+        
+        //interpolation noise below the working precision is snapped to exact zero
+        //so that trailing coefficients do not inflate the degree
+        double largest = 0;
+        for (int deg = 0; deg <= bound; deg++) {
+            largest = Math.max(largest, Math.hypot(detRe[deg], detIm[deg]));
+        }
+        double cutoff = SNAP_ERROR * largest;
+        
+        //rescale by r^(-j), keeping r^j as a mantissa in [1, 2) and a binary exponent
+        //so that it neither overflows nor underflows at high degree
+        Complex[] coeffs = new Complex[bound + 1];
+        double mantissa = 1;
+        int exponent = 0;
+        for (int deg = 0; deg <= bound; deg++) {
+            double re = Math.abs(detRe[deg]) < cutoff ? 0 : Math.scalb(detRe[deg] / mantissa, -exponent);
+            double im = Math.abs(detIm[deg]) < cutoff ? 0 : Math.scalb(detIm[deg] / mantissa, -exponent);
+            coeffs[deg] = new Complex(re, im);
+            mantissa *= radius;
+            int shift = Math.getExponent(mantissa);
+            mantissa = Math.scalb(mantissa, -shift);
+            exponent += shift;
+        }
+        
+        int degree = bound;
+        while (degree > 0 && coeffs[degree].equals(ZERO)) {
+            degree--;
+        }
+        if (degree == 0) {
+            return new ComplexPoly(coeffs[0]);
+        }
+        Complex[] trimmed = new Complex[degree + 1];
+        System.arraycopy(coeffs, 0, trimmed, 0, degree + 1);
+        return new ComplexPoly(trimmed);
+    }
+    
+    @Override
+    /**
+     * @return a String representation of the matrix, one row per line with tab-separated entries
+     */
+    public String toString() {
+        String output = "";
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                String currentElt = grid[row][column].toString();
+                if (column == size - 1) {
+                    output += currentElt + "\n";
+                } else {
+                    output += currentElt + "\t";
+                }
+            }
+        }
+        return output;
+    }
+    
+    /**
+     * Evaluate every entry at x = xRe + xIm * i and take the numeric determinant
+     * by LU decomposition with partial pivoting
+     * @return two-element array {real part, imaginary part}
+     */
+    private double[] evaluateDeterminant(double xRe, double xIm) {
+        double[] re = new double[size * size];
+        double[] im = new double[size * size];
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                //Horner's rule
+                double[] cRe = realCoeffs[row][column];
+                double[] cIm = imagCoeffs[row][column];
+                double valRe = 0;
+                double valIm = 0;
+                for (int deg = cRe.length - 1; deg >= 0; deg--) {
+                    double nextRe = valRe * xRe - valIm * xIm + cRe[deg];
+                    valIm = valRe * xIm + valIm * xRe + cIm[deg];
+                    valRe = nextRe;
+                }
+                re[row * size + column] = valRe;
+                im[row * size + column] = valIm;
+            }
+        }
+        return luDeterminant(re, im, size);
+    }
+    
+    /**
+     * Determinant of a dense row-major complex matrix, destroying its contents
+     * @return two-element array {real part, imaginary part}
+     */
+    private static double[] luDeterminant(double[] re, double[] im, int n) {
+        double detRe = 1;
+        double detIm = 0;
+        for (int col = 0; col < n; col++) {
+            int pivot = col;
+            double best = Math.abs(re[col * n + col]) + Math.abs(im[col * n + col]);
+            for (int row = col + 1; row < n; row++) {
+                double candidate = Math.abs(re[row * n + col]) + Math.abs(im[row * n + col]);
+                if (candidate > best) {
+                    best = candidate;
+                    pivot = row;
+                }
+            }
+            if (best == 0) {
+                double[] zero = {0, 0};
+                return zero;
+            }
+            if (pivot != col) {
+                for (int j = col; j < n; j++) {
+                    double tmp = re[col * n + j];
+                    re[col * n + j] = re[pivot * n + j];
+                    re[pivot * n + j] = tmp;
+                    tmp = im[col * n + j];
+                    im[col * n + j] = im[pivot * n + j];
+                    im[pivot * n + j] = tmp;
+                }
+                detRe = -detRe;
+                detIm = -detIm;
+            }
+            
+            double pRe = re[col * n + col];
+            double pIm = im[col * n + col];
+            double nextRe = detRe * pRe - detIm * pIm;
+            detIm = detRe * pIm + detIm * pRe;
+            detRe = nextRe;
+            
+            double denom = pRe * pRe + pIm * pIm;
+            for (int row = col + 1; row < n; row++) {
+                double aRe = re[row * n + col];
+                double aIm = im[row * n + col];
+                if (aRe == 0 && aIm == 0) {
+                    continue;
+                }
+                //factor = a / pivot
+                double fRe = (aRe * pRe + aIm * pIm) / denom;
+                double fIm = (aIm * pRe - aRe * pIm) / denom;
+                for (int j = col + 1; j < n; j++) {
+                    double uRe = re[col * n + j];
+                    double uIm = im[col * n + j];
+                    re[row * n + j] -= fRe * uRe - fIm * uIm;
+                    im[row * n + j] -= fRe * uIm + fIm * uRe;
+                }
+            }
+        }
+        double[] det = {detRe, detIm};
+        return det;
+    }
+}
@@ -0,0 +1,628 @@
+package matrix;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import matrix.IterativeSolver.History;
+
+/*
+ * Power iteration for the dominant eigenpair of a square matrix A, accessed only through
+ * LinearOperator, as in the stationary vector of a Markov chain. Each iteration costs one
+ * matrix-vector product x <- (A - sigma I) x, normalized, and the error contracts by
+ * |lambda_2 - sigma| / |lambda_1 - sigma|, so a shift sigma can speed convergence or,
+ * beyond the middle of a real spectrum, find the other end of it. Iteration stops once
+ * the relative residual ||A x - lambda x|| / ||A x|| drops below the tolerance.
+ *
+ * Slow linear convergence can be accelerated by Aitken extrapolation of each entry every
+ * few iterations (Kamvar, Haveliwala, Manning and Golub), or by Anderson mixing, which
+ * replaces each power step by the combination of the last few steps with the smallest
+ * combined change. Further eigenpairs are found by deflation: each new iteration is
+ * projected onto the complement of the vectors already found, which are then Schur
+ * vectors, and eigenvectors are recovered from the small triangular Schur form.
+ *
+ * PageRank runs the same engine on the Google matrix built from a link matrix, whose
+ * dangling-node and teleportation terms are applied without ever being formed. When the
+ * links change slightly, a previous vector passed as the start needs far fewer iterations.
+ * Engines hold only their settings and may be shared between threads.
+ */
+
+public class PowerIteration {
+    
+    /**
+     * Extrapolation applied to the sequence of power steps
+     */
+    public enum Acceleration {
+        NONE, AITKEN, ANDERSON
+    }
+    
+    final static double DEFAULT_TOLERANCE = Math.pow(10, -10);
+    final static int DEFAULT_MAX_ITERATIONS = 1000;
+    private final static int EXTRAPOLATION_PERIOD = 10;
+    private final static double RATE_AGREEMENT = 0.01;
+    private final static int ANDERSON_DEPTH = 5;
+    private final static double EPSILON = Math.ulp(1.0);
+    private final static long SEED = 0;
+    
+    private final double tolerance;
+    private final int maxIterations;
+    private final double shift;
+    private final Acceleration acceleration;
+    private final boolean parallel;
+    
+    /**
+     * Unshifted, unaccelerated, sequential engine with relative tolerance 1e-10 and
+     * at most 1000 iterations
+     */
+    public PowerIteration() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+    
+    /**
+     * Unshifted, unaccelerated, sequential engine
+     * @param tolerance positive relative residual at which to stop
+     * @param maxIterations positive iteration limit
+     * @throws IllegalArgumentException if either is not positive
+     */
+    public PowerIteration(double tolerance, int maxIterations) {
+        this(tolerance, maxIterations, 0, Acceleration.NONE, false);
+    }
+    
+    /**
+     * @param tolerance positive relative residual at which to stop
+     * @param maxIterations positive iteration limit
+     * @param shift finite sigma, so that the iteration runs on A - sigma I
+     * @param acceleration extrapolation of the power steps
+     * @param parallel true to split each matrix-vector product across threads
+     * @throws IllegalArgumentException if either number is not positive, shift is not
+     *         finite or acceleration is null
+     */
+    public PowerIteration(double tolerance, int maxIterations, double shift, Acceleration acceleration, boolean parallel) {
+        if (!(tolerance > 0) || maxIterations < 1) {
+            throw new IllegalArgumentException("Tolerance and iteration limit must be positive");
+        }
+        if (Double.isNaN(shift) || Double.isInfinite(shift)) {
+            throw new IllegalArgumentException("Shift must be finite");
+        }
+        if (acceleration == null) {
+            throw new IllegalArgumentException("Acceleration must not be null, use Acceleration.NONE");
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+        this.shift = shift;
+        this.acceleration = acceleration;
+        this.parallel = parallel;
+    }
+    
+    /**
+     * Dominant eigenpair, starting from a fixed pseudorandom vector
+     * @param operator square n x n operator
+     * @return eigenvalue of A farthest from the shift, with a unit eigenvector
+     * @throws IncompatibleDimensionsException if operator is not square
+     */
+    public EigenpairResult solve(LinearOperator operator) throws IncompatibleDimensionsException {
+        return solve(operator, 1)[0];
+    }
+    
+    /**
+     * Dominant eigenpair, starting from a given vector such as a previous eigenvector
+     * of a slightly different matrix
+     * @param operator square n x n operator
+     * @param start nonzero vector of length n, not modified
+     * @return eigenvalue of A farthest from the shift, with a unit eigenvector
+     * @throws IncompatibleDimensionsException if operator is not square or start has the wrong length
+     * @throws IllegalArgumentException if start is zero
+     */
+    public EigenpairResult solve(LinearOperator operator, double[] start) throws IncompatibleDimensionsException {
+        int n = squareSize(operator);
+        double[] x = startVector(start, n);
+        return iterate(operator, x, shift, new double[0][], 0);
+    }
+    
+    /**
+     * The count eigenpairs farthest from the shift, by deflation. Each is found by an
+     * iteration of its own, which must converge before the next can; a complex
+     * conjugate pair has no real dominant eigenvector and does not converge.
+     * @param operator square n x n operator
+     * @param count number k of eigenpairs, 1 <= k <= n
+     * @return k eigenpairs in order of decreasing |lambda - sigma|, with unit eigenvectors
+     * @throws IncompatibleDimensionsException if operator is not square
+     * @throws IllegalArgumentException if count is out of range
+     */
+    public EigenpairResult[] solve(LinearOperator operator, int count) throws IncompatibleDimensionsException {
+        int n = squareSize(operator);
+        if (count < 1 || count > n) {
+            throw new IllegalArgumentException("Number of eigenpairs must be between 1 and " + n);
+        }
+        Random random = new Random(SEED);
+        double[][] schur = new double[count][];
+        double[][] triangle = new double[count][count];
+        double[] values = new double[count];
+        double[] image = new double[n];
+        EigenpairResult[] results = new EigenpairResult[count];
+        for (int j = 0; j < count; j++) {
+            double[] x = new double[n];
+            for (int i = 0; i < n; i++) {
+                x[i] = random.nextGaussian();
+            }
+            project(schur, j, x);
+            normalize(x);
+            EigenpairResult pair = iterate(operator, x, shift, schur, j);
+            schur[j] = pair.getEigenvector();
+            values[j] = pair.getEigenvalue();
+            
+            //column j of the Schur form R = Q^T A Q, then the eigenvector Q y of R y = lambda_j y
+            operator.apply(schur[j], image);
+            for (int i = 0; i < j; i++) {
+                triangle[i][j] = IterativeSolver.dot(schur[i], image);
+            }
+            double[] y = new double[j + 1];
+            y[j] = 1;
+            for (int i = j - 1; i >= 0; i--) {
+                double sum = 0;
+                for (int l = i + 1; l <= j; l++) {
+                    sum += triangle[i][l] * y[l];
+                }
+                double gap = values[j] - values[i];
+                //a repeated eigenvalue keeps the Schur vector, exact for symmetric A
+                double scale = Math.max(Math.abs(values[i]), Math.abs(values[j]));
+                y[i] = Math.abs(gap) <= tolerance * scale ? 0 : sum / gap;
+            }
+            double[] vector = new double[n];
+            for (int i = 0; i <= j; i++) {
+                IterativeSolver.axpy(y[i], schur[i], vector);
+            }
+            normalize(vector);
+            results[j] = new EigenpairResult(values[j], vector, pair.isConverged(), pair.getResidualHistory());
+        }
+        return results;
+    }
+    
+    /**
+     * PageRank with uniform teleportation, starting from the uniform vector
+     * @param links square matrix with nonnegative entries, entry (i, j) the weight of the
+     *        link from node i to node j; nodes without outgoing links are dangling
+     * @param damping probability alpha of following a link rather than teleporting, 0 <= alpha < 1
+     * @return stationary vector of the Google matrix, with entries summing to 1
+     * @throws IncompatibleDimensionsException if links is not square
+     * @throws IllegalArgumentException if damping is out of range or a link weight is negative
+     */
+    public EigenpairResult pageRank(SparseMatrix links, double damping) throws IncompatibleDimensionsException {
+        return pageRank(links, damping, uniform(links.size()[0]));
+    }
+    
+    /**
+     * PageRank with uniform teleportation, starting from a given vector such as the
+     * PageRank of a previous version of the links
+     * @param links square matrix with nonnegative entries, entry (i, j) the weight of the
+     *        link from node i to node j; nodes without outgoing links are dangling
+     * @param damping probability alpha of following a link rather than teleporting, 0 <= alpha < 1
+     * @param start nonzero vector of length n, not modified
+     * @return stationary vector of the Google matrix, with entries summing to 1
+     * @throws IncompatibleDimensionsException if links is not square or start has the wrong length
+     * @throws IllegalArgumentException if damping is out of range, a link weight is negative
+     *         or start is zero
+     */
+    public EigenpairResult pageRank(SparseMatrix links, double damping, double[] start) throws IncompatibleDimensionsException {
+        return pageRank(links, damping, uniform(links.size()[0]), start);
+    }
+    
+    /**
+     * Personalized PageRank. The shift is not applied, since the wanted eigenvalue 1 is
+     * already dominant with gap 1 - alpha.
+     * @param links square matrix with nonnegative entries, entry (i, j) the weight of the
+     *        link from node i to node j; nodes without outgoing links are dangling
+     * @param damping probability alpha of following a link rather than teleporting, 0 <= alpha < 1
+     * @param personalization nonnegative teleportation weights of length n with positive sum,
+     *        also followed from dangling nodes; not modified
+     * @param start nonzero vector of length n, not modified
+     * @return stationary vector of the Google matrix, with entries summing to 1
+     * @throws IncompatibleDimensionsException if links is not square or a vector has the wrong length
+     * @throws IllegalArgumentException if damping is out of range, a weight is negative,
+     *         the personalization sums to zero or start is zero
+     */
+    public EigenpairResult pageRank(SparseMatrix links, double damping, double[] personalization, double[] start)
+            throws IncompatibleDimensionsException {
+        int n = links.squareSize();
+        if (!(damping >= 0 && damping < 1)) {
+            throw new IllegalArgumentException("Damping factor must lie in [0, 1)");
+        }
+        if (personalization.length != n) {
+            throw new IncompatibleDimensionsException("Vectors must have length " + n);
+        }
+        double total = 0;
+        for (double weight : personalization) {
+            if (!(weight >= 0)) {
+                throw new IllegalArgumentException("Personalization weights must be nonnegative");
+            }
+            total += weight;
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("Personalization weights must not all be zero");
+        }
+        double[] teleport = personalization.clone();
+        for (int i = 0; i < n; i++) {
+            teleport[i] /= total;
+        }
+        double[] x = startVector(start, n);
+        EigenpairResult result = iterate(new GoogleMatrix(links, damping, teleport), x, 0, new double[0][], 0);
+        
+        //the Perron vector has entries of one sign, so scaling by the sum makes it a distribution
+        double[] vector = result.getEigenvector();
+        double sum = 0;
+        for (double entry : vector) {
+            sum += entry;
+        }
+        for (int i = 0; i < n; i++) {
+            vector[i] /= sum;
+        }
+        return new EigenpairResult(result.getEigenvalue(), vector, result.isConverged(), result.getResidualHistory());
+    }
+    
+    /**
+     * Run the iteration on A - sigma I from the unit vector x, projected onto the
+     * complement of the orthonormal vectors locked[0:lockedCount], to which x is orthogonal
+     * @return result holding the eigenvalue of A and the final unit iterate
+     */
+    private EigenpairResult iterate(LinearOperator operator, double[] x, double sigma, double[][] locked, int lockedCount) {
+        int n = x.length;
+        double[] y = new double[n];
+        double[] next = new double[n];
+        History history = new History(maxIterations + 1);
+        Accelerator accelerator = acceleration == Acceleration.AITKEN ? new Aitken(n)
+                : acceleration == Acceleration.ANDERSON ? new Anderson(n) : null;
+        
+        double value;
+        boolean converged;
+        for (int iteration = 0; ; iteration++) {
+            if (parallel) {
+                operator.applyParallel(x, y);
+            } else {
+                operator.apply(x, y);
+            }
+            IterativeSolver.axpy(-sigma, x, y);
+            project(locked, lockedCount, y);
+            
+            //Rayleigh quotient and residual of the current unit iterate
+            double rayleigh = IterativeSolver.dot(x, y);
+            double length = IterativeSolver.norm(y);
+            double residual = 0;
+            for (int i = 0; i < n; i++) {
+                double difference = y[i] - rayleigh * x[i];
+                residual += difference * difference;
+            }
+            residual = length == 0 ? 0 : Math.sqrt(residual) / length;
+            history.record(residual);
+            value = rayleigh + sigma;
+            if (residual < tolerance) {
+                converged = true;
+                break;
+            }
+            if (iteration == maxIterations) {
+                converged = false;
+                break;
+            }
+            
+            //power step, with the sign fixed so that a negative eigenvalue still gives a fixed point
+            double factor = rayleigh < 0 ? -1 / length : 1 / length;
+            for (int i = 0; i < n; i++) {
+                next[i] = factor * y[i];
+            }
+            if (accelerator != null) {
+                accelerator.accelerate(iteration, x, next);
+                project(locked, lockedCount, next);
+                normalize(next);
+            }
+            double[] swap = x;
+            x = next;
+            next = swap;
+        }
+        return new EigenpairResult(value, x, converged, history.toArray());
+    }
+    
+    /**
+     * Remove from v its components along the orthonormal vectors basis[0:size], twice for stability
+     */
+    private static void project(double[][] basis, int size, double[] v) {
+        for (int pass = 0; pass < (size == 0 ? 0 : 2); pass++) {
+            for (int i = 0; i < size; i++) {
+                IterativeSolver.axpy(-IterativeSolver.dot(basis[i], v), basis[i], v);
+            }
+        }
+    }
+    
+    private static int squareSize(LinearOperator operator) throws IncompatibleDimensionsException {
+        int[] dimensions = operator.size();
+        if (dimensions[0] != dimensions[1]) {
+            throw new IncompatibleDimensionsException("Power iteration requires a square operator");
+        }
+        return dimensions[0];
+    }
+    
+    /**
+     * @return unit copy of start
+     */
+    private static double[] startVector(double[] start, int n) {
+        if (start.length != n) {
+            throw new IncompatibleDimensionsException("Vectors must have length " + n);
+        }
+        double length = IterativeSolver.norm(start);
+        if (!(length > 0)) {
+            throw new IllegalArgumentException("Start vector must be nonzero");
+        }
+        double[] x = start.clone();
+        normalize(x);
+        return x;
+    }
+    
+    private static void normalize(double[] vector) {
+        double length = IterativeSolver.norm(vector);
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] /= length;
+        }
+    }
+    
+    private static double[] uniform(int n) {
+        double[] vector = new double[n];
+        Arrays.fill(vector, 1);
+        return vector;
+    }
+    
+    /**
+     * Rule that may replace the next iterate using the history of power steps
+     */
+    private interface Accelerator {
+        
+        /**
+         * @param iteration number of power steps taken before this one
+         * @param current current iterate, not modified
+         * @param next its normalized power step, overwritten with the accelerated iterate
+         */
+        void accelerate(int iteration, double[] current, double[] next);
+    }
+    
+    /**
+     * Entrywise Aitken extrapolation x - (x - x')^2 / (x - 2 x' + x'') of three consecutive
+     * power steps. It removes the error exactly when a single eigenvector dominates it,
+     * so it waits until successive steps contract at a steady rate, and then at least
+     * EXTRAPOLATION_PERIOD iterations before extrapolating again.
+     */
+    private static final class Aitken implements Accelerator {
+        
+        private final double[] previous;
+        private double previousStep;
+        private double previousRate;
+        private int waited;
+        
+        Aitken(int n) {
+            previous = new double[n];
+        }
+        
+        @Override
+        public void accelerate(int iteration, double[] current, double[] next) {
+            double step = 0;
+            for (int i = 0; i < next.length; i++) {
+                step = Math.hypot(step, next[i] - current[i]);
+            }
+            double rate = step / previousStep;
+            boolean steady = iteration >= 2 && Math.abs(rate - previousRate) <= RATE_AGREEMENT * rate;
+            if (++waited >= EXTRAPOLATION_PERIOD && steady) {
+                waited = 0;
+                for (int i = 0; i < next.length; i++) {
+                    double difference = next[i] - current[i];
+                    double curvature = difference - (current[i] - previous[i]);
+                    //entries that have already settled are left alone
+                    if (Math.abs(curvature) > EPSILON * Math.abs(next[i])) {
+                        next[i] -= difference * difference / curvature;
+                    }
+                }
+            }
+            previousStep = step;
+            previousRate = rate;
+            System.arraycopy(current, 0, previous, 0, current.length);
+        }
+    }
+    
+    /**
+     * Anderson mixing of depth ANDERSON_DEPTH for the fixed point x = g(x) of the
+     * normalized power step: with f = g(x) - x, the next iterate is g(x) - dG gamma for the
+     * gamma minimizing ||f - dF gamma||, where dF and dG hold the latest differences of
+     * successive f and g, found from the normal equations of the small least squares problem
+     */
+    private static final class Anderson implements Accelerator {
+        
+        private final double[][] differencesF = new double[ANDERSON_DEPTH][];
+        private final double[][] differencesG = new double[ANDERSON_DEPTH][];
+        private final double[][] gram = new double[ANDERSON_DEPTH][ANDERSON_DEPTH];
+        private final double[] previousF;
+        private final double[] previousG;
+        private final double[] f;
+        private int stored;
+        
+        Anderson(int n) {
+            for (int i = 0; i < ANDERSON_DEPTH; i++) {
+                differencesF[i] = new double[n];
+                differencesG[i] = new double[n];
+            }
+            previousF = new double[n];
+            previousG = new double[n];
+            f = new double[n];
+        }
+        
+        @Override
+        public void accelerate(int iteration, double[] current, double[] next) {
+            int n = next.length;
+            for (int i = 0; i < n; i++) {
+                f[i] = next[i] - current[i];
+            }
+            if (iteration > 0) {
+                //newest differences go in the oldest slot
+                int slot = (iteration - 1) % ANDERSON_DEPTH;
+                double[] dF = differencesF[slot];
+                double[] dG = differencesG[slot];
+                for (int i = 0; i < n; i++) {
+                    dF[i] = f[i] - previousF[i];
+                    dG[i] = next[i] - previousG[i];
+                }
+                stored = Math.min(stored + 1, ANDERSON_DEPTH);
+                for (int j = 0; j < stored; j++) {
+                    gram[slot][j] = IterativeSolver.dot(dF, differencesF[j]);
+                    gram[j][slot] = gram[slot][j];
+                }
+            }
+            System.arraycopy(f, 0, previousF, 0, n);
+            System.arraycopy(next, 0, previousG, 0, n);
+            if (stored == 0) {
+                return;
+            }
+            
+            double[][] a = new double[stored][stored];
+            double[] gamma = new double[stored];
+            double trace = 0;
+            for (int j = 0; j < stored; j++) {
+                trace += gram[j][j];
+            }
+            for (int i = 0; i < stored; i++) {
+                System.arraycopy(gram[i], 0, a[i], 0, stored);
+                //small ridge, since successive differences become nearly parallel
+                a[i][i] += EPSILON * trace;
+                gamma[i] = IterativeSolver.dot(differencesF[i], f);
+            }
+            if (solveInPlace(a, gamma)) {
+                for (int j = 0; j < stored; j++) {
+                    IterativeSolver.axpy(-gamma[j], differencesG[j], next);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Gaussian elimination with partial pivoting on a small system, destroying a
+     * @param b overwritten with the solution
+     * @return false, leaving b meaningless, if a is numerically singular
+     */
+    private static boolean solveInPlace(double[][] a, double[] b) {
+        int size = b.length;
+        for (int k = 0; k < size; k++) {
+            int pivot = k;
+            for (int i = k + 1; i < size; i++) {
+                if (Math.abs(a[i][k]) > Math.abs(a[pivot][k])) {
+                    pivot = i;
+                }
+            }
+            if (!(Math.abs(a[pivot][k]) > 0)) {
+                return false;
+            }
+            double[] row = a[k];
+            a[k] = a[pivot];
+            a[pivot] = row;
+            double swap = b[k];
+            b[k] = b[pivot];
+            b[pivot] = swap;
+            for (int i = k + 1; i < size; i++) {
+                double multiplier = a[i][k] / a[k][k];
+                for (int j = k; j < size; j++) {
+                    a[i][j] -= multiplier * a[k][j];
+                }
+                b[i] -= multiplier * b[k];
+            }
+        }
+        for (int i = size - 1; i >= 0; i--) {
+            double sum = b[i];
+            for (int j = i + 1; j < size; j++) {
+                sum -= a[i][j] * b[j];
+            }
+            b[i] = sum / a[i][i];
+        }
+        return true;
+    }
+    
+    /**
+     * Google matrix G = alpha P^T + (alpha v d^T + (1 - alpha) v 1^T), with P the links
+     * scaled to unit row sums, d the indicator of dangling nodes and v the teleportation
+     * distribution. Only alpha P^T is stored, as a sparse matrix.
+     */
+    private static final class GoogleMatrix implements LinearOperator {
+        
+        private final SparseMatrix transition;
+        private final int[] dangling;
+        private final double damping;
+        private final double[] teleport;
+        
+        GoogleMatrix(SparseMatrix links, double damping, double[] teleport) {
+            int n = links.squareSize();
+            int[] pointers = links.rowPointers();
+            int[] indices = links.columnIndices();
+            double[] weights = links.values();
+            int[] rows = new int[weights.length];
+            int[] columns = new int[weights.length];
+            double[] entries = new double[weights.length];
+            int[] danglingNodes = new int[n];
+            int danglingCount = 0;
+            for (int i = 0; i < n; i++) {
+                double outgoing = 0;
+                for (int k = pointers[i]; k < pointers[i + 1]; k++) {
+                    if (!(weights[k] >= 0)) {
+                        throw new IllegalArgumentException("Link weights must be nonnegative");
+                    }
+                    outgoing += weights[k];
+                }
+                if (outgoing == 0) {
+                    danglingNodes[danglingCount++] = i;
+                }
+                for (int k = pointers[i]; k < pointers[i + 1]; k++) {
+                    rows[k] = indices[k];
+                    columns[k] = i;
+                    entries[k] = outgoing == 0 ? 0 : damping * weights[k] / outgoing;
+                }
+            }
+            transition = new SparseMatrix(n, n, rows, columns, entries);
+            dangling = Arrays.copyOf(danglingNodes, danglingCount);
+            this.damping = damping;
+            this.teleport = teleport;
+        }
+        
+        @Override
+        public int[] size() {
+            return transition.size();
+        }
+        
+        @Override
+        public void apply(double[] x, double[] y) {
+            transition.apply(x, y);
+            addRankOne(x, y);
+        }
+        
+        @Override
+        public void applyParallel(double[] x, double[] y) {
+            transition.applyParallel(x, y);
+            addRankOne(x, y);
+        }
+        
+        @Override
+        public void applyTranspose(double[] x, double[] y) {
+            transition.applyTranspose(x, y);
+            double weight = IterativeSolver.dot(teleport, x);
+            for (int i = 0; i < y.length; i++) {
+                y[i] += (1 - damping) * weight;
+            }
+            for (int i : dangling) {
+                y[i] += damping * weight;
+            }
+        }
+        
+        /**
+         * y += (alpha d^T x + (1 - alpha) 1^T x) v
+         */
+        private void addRankOne(double[] x, double[] y) {
+            double danglingMass = 0;
+            for (int i : dangling) {
+                danglingMass += x[i];
+            }
+            double total = 0;
+            for (double entry : x) {
+                total += entry;
+            }
+            IterativeSolver.axpy(damping * danglingMass + (1 - damping) * total, teleport, y);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package matrix;
+
+/*
+ * Approximate inverse M^(-1) of a matrix A, applied by the Krylov solvers to each
+ * residual so that they iterate on a better conditioned system. A preconditioner is
+ * built once, and apply must not allocate since it runs once or twice per iteration.
+ * Implementations must allow concurrent calls that use distinct buffers.
+ */
+
+public interface Preconditioner {
+    
+    /**
+     * The identity, M = I, which leaves a solver unpreconditioned
+     */
+    public final static Preconditioner IDENTITY = (r, z) -> System.arraycopy(r, 0, z, 0, r.length);
+    
+    /**
+     * Overwrite z with M^(-1) r
+     * @param r vector of length n, not modified
+     * @param z vector of length n, distinct from r
+     */
+    public void apply(double[] r, double[] z);
+}
@@ -0,0 +1,505 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+ * Householder QR decomposition with column pivoting, AP = QR, for an m x n matrix A.
+ *
+ * Columns are pivoted by largest remaining norm, so the diagonal of R is non-increasing
+ * in magnitude and the numerical rank can be read off where it drops below a tolerance.
+ * Reflectors are generated a panel at a time and the trailing matrix is updated once per
+ * panel with a single rank-nb product (the blocked scheme of LAPACK's xLAQPS), so most
+ * of the work is matrix-matrix rather than matrix-vector.
+ *
+ * Data is held in primitive column-major storage: element (i, j) is qr[j * m + i].
+ */
+
+public class QRDecomposition {
+    
+    private final static double EPSILON = Math.ulp(1.0);
+    private final static double NORM_TOLERANCE = Math.sqrt(EPSILON);
+    private final static int BLOCK_SIZE = 32;
+    
+    // R on and above the diagonal, Householder vectors (with implicit unit first entry) below
+    private final double[] qr;
+    private final double[] tau;
+    private final int[] pivot;
+    private final int numRows;
+    private final int numCols;
+    private final int numReflectors;
+    
+    /**
+     * Factor a matrix with BigDecimal entries
+     * @param matrix valid Matrix instance
+     */
+    public QRDecomposition(Matrix<BigDecimal> matrix) {
+        this(BigDecimalMatrix.toArray(matrix));
+    }
+    
+    /**
+     * Factor a matrix given as a two-dimensional array
+     * @param entries row-major array, must be nonempty and rectangular
+     */
+    public QRDecomposition(double[][] entries) {
+        numRows = entries.length;
+        numCols = entries[0].length;
+        numReflectors = Math.min(numRows, numCols);
+        qr = new double[numRows * numCols];
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numCols; j++) {
+                qr[j * numRows + i] = entries[i][j];
+            }
+        }
+        tau = new double[numReflectors];
+        pivot = new int[numCols];
+        for (int j = 0; j < numCols; j++) {
+            pivot[j] = j;
+        }
+        factor();
+    }
+    
+    /**
+     * @return numerical rank, counting diagonal entries of R larger than
+     *         max(m, n) * machine epsilon relative to the largest one
+     */
+    public int rank() {
+        return rank(Math.max(numRows, numCols) * EPSILON);
+    }
+    
+    /**
+     * @param tolerance relative threshold, nonnegative
+     * @return number of diagonal entries of R with |R_jj| > tolerance * |R_00|
+     */
+    public int rank(double tolerance) {
+        if (numReflectors == 0) {
+            return 0;
+        }
+        double threshold = tolerance * Math.abs(qr[0]);
+        int rank = 0;
+        while (rank < numReflectors && Math.abs(qr[rank * numRows + rank]) > threshold) {
+            rank++;
+        }
+        return rank;
+    }
+    
+    /**
+     * @return column permutation: column j of AP is column getPivot()[j] of A
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+    
+    /**
+     * @return the upper trapezoidal factor R, min(m, n) x n, a packed TriangularMatrix when m >= n
+     */
+    public Matrix<BigDecimal> getR() {
+        if (numReflectors == numCols) {
+            return new TriangularMatrix(upperTriangle(), true);
+        }
+        return new BigDecimalMatrix(upperTriangle());
+    }
+    
+    /**
+     * @return the thin orthogonal factor Q, m x min(m, n), with orthonormal columns
+     */
+    public Matrix<BigDecimal> getQ() {
+        return new BigDecimalMatrix(thinQ());
+    }
+    
+    /**
+     * @return the permutation matrix P with AP = QR
+     */
+    public Matrix<BigDecimal> getP() {
+        //row pivot[j] of P has its one in column j
+        int[] permutation = new int[numCols];
+        for (int j = 0; j < numCols; j++) {
+            permutation[pivot[j]] = j;
+        }
+        return new PermutationMatrix(permutation);
+    }
+    
+    /**
+     * @return a set of orthonormal column vectors (m x 1 matrices) spanning the range of A
+     */
+    public Set<Matrix<BigDecimal>> rangeBasis() {
+        double[][] q = thinQ();
+        Set<Matrix<BigDecimal>> basis = new HashSet<>();
+        for (int j = 0; j < rank(); j++) {
+            double[][] column = new double[numRows][1];
+            for (int i = 0; i < numRows; i++) {
+                column[i][0] = q[i][j];
+            }
+            basis.add(new BigDecimalMatrix(column));
+        }
+        return basis;
+    }
+    
+    /**
+     * With R = [R11 R12; 0 0] for rank r, the columns of P [-R11^(-1) R12; I] span the
+     * nullspace of A, and are orthonormalized by a second QR decomposition
+     * @return a set of orthonormal column vectors (n x 1 matrices) spanning the nullspace of A
+     */
+    public Set<Matrix<BigDecimal>> nullspaceBasis() {
+        int rank = rank();
+        int nullity = numCols - rank;
+        Set<Matrix<BigDecimal>> basis = new HashSet<>();
+        if (nullity == 0) {
+            return basis;
+        }
+        
+        double[][] spanning = new double[numCols][nullity];
+        for (int k = 0; k < nullity; k++) {
+            //back substitution R11 y = R12[:, k]
+            double[] y = new double[rank];
+            for (int i = rank - 1; i >= 0; i--) {
+                double sum = qr[(rank + k) * numRows + i];
+                for (int j = i + 1; j < rank; j++) {
+                    sum -= qr[j * numRows + i] * y[j];
+                }
+                y[i] = sum / qr[i * numRows + i];
+            }
+            for (int i = 0; i < rank; i++) {
+                spanning[pivot[i]][k] = -y[i];
+            }
+            spanning[pivot[rank + k]][k] = 1;
+        }
+        
+        double[][] q = new QRDecomposition(spanning).thinQ();
+        for (int k = 0; k < nullity; k++) {
+            double[][] column = new double[numCols][1];
+            for (int i = 0; i < numCols; i++) {
+                column[i][0] = q[i][k];
+            }
+            basis.add(new BigDecimalMatrix(column));
+        }
+        return basis;
+    }
+    
+    /**
+     * Least-squares solution of AX = B, minimizing the 2-norm of each residual column
+     * For rank-deficient A the basic solution is returned, with the free variables set to zero
+     * @param b right-hand sides, m x k
+     * @return X, n x k
+     * @throws IncompatibleDimensionsException if b does not have m rows
+     */
+    public Matrix<BigDecimal> solve(Matrix<BigDecimal> b) throws IncompatibleDimensionsException {
+        if (b.size()[0] != numRows) {
+            throw new IncompatibleDimensionsException("Right-hand side must have as many rows as the matrix");
+        }
+        double[][] rhs = BigDecimalMatrix.toArray(b);
+        int numRhs = rhs[0].length;
+        int rank = rank();
+        
+        double[][] solution = new double[numCols][numRhs];
+        double[] column = new double[numRows];
+        for (int c = 0; c < numRhs; c++) {
+            for (int i = 0; i < numRows; i++) {
+                column[i] = rhs[i][c];
+            }
+            applyQTranspose(column);
+            for (int i = rank - 1; i >= 0; i--) {
+                double sum = column[i];
+                for (int j = i + 1; j < rank; j++) {
+                    sum -= qr[j * numRows + i] * column[j];
+                }
+                column[i] = sum / qr[i * numRows + i];
+            }
+            for (int i = 0; i < rank; i++) {
+                solution[pivot[i]][c] = column[i];
+            }
+        }
+        return new BigDecimalMatrix(solution);
+    }
+    
+    /**
+     * Overwrite x with Q^T x = H_(k-1) ... H_1 H_0 x
+     * @param x vector of length m
+     */
+    void applyQTranspose(double[] x) {
+        for (int k = 0; k < numReflectors; k++) {
+            if (tau[k] == 0) {
+                continue;
+            }
+            int offset = k * numRows;
+            double dot = x[k];
+            for (int i = k + 1; i < numRows; i++) {
+                dot += qr[offset + i] * x[i];
+            }
+            dot *= tau[k];
+            x[k] -= dot;
+            for (int i = k + 1; i < numRows; i++) {
+                x[i] -= dot * qr[offset + i];
+            }
+        }
+    }
+    
+    /**
+     * @return R, min(m, n) x n, row-major
+     */
+    double[][] upperTriangle() {
+        double[][] r = new double[numReflectors][numCols];
+        for (int i = 0; i < numReflectors; i++) {
+            for (int j = i; j < numCols; j++) {
+                r[i][j] = qr[j * numRows + i];
+            }
+        }
+        return r;
+    }
+    
+    /**
+     * @return Q = H_0 H_1 ... H_(k-1) applied to the first k columns of the identity, row-major
+     */
+    double[][] thinQ() {
+        return formQ(numReflectors);
+    }
+    
+    /**
+     * @param columns number of columns to form, between min(m, n) and m; columns past
+     *        the rank span the orthogonal complement of the range
+     * @return the leading columns of the full m x m orthogonal factor, row-major
+     */
+    double[][] formQ(int columns) {
+        double[] q = new double[numRows * columns];
+        for (int j = 0; j < columns; j++) {
+            q[j * numRows + j] = 1;
+        }
+        for (int k = numReflectors - 1; k >= 0; k--) {
+            if (tau[k] == 0) {
+                continue;
+            }
+            int offset = k * numRows;
+            for (int j = k; j < columns; j++) {
+                int column = j * numRows;
+                double dot = q[column + k];
+                for (int i = k + 1; i < numRows; i++) {
+                    dot += qr[offset + i] * q[column + i];
+                }
+                dot *= tau[k];
+                q[column + k] -= dot;
+                for (int i = k + 1; i < numRows; i++) {
+                    q[column + i] -= dot * qr[offset + i];
+                }
+            }
+        }
+        double[][] output = new double[numRows][columns];
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < columns; j++) {
+                output[i][j] = q[j * numRows + i];
+            }
+        }
+        return output;
+    }
+    
+    /**
+     * Blocked factorization driver: factor panels of up to BLOCK_SIZE columns,
+     * each followed by one update of the trailing matrix
+     */
+    private void factor() {
+        double[] partialNorms = new double[numCols];
+        double[] exactNorms = new double[numCols];
+        for (int j = 0; j < numCols; j++) {
+            partialNorms[j] = columnNorm(j, 0);
+            exactNorms[j] = partialNorms[j];
+        }
+        
+        int done = 0;
+        while (done < numReflectors) {
+            int panel = Math.min(BLOCK_SIZE, numReflectors - done);
+            done += factorPanel(done, panel, partialNorms, exactNorms);
+        }
+    }
+    
+    /**
+     * Factor up to panelSize columns starting at offset. The reflectors are applied to the
+     * trailing columns lazily through the auxiliary matrix F, with A <- A - V F^T, so that
+     * only the pivot row is updated eagerly (it is needed to downdate the column norms).
+     * The panel stops early if cancellation makes a downdated norm unreliable.
+     * @return number of columns factored
+     */
+    private int factorPanel(int offset, int panelSize, double[] partialNorms, double[] exactNorms) {
+        int trailing = numCols - offset;
+        // F is trailing x panelSize, column-major: F(r, t) = f[t * trailing + r] for column offset + r
+        double[] f = new double[trailing * panelSize];
+        double[] aux = new double[panelSize];
+        boolean[] recompute = new boolean[numCols];
+        boolean needsRecompute = false;
+        
+        int factored = 0;
+        while (factored < panelSize && !needsRecompute) {
+            int col = offset + factored;
+            int row = col;
+            
+            //bring the column of largest remaining norm into position
+            int best = col;
+            for (int j = col + 1; j < numCols; j++) {
+                if (partialNorms[j] > partialNorms[best]) {
+                    best = j;
+                }
+            }
+            if (best != col) {
+                swapColumns(best, col);
+                for (int t = 0; t < factored; t++) {
+                    double tmp = f[t * trailing + best - offset];
+                    f[t * trailing + best - offset] = f[t * trailing + col - offset];
+                    f[t * trailing + col - offset] = tmp;
+                }
+                int tmpPivot = pivot[best];
+                pivot[best] = pivot[col];
+                pivot[col] = tmpPivot;
+                partialNorms[best] = partialNorms[col];
+                exactNorms[best] = exactNorms[col];
+            }
+            
+            //bring the pivot column up to date: A(row:m, col) -= V(row:m, 0:factored) F(col, 0:factored)^T
+            int colStart = col * numRows;
+            for (int t = 0; t < factored; t++) {
+                double weight = f[t * trailing + col - offset];
+                if (weight != 0) {
+                    int vStart = (offset + t) * numRows;
+                    for (int i = row; i < numRows; i++) {
+                        qr[colStart + i] -= qr[vStart + i] * weight;
+                    }
+                }
+            }
+            
+            //generate the reflector, then hold its implicit unit entry in place while it is used
+            tau[col] = householder(colStart, row);
+            double diagonal = qr[colStart + row];
+            qr[colStart + row] = 1;
+            
+            //F(col+1:n, factored) = tau * A(row:m, col+1:n)^T v
+            for (int j = col + 1; j < numCols; j++) {
+                int jStart = j * numRows;
+                double dot = 0;
+                for (int i = row; i < numRows; i++) {
+                    dot += qr[jStart + i] * qr[colStart + i];
+                }
+                f[factored * trailing + j - offset] = tau[col] * dot;
+            }
+            for (int j = offset; j <= col; j++) {
+                f[factored * trailing + j - offset] = 0;
+            }
+            
+            //F(:, factored) -= tau * F(:, 0:factored) V(row:m, 0:factored)^T v
+            if (factored > 0) {
+                for (int t = 0; t < factored; t++) {
+                    int vStart = (offset + t) * numRows;
+                    double dot = 0;
+                    for (int i = row; i < numRows; i++) {
+                        dot += qr[vStart + i] * qr[colStart + i];
+                    }
+                    aux[t] = -tau[col] * dot;
+                }
+                for (int r = 0; r < trailing; r++) {
+                    double sum = 0;
+                    for (int t = 0; t < factored; t++) {
+                        sum += f[t * trailing + r] * aux[t];
+                    }
+                    f[factored * trailing + r] += sum;
+                }
+            }
+            
+            //update the pivot row: A(row, col+1:n) -= V(row, 0:factored+1) F(col+1:n, 0:factored+1)^T
+            for (int j = col + 1; j < numCols; j++) {
+                double sum = 0;
+                for (int t = 0; t <= factored; t++) {
+                    sum += qr[(offset + t) * numRows + row] * f[t * trailing + j - offset];
+                }
+                qr[j * numRows + row] -= sum;
+            }
+            
+            //downdate the norms of the remaining columns by the entry just moved into R
+            if (row < numRows - 1) {
+                for (int j = col + 1; j < numCols; j++) {
+                    if (partialNorms[j] == 0) {
+                        continue;
+                    }
+                    double ratio = Math.abs(qr[j * numRows + row]) / partialNorms[j];
+                    double remaining = Math.max(0, (1 + ratio) * (1 - ratio));
+                    double drift = partialNorms[j] / exactNorms[j];
+                    if (remaining * drift * drift <= NORM_TOLERANCE) {
+                        recompute[j] = true;
+                        needsRecompute = true;
+                    } else {
+                        partialNorms[j] *= Math.sqrt(remaining);
+                    }
+                }
+            }
+            
+            qr[colStart + row] = diagonal;
+            factored++;
+        }
+        
+        //block update of the trailing matrix: A(r:m, c:n) -= V(r:m, panel) F(c:n, panel)^T
+        int next = offset + factored;
+        if (next < numReflectors) {
+            for (int j = next; j < numCols; j++) {
+                int jStart = j * numRows;
+                for (int t = 0; t < factored; t++) {
+                    double weight = f[t * trailing + j - offset];
+                    if (weight == 0) {
+                        continue;
+                    }
+                    int vStart = (offset + t) * numRows;
+                    for (int i = next; i < numRows; i++) {
+                        qr[jStart + i] -= qr[vStart + i] * weight;
+                    }
+                }
+            }
+        }
+        
+        if (needsRecompute) {
+            for (int j = next; j < numCols; j++) {
+                if (recompute[j]) {
+                    partialNorms[j] = columnNorm(j, next);
+                    exactNorms[j] = partialNorms[j];
+                }
+            }
+        }
+        return factored;
+    }
+    
+    /**
+     * Generate a Householder reflector H = I - tau v v^T with H x = (beta, 0, ..., 0)
+     * for x = A(row:m, column), storing beta on the diagonal and v(1:) below it
+     * @return tau, 0 if x is already a multiple of the first unit vector
+     */
+    private double householder(int columnStart, int row) {
+        double alpha = qr[columnStart + row];
+        double tailNorm = 0;
+        for (int i = row + 1; i < numRows; i++) {
+            tailNorm = Math.hypot(tailNorm, qr[columnStart + i]);
+        }
+        if (tailNorm == 0) {
+            return 0;
+        }
+        double beta = -Math.copySign(Math.hypot(alpha, tailNorm), alpha);
+        double scale = 1 / (alpha - beta);
+        for (int i = row + 1; i < numRows; i++) {
+            qr[columnStart + i] *= scale;
+        }
+        qr[columnStart + row] = beta;
+        return (beta - alpha) / beta;
+    }
+    
+    private double columnNorm(int column, int fromRow) {
+        double norm = 0;
+        int start = column * numRows;
+        for (int i = fromRow; i < numRows; i++) {
+            norm = Math.hypot(norm, qr[start + i]);
+        }
+        return norm;
+    }
+    
+    private void swapColumns(int first, int second) {
+        int firstStart = first * numRows;
+        int secondStart = second * numRows;
+        for (int i = 0; i < numRows; i++) {
+            double tmp = qr[firstStart + i];
+            qr[firstStart + i] = qr[secondStart + i];
+            qr[secondStart + i] = tmp;
+        }
+    }
+}
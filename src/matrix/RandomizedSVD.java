@@ -0,0 +1,242 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/*
+ * Truncated singular value decomposition A ~ U_k S_k V_k^T of the k largest singular
+ * triplets, by randomized range finding (Halko, Martinsson and Tropp):
+ *      1. Sketch Y = A W with a Gaussian n x l test matrix W, l = k + oversampling
+ *      2. Sharpen with power iterations Y = (A A^T)^q A W, re-orthonormalizing between
+ *         products so small singular directions are not lost to rounding
+ *      3. Orthonormalize Y = QR, so Q captures the dominant range of A
+ *      4. Compute the full SVD of the small l x n matrix B = Q^T A, and lift U = Q U_B
+ * Only products with A and A^T are needed, (2q + 2) blocks of l vectors each, and those
+ * are run through the operator's parallel block product. Dense and sparse matrices are
+ * both supported through LinearOperator.
+ */
+
+public class RandomizedSVD {
+    
+    private final static int DEFAULT_OVERSAMPLING = 10;
+    private final static int DEFAULT_POWER_ITERATIONS = 2;
+    // the error bound holds with probability at least 1 - 10^-PROBES
+    private final static int PROBES = 10;
+    
+    private final double[] singularValues;
+    // singular vectors stored as arrays of columns
+    private final double[][] left;
+    private final double[][] right;
+    private final double rangeError;
+    private final double truncationError;
+    
+    /**
+     * Decomposition with default oversampling and power iterations and a fixed seed
+     * @param matrix valid Matrix instance
+     * @param rank number of singular triplets, 1 <= rank <= min(m, n)
+     */
+    public RandomizedSVD(Matrix<BigDecimal> matrix, int rank) {
+        this(new DenseOperator(matrix), rank);
+    }
+    
+    /**
+     * Decomposition with default oversampling and power iterations and a fixed seed
+     * @param operator dense, sparse or implicit matrix
+     * @param rank number of singular triplets, 1 <= rank <= min(m, n)
+     */
+    public RandomizedSVD(LinearOperator operator, int rank) {
+        this(operator, rank, DEFAULT_OVERSAMPLING, DEFAULT_POWER_ITERATIONS, 0);
+    }
+    
+    /**
+     * @param operator dense, sparse or implicit matrix
+     * @param rank number of singular triplets, 1 <= rank <= min(m, n)
+     * @param oversampling extra sketch vectors, nonnegative; capped so that rank + oversampling <= min(m, n)
+     * @param powerIterations nonnegative number of multiplications by A A^T, more for slowly decaying spectra
+     * @param seed seed for the Gaussian test matrix
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public RandomizedSVD(LinearOperator operator, int rank, int oversampling, int powerIterations, long seed) {
+        int[] dimensions = operator.size();
+        int numRows = dimensions[0];
+        int numCols = dimensions[1];
+        int smaller = Math.min(numRows, numCols);
+        if (rank < 1 || rank > smaller) {
+            throw new IllegalArgumentException("Rank must be between 1 and " + smaller);
+        }
+        if (oversampling < 0 || powerIterations < 0) {
+            throw new IllegalArgumentException("Oversampling and power iterations must be nonnegative");
+        }
+        int sketch = Math.min(rank + oversampling, smaller);
+        Random random = new Random(seed);
+        
+        double[][] test = gaussian(sketch, numCols, random);
+        double[][] range = new double[sketch][numRows];
+        double[][] coRange = new double[sketch][numCols];
+        operator.applyBlock(test, range);
+        range = orthonormalize(range);
+        for (int q = 0; q < powerIterations; q++) {
+            operator.applyTransposeBlock(range, coRange);
+            coRange = orthonormalize(coRange);
+            operator.applyBlock(coRange, range);
+            range = orthonormalize(range);
+        }
+        
+        //the rows of B = Q^T A are the vectors A^T q_i
+        double[][] small = new double[sketch][numCols];
+        operator.applyTransposeBlock(range, small);
+        SingularValueDecomposition svd = new SingularValueDecomposition(small, false, true);
+        double[] values = svd.getSingularValues();
+        double[][] smallLeft = svd.leftVectors();
+        double[][] smallRight = svd.rightVectors();
+        
+        singularValues = new double[rank];
+        left = new double[rank][numRows];
+        right = new double[rank][numCols];
+        for (int k = 0; k < rank; k++) {
+            singularValues[k] = values[k];
+            for (int l = 0; l < sketch; l++) {
+                double factor = smallLeft[l][k];
+                double[] basis = range[l];
+                for (int i = 0; i < numRows; i++) {
+                    left[k][i] += factor * basis[i];
+                }
+            }
+            for (int j = 0; j < numCols; j++) {
+                right[k][j] = smallRight[j][k];
+            }
+        }
+        truncationError = rank < values.length ? values[rank] : 0;
+        rangeError = estimateRangeError(operator, range, random);
+    }
+    
+    /**
+     * @return the k largest singular values, in non-increasing order
+     */
+    public double[] getSingularValues() {
+        return singularValues.clone();
+    }
+    
+    /**
+     * @return left singular vectors as columns, m x k
+     */
+    public Matrix<BigDecimal> getU() {
+        return new BigDecimalMatrix(transpose(left));
+    }
+    
+    /**
+     * @return right singular vectors as columns, n x k
+     */
+    public Matrix<BigDecimal> getV() {
+        return new BigDecimalMatrix(transpose(right));
+    }
+    
+    /**
+     * @return diagonal k x k matrix of singular values
+     */
+    public Matrix<BigDecimal> getS() {
+        return new DiagonalMatrix(singularValues);
+    }
+    
+    /**
+     * @return U_k S_k V_k^T without forming it, as factors U_k S_k and V_k
+     */
+    public LowRankMatrix getApproximation() {
+        double[][] scaled = new double[left.length][];
+        for (int k = 0; k < left.length; k++) {
+            scaled[k] = new double[left[k].length];
+            IterativeSolver.axpy(singularValues[k], left[k], scaled[k]);
+        }
+        return new LowRankMatrix(left[0].length, right[0].length, scaled, right);
+    }
+    
+    /**
+     * @param index nonnegative index less than k
+     * @return copy of the index-th left singular vector, length m
+     */
+    public double[] getLeftVector(int index) {
+        return left[index].clone();
+    }
+    
+    /**
+     * @param index nonnegative index less than k
+     * @return copy of the index-th right singular vector, length n
+     */
+    public double[] getRightVector(int index) {
+        return right[index].clone();
+    }
+    
+    /**
+     * Probabilistic bound on the spectral norm of A - Q Q^T A, from PROBES random
+     * Gaussian vectors w as 10 sqrt(2 / pi) max ||(I - Q Q^T) A w||
+     * @return bound holding with probability at least 1 - 10^-10
+     */
+    public double rangeErrorBound() {
+        return rangeError;
+    }
+    
+    /**
+     * @return bound on the spectral norm of A - U_k S_k V_k^T, with the same probability
+     *         as rangeErrorBound(): the range error plus the first discarded singular value of Q^T A
+     */
+    public double errorBound() {
+        return rangeError + truncationError;
+    }
+    
+    private static double estimateRangeError(LinearOperator operator, double[][] range, Random random) {
+        int[] dimensions = operator.size();
+        double[][] probes = gaussian(PROBES, dimensions[1], random);
+        double[][] images = new double[PROBES][dimensions[0]];
+        operator.applyBlock(probes, images);
+        double largest = 0;
+        for (double[] image : images) {
+            for (double[] basis : range) {
+                double projection = dot(basis, image);
+                for (int i = 0; i < image.length; i++) {
+                    image[i] -= projection * basis[i];
+                }
+            }
+            largest = Math.max(largest, Math.sqrt(dot(image, image)));
+        }
+        return 10 * Math.sqrt(2 / Math.PI) * largest;
+    }
+    
+    /**
+     * @return count vectors of the given length with independent standard normal entries
+     */
+    private static double[][] gaussian(int count, int length, Random random) {
+        double[][] output = new double[count][length];
+        for (double[] vector : output) {
+            for (int i = 0; i < length; i++) {
+                vector[i] = random.nextGaussian();
+            }
+        }
+        return output;
+    }
+    
+    /**
+     * @param columns linearly independent vectors of equal length, at most that length many
+     * @return orthonormal vectors spanning the same space, by Householder QR
+     */
+    private static double[][] orthonormalize(double[][] columns) {
+        return transpose(new QRDecomposition(transpose(columns)).thinQ());
+    }
+    
+    private static double[][] transpose(double[][] entries) {
+        double[][] output = new double[entries[0].length][entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            for (int j = 0; j < entries[0].length; j++) {
+                output[j][i] = entries[i][j];
+            }
+        }
+        return output;
+    }
+    
+    private static double dot(double[] first, double[] second) {
+        double sum = 0;
+        for (int i = 0; i < first.length; i++) {
+            sum += first[i] * second[i];
+        }
+        return sum;
+    }
+}
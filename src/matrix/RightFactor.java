@@ -0,0 +1,19 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * A Matrix<BigDecimal> whose products with a matrix on its left run through its own
+ * storage rather than its entries one by one: diagonal and permutation matrices move or
+ * scale columns, packed and transform-based matrices multiply row by row, and factored
+ * or blocked matrices keep their structure. BigDecimalMatrix.multiply hands such
+ * operands the product.
+ */
+interface RightFactor {
+    
+    /**
+     * @param matr matrix with as many columns as this has rows
+     * @return matr * this
+     */
+    public Matrix<BigDecimal> multiplyLeft(Matrix<BigDecimal> matr);
+}
@@ -0,0 +1,98 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * Symmetric successive over-relaxation preconditioner. With A = L + D + U split into
+ * strictly lower, diagonal and strictly upper parts,
+ *      M = w / (2 - w) * (D / w + L) (D / w)^(-1) (D / w + U)
+ * so applying M^(-1) is one forward and one backward triangular sweep over the
+ * entries of A itself, with no extra storage beyond the diagonal positions.
+ * Symmetric whenever A is, so it may be used with ConjugateGradient.
+ */
+
+public class SSORPreconditioner implements Preconditioner {
+    
+    private final static double DEFAULT_RELAXATION = 1;
+    
+    private final int size;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] values;
+    // position of each diagonal entry in values
+    private final int[] diagonal;
+    private final double relaxation;
+    
+    /**
+     * Symmetric Gauss-Seidel preconditioner, relaxation parameter 1
+     * @param matrix square sparse matrix with nonzero diagonal
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws ArithmeticException if a diagonal entry is zero
+     */
+    public SSORPreconditioner(SparseMatrix matrix) {
+        this(matrix, DEFAULT_RELAXATION);
+    }
+    
+    /**
+     * @param matrix square sparse matrix with nonzero diagonal
+     * @param relaxation parameter w, strictly between 0 and 2
+     * @throws IncompatibleDimensionsException if matrix is not square
+     * @throws ArithmeticException if a diagonal entry is zero
+     * @throws IllegalArgumentException if relaxation is out of range
+     */
+    public SSORPreconditioner(SparseMatrix matrix, double relaxation) {
+        if (!(relaxation > 0 && relaxation < 2)) {
+            throw new IllegalArgumentException("Relaxation parameter must lie strictly between 0 and 2");
+        }
+        size = matrix.squareSize();
+        rowPointers = matrix.rowPointers();
+        columnIndices = matrix.columnIndices();
+        values = matrix.values();
+        this.relaxation = relaxation;
+        diagonal = new int[size];
+        for (int i = 0; i < size; i++) {
+            diagonal[i] = -1;
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                if (columnIndices[k] == i && values[k] != 0) {
+                    diagonal[i] = k;
+                }
+            }
+            if (diagonal[i] < 0) {
+                throw new ArithmeticException("Zero diagonal entry at " + i);
+            }
+        }
+    }
+    
+    /**
+     * @param matrix square Matrix instance with nonzero diagonal
+     * @param relaxation parameter w, strictly between 0 and 2
+     */
+    public SSORPreconditioner(Matrix<BigDecimal> matrix, double relaxation) {
+        this(new SparseMatrix(matrix), relaxation);
+    }
+    
+    @Override
+    public void apply(double[] r, double[] z) {
+        //forward sweep (D / w + L) y = r
+        for (int i = 0; i < size; i++) {
+            double sum = r[i];
+            for (int k = rowPointers[i]; k < diagonal[i]; k++) {
+                sum -= values[k] * z[columnIndices[k]];
+            }
+            z[i] = sum * relaxation / values[diagonal[i]];
+        }
+        //scale by (2 - w) / w * D / w
+        double scale = (2 - relaxation) / relaxation;
+        for (int i = 0; i < size; i++) {
+            z[i] *= scale * values[diagonal[i]] / relaxation;
+        }
+        //backward sweep (D / w + U) z = y
+        for (int i = size - 1; i >= 0; i--) {
+            double sum = z[i];
+            for (int k = diagonal[i] + 1; k < rowPointers[i + 1]; k++) {
+                sum -= values[k] * z[columnIndices[k]];
+            }
+            z[i] = sum * relaxation / values[diagonal[i]];
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/*
+ * Square matrix cI, a multiple of the identity, stored as its size and the single value
+ * c. Products with other matrices scale every entry in O(n^2), and products, sums and
+ * inverses of scalar matrices are scalar matrices computed in O(1).
+ */
+
+public class ScalarMatrix extends DiagonalMatrix {
+    
+    private final BigDecimal value;
+    
+    /**
+     * @param size positive number of rows and columns
+     * @param value entry on the diagonal
+     */
+    public ScalarMatrix(int size, BigDecimal value) {
+        super(size);
+        this.value = value;
+    }
+    
+    /**
+     * @param size positive number of rows and columns
+     * @param value entry on the diagonal
+     */
+    public ScalarMatrix(int size, double value) {
+        this(size, new BigDecimal(value));
+    }
+    
+    /**
+     * @return the entry on the diagonal
+     */
+    public BigDecimal getValue() {
+        return value;
+    }
+    
+    @Override
+    public BigDecimal getDiagonalElement(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Location out of bounds");
+        }
+        return value;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof ScalarMatrix) {
+            checkSameSize(matr, "addition");
+            return new ScalarMatrix(size, value.add(((ScalarMatrix)matr).value));
+        }
+        return super.add(matr);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof ScalarMatrix) {
+            checkSameSize(matr, "addition");
+            return new ScalarMatrix(size, value.subtract(((ScalarMatrix)matr).value));
+        }
+        return super.subtract(matr);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr instanceof ScalarMatrix) {
+            checkSameSize(matr, "multiplication");
+            return new ScalarMatrix(size, value.multiply(((ScalarMatrix)matr).value));
+        }
+        return super.multiply(matr);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        return new ScalarMatrix(size, value.multiply(new BigDecimal(element)));
+    }
+    
+    @Override
+    public BigDecimal determinant() {
+        return value.pow(size);
+    }
+    
+    @Override
+    public int rank() {
+        return value.signum() == 0 ? 0 : size;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        if (value.signum() == 0) {
+            throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+        }
+        return new ScalarMatrix(size, BigDecimal.ONE.divide(value, INVERSE_PRECISION));
+    }
+}
@@ -0,0 +1,392 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/*
+ * Singular value decomposition A = U S V^T of an m x n matrix, with singular values
+ * in non-increasing order.
+ *
+ * The matrix (or its transpose, whichever is tall) is first reduced by a column-pivoted
+ * QR decomposition to a square k x k triangle R, k = min(m, n), so the iterative part
+ * costs O(k^3) per sweep on top of the O(mn^2) reduction. One-sided Jacobi rotations are
+ * then applied to the rows of R until they are mutually orthogonal. Pairs are visited in
+ * round-robin tournament order, in which each round consists of k/2 disjoint pairs; in
+ * parallel mode the pairs of a round are rotated concurrently, with identical results.
+ *
+ * Thin mode gives U as m x k, S as k x k and V as n x k; full mode gives U as m x m,
+ * S as m x n and V as n x n.
+ */
+
+public class SingularValueDecomposition {
+    
+    private final static double EPSILON = Math.ulp(1.0);
+    private final static int MAX_SWEEPS = 60;
+    
+    private final double[][] u;
+    private final double[] singularValues;
+    private final double[][] v;
+    private final int numRows;
+    private final int numCols;
+    private final boolean full;
+    
+    /**
+     * Thin decomposition, computed sequentially
+     * @param matrix valid Matrix instance
+     */
+    public SingularValueDecomposition(Matrix<BigDecimal> matrix) {
+        this(matrix, false, false);
+    }
+    
+    /**
+     * @param matrix valid Matrix instance
+     * @param full true for square U and V, false for the thin decomposition
+     * @param parallel true to rotate the disjoint pairs of each Jacobi round concurrently
+     */
+    public SingularValueDecomposition(Matrix<BigDecimal> matrix, boolean full, boolean parallel) {
+        this(BigDecimalMatrix.toArray(matrix), full, parallel);
+    }
+    
+    /**
+     * @param entries row-major array, must be nonempty and rectangular
+     * @param full true for square U and V, false for the thin decomposition
+     * @param parallel true to rotate the disjoint pairs of each Jacobi round concurrently
+     * @throws ArithmeticException if the Jacobi sweeps do not converge
+     */
+    public SingularValueDecomposition(double[][] entries, boolean full, boolean parallel) {
+        numRows = entries.length;
+        numCols = entries[0].length;
+        this.full = full;
+        
+        boolean transposed = numRows < numCols;
+        double[][] tall = transposed ? transpose(entries) : entries;
+        int tallRows = tall.length;
+        int size = tall[0].length;
+        
+        QRDecomposition qr = new QRDecomposition(tall);
+        double[][] r = qr.upperTriangle();
+        int[] pivot = qr.getPivot();
+        
+        //Jacobi on the columns of R^T, i.e. the rows of R: R^T J = W with orthogonal columns,
+        //so R = J S X^T where S holds the column norms of W and X its normalized columns
+        double[][] columns = new double[size][];
+        double[][] rotations = new double[size][size];
+        for (int j = 0; j < size; j++) {
+            columns[j] = r[j].clone();
+            rotations[j][j] = 1;
+        }
+        jacobi(columns, rotations, parallel);
+        
+        double[] norms = new double[size];
+        for (int j = 0; j < size; j++) {
+            norms[j] = Math.sqrt(dot(columns[j], columns[j]));
+        }
+        Integer[] order = new Integer[size];
+        for (int j = 0; j < size; j++) {
+            order[j] = j;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(norms[b], norms[a]));
+        
+        singularValues = new double[size];
+        double[][] leftSmall = new double[size][size];
+        double[][] rightSmall = new double[size][size];
+        int independent = 0;
+        for (int idx = 0; idx < size; idx++) {
+            int j = order[idx];
+            singularValues[idx] = norms[j];
+            for (int i = 0; i < size; i++) {
+                leftSmall[i][idx] = rotations[j][i];
+            }
+            if (norms[j] > size * EPSILON * norms[order[0]]) {
+                for (int i = 0; i < size; i++) {
+                    rightSmall[i][idx] = columns[j][i] / norms[j];
+                }
+                independent++;
+            }
+        }
+        completeBasis(rightSmall, independent);
+        
+        //tall = Q R P^T = (Q J) S (P X)^T
+        double[][] q = qr.formQ(full ? tallRows : size);
+        double[][] tallLeft = new double[tallRows][q[0].length];
+        for (int i = 0; i < tallRows; i++) {
+            for (int l = 0; l < size; l++) {
+                double factor = q[i][l];
+                if (factor == 0) {
+                    continue;
+                }
+                for (int j = 0; j < size; j++) {
+                    tallLeft[i][j] += factor * leftSmall[l][j];
+                }
+            }
+            for (int j = size; j < q[0].length; j++) {
+                tallLeft[i][j] = q[i][j];
+            }
+        }
+        double[][] tallRight = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            tallRight[pivot[i]] = rightSmall[i];
+        }
+        
+        if (transposed) {
+            u = tallRight;
+            v = tallLeft;
+        } else {
+            u = tallLeft;
+            v = tallRight;
+        }
+    }
+    
+    /**
+     * @return the singular values in non-increasing order, min(m, n) of them
+     */
+    public double[] getSingularValues() {
+        return singularValues.clone();
+    }
+    
+    /**
+     * @return left singular vectors as columns, m x min(m, n) or m x m in full mode
+     */
+    public Matrix<BigDecimal> getU() {
+        return new BigDecimalMatrix(u);
+    }
+    
+    /**
+     * @return right singular vectors as columns, n x min(m, n) or n x n in full mode
+     */
+    public Matrix<BigDecimal> getV() {
+        return new BigDecimalMatrix(v);
+    }
+    
+    /**
+     * @return left singular vectors as columns of a row-major array, not copied
+     */
+    double[][] leftVectors() {
+        return u;
+    }
+    
+    /**
+     * @return right singular vectors as columns of a row-major array, not copied
+     */
+    double[][] rightVectors() {
+        return v;
+    }
+    
+    /**
+     * @return diagonal matrix of singular values, min(m, n) square or m x n in full mode
+     */
+    public Matrix<BigDecimal> getS() {
+        int rows = full ? numRows : singularValues.length;
+        int cols = full ? numCols : singularValues.length;
+        if (rows == cols) {
+            return new DiagonalMatrix(singularValues);
+        }
+        double[][] s = new double[rows][cols];
+        for (int i = 0; i < singularValues.length; i++) {
+            s[i][i] = singularValues[i];
+        }
+        return new BigDecimalMatrix(s);
+    }
+    
+    /**
+     * @return numerical rank, counting singular values larger than
+     *         max(m, n) * machine epsilon relative to the largest one
+     */
+    public int rank() {
+        return rank(Math.max(numRows, numCols) * EPSILON);
+    }
+    
+    /**
+     * @param tolerance relative threshold, nonnegative
+     * @return number of singular values greater than tolerance times the largest
+     */
+    public int rank(double tolerance) {
+        double threshold = tolerance * singularValues[0];
+        int rank = 0;
+        while (rank < singularValues.length && singularValues[rank] > threshold) {
+            rank++;
+        }
+        return rank;
+    }
+    
+    /**
+     * @return the spectral norm, i.e. the largest singular value
+     */
+    public double norm() {
+        return singularValues[0];
+    }
+    
+    /**
+     * @return ratio of largest to smallest singular value, infinite if the matrix is
+     *         numerically rank deficient in the sense of rank()
+     */
+    public double conditionNumber() {
+        if (rank() < singularValues.length) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return singularValues[0] / singularValues[singularValues.length - 1];
+    }
+    
+    /**
+     * Moore-Penrose pseudo-inverse V S^+ U^T, inverting only the singular values counted by rank()
+     * @return n x m pseudo-inverse
+     */
+    public Matrix<BigDecimal> pseudoInverse() {
+        int rank = rank();
+        double[][] output = new double[numCols][numRows];
+        for (int k = 0; k < rank; k++) {
+            double inverse = 1 / singularValues[k];
+            for (int i = 0; i < numCols; i++) {
+                double factor = v[i][k] * inverse;
+                if (factor == 0) {
+                    continue;
+                }
+                for (int j = 0; j < numRows; j++) {
+                    output[i][j] += factor * u[j][k];
+                }
+            }
+        }
+        return new BigDecimalMatrix(output);
+    }
+    
+    /**
+     * Best approximation of the given rank in both the spectral and Frobenius norms
+     * @param rank number of singular triplets to keep, 0 <= rank <= min(m, n)
+     * @return m x n matrix U_k S_k V_k^T, held as its factors U_k S_k and V_k
+     * @throws IllegalArgumentException if rank is out of range
+     */
+    public LowRankMatrix lowRankApproximation(int rank) {
+        if (rank < 0 || rank > singularValues.length) {
+            throw new IllegalArgumentException("Rank must be between 0 and " + singularValues.length);
+        }
+        double[][] left = new double[rank][numRows];
+        double[][] right = new double[rank][numCols];
+        for (int k = 0; k < rank; k++) {
+            for (int i = 0; i < numRows; i++) {
+                left[k][i] = u[i][k] * singularValues[k];
+            }
+            for (int j = 0; j < numCols; j++) {
+                right[k][j] = v[j][k];
+            }
+        }
+        return new LowRankMatrix(numRows, numCols, left, right);
+    }
+    
+    /**
+     * Rotate pairs of columns until all pairs are orthogonal to working precision,
+     * applying the same rotations to the columns of rotations
+     * @throws ArithmeticException if MAX_SWEEPS sweeps do not suffice
+     */
+    private static void jacobi(double[][] columns, double[][] rotations, boolean parallel) {
+        int size = columns.length;
+        double tolerance = size * EPSILON;
+        //pad to an even number of players with a dummy index that never rotates
+        int players = size + (size % 2);
+        int[] order = new int[players];
+        for (int j = 0; j < players; j++) {
+            order[j] = j;
+        }
+        
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            int rotated = 0;
+            for (int round = 0; round < players - 1; round++) {
+                int[] current = order.clone();
+                IntStream pairs = IntStream.range(0, players / 2);
+                if (parallel) {
+                    pairs = pairs.parallel();
+                }
+                rotated += pairs.map(i -> rotate(columns, rotations, current[i], current[players - 1 - i], tolerance)).sum();
+                
+                //keep the first player fixed and cycle the rest
+                int last = order[players - 1];
+                System.arraycopy(order, 1, order, 2, players - 2);
+                if (players > 1) {
+                    order[1] = last;
+                }
+            }
+            if (rotated == 0) {
+                return;
+            }
+        }
+        throw new ArithmeticException("Jacobi sweeps did not converge");
+    }
+    
+    /**
+     * @return 1 if columns p and q were rotated, 0 if they were already orthogonal
+     */
+    private static int rotate(double[][] columns, double[][] rotations, int p, int q, double tolerance) {
+        if (p >= columns.length || q >= columns.length) {
+            return 0;
+        }
+        double[] first = columns[p];
+        double[] second = columns[q];
+        double alpha = dot(first, first);
+        double beta = dot(second, second);
+        double gamma = dot(first, second);
+        if (gamma == 0 || Math.abs(gamma) <= tolerance * Math.sqrt(alpha * beta)) {
+            return 0;
+        }
+        
+        double zeta = (beta - alpha) / (2 * gamma);
+        double t = Math.copySign(1, zeta) / (Math.abs(zeta) + Math.hypot(1, zeta));
+        double c = 1 / Math.sqrt(1 + t * t);
+        double s = c * t;
+        applyRotation(first, second, c, s);
+        applyRotation(rotations[p], rotations[q], c, s);
+        return 1;
+    }
+    
+    private static void applyRotation(double[] first, double[] second, double c, double s) {
+        for (int i = 0; i < first.length; i++) {
+            double x = first[i];
+            double y = second[i];
+            first[i] = c * x - s * y;
+            second[i] = s * x + c * y;
+        }
+    }
+    
+    /**
+     * Replace columns independent..k-1 of a k x k matrix whose leading columns are
+     * orthonormal with an orthonormal basis of their complement
+     */
+    private static void completeBasis(double[][] basis, int independent) {
+        int size = basis.length;
+        if (independent == size) {
+            return;
+        }
+        if (independent == 0) {
+            for (int i = 0; i < size; i++) {
+                Arrays.fill(basis[i], 0);
+                basis[i][i] = 1;
+            }
+            return;
+        }
+        double[][] leading = new double[size][independent];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(basis[i], 0, leading[i], 0, independent);
+        }
+        double[][] q = new QRDecomposition(leading).formQ(size);
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(q[i], independent, basis[i], independent, size - independent);
+        }
+    }
+    
+    private static double dot(double[] first, double[] second) {
+        double sum = 0;
+        for (int i = 0; i < first.length; i++) {
+            sum += first[i] * second[i];
+        }
+        return sum;
+    }
+    
+    private static double[][] transpose(double[][] entries) {
+        double[][] output = new double[entries[0].length][entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            for (int j = 0; j < entries[0].length; j++) {
+                output[j][i] = entries[i][j];
+            }
+        }
+        return output;
+    }
+}
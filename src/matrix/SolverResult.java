@@ -0,0 +1,61 @@
+package matrix;
+
+/*
+ * Outcome of an iterative linear solve: the final iterate, whether it met the
+ * requested tolerance, and the relative residual ||b - A x|| / ||b|| recorded
+ * before the first iteration and after each one.
+ */
+
+public final class SolverResult {
+    
+    private final double[] solution;
+    private final boolean converged;
+    private final double[] residualHistory;
+    
+    SolverResult(double[] solution, boolean converged, double[] residualHistory) {
+        this.solution = solution;
+        this.converged = converged;
+        this.residualHistory = residualHistory;
+    }
+    
+    /**
+     * @return the final iterate, the solution if isConverged()
+     */
+    public double[] getSolution() {
+        return solution.clone();
+    }
+    
+    /**
+     * @return true iff the relative residual fell below the tolerance
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+    
+    /**
+     * @return number of iterations performed
+     */
+    public int getIterations() {
+        return residualHistory.length - 1;
+    }
+    
+    /**
+     * @return relative residual norms, entry 0 for the initial guess and entry k after iteration k
+     */
+    public double[] getResidualHistory() {
+        return residualHistory.clone();
+    }
+    
+    /**
+     * @return the last recorded relative residual norm
+     */
+    public double getRelativeResidual() {
+        return residualHistory[residualHistory.length - 1];
+    }
+    
+    @Override
+    public String toString() {
+        return (converged ? "converged" : "did not converge") + " after " + getIterations()
+                + " iterations, relative residual " + getRelativeResidual();
+    }
+}
@@ -0,0 +1,258 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/*
+ * Immutable real sparse matrix in compressed sparse row (CSR) form.
+ * The column indices and values of row i occupy positions rowPointers[i] up to
+ * rowPointers[i + 1] of the index and value arrays, in increasing column order.
+ * Storage is O(m + nnz) and a matrix-vector product costs O(nnz).
+ */
+
+public class SparseMatrix implements LinearOperator {
+    
+    private final int numRows;
+    private final int numCols;
+    private final int[] rowPointers;
+    private final int[] columnIndices;
+    private final double[] values;
+    
+    /**
+     * Build from coordinate triplets; entries given more than once are summed
+     * @param numRows positive number of rows
+     * @param numCols positive number of columns
+     * @param rows row index of each entry
+     * @param columns column index of each entry
+     * @param entries value of each entry
+     * @throws IncompatibleDimensionsException if the triplet arrays differ in length
+     * @throws IndexOutOfBoundsException if an index lies outside the matrix
+     */
+    public SparseMatrix(int numRows, int numCols, int[] rows, int[] columns, double[] entries) {
+        if (rows.length != columns.length || rows.length != entries.length) {
+            throw new IncompatibleDimensionsException("Triplet arrays must have equal length");
+        }
+        this.numRows = numRows;
+        this.numCols = numCols;
+        
+        //counting sort by row, then sort each row by column and merge duplicates
+        int[] counts = new int[numRows + 1];
+        for (int k = 0; k < rows.length; k++) {
+            if (rows[k] < 0 || rows[k] >= numRows || columns[k] < 0 || columns[k] >= numCols) {
+                throw new IndexOutOfBoundsException("Entry (" + rows[k] + ", " + columns[k] + ") out of range");
+            }
+            counts[rows[k] + 1]++;
+        }
+        for (int i = 0; i < numRows; i++) {
+            counts[i + 1] += counts[i];
+        }
+        int[] next = Arrays.copyOf(counts, numRows);
+        long[] keyed = new long[rows.length];
+        double[] sorted = new double[rows.length];
+        int[] slots = new int[rows.length];
+        for (int k = 0; k < rows.length; k++) {
+            slots[k] = next[rows[k]]++;
+            keyed[slots[k]] = ((long)columns[k] << 32) | slots[k];
+        }
+        for (int k = 0; k < rows.length; k++) {
+            sorted[slots[k]] = entries[k];
+        }
+        
+        int[] pointers = new int[numRows + 1];
+        int[] indices = new int[rows.length];
+        double[] data = new double[rows.length];
+        int size = 0;
+        for (int i = 0; i < numRows; i++) {
+            Arrays.sort(keyed, counts[i], counts[i + 1]);
+            for (int k = counts[i]; k < counts[i + 1]; k++) {
+                int column = (int)(keyed[k] >>> 32);
+                double value = sorted[(int)keyed[k]];
+                if (size > pointers[i] && indices[size - 1] == column) {
+                    data[size - 1] += value;
+                } else {
+                    indices[size] = column;
+                    data[size] = value;
+                    size++;
+                }
+            }
+            pointers[i + 1] = size;
+        }
+        rowPointers = pointers;
+        columnIndices = Arrays.copyOf(indices, size);
+        values = Arrays.copyOf(data, size);
+    }
+    
+    /**
+     * Build from a dense array, keeping only its nonzero entries
+     * @param entries row-major array, must be nonempty and rectangular
+     */
+    public SparseMatrix(double[][] entries) {
+        numRows = entries.length;
+        numCols = entries[0].length;
+        rowPointers = new int[numRows + 1];
+        int count = 0;
+        for (double[] row : entries) {
+            for (double value : row) {
+                if (value != 0) {
+                    count++;
+                }
+            }
+        }
+        columnIndices = new int[count];
+        values = new double[count];
+        int size = 0;
+        for (int i = 0; i < numRows; i++) {
+            for (int j = 0; j < numCols; j++) {
+                if (entries[i][j] != 0) {
+                    columnIndices[size] = j;
+                    values[size] = entries[i][j];
+                    size++;
+                }
+            }
+            rowPointers[i + 1] = size;
+        }
+    }
+    
+    /**
+     * Build from a matrix with BigDecimal entries, keeping only its nonzero entries
+     * @param matrix valid Matrix instance
+     */
+    public SparseMatrix(Matrix<BigDecimal> matrix) {
+        this(BigDecimalMatrix.toArray(matrix));
+    }
+    
+    @Override
+    public int[] size() {
+        int[] dimensions = {numRows, numCols};
+        return dimensions;
+    }
+    
+    /**
+     * @return number of stored entries
+     */
+    public int nonZeros() {
+        return values.length;
+    }
+    
+    /**
+     * @return number of rows of a square matrix
+     * @throws IncompatibleDimensionsException if the matrix is not square
+     */
+    int squareSize() throws IncompatibleDimensionsException {
+        if (numRows != numCols) {
+            throw new IncompatibleDimensionsException("Matrix must be square");
+        }
+        return numRows;
+    }
+    
+    /**
+     * @return CSR row pointers, length m + 1, not copied
+     */
+    int[] rowPointers() {
+        return rowPointers;
+    }
+    
+    /**
+     * @return CSR column indices, sorted within each row, not copied
+     */
+    int[] columnIndices() {
+        return columnIndices;
+    }
+    
+    /**
+     * @return CSR values, not copied
+     */
+    double[] values() {
+        return values;
+    }
+    
+    /**
+     * @param row nonnegative integer value
+     * @param column nonnegative integer value
+     * @return entry at [row, column], found by binary search within the row
+     * @throws IndexOutOfBoundsException if row or column out of range
+     */
+    public double getElement(int row, int column) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= numRows || column < 0 || column >= numCols) {
+            throw new IndexOutOfBoundsException("Index (" + row + ", " + column + ") out of range");
+        }
+        int position = Arrays.binarySearch(columnIndices, rowPointers[row], rowPointers[row + 1], column);
+        return position >= 0 ? values[position] : 0;
+    }
+    
+    @Override
+    public void apply(double[] x, double[] y) {
+        for (int i = 0; i < numRows; i++) {
+            y[i] = rowProduct(i, x);
+        }
+    }
+    
+    /**
+     * Rows are independent, so they are split across threads with identical results
+     */
+    @Override
+    public void applyParallel(double[] x, double[] y) {
+        IntStream.range(0, numRows).parallel().forEach(i -> y[i] = rowProduct(i, x));
+    }
+    
+    private double rowProduct(int row, double[] x) {
+        double sum = 0;
+        for (int k = rowPointers[row]; k < rowPointers[row + 1]; k++) {
+            sum += values[k] * x[columnIndices[k]];
+        }
+        return sum;
+    }
+    
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        Arrays.fill(y, 0, numCols, 0);
+        for (int i = 0; i < numRows; i++) {
+            double factor = x[i];
+            if (factor == 0) {
+                continue;
+            }
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                y[columnIndices[k]] += values[k] * factor;
+            }
+        }
+    }
+    
+    /**
+     * @return the transpose, also in CSR form
+     */
+    public SparseMatrix transpose() {
+        int[] rows = new int[values.length];
+        for (int i = 0; i < numRows; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                rows[k] = i;
+            }
+        }
+        return new SparseMatrix(numCols, numRows, columnIndices, rows, values);
+    }
+    
+    /**
+     * @return dense copy with BigDecimal entries
+     */
+    public Matrix<BigDecimal> toDense() {
+        double[][] dense = new double[numRows][numCols];
+        for (int i = 0; i < numRows; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                dense[i][columnIndices[k]] = values[k];
+            }
+        }
+        return new BigDecimalMatrix(dense);
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder output = new StringBuilder();
+        output.append(numRows + " x " + numCols + ", " + values.length + " nonzeros\n");
+        for (int i = 0; i < numRows; i++) {
+            for (int k = rowPointers[i]; k < rowPointers[i + 1]; k++) {
+                output.append("(" + i + ", " + columnIndices[k] + ")\t" + values[k] + "\n");
+            }
+        }
+        return output.toString();
+    }
+}
@@ -0,0 +1,198 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Base of the square matrices stored in less than n^2 space, such as diagonal,
+ * permutation and packed triangular matrices. Subclasses supply their entries and the
+ * operations their structure makes cheap; everything else, and equality and hashing,
+ * goes through the equivalent dense BigDecimalMatrix so that structured and dense
+ * matrices with the same entries are interchangeable.
+ *
+ * Packed triangles keep the lower triangle row by row and the upper triangle column by
+ * column (LAPACK's packed upper storage), so entry (i, j) and entry (j, i) share a
+ * position and a triangle and its transpose share one array.
+ */
+
+abstract class StructuredMatrix implements Matrix<BigDecimal>, RightFactor {
+    
+    protected final int size;
+    
+    protected StructuredMatrix(int size) {
+        if (size <= 0) {
+            throw new IncompatibleDimensionsException("Matrix must have nonzero dimensions");
+        }
+        this.size = size;
+    }
+    
+    /**
+     * @return dense matrix with the same entries
+     */
+    public BigDecimalMatrix toDense() {
+        BigDecimal[][] entries = new BigDecimal[size][];
+        for (int i = 0; i < size; i++) {
+            entries[i] = getRow(i);
+        }
+        return new BigDecimalMatrix(entries);
+    }
+    
+    /**
+     * @param size number of rows and columns of the triangle
+     * @return length of a packed triangle, n (n + 1) / 2
+     * @throws IncompatibleDimensionsException if the triangle does not fit in one array
+     */
+    static int packedLength(int size) {
+        long length = (long)size * (size + 1) / 2;
+        if (length > Integer.MAX_VALUE) {
+            throw new IncompatibleDimensionsException("Packed triangle of size " + size + " too large");
+        }
+        return (int)length;
+    }
+    
+    /**
+     * @return position of entry (row, column) in a packed triangle, the same for (column, row)
+     */
+    static int packedIndex(int row, int column) {
+        int outer = Math.max(row, column);
+        return (int)((long)outer * (outer + 1) / 2) + Math.min(row, column);
+    }
+    
+    /**
+     * By default through the equivalent dense matrix; subclasses whose structure makes the
+     * product cheap override this
+     * @param matr matrix with as many columns as this has rows
+     * @return matr * this
+     */
+    @Override
+    public Matrix<BigDecimal> multiplyLeft(Matrix<BigDecimal> matr) {
+        return matr.multiply(toDense());
+    }
+    
+    /**
+     * @throws IndexOutOfBoundsException if row or column is out of range
+     */
+    protected void checkIndices(int row, int column) {
+        if (row < 0 || row >= size || column < 0 || column >= size) {
+            throw new IndexOutOfBoundsException("Location out of bounds");
+        }
+    }
+    
+    /**
+     * @throws IncompatibleDimensionsException if matr is not size x size
+     */
+    protected void checkSameSize(Matrix<BigDecimal> matr, String operation) {
+        int[] thatSize = matr.size();
+        if (thatSize[0] != size || thatSize[1] != size) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for " + operation);
+        }
+    }
+    
+    @Override
+    public int[] size() {
+        int[] dimensions = {size, size};
+        return dimensions;
+    }
+    
+    @Override
+    public BigDecimal[] getRow(int row) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row index out of bounds");
+        }
+        BigDecimal[] currentRow = new BigDecimal[size];
+        for (int j = 0; j < size; j++) {
+            currentRow[j] = getElement(row, j);
+        }
+        return currentRow;
+    }
+    
+    @Override
+    public BigDecimal[] getColumn(int column) throws IndexOutOfBoundsException {
+        if (column < 0 || column >= size) {
+            throw new IndexOutOfBoundsException("Column index out of bounds");
+        }
+        BigDecimal[] currentColumn = new BigDecimal[size];
+        for (int i = 0; i < size; i++) {
+            currentColumn[i] = getElement(i, column);
+        }
+        return currentColumn;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return toDense().add(matr);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return toDense().subtract(matr);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> rref() {
+        return toDense().rref();
+    }
+    
+    @Override
+    public Matrix<BigDecimal> minor(int row, int column) throws IndexOutOfBoundsException, IncompatibleDimensionsException {
+        return toDense().minor(row, column);
+    }
+    
+    @Override
+    public int nullity() {
+        return size - rank();
+    }
+    
+    @Override
+    public Set<Matrix<BigDecimal>> nullspace() {
+        return toDense().nullspace();
+    }
+    
+    @Override
+    public Map<Complex, Set<Matrix<Complex>>> eigenMap() throws IncompatibleDimensionsException {
+        return toDense().eigenMap();
+    }
+    
+    @Override
+    public Set<Matrix<Complex>> eigenvectors(Complex eigenvalue) throws IncompatibleDimensionsException {
+        return toDense().eigenvectors(eigenvalue);
+    }
+    
+    @Override
+    public boolean rowNotZero(int row) {
+        for (int j = 0; j < size; j++) {
+            if (getElement(row, j).signum() != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> stack(Matrix<BigDecimal> bottom) throws IncompatibleDimensionsException {
+        return toDense().stack(bottom);
+    }
+    
+    @Override
+    public String toString() {
+        return toDense().toString();
+    }
+    
+    /**
+     * Equal to any Matrix with the same dimensions and elements, as rounded by
+     * BigDecimalMatrix.equals
+     */
+    @Override
+    public boolean equals(Object that) {
+        return toDense().equals(that);
+    }
+    
+    /**
+     * Same as the hash code of the equal BigDecimalMatrix, without forming it
+     */
+    @Override
+    public int hashCode() {
+        return BigDecimalMatrix.contentHash(this);
+    }
+}
@@ -0,0 +1,260 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/*
+ * Square symmetric matrix holding only its upper triangle, n (n + 1) / 2 doubles in
+ * LAPACK's packed upper storage. Products read each stored entry once and use it for
+ * both of the positions it stands for, sums and scalings of symmetric matrices stay
+ * symmetric, and symmetric rank-k updates C + alpha A A^T compute only the upper
+ * triangle, half the flops of the general product.
+ */
+
+public class SymmetricMatrix extends StructuredMatrix implements LinearOperator {
+    
+    // relative tolerance for symmetry, scaled by the largest entry
+    final static double SYMMETRY_ERROR = Math.pow(10, -10);
+    
+    private final double[] packed;
+    
+    /**
+     * @param entries row-major symmetric array, must be nonempty
+     * @throws IncompatibleDimensionsException if entries is not square or not symmetric
+     */
+    public SymmetricMatrix(double[][] entries) {
+        this(new double[packedLength(entries.length)], entries.length);
+        checkSymmetric(entries);
+        for (int j = 0; j < size; j++) {
+            for (int i = 0; i <= j; i++) {
+                packed[packedIndex(i, j)] = entries[i][j];
+            }
+        }
+    }
+    
+    /**
+     * @param matrix valid symmetric Matrix instance
+     * @throws IncompatibleDimensionsException if matrix is not square or not symmetric
+     */
+    public SymmetricMatrix(Matrix<BigDecimal> matrix) {
+        this(BigDecimalMatrix.toArray(matrix));
+    }
+    
+    /**
+     * @param packed upper triangle in packed storage, kept
+     */
+    SymmetricMatrix(double[] packed, int size) {
+        super(size);
+        this.packed = packed;
+    }
+    
+    /**
+     * Shared with CholeskyDecomposition
+     * @param entries row-major array
+     * @throws IncompatibleDimensionsException if entries is not square or not symmetric
+     */
+    static void checkSymmetric(double[][] entries) {
+        for (double[] row : entries) {
+            if (row.length != entries.length) {
+                throw new IncompatibleDimensionsException("Matrix must be square");
+            }
+        }
+        if (!isSymmetric(entries)) {
+            throw new IncompatibleDimensionsException("Matrix must be symmetric");
+        }
+    }
+    
+    /**
+     * @param entries square row-major array
+     * @return true iff entries is symmetric to within SYMMETRY_ERROR relative to its largest entry
+     */
+    static boolean isSymmetric(double[][] entries) {
+        double largest = 0;
+        for (double[] row : entries) {
+            for (double value : row) {
+                largest = Math.max(largest, Math.abs(value));
+            }
+        }
+        double tolerance = SYMMETRY_ERROR * largest;
+        for (int i = 0; i < entries.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (Math.abs(entries[i][j] - entries[j][i]) > tolerance) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        checkIndices(row, column);
+        return new BigDecimal(packed[packedIndex(row, column)]);
+    }
+    
+    /**
+     * Each off-diagonal entry of the upper triangle contributes to two entries of y
+     */
+    @Override
+    public void apply(double[] x, double[] y) {
+        Arrays.fill(y, 0, size, 0);
+        for (int j = 0; j < size; j++) {
+            int column = packedIndex(0, j);
+            double factor = x[j];
+            double sum = 0;
+            for (int i = 0; i < j; i++) {
+                y[i] += packed[column + i] * factor;
+                sum += packed[column + i] * x[i];
+            }
+            y[j] += sum + packed[column + j] * factor;
+        }
+    }
+    
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        apply(x, y);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, 1);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, -1);
+    }
+    
+    /**
+     * @return this + sign * matr, symmetric when matr is symmetric
+     */
+    private Matrix<BigDecimal> combine(Matrix<BigDecimal> matr, int sign) {
+        checkSameSize(matr, "addition");
+        if (matr instanceof SymmetricMatrix) {
+            double[] other = ((SymmetricMatrix)matr).packed;
+            double[] sum = new double[packed.length];
+            for (int k = 0; k < packed.length; k++) {
+                sum[k] = packed[k] + sign * other[k];
+            }
+            return new SymmetricMatrix(sum, size);
+        }
+        return sign > 0 ? super.add(matr) : super.subtract(matr);
+    }
+    
+    /**
+     * Each stored entry a_ij, i < j, adds a_ij times row j of matr to row i of the product
+     * and a_ij times row i to row j
+     */
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr.size()[0] != size) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        double[][] other = BigDecimalMatrix.toArray(matr);
+        int columns = other[0].length;
+        double[][] product = new double[size][columns];
+        for (int j = 0; j < size; j++) {
+            int column = packedIndex(0, j);
+            for (int i = 0; i <= j; i++) {
+                double factor = packed[column + i];
+                if (factor == 0) {
+                    continue;
+                }
+                for (int c = 0; c < columns; c++) {
+                    product[i][c] += factor * other[j][c];
+                }
+                for (int c = 0; i < j && c < columns; c++) {
+                    product[j][c] += factor * other[i][c];
+                }
+            }
+        }
+        return new BigDecimalMatrix(product);
+    }
+    
+    /**
+     * @param matr matrix with as many columns as this has rows
+     * @return matr * this, each row of matr multiplied by the packed triangle
+     */
+    @Override
+    public Matrix<BigDecimal> multiplyLeft(Matrix<BigDecimal> matr) {
+        double[][] other = BigDecimalMatrix.toArray(matr);
+        double[][] product = new double[other.length][size];
+        for (int r = 0; r < other.length; r++) {
+            //row r of the product is (this * row r of matr)^T
+            apply(other[r], product[r]);
+        }
+        return new BigDecimalMatrix(product);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        double[] scaled = new double[packed.length];
+        for (int k = 0; k < packed.length; k++) {
+            scaled[k] = packed[k] * element;
+        }
+        return new SymmetricMatrix(scaled, size);
+    }
+    
+    /**
+     * Symmetric rank-k update
+     * @param matr n x k matrix A
+     * @param alpha scale of the update
+     * @return this + alpha A A^T, computing only its upper triangle
+     * @throws IncompatibleDimensionsException if matr does not have n rows
+     */
+    public SymmetricMatrix rankUpdate(Matrix<BigDecimal> matr, double alpha) throws IncompatibleDimensionsException {
+        return rankUpdate(BigDecimalMatrix.toArray(matr), alpha);
+    }
+    
+    /**
+     * Symmetric rank-k update
+     * @param a row-major n x k array A, not modified
+     * @param alpha scale of the update
+     * @return this + alpha A A^T, computing only its upper triangle
+     * @throws IncompatibleDimensionsException if a does not have n rows
+     */
+    public SymmetricMatrix rankUpdate(double[][] a, double alpha) throws IncompatibleDimensionsException {
+        if (a.length != size) {
+            throw new IncompatibleDimensionsException("Update must have " + size + " rows");
+        }
+        double[] updated = packed.clone();
+        for (int j = 0; j < size; j++) {
+            int column = packedIndex(0, j);
+            double[] rowJ = a[j];
+            for (int i = 0; i <= j; i++) {
+                double[] rowI = a[i];
+                double sum = 0;
+                for (int p = 0; p < rowJ.length; p++) {
+                    sum += rowI[p] * rowJ[p];
+                }
+                updated[column + i] += alpha * sum;
+            }
+        }
+        return new SymmetricMatrix(updated, size);
+    }
+    
+    @Override
+    public BigDecimal determinant() {
+        return toDense().determinant();
+    }
+    
+    @Override
+    public int rank() {
+        return toDense().rank();
+    }
+    
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        return toDense().inverse();
+    }
+    
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        return this;
+    }
+    
+    @Override
+    public Complex[] eigenvalues() {
+        return toDense().eigenvalues();
+    }
+}
@@ -0,0 +1,446 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/*
+ * Square Toeplitz matrix, constant along each diagonal, stored as its first column c and
+ * first row r: entry (i, j) is c[i - j] on and below the diagonal and r[j - i] above it.
+ *
+ * Products with vectors embed the matrix in a circulant matrix of power-of-two size
+ * m >= 2n - 1, whose eigenvalues are computed once on construction, so each product is
+ * O(n log n). Systems are solved by the Levinson recursion in O(n^2), which grows the
+ * solution of each leading k x k system from the one before. It needs every leading
+ * block to be well conditioned (as for positive-definite matrices): a nearly singular
+ * block does not stop the recursion but amplifies rounding error. So every vector the
+ * recursion returns is checked by its residual, one O(n log n) product, and solves fall
+ * back to LU with partial pivoting, O(n^3), when a residual is too large. The inverse is
+ * filled in O(n^2) from its first and last rows and columns by the Gohberg-Semencul
+ * displacement identity.
+ */
+
+public class ToeplitzMatrix extends StructuredMatrix implements LinearOperator {
+    
+    //rows of the array returned by levinson
+    private final static int FORWARD = 0;
+    private final static int BACKWARD = 1;
+    private final static int SOLUTION = 2;
+    private final static int DETERMINANT = 3;
+    private final static double EPSILON = Math.ulp(1.0);
+    // largest accepted residual of a Levinson vector, relative to ||T|| ||x|| + ||b||
+    private final static double RESIDUAL_ERROR = Math.pow(10, -10);
+    
+    private final double[] column;
+    private final double[] row;
+    // largest absolute row sum bound, sum |c_k| + sum |r_k| - |c_0| >= ||T||_inf
+    private final double norm;
+    private final double[] embeddingRe;
+    private final double[] embeddingIm;
+    
+    /**
+     * @param column nonempty first column, not kept
+     * @param row first row, same length as column and with the same first entry, not kept
+     * @throws IncompatibleDimensionsException if column and row differ in length
+     * @throws IllegalArgumentException if column and row differ in their first entry
+     */
+    public ToeplitzMatrix(double[] column, double[] row) {
+        super(column.length);
+        if (row.length != size) {
+            throw new IncompatibleDimensionsException("First row and column must have equal length");
+        }
+        if (row[0] != column[0]) {
+            throw new IllegalArgumentException("First row and column must share their first entry");
+        }
+        this.column = column.clone();
+        this.row = row.clone();
+        double sum = -Math.abs(column[0]);
+        for (int k = 0; k < size; k++) {
+            sum += Math.abs(column[k]) + Math.abs(row[k]);
+        }
+        norm = sum;
+        int m = FFT.nextPowerOfTwo(2 * size - 1);
+        embeddingRe = new double[m];
+        embeddingIm = new double[m];
+        for (int k = 0; k < size; k++) {
+            embeddingRe[k] = column[k];
+        }
+        for (int k = 1; k < size; k++) {
+            embeddingRe[m - k] = row[k];
+        }
+        FFT.transform(embeddingRe, embeddingIm, false);
+    }
+    
+    /**
+     * Symmetric Toeplitz matrix
+     * @param column nonempty first column, also the first row, not kept
+     */
+    public ToeplitzMatrix(double[] column) {
+        this(column, column);
+    }
+    
+    /**
+     * @return the first column
+     */
+    public double[] getColumn() {
+        return column.clone();
+    }
+    
+    /**
+     * @return the first row
+     */
+    public double[] getRow() {
+        return row.clone();
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        checkIndices(row, column);
+        return new BigDecimal(row >= column ? this.column[row - column] : this.row[column - row]);
+    }
+    
+    /**
+     * @return dense row-major copy
+     */
+    private double[][] toArray() {
+        double[][] entries = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                entries[i][j] = i >= j ? column[i - j] : row[j - i];
+            }
+        }
+        return entries;
+    }
+    
+    @Override
+    public void apply(double[] x, double[] y) {
+        embeddedProduct(x, y, false);
+    }
+    
+    /**
+     * The transposed embedding has the conjugate eigenvalues
+     */
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        embeddedProduct(x, y, true);
+    }
+    
+    /**
+     * y = first n entries of C [x; 0] for the circulant embedding C, or of C^T [x; 0] if transpose
+     */
+    private void embeddedProduct(double[] x, double[] y, boolean transpose) {
+        int m = embeddingRe.length;
+        double[] re = new double[m];
+        double[] im = new double[m];
+        System.arraycopy(x, 0, re, 0, size);
+        FFT.transform(re, im, false);
+        for (int k = 0; k < m; k++) {
+            double lambdaIm = transpose ? -embeddingIm[k] : embeddingIm[k];
+            double productRe = ComplexKernels.multRe(re[k], im[k], embeddingRe[k], lambdaIm);
+            im[k] = ComplexKernels.multIm(re[k], im[k], embeddingRe[k], lambdaIm);
+            re[k] = productRe;
+        }
+        FFT.transform(re, im, true);
+        System.arraycopy(re, 0, y, 0, size);
+    }
+    
+    /**
+     * @param b right-hand side of length n, not modified
+     * @return x with T x = b, by the Levinson recursion, or by pivoted LU if a leading
+     *         block of T is singular or so badly conditioned that the residual is too large
+     * @throws IncompatibleDimensionsException if b has the wrong length
+     * @throws ArithmeticException if the matrix is singular
+     */
+    public double[] solve(double[] b) throws IncompatibleDimensionsException {
+        if (b.length != size) {
+            throw new IncompatibleDimensionsException("Right-hand side must have length " + size);
+        }
+        try {
+            return checkedLevinson(false, b)[SOLUTION];
+        } catch (ArithmeticException ex) {
+            return pivotedLU().solve(b);
+        }
+    }
+    
+    /**
+     * @return LU decomposition with partial pivoting of the dense matrix, O(n^3)
+     * @throws ArithmeticException if the matrix is singular
+     */
+    private BandedLUDecomposition pivotedLU() {
+        return new BandedLUDecomposition(new BandedMatrix(toArray()));
+    }
+    
+    /**
+     * Levinson recursion on T, or on T^T if transpose, with each vector it returns checked
+     * against its residual, since the recursion is only weakly stable away from
+     * positive-definite matrices
+     * @param rhs right-hand side, or null to compute only f, b and the determinant
+     * @return {f, b, T^(-1) rhs or null, {det T}}, as levinson
+     * @throws ArithmeticException if a leading block is singular or a residual is too large
+     */
+    private double[][] checkedLevinson(boolean transpose, double[] rhs) {
+        double[][] result = transpose ? levinson(row, column, rhs) : levinson(column, row, rhs);
+        double[] unit = new double[size];
+        unit[0] = 1;
+        checkResidual(result[FORWARD], unit, transpose);
+        unit[0] = 0;
+        unit[size - 1] = 1;
+        checkResidual(result[BACKWARD], unit, transpose);
+        if (rhs != null) {
+            checkResidual(result[SOLUTION], rhs, transpose);
+        }
+        return result;
+    }
+    
+    /**
+     * @throws ArithmeticException unless ||T x - b|| <= RESIDUAL_ERROR (||T|| ||x|| + ||b||)
+     *         in the max norm, with T^T in place of T if transpose
+     */
+    private void checkResidual(double[] x, double[] b, boolean transpose) {
+        double[] product = new double[size];
+        embeddedProduct(x, product, transpose);
+        double residual = 0;
+        double xNorm = 0;
+        double bNorm = 0;
+        for (int i = 0; i < size; i++) {
+            residual = Math.max(residual, Math.abs(product[i] - b[i]));
+            xNorm = Math.max(xNorm, Math.abs(x[i]));
+            bNorm = Math.max(bNorm, Math.abs(b[i]));
+        }
+        if (!(residual <= RESIDUAL_ERROR * (norm * xNorm + bNorm))) {
+            throw new ArithmeticException("Levinson recursion lost accuracy to a badly conditioned leading block");
+        }
+    }
+    
+    /**
+     * Levinson recursion for the Toeplitz matrix T with the given first column and row.
+     * For each k it keeps the forward and backward vectors f, b with T_k f = e_1 and
+     * T_k b = e_k for the leading k x k block T_k; extending them by a zero leaves one
+     * nonzero residual entry each, and a combination of the two cancels it.
+     * @param rhs right-hand side, or null to compute only f, b and the determinant
+     * @return {f, b, T^(-1) rhs or null, {det T}} for the full matrix
+     * @throws ArithmeticException if a leading block is singular to working precision
+     */
+    private static double[][] levinson(double[] column, double[] row, double[] rhs) {
+        int n = column.length;
+        double scale = 0;
+        for (int k = 0; k < n; k++) {
+            scale = Math.max(scale, Math.max(Math.abs(column[k]), Math.abs(row[k])));
+        }
+        if (Math.abs(column[0]) <= n * EPSILON * scale) {
+            throw new ArithmeticException("Leading 1 x 1 block is singular");
+        }
+        double[] forward = new double[n];
+        double[] backward = new double[n];
+        double[] next = new double[n];
+        double[] solution = rhs == null ? null : new double[n];
+        forward[0] = 1 / column[0];
+        backward[0] = forward[0];
+        if (solution != null) {
+            solution[0] = rhs[0] / column[0];
+        }
+        double determinant = column[0];
+        for (int k = 1; k < n; k++) {
+            //residuals: last row of T_(k+1) times [f; 0], first row times [0; b]
+            double errorForward = 0;
+            double errorBackward = 0;
+            for (int i = 0; i < k; i++) {
+                errorForward += column[k - i] * forward[i];
+                errorBackward += row[i + 1] * backward[i];
+            }
+            //relative to 1, so this small it is lost to cancellation
+            double denominator = 1 - errorForward * errorBackward;
+            if (Math.abs(denominator) <= n * EPSILON) {
+                throw new ArithmeticException("Leading " + (k + 1) + " x " + (k + 1) + " block is singular");
+            }
+            //downward, so that backward[i - 1] is still the old value when backward[i] is written
+            for (int i = k; i >= 0; i--) {
+                double f = i < k ? forward[i] : 0;
+                double b = i > 0 ? backward[i - 1] : 0;
+                next[i] = (f - errorForward * b) / denominator;
+                backward[i] = (b - errorBackward * f) / denominator;
+            }
+            double[] swap = forward;
+            forward = next;
+            next = swap;
+            //the last entry of b is det T_k / det T_(k+1)
+            determinant /= backward[k];
+            if (solution != null) {
+                double error = 0;
+                for (int i = 0; i < k; i++) {
+                    error += column[k - i] * solution[i];
+                }
+                double factor = rhs[k] - error;
+                for (int i = 0; i <= k; i++) {
+                    solution[i] += factor * backward[i];
+                }
+            }
+        }
+        double[][] result = {forward, backward, solution, {determinant}};
+        return result;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, 1);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, -1);
+    }
+    
+    /**
+     * @return this + sign * matr, Toeplitz when matr is Toeplitz
+     */
+    private Matrix<BigDecimal> combine(Matrix<BigDecimal> matr, int sign) {
+        checkSameSize(matr, "addition");
+        if (matr instanceof ToeplitzMatrix) {
+            ToeplitzMatrix that = (ToeplitzMatrix)matr;
+            double[] newColumn = new double[size];
+            double[] newRow = new double[size];
+            for (int k = 0; k < size; k++) {
+                newColumn[k] = column[k] + sign * that.column[k];
+                newRow[k] = row[k] + sign * that.row[k];
+            }
+            return new ToeplitzMatrix(newColumn, newRow);
+        }
+        return sign > 0 ? super.add(matr) : super.subtract(matr);
+    }
+    
+    /**
+     * Each column of matr is multiplied through the circulant embedding
+     */
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr.size()[0] != size) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        double[][] other = BigDecimalMatrix.toArray(matr);
+        int columns = other[0].length;
+        double[][] product = new double[size][columns];
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int c = 0; c < columns; c++) {
+            for (int i = 0; i < size; i++) {
+                x[i] = other[i][c];
+            }
+            apply(x, y);
+            for (int i = 0; i < size; i++) {
+                product[i][c] = y[i];
+            }
+        }
+        return new BigDecimalMatrix(product);
+    }
+    
+    /**
+     * @param matr matrix with as many columns as this has rows
+     * @return matr * this, each row of matr multiplied by the transpose through the embedding
+     */
+    @Override
+    public Matrix<BigDecimal> multiplyLeft(Matrix<BigDecimal> matr) {
+        double[][] other = BigDecimalMatrix.toArray(matr);
+        double[][] product = new double[other.length][size];
+        for (int r = 0; r < other.length; r++) {
+            applyTranspose(other[r], product[r]);
+        }
+        return new BigDecimalMatrix(product);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        double[] newColumn = new double[size];
+        double[] newRow = new double[size];
+        for (int k = 0; k < size; k++) {
+            newColumn[k] = column[k] * element;
+            newRow[k] = row[k] * element;
+        }
+        return new ToeplitzMatrix(newColumn, newRow);
+    }
+    
+    /**
+     * @return determinant, from the Levinson recursion when every leading block is well conditioned
+     */
+    @Override
+    public BigDecimal determinant() {
+        try {
+            return new BigDecimal(checkedLevinson(false, null)[DETERMINANT][0]);
+        } catch (ArithmeticException ex) {
+            return toDense().determinant();
+        }
+    }
+    
+    @Override
+    public int rank() {
+        return toDense().rank();
+    }
+    
+    /**
+     * With x, y the first and last columns of the inverse A and u, v its first and last
+     * rows, A_ij = A_(i-1)(j-1) + (x_i u_j - y_(i-1) v_(j-1)) / x_0, so A follows in O(n^2)
+     * from four vectors given by the Levinson recursion on T and on T^T.
+     * The division by x_0 can lose accuracy that the four vectors kept, so the result
+     * is checked against one random vector z by the residual of T (A z) = z, and the
+     * inverse is solved from pivoted LU if the check fails.
+     */
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        try {
+            return new BigDecimalMatrix(levinsonInverse());
+        } catch (ArithmeticException ex) {
+            BandedLUDecomposition lu;
+            try {
+                lu = pivotedLU();
+            } catch (ArithmeticException singular) {
+                throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+            }
+            return lu.solve(BigDecimalMatrix.identity(size));
+        }
+    }
+    
+    /**
+     * @return the inverse as a row-major array, by the Gohberg-Semencul identity
+     * @throws ArithmeticException if the Levinson recursion or the check of the result fails
+     */
+    private double[][] levinsonInverse() {
+        double[][] columns = checkedLevinson(false, null);
+        double[][] rows = checkedLevinson(true, null);
+        double[] first = columns[FORWARD];
+        double[] last = columns[BACKWARD];
+        double[] firstRow = rows[FORWARD];
+        double[] lastRow = rows[BACKWARD];
+        double[][] inverse = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            inverse[i][0] = first[i];
+            inverse[0][i] = firstRow[i];
+        }
+        for (int i = 1; i < size; i++) {
+            for (int j = 1; j < size; j++) {
+                inverse[i][j] = inverse[i - 1][j - 1] + (first[i] * firstRow[j] - last[i - 1] * lastRow[j - 1]) / first[0];
+            }
+        }
+        Random random = new Random(size);
+        double[] probe = new double[size];
+        for (int i = 0; i < size; i++) {
+            probe[i] = random.nextGaussian();
+        }
+        double[] image = new double[size];
+        for (int i = 0; i < size; i++) {
+            image[i] = Vector.dot(inverse[i], probe);
+        }
+        checkResidual(image, probe, false);
+        return inverse;
+    }
+    
+    /**
+     * @return the transpose, Toeplitz with the first row and column exchanged
+     */
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        return new ToeplitzMatrix(row, column);
+    }
+    
+    @Override
+    public Complex[] eigenvalues() {
+        return toDense().eigenvalues();
+    }
+}
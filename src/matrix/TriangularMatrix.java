@@ -0,0 +1,424 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/*
+ * Square upper or lower triangular matrix holding only its triangle, n (n + 1) / 2
+ * doubles in packed storage, optionally with an implicit unit diagonal. Systems are
+ * solved by forward or back substitution in n^2 flops, products of triangular matrices
+ * of the same orientation stay triangular at n^3 / 3 flops instead of 2 n^3, products
+ * with other matrices skip the zero triangle, and the transpose shares the array.
+ */
+
+public class TriangularMatrix extends StructuredMatrix implements LinearOperator {
+    
+    private final double[] packed;
+    private final boolean upper;
+    private final boolean unitDiagonal;
+    
+    /**
+     * @param entries row-major square array, must be nonempty; entries outside the triangle are ignored
+     * @param upper true for an upper triangular matrix, false for lower
+     * @throws IncompatibleDimensionsException if entries is not square
+     */
+    public TriangularMatrix(double[][] entries, boolean upper) {
+        this(entries, upper, false);
+    }
+    
+    /**
+     * @param entries row-major square array, must be nonempty; entries outside the triangle,
+     *        and on the diagonal if unitDiagonal, are ignored
+     * @param upper true for an upper triangular matrix, false for lower
+     * @param unitDiagonal true if every diagonal entry is one
+     * @throws IncompatibleDimensionsException if entries is not square
+     */
+    public TriangularMatrix(double[][] entries, boolean upper, boolean unitDiagonal) {
+        this(new double[packedLength(entries.length)], entries.length, upper, unitDiagonal);
+        for (int i = 0; i < size; i++) {
+            if (entries[i].length != size) {
+                throw new IncompatibleDimensionsException("Matrix must be square");
+            }
+            int from = upper ? i : 0;
+            int to = upper ? size - 1 : i;
+            for (int j = from; j <= to; j++) {
+                packed[packedIndex(i, j)] = i == j && unitDiagonal ? 1 : entries[i][j];
+            }
+        }
+    }
+    
+    /**
+     * @param matrix valid square Matrix instance; entries outside the triangle, and on the
+     *        diagonal if unitDiagonal, are ignored
+     * @param upper true for an upper triangular matrix, false for lower
+     * @param unitDiagonal true if every diagonal entry is one
+     * @throws IncompatibleDimensionsException if matrix is not square
+     */
+    public TriangularMatrix(Matrix<BigDecimal> matrix, boolean upper, boolean unitDiagonal) {
+        this(BigDecimalMatrix.toArray(matrix), upper, unitDiagonal);
+    }
+    
+    /**
+     * @param packed triangle in packed storage, kept; ones on the diagonal if unitDiagonal
+     */
+    TriangularMatrix(double[] packed, int size, boolean upper, boolean unitDiagonal) {
+        super(size);
+        this.packed = packed;
+        this.upper = upper;
+        this.unitDiagonal = unitDiagonal;
+    }
+    
+    /**
+     * @return true if upper triangular, false if lower
+     */
+    public boolean isUpper() {
+        return upper;
+    }
+    
+    /**
+     * @return true if every diagonal entry is known to be one
+     */
+    public boolean isUnitDiagonal() {
+        return unitDiagonal;
+    }
+    
+    private boolean inTriangle(int row, int column) {
+        return upper ? row <= column : row >= column;
+    }
+    
+    private double entry(int row, int column) {
+        return inTriangle(row, column) ? packed[packedIndex(row, column)] : 0;
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        checkIndices(row, column);
+        return new BigDecimal(entry(row, column));
+    }
+    
+    @Override
+    public void apply(double[] x, double[] y) {
+        if (upper) {
+            columnProduct(x, y);
+        } else {
+            rowProduct(x, y);
+        }
+    }
+    
+    @Override
+    public void applyTranspose(double[] x, double[] y) {
+        if (upper) {
+            rowProduct(x, y);
+        } else {
+            columnProduct(x, y);
+        }
+    }
+    
+    /**
+     * y = L x for the lower triangle L stored row by row, one dot product per row
+     */
+    private void rowProduct(double[] x, double[] y) {
+        for (int i = 0; i < size; i++) {
+            int base = packedIndex(i, 0);
+            double sum = 0;
+            for (int j = 0; j <= i; j++) {
+                sum += packed[base + j] * x[j];
+            }
+            y[i] = sum;
+        }
+    }
+    
+    /**
+     * y = U x for the upper triangle U stored column by column, one column added per entry of x
+     */
+    private void columnProduct(double[] x, double[] y) {
+        Arrays.fill(y, 0, size, 0);
+        for (int j = 0; j < size; j++) {
+            double factor = x[j];
+            if (factor == 0) {
+                continue;
+            }
+            int base = packedIndex(0, j);
+            for (int i = 0; i <= j; i++) {
+                y[i] += packed[base + i] * factor;
+            }
+        }
+    }
+    
+    /**
+     * @param b right-hand side of length n, not modified
+     * @return x with T x = b, by forward substitution if lower and back substitution if upper
+     * @throws IncompatibleDimensionsException if b has the wrong length
+     * @throws ArithmeticException if a diagonal entry is zero
+     */
+    public double[] solve(double[] b) throws IncompatibleDimensionsException {
+        if (b.length != size) {
+            throw new IncompatibleDimensionsException("Right-hand side must have length " + size);
+        }
+        double[] x = b.clone();
+        solveInPlace(x);
+        return x;
+    }
+    
+    /**
+     * @param b right-hand sides, n x k
+     * @return X with T X = B
+     * @throws IncompatibleDimensionsException if b does not have n rows
+     * @throws ArithmeticException if a diagonal entry is zero
+     */
+    public Matrix<BigDecimal> solve(Matrix<BigDecimal> b) throws IncompatibleDimensionsException {
+        if (b.size()[0] != size) {
+            throw new IncompatibleDimensionsException("Right-hand side must have " + size + " rows");
+        }
+        double[][] rhs = BigDecimalMatrix.toArray(b);
+        int numRhs = rhs[0].length;
+        double[] column = new double[size];
+        for (int k = 0; k < numRhs; k++) {
+            for (int i = 0; i < size; i++) {
+                column[i] = rhs[i][k];
+            }
+            solveInPlace(column);
+            for (int i = 0; i < size; i++) {
+                rhs[i][k] = column[i];
+            }
+        }
+        return new BigDecimalMatrix(rhs);
+    }
+    
+    /**
+     * Overwrite x with T^(-1) x
+     */
+    void solveInPlace(double[] x) {
+        if (upper) {
+            backSubstitute(x, 0, size);
+        } else {
+            forwardSubstitute(x);
+        }
+    }
+    
+    /**
+     * Overwrite x[offset, offset + n) with U^(-1) x for the leading n x n block of the
+     * upper triangle, column by column
+     */
+    private void backSubstitute(double[] x, int offset, int n) {
+        for (int j = n - 1; j >= 0; j--) {
+            int base = packedIndex(0, j);
+            double value = x[offset + j];
+            if (!unitDiagonal) {
+                double pivot = packed[base + j];
+                if (pivot == 0) {
+                    throw new ArithmeticException("Matrix is singular: zero on the diagonal at " + j);
+                }
+                value /= pivot;
+                x[offset + j] = value;
+            }
+            if (value == 0) {
+                continue;
+            }
+            for (int i = 0; i < j; i++) {
+                x[offset + i] -= packed[base + i] * value;
+            }
+        }
+    }
+    
+    /**
+     * Overwrite x with L^(-1) x for the lower triangle, row by row
+     */
+    private void forwardSubstitute(double[] x) {
+        for (int i = 0; i < size; i++) {
+            int base = packedIndex(i, 0);
+            double sum = x[i];
+            for (int j = 0; j < i; j++) {
+                sum -= packed[base + j] * x[j];
+            }
+            if (!unitDiagonal) {
+                double pivot = packed[base + i];
+                if (pivot == 0) {
+                    throw new ArithmeticException("Matrix is singular: zero on the diagonal at " + i);
+                }
+                sum /= pivot;
+            }
+            x[i] = sum;
+        }
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, 1);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, -1);
+    }
+    
+    /**
+     * @return this + sign * matr, triangular when matr is triangular the same way
+     */
+    private Matrix<BigDecimal> combine(Matrix<BigDecimal> matr, int sign) {
+        checkSameSize(matr, "addition");
+        if (matr instanceof TriangularMatrix && ((TriangularMatrix)matr).upper == upper) {
+            double[] other = ((TriangularMatrix)matr).packed;
+            double[] sum = new double[packed.length];
+            for (int k = 0; k < packed.length; k++) {
+                sum[k] = packed[k] + sign * other[k];
+            }
+            return new TriangularMatrix(sum, size, upper, false);
+        }
+        return sign > 0 ? super.add(matr) : super.subtract(matr);
+    }
+    
+    /**
+     * Triangular when matr is triangular the same way; otherwise each row of the product
+     * sums only the rows of matr that meet the triangle
+     */
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr.size()[0] != size) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        if (matr instanceof TriangularMatrix && ((TriangularMatrix)matr).upper == upper) {
+            TriangularMatrix that = (TriangularMatrix)matr;
+            //(L M)^T = M^T L^T, and the transposes of lower triangles are upper ones in the same arrays
+            double[] product = upper ? upperProduct(packed, that.packed, size) : upperProduct(that.packed, packed, size);
+            return new TriangularMatrix(product, size, upper, unitDiagonal && that.unitDiagonal);
+        }
+        double[][] other = BigDecimalMatrix.toArray(matr);
+        int columns = other[0].length;
+        double[][] product = new double[size][columns];
+        for (int i = 0; i < size; i++) {
+            int from = upper ? i : 0;
+            int to = upper ? size - 1 : i;
+            for (int j = from; j <= to; j++) {
+                double factor = packed[packedIndex(i, j)];
+                for (int c = 0; c < columns; c++) {
+                    product[i][c] += factor * other[j][c];
+                }
+            }
+        }
+        return new BigDecimalMatrix(product);
+    }
+    
+    /**
+     * @param matr matrix with as many columns as this has rows
+     * @return matr * this, each row of matr meeting only the triangle
+     */
+    @Override
+    public Matrix<BigDecimal> multiplyLeft(Matrix<BigDecimal> matr) {
+        double[][] other = BigDecimalMatrix.toArray(matr);
+        double[][] product = new double[other.length][size];
+        for (int r = 0; r < other.length; r++) {
+            for (int i = 0; i < size; i++) {
+                double factor = other[r][i];
+                if (factor == 0) {
+                    continue;
+                }
+                int from = upper ? i : 0;
+                int to = upper ? size - 1 : i;
+                for (int j = from; j <= to; j++) {
+                    product[r][j] += factor * packed[packedIndex(i, j)];
+                }
+            }
+        }
+        return new BigDecimalMatrix(product);
+    }
+    
+    /**
+     * @return packed upper triangle of A B for packed upper triangles A and B,
+     *         column j of the product being sum_(k <= j) B_kj A_(:, k)
+     */
+    private static double[] upperProduct(double[] a, double[] b, int n) {
+        double[] product = new double[a.length];
+        for (int j = 0; j < n; j++) {
+            int column = packedIndex(0, j);
+            for (int k = 0; k <= j; k++) {
+                double factor = b[column + k];
+                if (factor == 0) {
+                    continue;
+                }
+                int source = packedIndex(0, k);
+                for (int i = 0; i <= k; i++) {
+                    product[column + i] += a[source + i] * factor;
+                }
+            }
+        }
+        return product;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        double[] scaled = new double[packed.length];
+        for (int k = 0; k < packed.length; k++) {
+            scaled[k] = packed[k] * element;
+        }
+        return new TriangularMatrix(scaled, size, upper, unitDiagonal && element == 1);
+    }
+    
+    /**
+     * @return product of the diagonal entries
+     */
+    @Override
+    public BigDecimal determinant() {
+        BigDecimal determinant = BigDecimal.ONE;
+        for (int i = 0; !unitDiagonal && i < size; i++) {
+            determinant = determinant.multiply(new BigDecimal(packed[packedIndex(i, i)]));
+        }
+        return determinant;
+    }
+    
+    /**
+     * @return n if no diagonal entry is zero, otherwise the rank of the dense matrix
+     */
+    @Override
+    public int rank() {
+        for (int i = 0; i < size; i++) {
+            if (packed[packedIndex(i, i)] == 0) {
+                return toDense().rank();
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * @return the inverse, triangular the same way; column j of an upper inverse is
+     *         found by back substitution in the leading (j + 1) x (j + 1) block alone
+     */
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        for (int i = 0; i < size; i++) {
+            if (packed[packedIndex(i, i)] == 0) {
+                throw new IncompatibleDimensionsException("Inverse not defined for matrices with determinant of zero");
+            }
+        }
+        if (!upper) {
+            return ((TriangularMatrix)transpose()).inverse().transpose();
+        }
+        double[] inverse = new double[packed.length];
+        for (int j = 0; j < size; j++) {
+            int column = packedIndex(0, j);
+            inverse[column + j] = 1;
+            backSubstitute(inverse, column, j + 1);
+        }
+        return new TriangularMatrix(inverse, size, true, unitDiagonal);
+    }
+    
+    /**
+     * @return the transpose, sharing this matrix's storage
+     */
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        return new TriangularMatrix(packed, size, !upper, unitDiagonal);
+    }
+    
+    /**
+     * @return the diagonal entries
+     */
+    @Override
+    public Complex[] eigenvalues() {
+        Complex[] eigenvalues = new Complex[size];
+        for (int i = 0; i < size; i++) {
+            eigenvalues[i] = new Complex(packed[packedIndex(i, i)], 0);
+        }
+        return eigenvalues;
+    }
+}
@@ -0,0 +1,486 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Real column vector of length n in one contiguous double array, a Matrix of size n x 1
+ * that also carries BLAS-style kernels, so matrix-vector work runs on primitives without
+ * building n x 1 BigDecimalMatrix columns:
+ *      level 1: dot, norm, asum, maxIndex, axpy, scale, copy (x . y, ||x||, y += a x, ...)
+ *      level 2: gemv, y = alpha A x + beta y for any LinearOperator A or its transpose,
+ *               and the outer product x y^T as a rank-one LowRankMatrix
+ * The same kernels are offered on raw arrays for the solvers, which keep their work
+ * vectors as double[].
+ *
+ * Unlike the matrix types a Vector is mutable: axpy, scale, copy and set overwrite it in
+ * place so that iterations can reuse storage. The Matrix operations leave it unchanged
+ * and return new matrices, and equality follows the current entries.
+ */
+
+public class Vector implements Matrix<BigDecimal> {
+    
+    // below this a sum of squares may have lost precision to underflow
+    private final static double TINY = Math.sqrt(Double.MIN_NORMAL);
+    
+    private final double[] values;
+    
+    /**
+     * @param length positive number of entries, all zero
+     * @throws IncompatibleDimensionsException if length is not positive
+     */
+    public Vector(int length) {
+        if (length <= 0) {
+            throw new IncompatibleDimensionsException("Vector must have positive length");
+        }
+        values = new double[length];
+    }
+    
+    /**
+     * @param values nonempty entries, copied
+     * @throws IncompatibleDimensionsException if values is empty
+     */
+    public Vector(double... values) {
+        this(values, true);
+    }
+    
+    /**
+     * @param column n x 1 matrix
+     * @throws IncompatibleDimensionsException if column has more than one column
+     */
+    public Vector(Matrix<BigDecimal> column) {
+        this(column.size()[0]);
+        if (column.size()[1] != 1) {
+            throw new IncompatibleDimensionsException("Vector needs an n x 1 matrix");
+        }
+        if (column instanceof Vector) {
+            System.arraycopy(((Vector)column).values, 0, values, 0, values.length);
+            return;
+        }
+        BigDecimal[] entries = column.getColumn(0);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = entries[i].doubleValue();
+        }
+    }
+    
+    private Vector(double[] values, boolean copy) {
+        if (values.length == 0) {
+            throw new IncompatibleDimensionsException("Vector must have positive length");
+        }
+        this.values = copy ? values.clone() : values;
+    }
+    
+    /**
+     * @param values nonempty entries, kept: later writes to the array show in the vector
+     *        and the other way round
+     * @return vector backed by values
+     */
+    public static Vector wrap(double[] values) {
+        return new Vector(values, false);
+    }
+    
+    /**
+     * @return the backing array, not copied
+     */
+    double[] values() {
+        return values;
+    }
+    
+    public int length() {
+        return values.length;
+    }
+    
+    public double get(int index) {
+        return values[index];
+    }
+    
+    public void set(int index, double value) {
+        values[index] = value;
+    }
+    
+    /**
+     * @return copy of the entries
+     */
+    public double[] toArray() {
+        return values.clone();
+    }
+    
+    private void checkLength(Vector that) {
+        if (that.values.length != values.length) {
+            throw new IncompatibleDimensionsException("Vectors must have the same length");
+        }
+    }
+    
+    /**
+     * Dot product over the length of first
+     */
+    public static double dot(double[] first, double[] second) {
+        double sum = 0;
+        for (int i = 0; i < first.length; i++) {
+            sum += first[i] * second[i];
+        }
+        return sum;
+    }
+    
+    /**
+     * @return Euclidean norm, rescaled as in BLAS nrm2 only when the plain sum of squares
+     *         overflows or underflows
+     */
+    public static double norm(double[] vector) {
+        double sum = dot(vector, vector);
+        if (sum > TINY && sum < Double.POSITIVE_INFINITY) {
+            return Math.sqrt(sum);
+        }
+        double largest = 0;
+        for (double value : vector) {
+            largest = Math.max(largest, Math.abs(value));
+        }
+        if (largest == 0 || Double.isInfinite(largest) || Double.isNaN(sum)) {
+            return Double.isNaN(sum) ? Double.NaN : largest;
+        }
+        double scaled = 0;
+        for (double value : vector) {
+            double ratio = value / largest;
+            scaled += ratio * ratio;
+        }
+        return largest * Math.sqrt(scaled);
+    }
+    
+    /**
+     * y += a * x, over the length of y
+     */
+    public static void axpy(double a, double[] x, double[] y) {
+        if (a == 0) {
+            return;
+        }
+        for (int i = 0; i < y.length; i++) {
+            y[i] += a * x[i];
+        }
+    }
+    
+    /**
+     * x *= a
+     */
+    public static void scale(double a, double[] x) {
+        for (int i = 0; i < x.length; i++) {
+            x[i] *= a;
+        }
+    }
+    
+    public double dot(Vector that) {
+        checkLength(that);
+        return dot(values, that.values);
+    }
+    
+    public double norm() {
+        return norm(values);
+    }
+    
+    /**
+     * @return sum of absolute values, the 1-norm
+     */
+    public double asum() {
+        double sum = 0;
+        for (double value : values) {
+            sum += Math.abs(value);
+        }
+        return sum;
+    }
+    
+    /**
+     * @return index of the first entry of largest absolute value
+     */
+    public int maxIndex() {
+        int index = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (Math.abs(values[i]) > Math.abs(values[index])) {
+                index = i;
+            }
+        }
+        return index;
+    }
+    
+    /**
+     * this += a * x, in place
+     * @return this
+     * @throws IncompatibleDimensionsException if the lengths differ
+     */
+    public Vector axpy(double a, Vector x) {
+        checkLength(x);
+        axpy(a, x.values, values);
+        return this;
+    }
+    
+    /**
+     * this *= a, in place
+     * @return this
+     */
+    public Vector scale(double a) {
+        scale(a, values);
+        return this;
+    }
+    
+    /**
+     * Overwrite this with the entries of source
+     * @return this
+     * @throws IncompatibleDimensionsException if the lengths differ
+     */
+    public Vector copy(Vector source) {
+        checkLength(source);
+        System.arraycopy(source.values, 0, values, 0, values.length);
+        return this;
+    }
+    
+    /**
+     * y = alpha A x + beta y, overwriting y
+     * @param a m x n operator
+     * @param x vector of length n, distinct from y
+     * @param y vector of length m
+     * @throws IncompatibleDimensionsException if the lengths do not fit a
+     */
+    public static void gemv(double alpha, LinearOperator a, Vector x, double beta, Vector y) {
+        product(alpha, a, x, beta, y, false);
+    }
+    
+    /**
+     * y = alpha A^T x + beta y, overwriting y
+     * @param a m x n operator
+     * @param x vector of length m, distinct from y
+     * @param y vector of length n
+     * @throws IncompatibleDimensionsException if the lengths do not fit a
+     */
+    public static void gemvTranspose(double alpha, LinearOperator a, Vector x, double beta, Vector y) {
+        product(alpha, a, x, beta, y, true);
+    }
+    
+    private static void product(double alpha, LinearOperator a, Vector x, double beta, Vector y, boolean transpose) {
+        int[] dimensions = a.size();
+        int in = transpose ? dimensions[0] : dimensions[1];
+        int out = transpose ? dimensions[1] : dimensions[0];
+        if (x.values.length != in || y.values.length != out) {
+            throw new IncompatibleDimensionsException("Vector lengths do not match the operator");
+        }
+        if (beta == 0) {
+            if (transpose) {
+                a.applyTranspose(x.values, y.values);
+            } else {
+                a.apply(x.values, y.values);
+            }
+            if (alpha != 1) {
+                scale(alpha, y.values);
+            }
+            return;
+        }
+        double[] product = new double[out];
+        if (transpose) {
+            a.applyTranspose(x.values, product);
+        } else {
+            a.apply(x.values, product);
+        }
+        if (beta != 1) {
+            scale(beta, y.values);
+        }
+        axpy(alpha, product, y.values);
+    }
+    
+    /**
+     * @return the rank-one outer product this * that^T, kept as its two factors
+     */
+    public LowRankMatrix outer(Vector that) {
+        double[][] left = {values.clone()};
+        double[][] right = {that.values.clone()};
+        return new LowRankMatrix(values.length, that.values.length, left, right);
+    }
+    
+    @Override
+    public int[] size() {
+        int[] dimensions = {values.length, 1};
+        return dimensions;
+    }
+    
+    @Override
+    public BigDecimal getElement(int row, int column) throws IndexOutOfBoundsException {
+        if (row < 0 || row >= values.length || column != 0) {
+            throw new IndexOutOfBoundsException("Location out of bounds");
+        }
+        return new BigDecimal(values[row]);
+    }
+    
+    @Override
+    public BigDecimal[] getRow(int row) throws IndexOutOfBoundsException {
+        BigDecimal[] currentRow = {getElement(row, 0)};
+        return currentRow;
+    }
+    
+    @Override
+    public BigDecimal[] getColumn(int column) throws IndexOutOfBoundsException {
+        if (column != 0) {
+            throw new IndexOutOfBoundsException("Column index out of bounds");
+        }
+        BigDecimal[] currentColumn = new BigDecimal[values.length];
+        for (int i = 0; i < values.length; i++) {
+            currentColumn[i] = new BigDecimal(values[i]);
+        }
+        return currentColumn;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> add(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, 1);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> subtract(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        return combine(matr, -1);
+    }
+    
+    /**
+     * @return this + sign * matr, a new vector if matr is one and in BigDecimal otherwise
+     */
+    private Matrix<BigDecimal> combine(Matrix<BigDecimal> matr, int sign) {
+        int[] thatSize = matr.size();
+        if (thatSize[0] != values.length || thatSize[1] != 1) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for addition");
+        }
+        if (!(matr instanceof Vector)) {
+            return sign > 0 ? toDense().add(matr) : toDense().subtract(matr);
+        }
+        Vector sum = new Vector(values);
+        return sum.axpy(sign, (Vector)matr);
+    }
+    
+    /**
+     * @return this times the 1 x k matr, the rank-one outer product
+     */
+    @Override
+    public Matrix<BigDecimal> multiply(Matrix<BigDecimal> matr) throws IncompatibleDimensionsException {
+        if (matr.size()[0] != 1) {
+            throw new IncompatibleDimensionsException("Invalid dimensions for multiplication");
+        }
+        return outer(new Vector(matr.transpose()));
+    }
+    
+    @Override
+    public Matrix<BigDecimal> multiply(double element) {
+        return new Vector(values).scale(element);
+    }
+    
+    /**
+     * @return the 1 x n row
+     */
+    @Override
+    public Matrix<BigDecimal> transpose() {
+        return new BigDecimalMatrix(new double[][] {values.clone()});
+    }
+    
+    /**
+     * @return dense n x 1 matrix with the same entries
+     */
+    public BigDecimalMatrix toDense() {
+        double[][] column = new double[values.length][1];
+        for (int i = 0; i < values.length; i++) {
+            column[i][0] = values[i];
+        }
+        return new BigDecimalMatrix(column);
+    }
+    
+    @Override
+    public Matrix<BigDecimal> rref() {
+        return toDense().rref();
+    }
+    
+    @Override
+    public BigDecimal determinant() throws IncompatibleDimensionsException {
+        return toDense().determinant();
+    }
+    
+    @Override
+    public Matrix<BigDecimal> minor(int row, int column) throws IndexOutOfBoundsException, IncompatibleDimensionsException {
+        return toDense().minor(row, column);
+    }
+    
+    /**
+     * @return 1 unless every entry is zero
+     */
+    @Override
+    public int rank() {
+        for (double value : values) {
+            if (value != 0) {
+                return 1;
+            }
+        }
+        return 0;
+    }
+    
+    @Override
+    public int nullity() {
+        return 1 - rank();
+    }
+    
+    @Override
+    public Matrix<BigDecimal> inverse() throws IncompatibleDimensionsException {
+        return toDense().inverse();
+    }
+    
+    @Override
+    public Set<Matrix<BigDecimal>> nullspace() {
+        return toDense().nullspace();
+    }
+    
+    @Override
+    public Complex[] eigenvalues() throws IncompatibleDimensionsException {
+        return toDense().eigenvalues();
+    }
+    
+    @Override
+    public Map<Complex, Set<Matrix<Complex>>> eigenMap() throws IncompatibleDimensionsException {
+        return toDense().eigenMap();
+    }
+    
+    @Override
+    public Set<Matrix<Complex>> eigenvectors(Complex eigenvalue) throws IncompatibleDimensionsException {
+        return toDense().eigenvectors(eigenvalue);
+    }
+    
+    @Override
+    public boolean rowNotZero(int row) {
+        return getElement(row, 0).signum() != 0;
+    }
+    
+    @Override
+    public Matrix<BigDecimal> stack(Matrix<BigDecimal> bottom) throws IncompatibleDimensionsException {
+        if (bottom.size()[1] != 1) {
+            throw new IncompatibleDimensionsException("Unable to stack due to different number of columns");
+        }
+        if (!(bottom instanceof Vector)) {
+            return toDense().stack(bottom);
+        }
+        Vector other = (Vector)bottom;
+        double[] stacked = Arrays.copyOf(values, values.length + other.values.length);
+        System.arraycopy(other.values, 0, stacked, values.length, other.values.length);
+        return new Vector(stacked, false);
+    }
+    
+    @Override
+    public String toString() {
+        return toDense().toString();
+    }
+    
+    /**
+     * Equal to any n x 1 Matrix with the same elements, as rounded by BigDecimalMatrix.equals
+     */
+    @Override
+    public boolean equals(Object that) {
+        return toDense().equals(that);
+    }
+    
+    /**
+     * Same as the hash code of the equal BigDecimalMatrix, without forming it
+     */
+    @Override
+    public int hashCode() {
+        return BigDecimalMatrix.contentHash(this);
+    }
+}
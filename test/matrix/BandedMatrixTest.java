@@ -0,0 +1,215 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Testing file for BandedMatrix and BandedLUDecomposition
+ * @author ParkerHall
+ *
+ */
+public class BandedMatrixTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -9);
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static double[][] randomBanded(int n, int lower, int upper, long seed) {
+        Random random = new Random(seed);
+        double[][] entries = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - lower); j <= Math.min(n - 1, i + upper); j++) {
+                entries[i][j] = random.nextDouble() - 0.5;
+            }
+        }
+        return entries;
+    }
+    
+    private static double residual(LinearOperator matrix, double[] x, double[] b) {
+        double[] product = new double[b.length];
+        matrix.apply(x, product);
+        double largest = 0;
+        for (int i = 0; i < b.length; i++) {
+            largest = Math.max(largest, Math.abs(product[i] - b[i]));
+        }
+        return largest;
+    }
+    
+    private static double[][] diagonals(double[][] entries, int lower, int upper) {
+        int n = entries.length;
+        double[][] diagonals = new double[lower + upper + 1][];
+        for (int d = -lower; d <= upper; d++) {
+            diagonals[d + lower] = new double[n - Math.abs(d)];
+            for (int i = Math.max(0, -d); i < Math.min(n, n - d); i++) {
+                diagonals[d + lower][i - Math.max(0, -d)] = entries[i][i + d];
+            }
+        }
+        return diagonals;
+    }
+    
+    /*
+     * Testing strategy for BandedMatrix:
+     *      bandwidths: diagonal, tridiagonal, unequal lower and upper, full
+     *      construction: from diagonals, from dense array, from Matrix, tridiagonal factory
+     *      operation: getElement, apply, applyTranspose, transpose, toDense, solve, determinant
+     *      pivoting: none needed, rows interchanged (zero on the diagonal)
+     *      size: 1, small, 10^5
+     *      input: valid, invalid
+     */
+    public static void testStorage() {
+        String output = "Test 1\t";
+        double[][] entries = randomBanded(7, 2, 1, 1);
+        BandedMatrix banded = new BandedMatrix(entries);
+        boolean check = banded.lowerBandwidth() == 2 && banded.upperBandwidth() == 1;
+        check &= banded.toDense().equals(new BigDecimalMatrix(entries));
+        check &= banded.getElement(5, 3) == entries[5][3] && banded.getElement(0, 6) == 0;
+        check &= banded.transpose().toDense().equals(new BigDecimalMatrix(entries).transpose());
+        check &= banded.transpose().lowerBandwidth() == 1;
+        BandedMatrix fromDiagonals = new BandedMatrix(3, 1, 0, new double[][] {{4, 5}, {1, 2, 3}});
+        check &= fromDiagonals.toDense().equals(new BigDecimalMatrix(new double[][] {{1, 0, 0}, {4, 2, 0}, {0, 5, 3}}));
+        check &= new BandedMatrix(fromDiagonals.toDense()).toDense().equals(fromDiagonals.toDense());
+        output += checkTrue("expected band storage to hold exactly the dense entries", check);
+        System.out.println(output);
+    }
+    
+    public static void testProducts() {
+        String output = "Test 2\t";
+        double[][] entries = randomBanded(9, 1, 3, 2);
+        BandedMatrix banded = new BandedMatrix(entries);
+        DenseOperator dense = new DenseOperator(entries);
+        double[] x = new double[9];
+        for (int i = 0; i < 9; i++) {
+            x[i] = i - 4.5;
+        }
+        double[] y = new double[9];
+        double[] expected = new double[9];
+        banded.apply(x, y);
+        dense.apply(x, expected);
+        boolean check = true;
+        for (int i = 0; i < 9; i++) {
+            check &= Math.abs(y[i] - expected[i]) < TOLERANCE;
+        }
+        banded.applyTranspose(x, y);
+        dense.applyTranspose(x, expected);
+        for (int i = 0; i < 9; i++) {
+            check &= Math.abs(y[i] - expected[i]) < TOLERANCE;
+        }
+        output += checkTrue("expected banded products to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testSolve() {
+        String output = "Test 3\t";
+        boolean check = true;
+        int[][] bandwidths = {{0, 0}, {1, 1}, {2, 1}, {1, 3}, {5, 5}};
+        for (int[] bandwidth : bandwidths) {
+            double[][] entries = randomBanded(6, bandwidth[0], bandwidth[1], 3);
+            BandedMatrix banded = new BandedMatrix(6, bandwidth[0], bandwidth[1], diagonals(entries, bandwidth[0], bandwidth[1]));
+            double[] b = {1, -2, 3, 0.5, 0, 4};
+            check &= residual(banded, banded.solve(b), b) < TOLERANCE;
+            BandedLUDecomposition lu = new BandedLUDecomposition(banded);
+            double determinant = new BigDecimalMatrix(entries).determinant().doubleValue();
+            check &= Math.abs(lu.determinant() - determinant) < TOLERANCE * Math.max(1, Math.abs(determinant));
+        }
+        //zero diagonal forces interchanges that fill in above the band
+        BandedMatrix pivoting = new BandedMatrix(new double[][] {
+            {0, 1, 0, 0}, {2, 0, 3, 0}, {0, 4, 0, 5}, {0, 0, 6, 1}});
+        double[] b = {1, 2, 3, 4};
+        check &= residual(pivoting, pivoting.solve(b), b) < TOLERANCE;
+        check &= Math.abs(new BandedLUDecomposition(pivoting).determinant() - pivoting.toDense().determinant().doubleValue()) < TOLERANCE;
+        Matrix<BigDecimal> rhs = new BigDecimalMatrix(new double[][] {{1, 0}, {0, 1}, {2, 0}, {0, 3}});
+        check &= pivoting.toDense().multiply(new BandedLUDecomposition(pivoting).solve(rhs)).equals(rhs);
+        check &= new BandedMatrix(new double[][] {{4}}).solve(new double[] {2})[0] == 0.5;
+        output += checkTrue("expected banded LU to solve with small residual", check);
+        System.out.println(output);
+    }
+    
+    public static void testTridiagonal() {
+        String output = "Test 4\t";
+        //1D Poisson matrix, tridiag(-1, 2, -1), at 10^5 unknowns
+        int n = 100000;
+        double[] subdiagonal = new double[n - 1];
+        double[] diagonal = new double[n];
+        double[] superdiagonal = new double[n - 1];
+        double[] b = new double[n];
+        Arrays.fill(subdiagonal, -1);
+        Arrays.fill(superdiagonal, -1);
+        Arrays.fill(diagonal, 2);
+        for (int i = 0; i < n; i++) {
+            b[i] = Math.sin(i * 0.001);
+        }
+        BandedMatrix poisson = BandedMatrix.tridiagonal(subdiagonal, diagonal, superdiagonal);
+        double[] thomas = BandedMatrix.solveTridiagonal(subdiagonal, diagonal, superdiagonal, b);
+        double[] lu = poisson.solve(b);
+        double scale = 0;
+        double difference = 0;
+        for (int i = 0; i < n; i++) {
+            scale = Math.max(scale, Math.abs(lu[i]));
+            difference = Math.max(difference, Math.abs(lu[i] - thomas[i]));
+        }
+        boolean check = residual(poisson, thomas, b) < Math.pow(10, -6) * scale / n;
+        check &= difference < Math.pow(10, -6) * scale;
+        check &= BandedMatrix.tridiagonal(new double[0], new double[] {2}, new double[0]).getElement(0, 0) == 2;
+        output += checkTrue("expected Thomas and banded LU to agree on the Poisson system", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 5\t";
+        int caught = 0;
+        try {
+            new BandedMatrix(3, 1, 1, new double[][] {{1, 1}, {1, 1, 1}});
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new BandedMatrix(3, 0, 0, new double[][] {{1, 1}});
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new BandedMatrix(new double[][] {{1, 2, 3}, {4, 5, 6}});
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new BandedMatrix(new double[][] {{1, 2}, {2, 4}}).solve(new double[] {1, 1});
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        try {
+            BandedMatrix.solveTridiagonal(new double[] {1}, new double[] {0, 1}, new double[] {1}, new double[] {1, 1});
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        try {
+            new BandedMatrix(new double[][] {{1, 0}, {0, 1}}).solve(new double[] {1, 2, 3});
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new BandedMatrix(new double[][] {{1, 0}, {0, 1}}).getElement(2, 0);
+        } catch (IndexOutOfBoundsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 7);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testStorage();
+        testProducts();
+        testSolve();
+        testTridiagonal();
+        testInvalidInput();
+    }
+}
@@ -0,0 +1,84 @@
+package matrix;
+
+import java.util.Arrays;
+
+/**
+ * Times the banded LU and Thomas solvers on banded systems with 10^6 unknowns, and a
+ * dense Cholesky solve of a 1D Poisson system at a size where dense storage still fits
+ * @author ParkerHall
+ *
+ */
+public class BandedSolverBenchmark {
+    
+    private final static int LARGE = 1000000;
+    private final static int DENSE = 1500;
+    
+    private static double[] constant(int length, double value) {
+        double[] array = new double[length];
+        Arrays.fill(array, value);
+        return array;
+    }
+    
+    private static double residual(LinearOperator matrix, double[] x, double[] b) {
+        double[] product = new double[b.length];
+        matrix.apply(x, product);
+        double largest = 0;
+        for (int i = 0; i < b.length; i++) {
+            largest = Math.max(largest, Math.abs(product[i] - b[i]));
+        }
+        return largest;
+    }
+    
+    public static void main(String args[]) {
+        double[] subdiagonal = constant(LARGE - 1, -1);
+        double[] diagonal = constant(LARGE, 2);
+        double[] b = new double[LARGE];
+        for (int i = 0; i < LARGE; i++) {
+            b[i] = Math.sin(i * 1e-4) / LARGE;
+        }
+        BandedMatrix tridiagonal = BandedMatrix.tridiagonal(subdiagonal, diagonal, subdiagonal);
+        //shifted biharmonic stencil (1, -4, 10, -4, 1), two diagonals either side
+        double[][] diagonals = {constant(LARGE - 2, 1), constant(LARGE - 1, -4), constant(LARGE, 10),
+            constant(LARGE - 1, -4), constant(LARGE - 2, 1)};
+        BandedMatrix pentadiagonal = new BandedMatrix(LARGE, 2, 2, diagonals);
+        
+        //warm up before timing
+        tridiagonal.solve(b);
+        BandedMatrix.solveTridiagonal(subdiagonal, diagonal, subdiagonal, b);
+        
+        System.out.println(String.format("Banded systems, %d unknowns", LARGE));
+        long start = System.nanoTime();
+        double[] thomas = BandedMatrix.solveTridiagonal(subdiagonal, diagonal, subdiagonal, b);
+        long time = System.nanoTime() - start;
+        System.out.println(String.format("    %-28s %10.1f ms, residual %.2e", "Thomas algorithm", time / 1e6, residual(tridiagonal, thomas, b)));
+        start = System.nanoTime();
+        double[] lu = tridiagonal.solve(b);
+        time = System.nanoTime() - start;
+        System.out.println(String.format("    %-28s %10.1f ms, residual %.2e", "banded LU, bandwidth 1", time / 1e6, residual(tridiagonal, lu, b)));
+        start = System.nanoTime();
+        double[] wide = pentadiagonal.solve(b);
+        time = System.nanoTime() - start;
+        System.out.println(String.format("    %-28s %10.1f ms, residual %.2e", "banded LU, bandwidth 2", time / 1e6, residual(pentadiagonal, wide, b)));
+        start = System.nanoTime();
+        double[] product = new double[LARGE];
+        tridiagonal.apply(lu, product);
+        System.out.println(String.format("    %-28s %10.1f ms", "banded matrix-vector product", (System.nanoTime() - start) / 1e6));
+        
+        double[][] dense = new double[DENSE][DENSE];
+        for (int i = 0; i < DENSE; i++) {
+            dense[i][i] = 2;
+            if (i > 0) {
+                dense[i][i - 1] = -1;
+                dense[i - 1][i] = -1;
+            }
+        }
+        double[] small = Arrays.copyOf(b, DENSE);
+        System.out.println(String.format("1D Poisson, %d unknowns", DENSE));
+        start = System.nanoTime();
+        new CholeskyDecomposition(dense, false).solve(small);
+        System.out.println(String.format("    %-28s %10.1f ms", "dense Cholesky", (System.nanoTime() - start) / 1e6));
+        start = System.nanoTime();
+        new BandedMatrix(dense).solve(small);
+        System.out.println(String.format("    %-28s %10.1f ms", "banded LU, from dense array", (System.nanoTime() - start) / 1e6));
+    }
+}
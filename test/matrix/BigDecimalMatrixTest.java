@@ -420,6 +420,19 @@ public class BigDecimalMatrixTest {
         System.out.println(output);
     } 
     
+    //stack tests
+    public static void testStackNonSquare() {
+        String output = "Test 31\t";
+        Matrix<BigDecimal> bottom = new BigDecimalMatrix(new double[][] {{7, 8, 9}});
+        Matrix<BigDecimal> solution = new BigDecimalMatrix(new double[][] {{1, 2, 3}, {4, 5, 6}, {7, 8, 9}});
+        boolean check = solution.equals(TWO_BY_THREE.stack(bottom));
+        Matrix<BigDecimal> column = new BigDecimalMatrix(new double[][] {{1}, {2}});
+        Matrix<BigDecimal> tall = column.stack(new BigDecimalMatrix(new double[][] {{3}, {4}, {5}}));
+        check &= tall.equals(new BigDecimalMatrix(new double[][] {{1}, {2}, {3}, {4}, {5}}));
+        output += checkTrue("expected rows of both matrices in order", check);
+        System.out.println(output);
+    }
+    
     public static void main(String args[]) {
         testGetElementInIn();
         testGetElementInOut();
@@ -451,5 +464,6 @@ public class BigDecimalMatrixTest {
         testDeterminantSecond();
         testDeterminantThird();
         testDeterminantFourth();
+        testStackNonSquare();
     }
 }
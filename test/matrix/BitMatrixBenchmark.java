@@ -0,0 +1,113 @@
+package matrix;
+
+import java.util.Random;
+
+/**
+ * Times rank and products over GF(2) with BitMatrix against row-by-row elimination on
+ * packed rows, without the Four Russians tables, and against BigDecimalMatrix on a small case
+ * @author ParkerHall
+ *
+ */
+public class BitMatrixBenchmark {
+    
+    private final static int SIZE = 4096;
+    private final static int SMALL = 64;
+    
+    private static boolean[][] random(int n, long seed) {
+        Random random = new Random(seed);
+        boolean[][] entries = new boolean[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                entries[i][j] = random.nextBoolean();
+            }
+        }
+        return entries;
+    }
+    
+    /**
+     * @return rank by Gaussian elimination adding one packed row at a time
+     */
+    private static int plainRank(boolean[][] entries) {
+        int n = entries.length;
+        int words = (n + 63) >>> 6;
+        long[][] rows = new long[n][words];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (entries[i][j]) {
+                    rows[i][j >>> 6] |= 1L << (j & 63);
+                }
+            }
+        }
+        int rank = 0;
+        for (int column = 0; column < n && rank < n; column++) {
+            long bit = 1L << (column & 63);
+            int word = column >>> 6;
+            int pivot = rank;
+            while (pivot < n && (rows[pivot][word] & bit) == 0) {
+                pivot++;
+            }
+            if (pivot == n) {
+                continue;
+            }
+            long[] temp = rows[pivot];
+            rows[pivot] = rows[rank];
+            rows[rank] = temp;
+            for (int i = rank + 1; i < n; i++) {
+                if ((rows[i][word] & bit) != 0) {
+                    for (int w = word; w < words; w++) {
+                        rows[i][w] ^= rows[rank][w];
+                    }
+                }
+            }
+            rank++;
+        }
+        return rank;
+    }
+    
+    private static void report(String label, long time) {
+        System.out.println(String.format("    %-36s %10.1f ms", label, time / 1e6));
+    }
+    
+    public static void main(String args[]) {
+        boolean[][] entries = random(SIZE, 1);
+        BitMatrix matrix = new BitMatrix(entries);
+        BitMatrix other = new BitMatrix(random(SIZE, 2));
+        
+        //warm up before timing
+        new BitMatrix(random(512, 3)).rank();
+        plainRank(random(512, 3));
+        new BitMatrix(random(512, 3)).multiply(new BitMatrix(random(512, 4)));
+        
+        System.out.println(String.format("GF(2), n = %d", SIZE));
+        long start = System.nanoTime();
+        int plain = plainRank(entries);
+        report("rank, one row at a time", System.nanoTime() - start);
+        start = System.nanoTime();
+        int rank = matrix.rank();
+        report("BitMatrix rank", System.nanoTime() - start);
+        System.out.println(String.format("    ranks agree: %b", plain == rank));
+        start = System.nanoTime();
+        matrix.multiply(other);
+        report("BitMatrix multiply", System.nanoTime() - start);
+        start = System.nanoTime();
+        matrix.transpose();
+        report("BitMatrix transpose", System.nanoTime() - start);
+        
+        System.out.println(String.format("GF(2), n = %d", SMALL));
+        boolean[][] small = random(SMALL, 5);
+        double[][] values = new double[SMALL][SMALL];
+        for (int i = 0; i < SMALL; i++) {
+            for (int j = 0; j < SMALL; j++) {
+                values[i][j] = small[i][j] ? 1 : 0;
+            }
+        }
+        BigDecimalMatrix dense = new BigDecimalMatrix(values);
+        start = System.nanoTime();
+        int realRank = dense.rank();
+        report("BigDecimalMatrix rank, over the reals", System.nanoTime() - start);
+        start = System.nanoTime();
+        int bitRank = new BitMatrix(small).rank();
+        report("BitMatrix rank", System.nanoTime() - start);
+        System.out.println(String.format("    ranks: %d over the reals, %d modulo 2", realRank, bitRank));
+    }
+}
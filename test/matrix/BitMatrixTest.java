@@ -0,0 +1,271 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Testing file for BitMatrix
+ * @author ParkerHall
+ *
+ */
+public class BitMatrixTest {
+    
+    private final static int[][] TRIANGLE = {{1, 1, 0}, {0, 1, 1}, {1, 0, 1}};
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static boolean[][] random(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        boolean[][] entries = new boolean[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                entries[i][j] = random.nextBoolean();
+            }
+        }
+        return entries;
+    }
+    
+    private static BitMatrix triangle() {
+        return new BitMatrix(TRIANGLE);
+    }
+    
+    /**
+     * @return product modulo 2, entry by entry
+     */
+    private static boolean[][] product(boolean[][] first, boolean[][] second) {
+        boolean[][] product = new boolean[first.length][second[0].length];
+        for (int i = 0; i < first.length; i++) {
+            for (int j = 0; j < second[0].length; j++) {
+                for (int k = 0; k < second.length; k++) {
+                    product[i][j] ^= first[i][k] & second[k][j];
+                }
+            }
+        }
+        return product;
+    }
+    
+    /**
+     * @return rank modulo 2 by Gaussian elimination one entry at a time
+     */
+    private static int rank(boolean[][] entries) {
+        boolean[][] a = new boolean[entries.length][];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = entries[i].clone();
+        }
+        int rank = 0;
+        for (int column = 0; column < a[0].length && rank < a.length; column++) {
+            int pivot = rank;
+            while (pivot < a.length && !a[pivot][column]) {
+                pivot++;
+            }
+            if (pivot == a.length) {
+                continue;
+            }
+            boolean[] temp = a[pivot];
+            a[pivot] = a[rank];
+            a[rank] = temp;
+            for (int i = rank + 1; i < a.length; i++) {
+                if (a[i][column]) {
+                    for (int j = column; j < a[0].length; j++) {
+                        a[i][j] ^= a[rank][j];
+                    }
+                }
+            }
+            rank++;
+        }
+        return rank;
+    }
+    
+    /*
+     * Testing strategy for BitMatrix:
+     *      dimensions: within one word, spanning words, not multiples of 64 or of the group size
+     *      construction: int (mod 2), boolean, BigDecimalMatrix of integers
+     *      operation: get, add, multiply, transpose, rank, rref, nullspace, inverse, determinant,
+     *                 minor, stack, eigenvalues
+     *      rank: full, deficient, zero
+     *      input: valid, invalid
+     */
+    public static void testConstruction() {
+        String output = "Test 1\t";
+        BitMatrix matrix = new BitMatrix(new int[][] {{1, 2, -3}, {4, 5, 0}});
+        boolean check = matrix.get(0, 0) && !matrix.get(0, 1) && matrix.get(0, 2) && matrix.get(1, 1);
+        check &= matrix.size()[0] == 2 && matrix.size()[1] == 3 && matrix.getElement(1, 0) == Boolean.FALSE;
+        check &= matrix.equals(new BitMatrix(new boolean[][] {{true, false, true}, {false, true, false}}));
+        check &= matrix.equals(new BitMatrix(new BigDecimalMatrix(new double[][] {{7, 10, 1}, {-2, 3, 6}})));
+        check &= matrix.hashCode() == new BitMatrix(new int[][] {{1, 0, 1}, {0, 1, 0}}).hashCode();
+        check &= matrix.getColumn(2)[0] && !matrix.getColumn(2)[1] && matrix.getRow(1)[1];
+        check &= matrix.toString().equals("1\t0\t1\n0\t1\t0\n");
+        check &= matrix.rowNotZero(1) && !new BitMatrix(3, 70).rowNotZero(2);
+        check &= BitMatrix.identity(130).get(129, 129) && !BitMatrix.identity(130).get(129, 65);
+        output += checkTrue("expected entries to be taken modulo 2 and packed by row", check);
+        System.out.println(output);
+    }
+    
+    public static void testArithmetic() {
+        String output = "Test 2\t";
+        boolean check = true;
+        int[][] shapes = {{3, 5, 2}, {70, 130, 65}, {64, 64, 64}, {1, 200, 9}};
+        for (int[] shape : shapes) {
+            boolean[][] first = random(shape[0], shape[1], shape[0]);
+            boolean[][] second = random(shape[1], shape[2], shape[1]);
+            BitMatrix product = new BitMatrix(first).multiply(new BitMatrix(second));
+            check &= product.equals(new BitMatrix(product(first, second)));
+            BitMatrix transpose = new BitMatrix(first).transpose();
+            for (int i = 0; i < shape[0]; i++) {
+                for (int j = 0; j < shape[1]; j++) {
+                    check &= transpose.get(j, i) == first[i][j];
+                }
+            }
+            check &= transpose.transpose().equals(new BitMatrix(first));
+        }
+        BitMatrix matrix = new BitMatrix(random(70, 90, 3));
+        check &= matrix.add(matrix).equals(new BitMatrix(70, 90)) && matrix.subtract(matrix.multiply(3)).rank() == 0;
+        check &= matrix.multiply(-2).equals(new BitMatrix(70, 90)) && matrix.multiply(BitMatrix.identity(90)).equals(matrix);
+        BitMatrix stacked = matrix.stack(BitMatrix.identity(90));
+        check &= stacked.size()[0] == 160 && stacked.get(70 + 89, 89) && stacked.get(3, 5) == matrix.get(3, 5);
+        output += checkTrue("expected word-parallel arithmetic to match entrywise arithmetic modulo 2", check);
+        System.out.println(output);
+    }
+    
+    public static void testRank() {
+        String output = "Test 3\t";
+        //over the reals the determinant is 2, so modulo 2 the matrix is singular
+        BigDecimalMatrix real = new BigDecimalMatrix(new double[][] {{1, 1, 0}, {0, 1, 1}, {1, 0, 1}});
+        BitMatrix triangle = new BitMatrix(TRIANGLE);
+        boolean check = real.rank() == 3 && triangle.rank() == 2 && !triangle.determinant();
+        check &= triangle.rref().equals(new BitMatrix(new int[][] {{1, 0, 1}, {0, 1, 1}, {0, 0, 0}}));
+        for (int[] shape : new int[][] {{50, 50}, {100, 300}, {300, 100}, {129, 129}}) {
+            boolean[][] entries = random(shape[0], shape[1], shape[0] + shape[1]);
+            BitMatrix matrix = new BitMatrix(entries);
+            check &= matrix.rank() == rank(entries) && matrix.nullity() == shape[1] - rank(entries);
+            BitMatrix reduced = matrix.rref();
+            check &= reduced.rank() == matrix.rank() && reduced.rref().equals(reduced);
+        }
+        //a zero column shifts every later group of pivots off word alignment
+        boolean[][] shifted = random(100, 100, 7);
+        for (int i = 0; i < 100; i++) {
+            shifted[i][3] = false;
+        }
+        BitMatrix offset = new BitMatrix(shifted);
+        check &= offset.rank() == rank(shifted);
+        for (Matrix<Boolean> vector : offset.nullspace()) {
+            check &= offset.multiply(vector).rank() == 0;
+        }
+        //low rank: a product through 20 dimensions
+        BitMatrix low = new BitMatrix(random(200, 20, 1)).multiply(new BitMatrix(random(20, 150, 2)));
+        check &= low.rank() == rank(product(random(200, 20, 1), random(20, 150, 2))) && low.rank() <= 20;
+        check &= new BitMatrix(40, 40).rank() == 0 && BitMatrix.identity(300).rank() == 300;
+        output += checkTrue("expected Four Russians elimination to match entrywise elimination", check);
+        System.out.println(output);
+    }
+    
+    public static void testNullspaceAndInverse() {
+        String output = "Test 4\t";
+        boolean check = true;
+        //parity-check matrix of the [7, 4] Hamming code: its nullspace is the code
+        BitMatrix hamming = new BitMatrix(new int[][] {
+            {1, 0, 1, 0, 1, 0, 1}, {0, 1, 1, 0, 0, 1, 1}, {0, 0, 0, 1, 1, 1, 1}});
+        Set<Matrix<Boolean>> code = hamming.nullspace();
+        check &= code.size() == 4;
+        BitMatrix generator = null;
+        for (Matrix<Boolean> word : code) {
+            check &= hamming.multiply(word).rank() == 0;
+            generator = generator == null ? ((BitMatrix)word).transpose() : generator.stack(word.transpose());
+        }
+        check &= generator.rank() == 4;
+        BitMatrix wide = new BitMatrix(random(90, 200, 4));
+        Set<Matrix<Boolean>> nullspace = wide.nullspace();
+        check &= nullspace.size() == wide.nullity();
+        for (Matrix<Boolean> vector : nullspace) {
+            check &= wide.multiply(vector).rank() == 0;
+        }
+        for (int n : new int[] {5, 64, 100}) {
+            for (long seed = 0; seed < 10; seed++) {
+                BitMatrix matrix = new BitMatrix(random(n, n, 100 * n + seed));
+                if (matrix.determinant()) {
+                    BitMatrix inverse = matrix.inverse();
+                    check &= matrix.multiply(inverse).equals(BitMatrix.identity(n)) && inverse.multiply(matrix).equals(BitMatrix.identity(n));
+                }
+            }
+        }
+        //removing column 65 shifts the later columns down across the word boundary
+        BitMatrix square = new BitMatrix(random(70, 70, 9));
+        BitMatrix minor = square.minor(3, 65);
+        check &= minor.size()[0] == 69 && minor.get(3, 64) == square.get(4, 64) && minor.get(2, 1) == square.get(2, 1);
+        check &= minor.get(5, 65) == square.get(6, 66) && minor.get(68, 68) == square.get(69, 69);
+        Complex[] eigenvalues = triangle().eigenvalues();
+        check &= eigenvalues.length == 1 && eigenvalues[0].equals(new Complex(0, 0));
+        check &= triangle().eigenvectors(new Complex(0, 0)).size() == 1 && BitMatrix.identity(3).eigenMap().get(new Complex(1, 0)).size() == 3;
+        output += checkTrue("expected nullspace vectors to be annihilated and inverses to give the identity", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 5\t";
+        int caught = 0;
+        try {
+            new BitMatrix(0, 5);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new BitMatrix(new int[][] {{1, 0}, {1}});
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new BitMatrix(new BigDecimalMatrix(new double[][] {{1, 0.5}}));
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            triangle().inverse();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            triangle().multiply(new BitMatrix(2, 3));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            triangle().multiply(0.5);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            new BitMatrix(2, 3).determinant();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            triangle().eigenvectors(new Complex(2, 0));
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            triangle().get(3, 0);
+        } catch (IndexOutOfBoundsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 9);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testConstruction();
+        testArithmetic();
+        testRank();
+        testNullspaceAndInverse();
+        testInvalidInput();
+    }
+}
@@ -0,0 +1,215 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/**
+ * Testing file for BlockMatrix and BlockLUDecomposition
+ * @author ParkerHall
+ *
+ */
+public class BlockMatrixTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -9);
+    private final static BigDecimalMatrix HESSIAN = new BigDecimalMatrix(new double[][] {
+        {4, 1, 0}, {1, 3, -1}, {0, -1, 2}});
+    private final static BigDecimalMatrix CONSTRAINTS = new BigDecimalMatrix(new double[][] {
+        {1, 1, 1}, {1, -1, 0}});
+    private final static BigDecimalMatrix SQUARE = new BigDecimalMatrix(new double[][] {
+        {2, -1}, {0.5, 3}});
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static boolean close(double[] first, double[] second) {
+        for (int i = 0; i < first.length; i++) {
+            if (Math.abs(first[i] - second[i]) > TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // warnings suppressed as arrays of a generic type cannot be created directly
+    @SuppressWarnings("unchecked")
+    private static Matrix<BigDecimal>[][] grid(Matrix<?>[][] blocks) {
+        return (Matrix<BigDecimal>[][])blocks;
+    }
+    
+    /**
+     * @return KKT matrix [H A^T; A 0] of an equality-constrained quadratic program
+     */
+    private static BlockMatrix kkt() {
+        return new BlockMatrix(grid(new Matrix<?>[][] {{HESSIAN, CONSTRAINTS.transpose()}, {CONSTRAINTS, null}}));
+    }
+    
+    /*
+     * Testing strategy for BlockMatrix:
+     *      composition: vstack, hstack, block diagonal, grid, nested, with zero blocks
+     *      other operand: same partition, other partition, dense, on either side
+     *      operation: getElement, getRow, getColumn, apply, applyTranspose, transpose,
+     *                 add, multiply, determinant, inverse, solve
+     *      block LU: nonsingular leading blocks, singular leading block (falls back to pivoting)
+     *      input: valid, invalid
+     */
+    public static void testComposition() {
+        String output = "Test 1\t";
+        BlockMatrix vertical = BlockMatrix.vstack(HESSIAN, CONSTRAINTS);
+        boolean check = vertical.getBlock(0, 0) == HESSIAN && vertical.getBlock(1, 0) == CONSTRAINTS;
+        check &= vertical.equals(HESSIAN.stack(CONSTRAINTS));
+        BlockMatrix horizontal = BlockMatrix.hstack(CONSTRAINTS, SQUARE);
+        check &= horizontal.size()[0] == 2 && horizontal.size()[1] == 5;
+        check &= horizontal.getElement(1, 4).doubleValue() == 3 && horizontal.getElement(1, 1).doubleValue() == -1;
+        check &= horizontal.transpose().equals(CONSTRAINTS.transpose().stack(SQUARE.transpose()));
+        BlockMatrix diagonal = BlockMatrix.blockDiagonal(HESSIAN, SQUARE);
+        check &= diagonal.getBlock(0, 1) == null && diagonal.getElement(4, 0).signum() == 0;
+        check &= diagonal.getElement(3, 4).doubleValue() == -1;
+        BlockMatrix dense = kkt();
+        BigDecimalMatrix expected = dense.toDense();
+        check &= expected.getElement(3, 0).doubleValue() == 1 && expected.getElement(0, 4).doubleValue() == 1;
+        check &= expected.getElement(4, 4).signum() == 0 && expected.equals(expected.transpose());
+        check &= new BigDecimalMatrix(new BigDecimal[][] {dense.getColumn(3)}).equals(new BigDecimalMatrix(new BigDecimal[][] {expected.getColumn(3)}));
+        //nesting keeps the inner matrix as one block
+        BlockMatrix nested = BlockMatrix.hstack(vertical, HESSIAN.stack(CONSTRAINTS));
+        check &= nested.getBlock(0, 0) == vertical && nested.blockColumns() == 2;
+        check &= nested.toDense().equals(new BigDecimalMatrix(new double[][] {
+            {4, 1, 0, 4, 1, 0}, {1, 3, -1, 1, 3, -1}, {0, -1, 2, 0, -1, 2}, {1, 1, 1, 1, 1, 1}, {1, -1, 0, 1, -1, 0}}));
+        check &= vertical.stack(SQUARE.multiply(new BigDecimalMatrix(new double[][] {{1, 0, 1}, {0, 1, 1}}))) instanceof BlockMatrix;
+        output += checkTrue("expected composition to keep the blocks and match dense stacking", check);
+        System.out.println(output);
+    }
+    
+    public static void testArithmetic() {
+        String output = "Test 2\t";
+        BlockMatrix kkt = kkt();
+        BigDecimalMatrix dense = kkt.toDense();
+        boolean check = kkt.add(kkt) instanceof BlockMatrix && kkt.add(kkt).equals(dense.multiply(2));
+        check &= kkt.subtract(dense).equals(new BigDecimalMatrix(new double[5][5]));
+        check &= kkt.multiply(-0.5).equals(dense.multiply(-0.5));
+        Matrix<BigDecimal> squared = kkt.multiply(kkt);
+        check &= squared instanceof BlockMatrix && squared.equals(dense.multiply(dense));
+        //a different partition of the same size is cut to match
+        BlockMatrix diagonal = BlockMatrix.blockDiagonal(SQUARE, HESSIAN);
+        check &= kkt.multiply(diagonal).equals(dense.multiply(diagonal.toDense()));
+        check &= kkt.add(diagonal).equals(dense.add(diagonal.toDense()));
+        Matrix<BigDecimal> rectangular = CONSTRAINTS.transpose().stack(SQUARE);
+        check &= kkt.multiply(rectangular).equals(dense.multiply(rectangular));
+        Matrix<BigDecimal> left = rectangular.transpose().multiply(kkt);
+        check &= left instanceof BlockMatrix && left.equals(rectangular.transpose().multiply(dense));
+        double[] x = {1, -2, 0.5, 3, -1};
+        double[] y = new double[5];
+        double[] expected = new double[5];
+        kkt.apply(x, y);
+        new DenseOperator(dense).apply(x, expected);
+        check &= close(y, expected);
+        BlockMatrix horizontal = BlockMatrix.hstack(CONSTRAINTS, SQUARE);
+        double[] z = {2, -1};
+        double[] transposed = new double[5];
+        horizontal.applyTranspose(z, transposed);
+        new DenseOperator(horizontal.toDense()).applyTranspose(z, expected);
+        check &= close(transposed, expected);
+        output += checkTrue("expected block arithmetic to match dense arithmetic", check);
+        System.out.println(output);
+    }
+    
+    public static void testBlockLU() {
+        String output = "Test 3\t";
+        BlockMatrix kkt = kkt();
+        BigDecimalMatrix dense = kkt.toDense();
+        BlockLUDecomposition lu = new BlockLUDecomposition(kkt);
+        boolean check = lu.getL().multiply(lu.getU()).equals(kkt);
+        check &= lu.getU().getBlock(0, 0) instanceof IdentityMatrix && lu.getL().getBlock(0, 1) == null;
+        check &= Math.abs(lu.determinant() - dense.determinant().doubleValue()) < TOLERANCE;
+        check &= Math.abs(kkt.determinant().doubleValue() - dense.determinant().doubleValue()) < TOLERANCE;
+        //minimize x^T H x / 2 - c^T x subject to A x = d
+        Matrix<BigDecimal> rhs = new BigDecimalMatrix(new double[][] {{1, 0}, {0, 1}, {2, 0}, {1, 0}, {0, 1}});
+        BlockMatrix solution = lu.solve(rhs);
+        check &= solution.blockRows() == 2 && kkt.multiply(solution).equals(rhs);
+        Matrix<BigDecimal> inverse = kkt.inverse();
+        check &= inverse instanceof BlockMatrix && inverse.multiply(dense).equals(BigDecimalMatrix.identity(5));
+        //three block rows with zero corners
+        BlockMatrix tridiagonal = new BlockMatrix(grid(new Matrix<?>[][] {
+            {SQUARE, SQUARE.transpose(), null},
+            {BigDecimalMatrix.identity(2), SQUARE.multiply(3), SQUARE},
+            {null, new DiagonalMatrix(new double[] {1, -1}), SQUARE.add(SQUARE.transpose())}}));
+        check &= tridiagonal.inverse().multiply(tridiagonal).equals(BigDecimalMatrix.identity(6));
+        check &= Math.abs(tridiagonal.determinant().doubleValue() - new BandedLUDecomposition(new BandedMatrix(tridiagonal.toDense())).determinant()) < TOLERANCE;
+        output += checkTrue("expected block LU to factor and solve through the blocks", check);
+        System.out.println(output);
+    }
+    
+    public static void testSingularLeadingBlock() {
+        String output = "Test 4\t";
+        //a zero leading block: block LU fails and the dense pivoted LU takes over
+        BlockMatrix swap = new BlockMatrix(grid(new Matrix<?>[][] {{null, SQUARE}, {SQUARE.transpose(), HESSIAN.minor(0, 0)}}));
+        BigDecimalMatrix dense = swap.toDense();
+        boolean check = Math.abs(swap.determinant().doubleValue() - dense.determinant().doubleValue()) < TOLERANCE;
+        check &= swap.inverse().multiply(dense).equals(BigDecimalMatrix.identity(4));
+        boolean caught = false;
+        try {
+            new BlockLUDecomposition(swap);
+        } catch (ArithmeticException ex) {
+            caught = true;
+        }
+        check &= caught;
+        check &= BlockMatrix.blockDiagonal(SQUARE, new BigDecimalMatrix(new double[][] {{1, 2}, {2, 4}})).determinant().signum() == 0;
+        output += checkTrue("expected singular leading blocks to fall back to pivoted LU", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 5\t";
+        int caught = 0;
+        try {
+            BlockMatrix.vstack(HESSIAN, SQUARE);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            BlockMatrix.hstack(HESSIAN, CONSTRAINTS);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new BlockMatrix(grid(new Matrix<?>[][] {{HESSIAN, null}, {null, null}}));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new BlockLUDecomposition(BlockMatrix.vstack(CONSTRAINTS, SQUARE.multiply(new BigDecimalMatrix(new double[][] {{1, 0, 1}, {0, 1, 1}}))));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            kkt().multiply(SQUARE);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            BlockMatrix.blockDiagonal(SQUARE, SQUARE.multiply(0)).inverse();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            kkt().getElement(5, 0);
+        } catch (IndexOutOfBoundsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 7);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testComposition();
+        testArithmetic();
+        testBlockLU();
+        testSingularLeadingBlock();
+        testInvalidInput();
+    }
+}
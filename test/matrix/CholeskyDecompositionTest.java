@@ -0,0 +1,216 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Testing file for CholeskyDecomposition
+ * @author ParkerHall
+ *
+ */
+public class CholeskyDecompositionTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -9);
+    private final static double[][] SMALL = {{4, 2, -2}, {2, 10, 2}, {-2, 2, 6}};
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /**
+     * @return symmetric positive-definite n x n array B B^T + n I with random B
+     */
+    private static double[][] randomPositiveDefinite(int n, long seed) {
+        Random random = new Random(seed);
+        double[][] b = new double[n][n];
+        for (double[] row : b) {
+            for (int j = 0; j < n; j++) {
+                row[j] = random.nextGaussian();
+            }
+        }
+        double[][] output = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = i == j ? n : 0;
+                for (int k = 0; k < n; k++) {
+                    sum += b[i][k] * b[j][k];
+                }
+                output[i][j] = sum;
+                output[j][i] = sum;
+            }
+        }
+        return output;
+    }
+    
+    /**
+     * @return largest entry of |first - second|
+     */
+    private static double difference(Matrix<BigDecimal> first, Matrix<BigDecimal> second) {
+        double largest = 0;
+        int[] size = first.size();
+        for (int i = 0; i < size[0]; i++) {
+            for (int j = 0; j < size[1]; j++) {
+                largest = Math.max(largest, first.getElement(i, j).subtract(second.getElement(i, j)).abs().doubleValue());
+            }
+        }
+        return largest;
+    }
+    
+    /*
+     * Testing strategy for CholeskyDecomposition:
+     *      matrix: positive definite, indefinite, semidefinite, nonpositive diagonal,
+     *              non-symmetric, non-square
+     *      size: within one block, across several blocks
+     *      mode: sequential, parallel
+     *      methods: getL, isPositiveDefinite, solve, inverse, logDeterminant
+     */
+    public static void testPositiveDefinite() {
+        String output = "Test 1\t";
+        BigDecimalMatrix small = new BigDecimalMatrix(SMALL);
+        Matrix<BigDecimal> l = new CholeskyDecomposition(small).getL();
+        boolean check = l.multiply(l.transpose()).equals(small) && CholeskyDecomposition.isPositiveDefinite(small);
+        check &= l.getElement(0, 0).doubleValue() == 2 && l.getElement(0, 2).signum() == 0;
+        //larger than a block, so the panel solve and trailing update are exercised
+        double[][] large = randomPositiveDefinite(150, 34);
+        BigDecimalMatrix dense = new BigDecimalMatrix(large);
+        Matrix<BigDecimal> sequential = new CholeskyDecomposition(dense).getL();
+        Matrix<BigDecimal> parallel = new CholeskyDecomposition(large, true).getL();
+        check &= difference(sequential.multiply(sequential.transpose()), dense) < TOLERANCE;
+        check &= sequential.equals(parallel) && CholeskyDecomposition.isPositiveDefinite(dense);
+        for (int i = 0; i < 150; i++) {
+            check &= sequential.getElement(i, i).signum() > 0;
+        }
+        output += checkTrue("expected L L^T = A with positive diagonal", check);
+        System.out.println(output);
+    }
+    
+    public static void testNotPositiveDefinite() {
+        String output = "Test 2\t";
+        double[][][] cases = {
+            {{1, 2}, {2, 1}},
+            {{1, 1}, {1, 1}},
+            {{4, 1, 0}, {1, -3, 2}, {0, 2, 5}},
+            {{0, 0}, {0, 1}}
+        };
+        int caught = 0;
+        boolean check = true;
+        for (double[][] entries : cases) {
+            check &= !CholeskyDecomposition.isPositiveDefinite(new BigDecimalMatrix(entries));
+            try {
+                new CholeskyDecomposition(entries, false);
+            } catch (ArithmeticException e) {
+                caught++;
+            }
+        }
+        //positive diagonal, but a negative pivot past the first block
+        double[][] large = randomPositiveDefinite(100, 35);
+        for (int i = 0; i < 100; i++) {
+            large[i][80] *= 50;
+            large[80][i] *= 50;
+        }
+        large[80][80] /= 2500;
+        check &= !CholeskyDecomposition.isPositiveDefinite(new BigDecimalMatrix(large));
+        try {
+            new CholeskyDecomposition(large, true);
+        } catch (ArithmeticException e) {
+            caught++;
+        }
+        output += checkTrue("expected matrices that are not positive definite to be rejected", check && caught == 5);
+        System.out.println(output);
+    }
+    
+    public static void testNonSymmetric() {
+        String output = "Test 3\t";
+        double[][] nonSymmetric = {{4, 1}, {1.5, 3}};
+        double[][] nonSquare = {{4, 1, 0}, {1, 3, 0}};
+        boolean check = !CholeskyDecomposition.isPositiveDefinite(new BigDecimalMatrix(nonSymmetric));
+        check &= !CholeskyDecomposition.isPositiveDefinite(new BigDecimalMatrix(nonSquare));
+        //asymmetry within the relative tolerance is accepted
+        check &= CholeskyDecomposition.isPositiveDefinite(new BigDecimalMatrix(new double[][] {{4, 1 + 1e-12}, {1, 3}}));
+        int caught = 0;
+        try {
+            new CholeskyDecomposition(nonSymmetric, false);
+        } catch (IncompatibleDimensionsException e) {
+            caught++;
+        }
+        try {
+            new CholeskyDecomposition(new BigDecimalMatrix(nonSquare));
+        } catch (IncompatibleDimensionsException e) {
+            caught++;
+        }
+        output += checkTrue("expected non-symmetric and non-square matrices to be rejected", check && caught == 2);
+        System.out.println(output);
+    }
+    
+    public static void testSolve() {
+        String output = "Test 4\t";
+        CholeskyDecomposition small = new CholeskyDecomposition(new BigDecimalMatrix(SMALL));
+        double[] x = small.solve(new double[] {4, 14, 6});
+        boolean check = Math.abs(x[0] - 1) < TOLERANCE && Math.abs(x[1] - 1) < TOLERANCE && Math.abs(x[2] - 1) < TOLERANCE;
+        double[][] large = randomPositiveDefinite(100, 36);
+        BigDecimalMatrix dense = new BigDecimalMatrix(large);
+        double[][] solution = new double[100][3];
+        Random random = new Random(37);
+        for (double[] row : solution) {
+            for (int j = 0; j < 3; j++) {
+                row[j] = random.nextGaussian();
+            }
+        }
+        BigDecimalMatrix expected = new BigDecimalMatrix(solution);
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(large, true);
+        check &= difference(cholesky.solve(dense.multiply(expected)), expected) < TOLERANCE;
+        check &= difference(dense.multiply(cholesky.inverse()), BigDecimalMatrix.identity(100)) < TOLERANCE;
+        output += checkTrue("expected solutions of A X = B and A A^(-1) = I", check);
+        System.out.println(output);
+    }
+    
+    public static void testDeterminant() {
+        String output = "Test 5\t";
+        BigDecimalMatrix small = new BigDecimalMatrix(SMALL);
+        double determinant = small.determinant().doubleValue();
+        boolean check = Math.abs(new CholeskyDecomposition(small).logDeterminant() - Math.log(determinant)) < TOLERANCE;
+        //the determinant 10^1000 overflows a double, but its logarithm does not
+        double[] diagonal = new double[10];
+        for (int i = 0; i < 10; i++) {
+            diagonal[i] = 1e100;
+        }
+        double log = new CholeskyDecomposition(new DiagonalMatrix(diagonal)).logDeterminant();
+        check &= Math.abs(log - 1000 * Math.log(10)) < TOLERANCE * 1000;
+        check &= new CholeskyDecomposition(BigDecimalMatrix.identity(5)).logDeterminant() == 0;
+        output += checkTrue("expected the log determinant to match the determinant", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 6\t";
+        int caught = 0;
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(new BigDecimalMatrix(SMALL));
+        try {
+            cholesky.solve(new double[] {1, 2});
+        } catch (IncompatibleDimensionsException e) {
+            caught++;
+        }
+        try {
+            cholesky.solve(new BigDecimalMatrix(new double[][] {{1}, {2}}));
+        } catch (IncompatibleDimensionsException e) {
+            caught++;
+        }
+        output += checkTrue("expected right-hand sides of the wrong size to be caught", caught == 2);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testPositiveDefinite();
+        testNotPositiveDefinite();
+        testNonSymmetric();
+        testSolve();
+        testDeterminant();
+        testInvalidInput();
+    }
+}
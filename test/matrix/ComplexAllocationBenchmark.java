@@ -0,0 +1,85 @@
+package matrix;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Measures bytes allocated and time per call for the complex arithmetic hot loops
+ * Requires a HotSpot JVM, whose ThreadMXBean reports per-thread allocation
+ * @author ParkerHall
+ *
+ */
+public class ComplexAllocationBenchmark {
+    
+    private final static int WARMUP_RUNS = 20;
+    private final static int TIMED_RUNS = 20;
+    private final static int DOT_LENGTH = 100000;
+    private final static int MATRIX_SIZE = 40;
+    private final static int POLY_DEGREE = 20;
+    
+    private final static com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    
+    private static volatile Object sink;
+    
+    private static long allocatedBytes() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    
+    private static void report(String name, Runnable task) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            task.run();
+        }
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            task.run();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / TIMED_RUNS;
+        double kilobytes = (allocatedBytes() - bytesBefore) / 1024.0 / TIMED_RUNS;
+        System.out.println(String.format("%-34s%10.3f ms\t%12.1f KB/call", name, millis, kilobytes));
+    }
+    
+    public static void main(String args[]) {
+        Random random = new Random(42);
+        
+        Complex[] left = new Complex[DOT_LENGTH];
+        Complex[] right = new Complex[DOT_LENGTH];
+        for (int i = 0; i < DOT_LENGTH; i++) {
+            left[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+            right[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+        }
+        
+        //with inlining and escape analysis the immutable loop may also reach zero bytes
+        report("dot product, immutable Complex", () -> {
+            Complex sum = new Complex(0, 0);
+            for (int i = 0; i < DOT_LENGTH; i++) {
+                sum = sum.add(left[i].mult(right[i]));
+            }
+            sink = sum;
+        });
+        report("dot product, ComplexAccumulator", () -> {
+            ComplexAccumulator sum = new ComplexAccumulator();
+            for (int i = 0; i < DOT_LENGTH; i++) {
+                sum.addProduct(left[i], right[i]);
+            }
+            sink = sum.toComplex();
+        });
+        
+        Complex[][] grid = new Complex[MATRIX_SIZE][MATRIX_SIZE];
+        for (int i = 0; i < MATRIX_SIZE; i++) {
+            for (int j = 0; j < MATRIX_SIZE; j++) {
+                grid[i][j] = new Complex(random.nextGaussian(), random.nextGaussian());
+            }
+        }
+        Matrix<Complex> matrix = new ComplexMatrix(grid);
+        report("ComplexMatrix.rref " + MATRIX_SIZE + "x" + MATRIX_SIZE, () -> sink = matrix.rref());
+        
+        Complex[] coeffs = new Complex[POLY_DEGREE + 1];
+        for (int i = 0; i <= POLY_DEGREE; i++) {
+            coeffs[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+        }
+        ComplexPoly poly = new ComplexPoly(coeffs);
+        report("ComplexPoly.zeroes degree " + POLY_DEGREE, () -> sink = poly.zeroes(8));
+    }
+}
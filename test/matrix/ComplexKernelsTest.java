@@ -0,0 +1,193 @@
+package matrix;
+
+import java.util.Random;
+
+/**
+ * Testing file for ComplexKernels and ComplexAccumulator
+ * @author ParkerHall
+ *
+ */
+public class ComplexKernelsTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -12);
+    private final static int LENGTH = 50;
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static Complex[] random(int n, long seed) {
+        Random random = new Random(seed);
+        Complex[] values = new Complex[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = new Complex(random.nextGaussian(), random.nextGaussian());
+        }
+        return values;
+    }
+    
+    /**
+     * (a + bi) * (c + di) = (a*c - b*d) + (a*d + b*c)i, term by term as Complex once computed it
+     */
+    private static Complex referenceMult(Complex first, Complex second) {
+        double ac = first.getReal() * second.getReal();
+        double bd = first.getImag() * second.getImag();
+        double ad = first.getReal() * second.getImag();
+        double bc = first.getImag() * second.getReal();
+        return new Complex(ac - bd, ad + bc);
+    }
+    
+    /**
+     * (a + bi) / (c + di) = (a + bi)(c - di) / |c + di|^2, as Complex once computed it
+     */
+    private static Complex referenceDiv(Complex first, Complex second) {
+        Complex numerator = referenceMult(first, second.conjugate());
+        double denominator = Math.pow(second.magnitude(), 2);
+        return new Complex(numerator.getReal() / denominator, numerator.getImag() / denominator);
+    }
+    
+    private static boolean close(Complex expected, double re, double im) {
+        double scale = Math.max(1, expected.magnitude());
+        return Math.abs(expected.getReal() - re) <= TOLERANCE * scale
+                && Math.abs(expected.getImag() - im) <= TOLERANCE * scale;
+    }
+    
+    /*
+     * Testing strategy for ComplexKernels and ComplexAccumulator:
+     *      operation: multiply, divide, fused multiply-add, Horner evaluation, array updates
+     *      operands: random, purely real, purely imaginary
+     *      compared against: the term-by-term Complex arithmetic the kernels replace
+     *      caller: ComplexAccumulator, ComplexMatrix.multiply, ComplexPoly.plugIn
+     */
+    public static void testScalarKernels() {
+        String output = "Test 1\t";
+        Complex[] first = random(LENGTH, 1);
+        Complex[] second = random(LENGTH, 2);
+        first[0] = new Complex(3, 0);
+        second[1] = new Complex(0, -2);
+        boolean check = true;
+        for (int i = 0; i < LENGTH; i++) {
+            Complex a = first[i];
+            Complex b = second[i];
+            Complex product = referenceMult(a, b);
+            check &= ComplexKernels.multRe(a.getReal(), a.getImag(), b.getReal(), b.getImag()) == product.getReal();
+            check &= ComplexKernels.multIm(a.getReal(), a.getImag(), b.getReal(), b.getImag()) == product.getImag();
+            check &= a.mult(b).equals(product);
+            Complex quotient = referenceDiv(a, b);
+            check &= close(quotient, ComplexKernels.divRe(a.getReal(), a.getImag(), b.getReal(), b.getImag()),
+                    ComplexKernels.divIm(a.getReal(), a.getImag(), b.getReal(), b.getImag()));
+            check &= close(quotient, a.div(b).getReal(), a.div(b).getImag());
+            check &= ComplexKernels.magnitudeSquared(a.getReal(), a.getImag()) == a.getReal() * a.getReal()
+                    + a.getImag() * a.getImag();
+        }
+        output += checkTrue("expected the kernels to match Complex arithmetic", check);
+        System.out.println(output);
+    }
+    
+    public static void testAccumulator() {
+        String output = "Test 2\t";
+        Complex[] first = random(LENGTH, 3);
+        Complex[] second = random(LENGTH, 4);
+        //a dot product accumulated in place against the same sum built from immutable values
+        ComplexAccumulator dot = new ComplexAccumulator();
+        Complex expected = new Complex(0, 0);
+        for (int i = 0; i < LENGTH; i++) {
+            dot.addProduct(first[i], second[i]);
+            expected = expected.add(referenceMult(first[i], second[i]));
+        }
+        boolean check = dot.toComplex().equals(expected);
+        //a chain of updates against the same chain of immutable operations
+        ComplexAccumulator chain = new ComplexAccumulator().set(first[0]);
+        Complex reference = first[0];
+        for (int i = 1; i < LENGTH; i++) {
+            chain.mult(second[i]).add(first[i]).sub(0.5, -0.25).div(second[i - 1]);
+            reference = referenceDiv(referenceMult(reference, second[i]).add(first[i]).sub(new Complex(0.5, -0.25)),
+                    second[i - 1]);
+            check &= close(reference, chain.getReal(), chain.getImag());
+            chain.set(reference);
+        }
+        check &= Math.abs(chain.magnitudeSquared() - Math.pow(reference.magnitude(), 2)) <= TOLERANCE
+                * Math.max(1, chain.magnitudeSquared());
+        output += checkTrue("expected accumulated products to match Complex arithmetic", check);
+        System.out.println(output);
+    }
+    
+    public static void testArrayKernels() {
+        String output = "Test 3\t";
+        Complex[] x = random(LENGTH, 5);
+        Complex[] y = random(LENGTH, 6);
+        Complex a = new Complex(0.75, -1.5);
+        double[] xRe = ComplexKernels.realParts(x);
+        double[] xIm = ComplexKernels.imagParts(x);
+        double[] yRe = ComplexKernels.realParts(y);
+        double[] yIm = ComplexKernels.imagParts(y);
+        //only the middle of the range is updated
+        ComplexKernels.axpy(a.getReal(), a.getImag(), xRe, xIm, yRe, yIm, 10, 40);
+        boolean check = true;
+        for (int i = 0; i < LENGTH; i++) {
+            Complex expected = i >= 10 && i < 40 ? y[i].add(referenceMult(a, x[i])) : y[i];
+            check &= yRe[i] == expected.getReal() && yIm[i] == expected.getImag();
+        }
+        double[] scaledRe = xRe.clone();
+        double[] scaledIm = xIm.clone();
+        ComplexKernels.scale(a.getReal(), a.getImag(), scaledRe, scaledIm, 0, LENGTH);
+        ComplexKernels.divide(a.getReal(), a.getImag(), xRe, xIm, 0, LENGTH);
+        for (int i = 0; i < LENGTH; i++) {
+            check &= close(referenceMult(a, x[i]), scaledRe[i], scaledIm[i]);
+            check &= close(referenceDiv(x[i], a), xRe[i], xIm[i]);
+        }
+        //Horner's rule against the polynomial evaluated with Complex arithmetic
+        Complex[] coeffs = random(8, 7);
+        ComplexPoly poly = new ComplexPoly(coeffs);
+        double[] value = new double[2];
+        for (Complex point : random(10, 8)) {
+            ComplexKernels.horner(ComplexKernels.realParts(coeffs), ComplexKernels.imagParts(coeffs),
+                    point.getReal(), point.getImag(), value);
+            Complex expected = new Complex(0, 0);
+            Complex power = new Complex(1, 0);
+            for (Complex co : coeffs) {
+                expected = expected.add(referenceMult(co, power));
+                power = referenceMult(power, point);
+            }
+            check &= close(expected, value[0], value[1]) && close(poly.plugIn(point), value[0], value[1]);
+        }
+        output += checkTrue("expected the array kernels to match elementwise Complex arithmetic", check);
+        System.out.println(output);
+    }
+    
+    public static void testMatrixProduct() {
+        String output = "Test 4\t";
+        int n = 6;
+        Complex[][] left = new Complex[n][];
+        Complex[][] right = new Complex[n][];
+        for (int i = 0; i < n; i++) {
+            left[i] = random(n, 10 + i);
+            right[i] = random(n, 20 + i);
+        }
+        Matrix<Complex> product = new ComplexMatrix(left).multiply(new ComplexMatrix(right));
+        boolean check = true;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                Complex expected = new Complex(0, 0);
+                for (int k = 0; k < n; k++) {
+                    expected = expected.add(referenceMult(left[i][k], right[k][j]));
+                }
+                check &= product.getElement(i, j).equals(expected);
+            }
+        }
+        output += checkTrue("expected the accumulated matrix product to match Complex arithmetic", check);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testScalarKernels();
+        testAccumulator();
+        testArrayKernels();
+        testMatrixProduct();
+    }
+}
@@ -0,0 +1,206 @@
+package matrix;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Testing file for ComplexPoly root finding
+ * @author ParkerHall
+ *
+ */
+public class ComplexPolyTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -6);
+    private final static Complex ONE = new Complex(1, 0);
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /**
+     * @return monic polynomial with the given roots, repeated as listed
+     */
+    private static ComplexPoly fromRoots(Complex... roots) {
+        Polynomial<Complex> product = new ComplexPoly(ONE);
+        for (Complex root : roots) {
+            Complex[] factor = {new Complex(-root.getReal(), -root.getImag()), ONE};
+            product = product.mult(new ComplexPoly(factor));
+        }
+        return (ComplexPoly)product;
+    }
+    
+    private static ComplexPoly fromRoots(double... roots) {
+        Complex[] complexRoots = new Complex[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            complexRoots[i] = new Complex(roots[i], 0);
+        }
+        return fromRoots(complexRoots);
+    }
+    
+    /**
+     * @return true if actual and expected hold the same roots, with the same repetitions, up to tolerance
+     */
+    private static boolean sameRoots(Complex[] actual, Complex[] expected, double tolerance) {
+        if (actual.length != expected.length) {
+            return false;
+        }
+        boolean[] used = new boolean[actual.length];
+        for (Complex root : expected) {
+            boolean found = false;
+            for (int i = 0; i < actual.length && !found; i++) {
+                if (!used[i] && actual[i].sub(root).magnitude() < tolerance) {
+                    used[i] = true;
+                    found = true;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean sameRoots(Complex[] actual, double... expected) {
+        Complex[] complexExpected = new Complex[expected.length];
+        for (int i = 0; i < expected.length; i++) {
+            complexExpected[i] = new Complex(expected[i], 0);
+        }
+        return sameRoots(actual, complexExpected, TOLERANCE);
+    }
+    
+    /*
+     * Testing strategy for zeroes and distinctZeroes:
+     *      roots: simple, repeated, clustered closer than the gcd tolerance
+     *      roots: real, complex
+     *      multiplicity: 1, 2, 3
+     *      source: polynomial, characteristic polynomial of a matrix
+     *      method: Durand-Kerner, companion matrix
+     *      accuracy: reachable in double precision, beyond it (no convergence)
+     */
+    public static void testSimpleRoots() {
+        String output = "Test 1\t";
+        boolean check = sameRoots(fromRoots(-2, 0.5, 3, 7).zeroes(8), -2, 0.5, 3, 7);
+        Complex[] complexRoots = {new Complex(1, 2), new Complex(1, -2), new Complex(-0.5, 0), new Complex(0, 3)};
+        check &= sameRoots(fromRoots(complexRoots).zeroes(8), complexRoots, TOLERANCE);
+        check &= fromRoots(-2, 0.5, 3, 7).squarefreeFactors().size() == 1;
+        Map<Complex, Integer> distinct = fromRoots(-2, 0.5, 3).distinctZeroes(5);
+        check &= distinct.size() == 3 && !distinct.containsValue(2);
+        output += checkTrue("expected each simple root once", check);
+        System.out.println(output);
+    }
+    
+    public static void testRepeatedRoots() {
+        String output = "Test 2\t";
+        ComplexPoly poly = fromRoots(0.3, 0.3, 0.3, -1.7, -1.7, 5);
+        boolean check = sameRoots(poly.zeroes(8), 0.3, 0.3, 0.3, -1.7, -1.7, 5);
+        List<Polynomial<Complex>> factors = poly.squarefreeFactors();
+        check &= factors.size() == 3 && factors.get(0).degree() == 1 && factors.get(1).degree() == 1;
+        Map<Complex, Integer> distinct = poly.distinctZeroes(5);
+        check &= distinct.size() == 3 && distinct.get(new Complex(0.3, 0)) == 3 && distinct.get(new Complex(-1.7, 0)) == 2;
+        //repeated complex roots
+        Complex root = new Complex(-1, 1);
+        Complex conjugate = new Complex(-1, -1);
+        Complex[] expected = {root, root, conjugate, conjugate};
+        check &= sameRoots(fromRoots(expected).zeroes(8), expected, TOLERANCE);
+        //repeated eigenvalues, which once stalled the factorization
+        double[][] diagonal = {{2, 0, 0}, {0, 2, 0}, {0, 0, 3}};
+        check &= sameRoots(new BigDecimalMatrix(diagonal).eigenvalues(), 2, 2, 3);
+        double[][] defective = {{2.5, 0.5, 0.1}, {-0.5, 1.5, 0.3}, {0, 0, 2}};
+        check &= sameRoots(new BigDecimalMatrix(defective).eigenvalues(), 2, 2, 2);
+        output += checkTrue("expected each repeated root with its multiplicity", check);
+        System.out.println(output);
+    }
+    
+    public static void testClusteredRoots() {
+        String output = "Test 3\t";
+        //10^(-5) apart, well inside the distance at which the gcd tolerance merges roots
+        ComplexPoly poly = fromRoots(1, 1.00001, 3);
+        boolean check = sameRoots(poly.zeroes(5), new Complex[] {ONE, new Complex(1.00001, 0), new Complex(3, 0)},
+                Math.pow(10, -5) / 2);
+        check &= sameRoots(poly.zeroes(9), new Complex[] {ONE, new Complex(1.00001, 0), new Complex(3, 0)},
+                Math.pow(10, -9));
+        check &= poly.distinctZeroes(5).size() == 3;
+        Complex[] eigenvalues = new BigDecimalMatrix(new double[][] {{1, 0, 0}, {0, 1.00001, 0}, {0, 0, 2}}).eigenvalues();
+        check &= sameRoots(eigenvalues, new Complex[] {ONE, new Complex(1.00001, 0), new Complex(2, 0)},
+                Math.pow(10, -9));
+        //a cluster alongside a genuinely repeated root
+        check &= sameRoots(fromRoots(-1, -1, 4, 4.0001).zeroes(5), -1, -1, 4, 4.0001);
+        output += checkTrue("expected close but distinct roots to stay distinct", check);
+        System.out.println(output);
+    }
+    
+    public static void testCompanionMatrix() {
+        String output = "Test 4\t";
+        ComplexPoly.RootMethod companion = ComplexPoly.RootMethod.COMPANION_MATRIX;
+        boolean check = true;
+        //random roots in the unit disk, where Durand-Kerner also converges
+        Random random = new Random(28);
+        for (int degree = 1; degree <= 12; degree++) {
+            Complex[] roots = new Complex[degree];
+            for (int i = 0; i < degree; i++) {
+                roots[i] = new Complex(random.nextDouble() - 0.5, random.nextDouble() - 0.5);
+            }
+            ComplexPoly poly = fromRoots(roots);
+            Complex[] companionRoots = poly.zeroes(8, companion);
+            check &= sameRoots(companionRoots, roots, TOLERANCE);
+            check &= sameRoots(companionRoots, poly.zeroes(8), TOLERANCE);
+        }
+        //complex conjugate pairs of a real polynomial
+        Complex[] conjugates = {new Complex(1, 2), new Complex(1, -2), new Complex(-3, 0.5), new Complex(-3, -0.5),
+            new Complex(0.25, 0)};
+        ComplexPoly poly = fromRoots(conjugates);
+        check &= sameRoots(poly.zeroes(8, companion), conjugates, TOLERANCE);
+        check &= sameRoots(poly.zeroes(8, companion), poly.zeroes(8), TOLERANCE);
+        //repeated and clustered roots
+        ComplexPoly repeated = fromRoots(0.3, 0.3, 0.3, -1.7, -1.7, 5);
+        check &= sameRoots(repeated.zeroes(8, companion), repeated.zeroes(8), TOLERANCE);
+        check &= sameRoots(repeated.zeroes(8, companion), 0.3, 0.3, 0.3, -1.7, -1.7, 5);
+        Complex root = new Complex(-1, 1);
+        Complex conjugate = new Complex(-1, -1);
+        Complex[] expected = {root, root, conjugate, conjugate, new Complex(2, 0)};
+        check &= sameRoots(fromRoots(expected).zeroes(8, companion), expected, TOLERANCE);
+        check &= sameRoots(fromRoots(1, 1.00001, 3).zeroes(9, companion), 1, 1.00001, 3);
+        //roots of unity, where every root has the same magnitude
+        Complex[] unity = new Complex[16];
+        for (int k = 0; k < 16; k++) {
+            unity[k] = new Complex(Math.cos(Math.PI * k / 8), Math.sin(Math.PI * k / 8));
+        }
+        check &= sameRoots(fromRoots(unity).zeroes(8, companion), unity, TOLERANCE);
+        output += checkTrue("expected the companion matrix roots to match Durand-Kerner", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 5\t";
+        int caught = 0;
+        //10^(-30) is far below the spacing of doubles near the roots
+        ComplexPoly poly = fromRoots(new Complex(0.3, 0.1), new Complex(-1.7, 0), new Complex(2, -1));
+        try {
+            poly.zeroes(30);
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        try {
+            poly.distinctZeroes(30);
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        output += checkTrue("expected unconverged root finding to be reported", caught == 2);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testSimpleRoots();
+        testRepeatedRoots();
+        testClusteredRoots();
+        testCompanionMatrix();
+        testInvalidInput();
+    }
+}
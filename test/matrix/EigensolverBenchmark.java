@@ -0,0 +1,92 @@
+package matrix;
+
+import java.util.Arrays;
+
+import matrix.PartialEigendecomposition.Spectrum;
+
+/**
+ * Times Lanczos on the five-point Laplacian over a square grid, whose eigenvalues
+ * 4 - 2 cos(i pi / (g + 1)) - 2 cos(j pi / (g + 1)) are known and mostly repeated, and
+ * Arnoldi on the nonsymmetric convection-diffusion matrix over the same kind of grid
+ * @author ParkerHall
+ *
+ */
+public class EigensolverBenchmark {
+    
+    private final static int GRID = 100;
+    private final static int COUNT = 6;
+    private final static double CONVECTION = 0.4;
+    private final static double TOLERANCE = Math.pow(10, -8);
+    
+    /**
+     * Five-point stencil on a grid x grid mesh with off-diagonals -1 - c and -1 + c
+     */
+    private static SparseMatrix fivePoint(int grid, double convection) {
+        int size = grid * grid;
+        int[] rows = new int[5 * size];
+        int[] columns = new int[5 * size];
+        double[] values = new double[5 * size];
+        int k = 0;
+        for (int i = 0; i < grid; i++) {
+            for (int j = 0; j < grid; j++) {
+                int row = i * grid + j;
+                int[] neighbours = {i > 0 ? row - grid : -1, j > 0 ? row - 1 : -1,
+                        j < grid - 1 ? row + 1 : -1, i < grid - 1 ? row + grid : -1};
+                rows[k] = row;
+                columns[k] = row;
+                values[k++] = 4;
+                for (int neighbour : neighbours) {
+                    if (neighbour >= 0) {
+                        rows[k] = row;
+                        columns[k] = neighbour;
+                        values[k++] = neighbour < row ? -1 - convection : -1 + convection;
+                    }
+                }
+            }
+        }
+        return new SparseMatrix(size, size, Arrays.copyOf(rows, k), Arrays.copyOf(columns, k), Arrays.copyOf(values, k));
+    }
+    
+    private static void report(String name, PartialEigendecomposition decomposition, long start) {
+        double millis = (System.nanoTime() - start) / 1e6;
+        double worst = 0;
+        for (double residual : decomposition.getResidualNorms()) {
+            worst = Math.max(worst, residual);
+        }
+        System.out.println(String.format("    %-10s %10.1f ms %5d restarts, largest residual %.2e%s", name, millis,
+                decomposition.getRestarts(), worst, decomposition.isConverged() ? "" : ", not converged"));
+        for (Complex value : decomposition.getEigenvalues()) {
+            System.out.println("        " + value);
+        }
+    }
+    
+    public static void main(String args[]) {
+        SparseMatrix laplacian = fivePoint(GRID, 0);
+        double[] exact = new double[GRID * GRID];
+        for (int i = 0; i < GRID; i++) {
+            for (int j = 0; j < GRID; j++) {
+                exact[i * GRID + j] = 4 - 2 * Math.cos((i + 1) * Math.PI / (GRID + 1)) - 2 * Math.cos((j + 1) * Math.PI / (GRID + 1));
+            }
+        }
+        Arrays.sort(exact);
+        System.out.println(String.format("Laplacian %dx%d grid, %d largest eigenvalues", GRID, GRID, COUNT));
+        long start = System.nanoTime();
+        Lanczos lanczos = new Lanczos(laplacian, COUNT, Spectrum.LARGEST_REAL,
+                PartialEigendecomposition.defaultSubspace(COUNT), TOLERANCE);
+        report("Lanczos", lanczos, start);
+        double worst = 0;
+        for (int i = 0; i < COUNT; i++) {
+            worst = Math.max(worst, Math.abs(lanczos.getEigenvalues()[i].getReal() - exact[exact.length - 1 - i]));
+        }
+        System.out.println(String.format("    worst eigenvalue error %.2e, %d distinct values",
+                worst, lanczos.eigenMap().size()));
+        
+        SparseMatrix convection = fivePoint(GRID, CONVECTION);
+        System.out.println(String.format("convection-diffusion %dx%d grid, c = %.1f, %d largest real parts",
+                GRID, GRID, CONVECTION, COUNT));
+        start = System.nanoTime();
+        Arnoldi arnoldi = new Arnoldi(convection, COUNT, Spectrum.LARGEST_REAL,
+                PartialEigendecomposition.defaultSubspace(COUNT), TOLERANCE);
+        report("Arnoldi", arnoldi, start);
+    }
+}
@@ -0,0 +1,201 @@
+package matrix;
+
+/**
+ * Testing file for the Krylov solvers ConjugateGradient, GMRES and BiCGSTAB,
+ * and for the preconditioners they accept
+ * @author ParkerHall
+ *
+ */
+public class IterativeSolverTest {
+    
+    private final static double ERROR = Math.pow(10, -6);
+    private final static int SIZE = 200;
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /**
+     * Tridiagonal matrix with diagonal 2 and off-diagonals -1 - c and -1 + c:
+     * the 1D Laplacian for c = 0, nonsymmetric convection-diffusion otherwise
+     */
+    private static SparseMatrix tridiagonal(int size, double convection) {
+        int[] rows = new int[3 * size - 2];
+        int[] columns = new int[3 * size - 2];
+        double[] values = new double[3 * size - 2];
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            rows[k] = i;
+            columns[k] = i;
+            values[k++] = 2;
+            if (i > 0) {
+                rows[k] = i;
+                columns[k] = i - 1;
+                values[k++] = -1 - convection;
+            }
+            if (i < size - 1) {
+                rows[k] = i;
+                columns[k] = i + 1;
+                values[k++] = -1 + convection;
+            }
+        }
+        return new SparseMatrix(size, size, rows, columns, values);
+    }
+    
+    private static double[] expectedSolution(int size) {
+        double[] solution = new double[size];
+        for (int i = 0; i < size; i++) {
+            solution[i] = Math.sin(i) + 1;
+        }
+        return solution;
+    }
+    
+    private static boolean solves(SolverResult result, double[] expected) {
+        if (!result.isConverged()) {
+            return false;
+        }
+        double[] solution = result.getSolution();
+        for (int i = 0; i < expected.length; i++) {
+            if (Math.abs(solution[i] - expected[i]) > ERROR) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static SolverResult solveFor(IterativeSolver solver, LinearOperator operator, double[] expected) {
+        double[] b = new double[expected.length];
+        operator.apply(expected, b);
+        return solver.solve(operator, b);
+    }
+    
+    /*
+     * Testing strategy for IterativeSolver:
+     *      method: ConjugateGradient, GMRES, BiCGSTAB
+     *      operator: sparse, dense; symmetric, nonsymmetric
+     *      outcome: converged, iteration limit reached, zero right-hand side
+     *      dimensions: valid, operator and vector mismatch
+     *      preconditioner: none, Jacobi, SSOR, incomplete Cholesky, ILU(0), ILUT
+     */
+    public static void testConjugateGradientLaplacian() {
+        String output = "Test 1\t";
+        double[] expected = expectedSolution(SIZE);
+        SolverResult result = solveFor(new ConjugateGradient(), tridiagonal(SIZE, 0), expected);
+        //CG terminates in at most n steps in exact arithmetic
+        output += checkTrue("expected convergence to the solution", solves(result, expected) && result.getIterations() <= SIZE);
+        System.out.println(output);
+    }
+    
+    public static void testGMRESNonsymmetric() {
+        String output = "Test 2\t";
+        double[] expected = expectedSolution(SIZE);
+        SolverResult result = solveFor(new GMRES(), tridiagonal(SIZE, 0.3), expected);
+        output += checkTrue("expected convergence to the solution", solves(result, expected));
+        System.out.println(output);
+    }
+    
+    public static void testBiCGSTABNonsymmetric() {
+        String output = "Test 3\t";
+        double[] expected = expectedSolution(SIZE);
+        SolverResult result = solveFor(new BiCGSTAB(), tridiagonal(SIZE, 0.3), expected);
+        output += checkTrue("expected convergence to the solution", solves(result, expected));
+        System.out.println(output);
+    }
+    
+    public static void testGMRESDense() {
+        String output = "Test 4\t";
+        double[][] arr = {{4, 1, 0}, {2, 5, 1}, {0, 3, 6}};
+        double[] expected = {1, -2, 3};
+        SolverResult result = solveFor(new GMRES(), new DenseOperator(arr), expected);
+        output += checkTrue("expected exact solve within n iterations", solves(result, expected) && result.getIterations() <= 3);
+        System.out.println(output);
+    }
+    
+    public static void testIterationLimit() {
+        String output = "Test 5\t";
+        double[] expected = expectedSolution(SIZE);
+        SolverResult result = solveFor(new ConjugateGradient(Math.pow(10, -10), 5), tridiagonal(SIZE, 0), expected);
+        double[] history = result.getResidualHistory();
+        output += checkTrue("expected five iterations without convergence",
+                !result.isConverged() && result.getIterations() == 5 && history.length == 6 && history[0] == 1);
+        System.out.println(output);
+    }
+    
+    public static void testZeroRightHandSide() {
+        String output = "Test 6\t";
+        double[] b = new double[SIZE];
+        SolverResult result = new BiCGSTAB().solve(tridiagonal(SIZE, 0.3), b, expectedSolution(SIZE));
+        output += checkTrue("expected zero solution", solves(result, b) && result.getIterations() == 0);
+        System.out.println(output);
+    }
+    
+    public static void testMismatchedDimensions() {
+        String output = "Test 7\t";
+        boolean check = false;
+        try {
+            new ConjugateGradient().solve(tridiagonal(SIZE, 0), new double[SIZE + 1]);
+        } catch (IncompatibleDimensionsException ex) {
+            check = true;
+        }
+        output += checkTrue("expected invalid dimensions", check);
+        System.out.println(output);
+    }
+    
+    public static void testIncompleteCholeskyExact() {
+        String output = "Test 8\t";
+        double[] expected = expectedSolution(SIZE);
+        SparseMatrix matrix = tridiagonal(SIZE, 0);
+        IterativeSolver solver = new ConjugateGradient(Math.pow(10, -10), SIZE, new IncompleteCholesky(matrix));
+        SolverResult result = solveFor(solver, matrix, expected);
+        //a tridiagonal Cholesky factor has no fill, so IC(0) is exact
+        output += checkTrue("expected convergence in one iteration", solves(result, expected) && result.getIterations() == 1);
+        System.out.println(output);
+    }
+    
+    public static void testIncompleteLUExact() {
+        String output = "Test 9\t";
+        double[] expected = expectedSolution(SIZE);
+        SparseMatrix matrix = tridiagonal(SIZE, 0.3);
+        IterativeSolver gmres = new GMRES(30, Math.pow(10, -10), SIZE, new IncompleteLU(matrix));
+        IterativeSolver bicgstab = new BiCGSTAB(Math.pow(10, -10), SIZE, new IncompleteLU(matrix, 0, SIZE));
+        SolverResult first = solveFor(gmres, matrix, expected);
+        SolverResult second = solveFor(bicgstab, matrix, expected);
+        output += checkTrue("expected convergence in one iteration",
+                solves(first, expected) && first.getIterations() == 1 && solves(second, expected) && second.getIterations() == 1);
+        System.out.println(output);
+    }
+    
+    public static void testPreconditioningReducesIterations() {
+        String output = "Test 10\t";
+        double[] expected = expectedSolution(SIZE);
+        SparseMatrix symmetric = tridiagonal(SIZE, 0);
+        SparseMatrix nonsymmetric = tridiagonal(SIZE, 0.3);
+        SolverResult plainCG = solveFor(new ConjugateGradient(), symmetric, expected);
+        SolverResult ssorCG = solveFor(new ConjugateGradient(Math.pow(10, -10), SIZE, new SSORPreconditioner(symmetric)), symmetric, expected);
+        SolverResult plainGMRES = solveFor(new GMRES(), nonsymmetric, expected);
+        SolverResult ssorGMRES = solveFor(new GMRES(30, Math.pow(10, -10), SIZE, new SSORPreconditioner(nonsymmetric, 1.5)), nonsymmetric, expected);
+        output += checkTrue("expected fewer iterations with SSOR",
+                solves(ssorCG, expected) && ssorCG.getIterations() < plainCG.getIterations()
+                && solves(ssorGMRES, expected) && ssorGMRES.getIterations() < plainGMRES.getIterations());
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testConjugateGradientLaplacian();
+        testGMRESNonsymmetric();
+        testBiCGSTABNonsymmetric();
+        testGMRESDense();
+        testIterationLimit();
+        testZeroRightHandSide();
+        testMismatchedDimensions();
+        testIncompleteCholeskyExact();
+        testIncompleteLUExact();
+        testPreconditioningReducesIterations();
+    }
+}
@@ -0,0 +1,288 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Testing file for LowRankMatrix
+ * @author ParkerHall
+ *
+ */
+public class LowRankMatrixTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -9);
+    private final static double[][] U = {{1, 2}, {0, -1}, {3, 0.5}, {-2, 1}, {1, 1}};
+    private final static double[][] V = {{2, 0}, {-1, 1}, {0.5, 3}};
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static double[][] random(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        double[][] values = new double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                values[i][j] = random.nextGaussian();
+            }
+        }
+        return values;
+    }
+    
+    private static boolean close(double[] first, double[] second) {
+        for (int i = 0; i < first.length; i++) {
+            if (Math.abs(first[i] - second[i]) > TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return dense U V^T
+     */
+    private static Matrix<BigDecimal> product(double[][] u, double[][] v) {
+        return new BigDecimalMatrix(u).multiply(new BigDecimalMatrix(v).transpose());
+    }
+    
+    /*
+     * Testing strategy for LowRankMatrix:
+     *      shape: square, rectangular, n = 100000
+     *      other operand: low rank, dense, scalar
+     *      side: left, right
+     *      operation: getElement, getRow, getColumn, apply, applyTranspose, transpose, minor,
+     *                 stack, multiply, add, subtract, rank, determinant, eigenvalues
+     *      recompression: sum keeps rank, sum cancels to zero, sum raises rank
+ *      equality: same factors, different factors of one matrix, within or beyond the tolerance
+     *      source: constructed directly, returned by SVD and randomized SVD
+     *      input: valid, invalid
+     */
+    public static void testStorage() {
+        String output = "Test 1\t";
+        LowRankMatrix lowRank = new LowRankMatrix(U, V);
+        Matrix<BigDecimal> dense = product(U, V);
+        boolean check = lowRank.equals(dense) && lowRank.factorRank() == 2;
+        check &= lowRank.size()[0] == 5 && lowRank.size()[1] == 3;
+        check &= lowRank.getElement(2, 1).doubleValue() == dense.getElement(2, 1).doubleValue();
+        check &= new BigDecimalMatrix(new BigDecimal[][] {lowRank.getRow(3)}).equals(new BigDecimalMatrix(new BigDecimal[][] {dense.getRow(3)}));
+        check &= new BigDecimalMatrix(new BigDecimal[][] {lowRank.getColumn(2)}).equals(new BigDecimalMatrix(new BigDecimal[][] {dense.getColumn(2)}));
+        double[] x = {1, -2, 0.5};
+        double[] y = new double[5];
+        double[] expected = new double[5];
+        lowRank.apply(x, y);
+        new DenseOperator(dense).apply(x, expected);
+        check &= close(y, expected);
+        double[] z = {1, 0, -1, 2, 0.5};
+        lowRank.applyTranspose(z, x);
+        new DenseOperator(dense).applyTranspose(z, expected);
+        check &= close(x, expected);
+        check &= lowRank.transpose() instanceof LowRankMatrix && lowRank.transpose().equals(dense.transpose());
+        LowRankMatrix square = new LowRankMatrix(V, V);
+        check &= square.minor(1, 2) instanceof LowRankMatrix && square.minor(1, 2).equals(product(V, V).minor(1, 2));
+        check &= lowRank.getU().equals(new BigDecimalMatrix(U)) && lowRank.getV().equals(new BigDecimalMatrix(V));
+        Matrix<BigDecimal> stacked = lowRank.stack(lowRank.multiply(2));
+        check &= stacked instanceof LowRankMatrix && stacked.equals(dense.stack(dense.multiply(2)));
+        output += checkTrue("expected factored entries and products to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testProducts() {
+        String output = "Test 2\t";
+        LowRankMatrix lowRank = new LowRankMatrix(U, V);
+        Matrix<BigDecimal> dense = product(U, V);
+        Matrix<BigDecimal> square = new BigDecimalMatrix(random(3, 3, 1));
+        Matrix<BigDecimal> wide = new BigDecimalMatrix(random(4, 5, 2));
+        Matrix<BigDecimal> result = lowRank.multiply(square);
+        boolean check = result instanceof LowRankMatrix && result.equals(dense.multiply(square));
+        result = wide.multiply(lowRank);
+        check &= result instanceof LowRankMatrix && result.equals(wide.multiply(dense));
+        LowRankMatrix other = new LowRankMatrix(random(3, 1, 3), random(4, 1, 4));
+        result = lowRank.multiply(other);
+        check &= result instanceof LowRankMatrix && ((LowRankMatrix)result).factorRank() == 1;
+        check &= result.equals(dense.multiply(other.toDense()));
+        check &= lowRank.multiply(-1.5).equals(dense.multiply(-1.5));
+        check &= lowRank.multiply(new DiagonalMatrix(new double[] {1, 2, 3})).equals(dense.multiply(new DiagonalMatrix(new double[] {1, 2, 3})));
+        output += checkTrue("expected products to stay factored", check);
+        System.out.println(output);
+    }
+    
+    public static void testRecompression() {
+        String output = "Test 3\t";
+        LowRankMatrix lowRank = new LowRankMatrix(U, V);
+        Matrix<BigDecimal> dense = product(U, V);
+        Matrix<BigDecimal> sum = lowRank.add(lowRank);
+        boolean check = sum instanceof LowRankMatrix && ((LowRankMatrix)sum).factorRank() == 2;
+        check &= sum.equals(dense.multiply(2));
+        Matrix<BigDecimal> difference = lowRank.subtract(lowRank);
+        check &= ((LowRankMatrix)difference).factorRank() == 0 && difference.equals(new BigDecimalMatrix(new double[5][3]));
+        LowRankMatrix other = new LowRankMatrix(random(5, 1, 5), random(3, 1, 6));
+        sum = lowRank.add(other);
+        check &= ((LowRankMatrix)sum).factorRank() == 3 && sum.equals(dense.add(other.toDense()));
+        check &= sum.rank() == 3 && lowRank.rank() == 2;
+        //a sum of rank-one terms along the same direction has rank one
+        LowRankMatrix repeated = new LowRankMatrix(new double[][] {{1, 2}, {2, 4}}, new double[][] {{1, -1}, {1, -1}});
+        check &= repeated.factorRank() == 2 && repeated.rank() == 1;
+        check &= repeated.compress(Math.pow(10, -12)).equals(repeated);
+        check &= lowRank.add(dense).equals(dense.multiply(2)) && !(lowRank.add(dense) instanceof LowRankMatrix);
+        output += checkTrue("expected sums to recompress to their rank", check);
+        System.out.println(output);
+    }
+    
+    public static void testLarge() {
+        String output = "Test 4\t";
+        int n = 100000;
+        int k = 10;
+        double[][] u = random(n, k, 7);
+        double[][] v = random(n, k, 8);
+        LowRankMatrix lowRank = new LowRankMatrix(u, v);
+        double expected = 0;
+        for (int p = 0; p < k; p++) {
+            expected += u[n - 1][p] * v[3][p];
+        }
+        boolean check = Math.abs(lowRank.getElement(n - 1, 3).doubleValue() - expected) < TOLERANCE;
+        Matrix<BigDecimal> sum = lowRank.add(lowRank.transpose());
+        check &= sum instanceof LowRankMatrix && ((LowRankMatrix)sum).factorRank() == 2 * k;
+        double[] x = new double[n];
+        x[3] = 1;
+        double[] y = new double[n];
+        ((LowRankMatrix)sum).apply(x, y);
+        check &= Math.abs(y[n - 1] - sum.getElement(n - 1, 3).doubleValue()) < TOLERANCE;
+        check &= Math.abs(y[n - 1] - expected - lowRank.getElement(3, n - 1).doubleValue()) < TOLERANCE;
+        //square, so the determinant of a rank-k matrix vanishes without forming it
+        check &= lowRank.determinant().signum() == 0;
+        //the nonzero eigenvalues of U V^T are those of V^T U
+        LowRankMatrix small = new LowRankMatrix(new double[][] {{1, 0}, {0, 1}, {0, 0}}, new double[][] {{2, 0}, {0, 3}, {1, 1}});
+        Complex[] eigenvalues = small.eigenvalues();
+        double total = 0;
+        double product = 1;
+        for (int i = 0; i < 2; i++) {
+            total += eigenvalues[i].getReal();
+            product *= eigenvalues[i].getReal();
+        }
+        check &= Math.abs(total - 5) < TOLERANCE && Math.abs(product - 6) < TOLERANCE && eigenvalues[2].magnitude() == 0;
+        output += checkTrue("expected n = 100000 matrices to be handled through their factors", check);
+        System.out.println(output);
+    }
+    
+    public static void testFromDecompositions() {
+        String output = "Test 5\t";
+        Matrix<BigDecimal> dense = product(U, V);
+        LowRankMatrix approximation = new SingularValueDecomposition(dense).lowRankApproximation(2);
+        boolean check = approximation.factorRank() == 2 && approximation.equals(dense);
+        check &= new SingularValueDecomposition(dense).lowRankApproximation(0).equals(new BigDecimalMatrix(new double[5][3]));
+        LowRankMatrix randomized = new RandomizedSVD(dense, 2).getApproximation();
+        check &= randomized.factorRank() == 2 && randomized.equals(dense);
+        output += checkTrue("expected truncated decompositions to return their factors", check);
+        System.out.println(output);
+    }
+    
+    /**
+     * @return copy of factor with one more column, zero but for value in the given row
+     */
+    private static double[][] withColumn(double[][] factor, int row, double value) {
+        double[][] output = new double[factor.length][];
+        for (int i = 0; i < factor.length; i++) {
+            output[i] = Arrays.copyOf(factor[i], factor[i].length + 1);
+        }
+        output[row][factor[0].length] = value;
+        return output;
+    }
+    
+    private static double[][] scaled(double[][] factor, double scale) {
+        double[][] output = new double[factor.length][factor[0].length];
+        for (int i = 0; i < factor.length; i++) {
+            for (int j = 0; j < factor[0].length; j++) {
+                output[i][j] = factor[i][j] * scale;
+            }
+        }
+        return output;
+    }
+    
+    public static void testEquality() {
+        String output = "Test 6\t";
+        LowRankMatrix lowRank = new LowRankMatrix(U, V);
+        Matrix<BigDecimal> dense = product(U, V);
+        //the same matrix from different factors
+        LowRankMatrix rescaled = new LowRankMatrix(scaled(U, 2), scaled(V, 0.5));
+        boolean check = lowRank.equals(rescaled) && rescaled.equals(lowRank) && lowRank.hashCode() == rescaled.hashCode();
+        check &= lowRank.equals(dense) && dense.equals(lowRank) && lowRank.hashCode() == dense.hashCode();
+        //a single entry off by less, then by more, than the tolerance
+        LowRankMatrix close = new LowRankMatrix(withColumn(U, 3, 4e-6), withColumn(V, 1, 1));
+        LowRankMatrix far = new LowRankMatrix(withColumn(U, 3, 4e-5), withColumn(V, 1, 1));
+        check &= lowRank.equals(close) && close.equals(lowRank) && close.equals(dense);
+        check &= !lowRank.equals(far) && !far.equals(lowRank) && !far.equals(dense) && !dense.equals(far);
+        check &= !lowRank.equals(lowRank.multiply(2)) && !lowRank.equals(new LowRankMatrix(V, U));
+        //n = 100000, where the dense matrices could not be formed
+        int n = 100000;
+        double[][] u = random(n, 5, 9);
+        double[][] v = random(n, 5, 10);
+        LowRankMatrix large = new LowRankMatrix(u, v);
+        //the same factors again; rescaled ones would need every row compared
+        LowRankMatrix largeCopy = new LowRankMatrix(scaled(u, 1), scaled(v, 1));
+        LowRankMatrix largeFar = new LowRankMatrix(withColumn(u, n - 7, 1e-4), withColumn(v, 12, 1));
+        check &= large.equals(largeCopy) && large.hashCode() == largeCopy.hashCode();
+        check &= !large.equals(largeFar) && !largeFar.equals(large) && large.hashCode() == largeFar.hashCode();
+        output += checkTrue("expected low-rank equality on the grid, without the dense matrix", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 7\t";
+        LowRankMatrix lowRank = new LowRankMatrix(U, V);
+        int caught = 0;
+        try {
+            new LowRankMatrix(U, new double[][] {{1}, {2}, {3}});
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new LowRankMatrix(new double[0][2], V);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            lowRank.add(lowRank.transpose());
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            lowRank.multiply(lowRank);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            lowRank.determinant();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new LowRankMatrix(V, V).inverse();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            lowRank.getElement(5, 0);
+        } catch (IndexOutOfBoundsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 7);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testStorage();
+        testProducts();
+        testRecompression();
+        testLarge();
+        testFromDecompositions();
+        testEquality();
+        testInvalidInput();
+    }
+}
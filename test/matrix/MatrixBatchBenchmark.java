@@ -0,0 +1,78 @@
+package matrix;
+
+import java.util.Random;
+
+/**
+ * Times determinants and inverses of many small matrices one at a time, through
+ * BigDecimalMatrix and through a double-precision LU decomposition, against MatrixBatch
+ * @author ParkerHall
+ *
+ */
+public class MatrixBatchBenchmark {
+    
+    private final static int COUNT = 1000000;
+    private final static int REPEATS = 5;
+    // BigDecimalMatrix is timed on the first SAMPLE matrices only
+    private final static int SAMPLE = 100;
+    
+    private static MatrixBatch random(int size, long seed) {
+        Random random = new Random(seed);
+        MatrixBatch batch = new MatrixBatch(size, COUNT);
+        double[] data = batch.data();
+        for (int e = 0; e < data.length; e++) {
+            data[e] = random.nextGaussian();
+        }
+        return batch;
+    }
+    
+    private static void report(String label, long time, int matrices) {
+        System.out.println(String.format("    %-36s %10.1f ns per matrix", label, (double)time / matrices));
+    }
+    
+    public static void main(String args[]) {
+        for (int size : new int[] {3, 8}) {
+            MatrixBatch batch = random(size, size);
+            double[][][] matrices = new double[COUNT][][];
+            for (int b = 0; b < COUNT; b++) {
+                matrices[b] = batch.toArray(b);
+            }
+            
+            //warm up before timing
+            for (int r = 0; r < REPEATS; r++) {
+                batch.determinants();
+                for (int b = 0; b < COUNT; b += 10) {
+                    new BandedLUDecomposition(new BandedMatrix(matrices[b])).determinant();
+                }
+            }
+            
+            System.out.println(String.format("%d x %d matrices, batch of %d", size, size, COUNT));
+            long start = System.nanoTime();
+            for (int b = 0; b < SAMPLE; b++) {
+                batch.getMatrix(b).determinant();
+            }
+            report("BigDecimalMatrix determinant", System.nanoTime() - start, SAMPLE);
+            start = System.nanoTime();
+            double sum = 0;
+            for (int r = 0; r < REPEATS; r++) {
+                for (int b = 0; b < COUNT; b++) {
+                    sum += new BandedLUDecomposition(new BandedMatrix(matrices[b])).determinant();
+                }
+            }
+            report("one LU decomposition at a time", System.nanoTime() - start, REPEATS * COUNT);
+            start = System.nanoTime();
+            double batchSum = 0;
+            for (int r = 0; r < REPEATS; r++) {
+                for (double determinant : batch.determinants()) {
+                    batchSum += determinant;
+                }
+            }
+            report("MatrixBatch determinants", System.nanoTime() - start, REPEATS * COUNT);
+            System.out.println(String.format("    determinants agree: %b", Math.abs(sum - batchSum) < 1e-6 * Math.abs(sum) + 1e-6));
+            start = System.nanoTime();
+            for (int r = 0; r < REPEATS; r++) {
+                batch.inverse();
+            }
+            report("MatrixBatch inverse", System.nanoTime() - start, REPEATS * COUNT);
+        }
+    }
+}
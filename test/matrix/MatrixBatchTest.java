@@ -0,0 +1,204 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Testing file for MatrixBatch and BatchLUDecomposition
+ * @author ParkerHall
+ *
+ */
+public class MatrixBatchTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -9);
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static MatrixBatch random(int rows, int columns, int count, long seed) {
+        Random random = new Random(seed);
+        MatrixBatch batch = new MatrixBatch(rows, columns, count);
+        for (int b = 0; b < count; b++) {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    batch.set(b, i, j, random.nextGaussian());
+                }
+            }
+        }
+        return batch;
+    }
+    
+    private static boolean close(double[][] first, double[][] second) {
+        for (int i = 0; i < first.length; i++) {
+            for (int j = 0; j < first[i].length; j++) {
+                if (Math.abs(first[i][j] - second[i][j]) > TOLERANCE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /*
+     * Testing strategy for MatrixBatch:
+     *      size: 1, 3, 8, rectangular
+     *      count: 1, within one chunk, several chunks with a partial last chunk
+     *      operation: get, set, getMatrix, multiply, determinants, inverse, solve
+     *      matrices: nonsingular, needing row interchanges, singular among nonsingular ones
+     *      input: valid, invalid
+     */
+    public static void testConstruction() {
+        String output = "Test 1\t";
+        BigDecimalMatrix first = new BigDecimalMatrix(new double[][] {{1, 2}, {3, 4}, {5, 6}});
+        BigDecimalMatrix second = new BigDecimalMatrix(new double[][] {{0, -1}, {2, 0.5}, {1, 1}});
+        MatrixBatch batch = MatrixBatch.of(first, second);
+        boolean check = batch.rows() == 3 && batch.columns() == 2 && batch.count() == 2;
+        check &= batch.get(0, 2, 1) == 6 && batch.get(1, 1, 1) == 0.5;
+        check &= batch.getMatrix(0).equals(first) && batch.getMatrix(1).equals(second);
+        batch.set(1, new double[][] {{1, 1}, {1, 1}, {1, 1}}).set(0, 0, 0, -3);
+        check &= batch.toArray(1)[2][0] == 1 && batch.get(0, 0, 0) == -3 && batch.get(0, 0, 1) == 2;
+        MatrixBatch identity = MatrixBatch.identity(3, 4);
+        for (int b = 0; b < 4; b++) {
+            check &= identity.getMatrix(b).equals(BigDecimalMatrix.identity(3));
+        }
+        output += checkTrue("expected matrices to go in and out of the batch unchanged", check);
+        System.out.println(output);
+    }
+    
+    public static void testMultiply() {
+        String output = "Test 2\t";
+        boolean check = true;
+        //one chunk, then several with a partial last chunk
+        for (int count : new int[] {1, 100, 700}) {
+            MatrixBatch left = random(3, 5, count, count);
+            MatrixBatch right = random(5, 2, count, count + 1);
+            MatrixBatch product = left.multiply(right);
+            check &= product.rows() == 3 && product.columns() == 2;
+            for (int b = 0; b < count; b += 37) {
+                check &= product.getMatrix(b).equals(left.getMatrix(b).multiply(right.getMatrix(b)));
+            }
+            check &= product.getMatrix(count - 1).equals(left.getMatrix(count - 1).multiply(right.getMatrix(count - 1)));
+        }
+        MatrixBatch square = random(8, 8, 300, 5);
+        MatrixBatch dest = new MatrixBatch(8, 300);
+        check &= square.multiplyInto(MatrixBatch.identity(8, 300), dest) == dest;
+        check &= close(dest.toArray(299), square.toArray(299));
+        output += checkTrue("expected batched products to match dense products", check);
+        System.out.println(output);
+    }
+    
+    public static void testDeterminants() {
+        String output = "Test 3\t";
+        boolean check = true;
+        for (int n : new int[] {1, 3, 8}) {
+            MatrixBatch batch = random(n, n, 600, n);
+            double[] determinants = batch.determinants();
+            for (int b = 0; b < 600; b += 29) {
+                double expected = new BandedLUDecomposition(new BandedMatrix(batch.getMatrix(b))).determinant();
+                check &= Math.abs(determinants[b] - expected) < TOLERANCE;
+            }
+        }
+        //a permutation needs row interchanges, and its determinant is its sign
+        MatrixBatch permutations = MatrixBatch.of(
+                new BigDecimalMatrix(new double[][] {{0, 1, 0}, {0, 0, 1}, {1, 0, 0}}),
+                new BigDecimalMatrix(new double[][] {{0, 1, 0}, {1, 0, 0}, {0, 0, 1}}));
+        BatchLUDecomposition lu = new BatchLUDecomposition(permutations);
+        check &= lu.determinant(0) == 1 && lu.determinant(1) == -1 && !lu.isSingular(0);
+        check &= Math.abs(MatrixBatch.of(BigDecimalMatrix.identity(4).multiply(2)).determinants()[0] - 16) < TOLERANCE;
+        output += checkTrue("expected batched determinants to match single LU decompositions", check);
+        System.out.println(output);
+    }
+    
+    public static void testInverseAndSolve() {
+        String output = "Test 4\t";
+        boolean check = true;
+        MatrixBatch batch = random(5, 5, 513, 11);
+        MatrixBatch inverse = batch.inverse();
+        MatrixBatch product = inverse.multiply(batch);
+        for (int b = 0; b < 513; b += 16) {
+            check &= close(product.toArray(b), MatrixBatch.identity(5, 1).toArray(0));
+        }
+        MatrixBatch rhs = random(5, 2, 513, 12);
+        MatrixBatch solution = batch.solve(rhs);
+        MatrixBatch residual = batch.multiply(solution);
+        for (int b = 0; b < 513; b += 16) {
+            check &= close(residual.toArray(b), rhs.toArray(b));
+        }
+        //one singular matrix leaves the others alone
+        MatrixBatch mixed = random(3, 3, 4, 13);
+        mixed.set(2, new double[][] {{1, 2, 3}, {2, 4, 6}, {0, 1, 1}});
+        BatchLUDecomposition lu = new BatchLUDecomposition(mixed);
+        check &= lu.isSingular(2) && lu.determinant(2) == 0 && !lu.isSingular(1);
+        check &= Math.abs(lu.determinant(3) - mixed.getMatrix(3).determinant().doubleValue()) < TOLERANCE;
+        output += checkTrue("expected batched inverses and solutions to satisfy A X = B", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 5\t";
+        int caught = 0;
+        try {
+            new MatrixBatch(0, 3, 10);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new MatrixBatch(3, 0);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            random(3, 2, 5, 0).multiply(random(3, 2, 5, 1));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            random(3, 3, 5, 0).multiply(random(3, 3, 4, 1));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            random(3, 2, 5, 0).determinants();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            MatrixBatch.of(BigDecimalMatrix.identity(2), new BigDecimalMatrix(new double[][] {{1, 2}, {2, 4}})).inverse();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            MatrixBatch.of(new BigDecimalMatrix(new double[2][2])).solve(MatrixBatch.identity(2, 1));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            MatrixBatch square = random(2, 2, 3, 0);
+            square.multiplyInto(MatrixBatch.identity(2, 3), square);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            MatrixBatch.identity(2, 3).get(3, 0, 0);
+        } catch (IndexOutOfBoundsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 9);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testConstruction();
+        testMultiply();
+        testDeterminants();
+        testInverseAndSolve();
+        testInvalidInput();
+    }
+}
@@ -0,0 +1,104 @@
+package matrix;
+
+import java.util.Random;
+
+/**
+ * Compares the Pade exponential with a truncated Taylor series of matrix products, in
+ * time and accuracy, and times a linear ODE integrated over many fixed steps with the
+ * step exponential computed once against recomputing it at every step
+ * @author ParkerHall
+ *
+ */
+public class MatrixExponentialBenchmark {
+    
+    private final static int SIZE = 200;
+    private final static int STEPS = 200;
+    private final static double STEP = 0.05;
+    private final static int TAYLOR_TERMS = 60;
+    
+    private static double[][] multiply(double[][] left, double[][] right) {
+        int n = left.length;
+        double[][] product = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < n; k++) {
+                for (int j = 0; j < n; j++) {
+                    product[i][j] += left[i][k] * right[k][j];
+                }
+            }
+        }
+        return product;
+    }
+    
+    /**
+     * sum_(k < TAYLOR_TERMS) A^k / k!, one product per term
+     */
+    private static double[][] taylor(double[][] matrix) {
+        int n = matrix.length;
+        double[][] sum = new double[n][n];
+        double[][] term = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            sum[i][i] = 1;
+            term[i][i] = 1;
+        }
+        for (int k = 1; k < TAYLOR_TERMS; k++) {
+            term = multiply(term, matrix);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    term[i][j] /= k;
+                    sum[i][j] += term[i][j];
+                }
+            }
+        }
+        return sum;
+    }
+    
+    public static void main(String args[]) {
+        //shifted random matrix, eigenvalues in a disk of radius about 3 around -2
+        Random random = new Random(1);
+        double[][] matrix = new double[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                matrix[i][j] = 3 * random.nextGaussian() / Math.sqrt(SIZE) - (i == j ? 2 : 0);
+            }
+        }
+        
+        //warm up both before timing
+        taylor(matrix);
+        new MatrixExponential(matrix).exponential();
+        
+        long start = System.nanoTime();
+        double[][] series = taylor(matrix);
+        long taylorTime = System.nanoTime() - start;
+        //timed through apply, leaving out the conversion to BigDecimal entries
+        double[] x = new double[SIZE];
+        x[0] = 1;
+        start = System.nanoTime();
+        new MatrixExponential(matrix).apply(1, x);
+        long padeTime = System.nanoTime() - start;
+        double[][] pade = BigDecimalMatrix.toArray(new MatrixExponential(matrix).exponential());
+        double difference = 0;
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                difference = Math.max(difference, Math.abs(series[i][j] - pade[i][j]));
+            }
+        }
+        System.out.println(String.format("e^A, %d x %d", SIZE, SIZE));
+        System.out.println(String.format("    %-28s %10.1f ms", TAYLOR_TERMS + "-term Taylor series", taylorTime / 1e6));
+        System.out.println(String.format("    %-28s %10.1f ms, largest difference %.2e", "Pade with squaring", padeTime / 1e6, difference));
+        
+        System.out.println(String.format("x' = A x over %d steps of %.2f", STEPS, STEP));
+        start = System.nanoTime();
+        double[] recomputed = x;
+        for (int step = 0; step < STEPS; step++) {
+            recomputed = new MatrixExponential(matrix).apply(STEP, recomputed);
+        }
+        System.out.println(String.format("    %-28s %10.1f ms", "recomputed every step", (System.nanoTime() - start) / 1e6));
+        start = System.nanoTime();
+        MatrixExponential exponential = new MatrixExponential(matrix);
+        double[] reused = x;
+        for (int step = 0; step < STEPS; step++) {
+            reused = exponential.apply(STEP, reused);
+        }
+        System.out.println(String.format("    %-28s %10.1f ms", "computed once", (System.nanoTime() - start) / 1e6));
+    }
+}
@@ -0,0 +1,306 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Testing file for the matrix exponential, logarithm and square root
+ * @author ParkerHall
+ *
+ */
+public class MatrixFunctionTest {
+    
+    private final static double ERROR = Math.pow(10, -9);
+    private final static int SIZE = 20;
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /**
+     * Q T Q^T for a random orthogonal Q and upper triangular T with the given diagonal,
+     * above which entries are Gaussian times offDiagonal; symmetric if offDiagonal is 0
+     */
+    private static double[][] withSchurForm(double[] diagonal, double offDiagonal, long seed) {
+        int size = diagonal.length;
+        Random random = new Random(seed);
+        double[][] gaussian = new double[size][size];
+        double[][] triangle = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                gaussian[i][j] = random.nextGaussian();
+                triangle[i][j] = i == j ? diagonal[i] : i < j ? offDiagonal * random.nextGaussian() : 0;
+            }
+        }
+        double[][] q = new QRDecomposition(gaussian).thinQ();
+        return multiply(multiply(q, triangle), transpose(q));
+    }
+    
+    /**
+     * Eigenvalues evenly spaced from low to high
+     */
+    private static double[] spectrum(double low, double high) {
+        double[] diagonal = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            diagonal[i] = low + (high - low) * i / (SIZE - 1);
+        }
+        return diagonal;
+    }
+    
+    private static double[][] multiply(double[][] left, double[][] right) {
+        double[][] product = new double[left.length][right[0].length];
+        for (int i = 0; i < left.length; i++) {
+            for (int k = 0; k < right.length; k++) {
+                for (int j = 0; j < right[0].length; j++) {
+                    product[i][j] += left[i][k] * right[k][j];
+                }
+            }
+        }
+        return product;
+    }
+    
+    private static double[][] transpose(double[][] matrix) {
+        double[][] transpose = new double[matrix[0].length][matrix.length];
+        for (int i = 0; i < matrix.length; i++) {
+            for (int j = 0; j < matrix[0].length; j++) {
+                transpose[j][i] = matrix[i][j];
+            }
+        }
+        return transpose;
+    }
+    
+    /**
+     * @return largest entrywise difference relative to the largest entry of expected
+     */
+    private static double relativeDifference(Matrix<BigDecimal> actual, double[][] expected) {
+        double[][] entries = BigDecimalMatrix.toArray(actual);
+        double difference = 0;
+        double scale = 0;
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[0].length; j++) {
+                difference = Math.max(difference, Math.abs(entries[i][j] - expected[i][j]));
+                scale = Math.max(scale, Math.abs(expected[i][j]));
+            }
+        }
+        return difference / scale;
+    }
+    
+    private static double relativeDifference(Matrix<Complex> actual, Matrix<Complex> expected) {
+        double difference = 0;
+        double scale = 0;
+        int size = expected.size()[0];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                Complex entry = expected.getElement(i, j);
+                difference = Math.max(difference, actual.getElement(i, j).add(entry.mult(-1)).magnitude());
+                scale = Math.max(scale, entry.magnitude());
+            }
+        }
+        return difference / scale;
+    }
+    
+    /**
+     * Identity except for a rotation by 1 in the first two coordinates
+     */
+    private static double[][] rotationBlock() {
+        double[][] block = new double[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            block[i][i] = 1;
+        }
+        block[0][0] = Math.cos(1);
+        block[0][1] = -Math.sin(1);
+        block[1][0] = Math.sin(1);
+        block[1][1] = Math.cos(1);
+        return block;
+    }
+    
+    /*
+     * Testing strategy for matrix functions:
+     *      function: exponential, logarithm, square root
+     *      matrix: diagonal, nilpotent, symmetric, nonnormal, with complex eigenvalues
+     *      type: BigDecimalMatrix, ComplexMatrix
+     *      ||tA||: small enough for a low degree, large enough to need squaring
+     *      time steps: one, repeated
+     *      input: valid, invalid
+     */
+    public static void testExponentialExact() {
+        String output = "Test 1\t";
+        BigDecimalMatrix diagonal = new BigDecimalMatrix(new double[][] {{1, 0}, {0, -2}});
+        boolean check = relativeDifference(diagonal.exponential(), new double[][] {{Math.E, 0}, {0, Math.exp(-2)}}) < ERROR;
+        BigDecimalMatrix nilpotent = new BigDecimalMatrix(new double[][] {{0, 1, 0}, {0, 0, 1}, {0, 0, 0}});
+        check &= relativeDifference(nilpotent.exponential(), new double[][] {{1, 1, 0.5}, {0, 1, 1}, {0, 0, 1}}) < ERROR;
+        BigDecimalMatrix zero = new BigDecimalMatrix(new double[][] {{0, 0}, {0, 0}});
+        check &= relativeDifference(zero.exponential(), new double[][] {{1, 0}, {0, 1}}) < ERROR;
+        output += checkTrue("expected exponentials of diagonal and nilpotent matrices", check);
+        System.out.println(output);
+    }
+    
+    public static void testExponentialTimes() {
+        String output = "Test 2\t";
+        //rotation generator, so e^(tA) is rotation by angle t, at every degree and with squaring
+        MatrixExponential rotation = new MatrixExponential(new double[][] {{0, -1}, {1, 0}});
+        boolean check = true;
+        for (double t : new double[] {0.001, 0.1, 0.5, 1, 2, 5, 40, -7}) {
+            double[][] expected = {{Math.cos(t), -Math.sin(t)}, {Math.sin(t), Math.cos(t)}};
+            check &= relativeDifference(rotation.exponential(t), expected) < ERROR;
+        }
+        //symmetric, compared against the exponentials of its eigenvalues
+        Random random = new Random(3);
+        double[][] gaussian = new double[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                gaussian[i][j] = random.nextGaussian();
+            }
+        }
+        double[][] q = new QRDecomposition(gaussian).thinQ();
+        double[] eigenvalues = spectrum(-6, 3);
+        double[][] diagonal = new double[SIZE][SIZE];
+        double[][] exponentialDiagonal = new double[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            diagonal[i][i] = eigenvalues[i];
+            exponentialDiagonal[i][i] = Math.exp(eigenvalues[i]);
+        }
+        BigDecimalMatrix symmetric = new BigDecimalMatrix(multiply(multiply(q, diagonal), transpose(q)));
+        check &= relativeDifference(symmetric.exponential(), multiply(multiply(q, exponentialDiagonal), transpose(q))) < ERROR;
+        output += checkTrue("expected exponentials at every time to match closed forms", check);
+        System.out.println(output);
+    }
+    
+    public static void testTimeSteps() {
+        String output = "Test 3\t";
+        double[][] matrix = withSchurForm(spectrum(-2, -0.1), 0.5, 5);
+        MatrixExponential exponential = new MatrixExponential(matrix);
+        double[] x = new double[SIZE];
+        x[0] = 1;
+        double[] stepped = x;
+        for (int step = 0; step < 100; step++) {
+            stepped = exponential.apply(0.05, stepped);
+        }
+        double[] direct = exponential.apply(5, x);
+        boolean check = true;
+        for (int i = 0; i < SIZE; i++) {
+            check &= Math.abs(stepped[i] - direct[i]) < ERROR;
+        }
+        check &= x[0] == 1;
+        output += checkTrue("expected repeated steps to agree with one long step", check);
+        System.out.println(output);
+    }
+    
+    public static void testSquareRoot() {
+        String output = "Test 4\t";
+        BigDecimalMatrix diagonal = new BigDecimalMatrix(new double[][] {{4, 0}, {0, 9}});
+        boolean check = relativeDifference(diagonal.squareRoot(), new double[][] {{2, 0}, {0, 3}}) < ERROR;
+        //nonnormal, with a complex conjugate pair from a rotation block
+        double[][] matrix = withSchurForm(spectrum(0.5, 4), 1, 7);
+        matrix = multiply(matrix, rotationBlock());
+        Matrix<BigDecimal> root = new BigDecimalMatrix(matrix).squareRoot();
+        check &= relativeDifference(root.multiply(root), matrix) < ERROR;
+        output += checkTrue("expected square roots to square to the matrix", check);
+        System.out.println(output);
+    }
+    
+    public static void testLogarithm() {
+        String output = "Test 5\t";
+        //rotation by 1 has the generator as its logarithm
+        BigDecimalMatrix rotation = new BigDecimalMatrix(new double[][] {{Math.cos(1), -Math.sin(1)}, {Math.sin(1), Math.cos(1)}});
+        boolean check = relativeDifference(rotation.logarithm(), new double[][] {{0, -1}, {1, 0}}) < ERROR;
+        double[][] matrix = withSchurForm(spectrum(0.01, 50), 2, 9);
+        Matrix<BigDecimal> log = new BigDecimalMatrix(matrix).logarithm();
+        check &= relativeDifference(((BigDecimalMatrix)log).exponential(), matrix) < ERROR;
+        //the logarithm of e^B is B when the eigenvalues of B have imaginary parts in (-pi, pi)
+        double[][] small = withSchurForm(spectrum(-1, 1), 0.3, 11);
+        Matrix<BigDecimal> exponential = new BigDecimalMatrix(small).exponential();
+        check &= relativeDifference(((BigDecimalMatrix)exponential).logarithm(), small) < ERROR;
+        output += checkTrue("expected logarithms to invert the exponential", check);
+        System.out.println(output);
+    }
+    
+    public static void testComplex() {
+        String output = "Test 6\t";
+        Random random = new Random(13);
+        int size = 8;
+        Complex[][] grid = new Complex[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                grid[i][j] = new Complex(random.nextGaussian() + (i == j ? 4 : 0), random.nextGaussian());
+            }
+        }
+        ComplexMatrix matrix = new ComplexMatrix(grid);
+        ComplexMatrix root = (ComplexMatrix)matrix.squareRoot();
+        boolean check = relativeDifference(root.multiply(root), matrix) < ERROR;
+        ComplexMatrix log = (ComplexMatrix)matrix.logarithm();
+        check &= relativeDifference(log.exponential(), matrix) < ERROR;
+        //e^(i pi) = -1, and the principal logarithm of -1 is i pi
+        ComplexMatrix minusOne = new ComplexMatrix(new Complex[][] {{new Complex(-1, 0)}});
+        ComplexMatrix iPi = new ComplexMatrix(new Complex[][] {{new Complex(0, Math.PI)}});
+        check &= relativeDifference(iPi.exponential(), minusOne) < ERROR;
+        check &= relativeDifference(minusOne.logarithm(), iPi) < ERROR;
+        output += checkTrue("expected complex functions to be consistent", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 7\t";
+        int caught = 0;
+        BigDecimalMatrix rectangular = new BigDecimalMatrix(new double[][] {{1, 2, 3}, {4, 5, 6}});
+        try {
+            rectangular.exponential();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            rectangular.logarithm();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            rectangular.squareRoot();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        BigDecimalMatrix negative = new BigDecimalMatrix(withSchurForm(spectrum(-1, 2), 0.5, 17));
+        try {
+            negative.logarithm();
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        try {
+            negative.squareRoot();
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        try {
+            new BigDecimalMatrix(new double[][] {{1, 1}, {1, 1}}).logarithm();
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        try {
+            new BigDecimalMatrix(new double[][] {{0, 1}, {0, 0}}).squareRoot();
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        try {
+            new MatrixExponential(new double[][] {{1}}).apply(Double.NaN, new double[1]);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 8);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testExponentialExact();
+        testExponentialTimes();
+        testTimeSteps();
+        testSquareRoot();
+        testLogarithm();
+        testComplex();
+        testInvalidInput();
+    }
+}
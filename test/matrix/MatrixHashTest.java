@@ -0,0 +1,130 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Testing file for matrix hash codes
+ * @author ParkerHall
+ *
+ */
+public class MatrixHashTest {
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /**
+     * @return true if first and second are equal both ways and hash alike
+     */
+    private static boolean equalWithHash(Object first, Object second) {
+        return first.equals(second) && second.equals(first) && first.hashCode() == second.hashCode();
+    }
+    
+    /*
+     * Testing strategy for equals and hashCode:
+     *      elements: identical, perturbed within a grid cell, differing
+     *      perturbation: away from, or across, a boundary between grid cells
+     *      type: BigDecimalMatrix, ComplexMatrix, structured, Vector, Complex
+     *      use: HashSet membership, many distinct matrices of one shape
+     */
+    public static void testBigDecimalMatrix() {
+        String output = "Test 1\t";
+        double[][] base = {{1, -2.5, 0.0005 - 4e-6}, {3, 0, 7.125}};
+        double[][] perturbed = {{1 + 3e-6, -2.5 - 3e-6, 0.0005 + 4e-6}, {3, -4e-6, 7.125}};
+        BigDecimalMatrix first = new BigDecimalMatrix(base);
+        BigDecimalMatrix second = new BigDecimalMatrix(perturbed);
+        boolean check = equalWithHash(first, second);
+        //elements either side of 1.5 * 10^(-5), a boundary between grid cells, differ
+        double[][] below = {{1.5e-5 - 2e-7}};
+        double[][] above = {{1.5e-5 + 2e-7}};
+        check &= !new BigDecimalMatrix(below).equals(new BigDecimalMatrix(above));
+        check &= equalWithHash(new BigDecimalMatrix(above), new BigDecimalMatrix(new double[][] {{2e-5 + 4e-6}}));
+        check &= !first.equals(new BigDecimalMatrix(new double[][] {{1, -2.5, 0.5}, {3, 0, 7.125}}));
+        output += checkTrue("expected matrices equal on the grid to hash alike", check);
+        System.out.println(output);
+    }
+    
+    public static void testComplexMatrix() {
+        String output = "Test 2\t";
+        Complex[][] base = {{new Complex(0.00005 - 4e-7, 1), new Complex(-2, 0.00005 + 3e-7)}};
+        Complex[][] perturbed = {{new Complex(0.00005 + 4e-7, 1 - 4e-7), new Complex(-2, 0.00005 - 3e-7)}};
+        ComplexMatrix first = new ComplexMatrix(base);
+        ComplexMatrix second = new ComplexMatrix(perturbed);
+        boolean check = equalWithHash(first, second);
+        check &= !first.equals(new ComplexMatrix(new Complex[][] {{new Complex(0.00005, 1), new Complex(-2, 0.000052)}}));
+        output += checkTrue("expected complex matrices equal on the grid to hash alike", check);
+        System.out.println(output);
+    }
+    
+    public static void testStructuredTypes() {
+        String output = "Test 3\t";
+        DiagonalMatrix diagonal = new DiagonalMatrix(new double[] {1, 0.0005 + 4e-6, 3});
+        BigDecimalMatrix dense = new BigDecimalMatrix(new double[][] {{1, 0, 0}, {0, 0.0005 - 4e-6, 0}, {0, 0, 3}});
+        boolean check = equalWithHash(diagonal, dense);
+        Vector vector = new Vector(1, 0.0005 + 4e-6);
+        check &= equalWithHash(vector, new BigDecimalMatrix(new double[][] {{1}, {0.0005 - 4e-6}}));
+        //a set keeps one of a pair of equal matrices of different types
+        Set<Matrix<BigDecimal>> set = new HashSet<>();
+        set.add(dense);
+        check &= set.contains(diagonal) && !set.add(diagonal) && set.size() == 1;
+        check &= set.add(BigDecimalMatrix.identity(3)) && set.size() == 2;
+        output += checkTrue("expected structured matrices to hash like their dense equivalents", check);
+        System.out.println(output);
+    }
+    
+    public static void testComplex() {
+        String output = "Test 4\t";
+        boolean check = equalWithHash(new Complex(0.0, -0.0), new Complex(-0.0, 0.0));
+        Set<Integer> hashes = new HashSet<>();
+        for (int re = -50; re < 50; re++) {
+            for (int im = -50; im < 50; im++) {
+                hashes.add(new Complex(re, im).hashCode());
+            }
+        }
+        check &= hashes.size() == 10000;
+        output += checkTrue("expected exact complex equality to hash consistently and spread", check);
+        System.out.println(output);
+    }
+    
+    public static void testHashSpread() {
+        String output = "Test 5\t";
+        //many distinct matrices of one shape must not share a bucket
+        Set<Matrix<BigDecimal>> set = new HashSet<>();
+        Set<Integer> hashes = new HashSet<>();
+        for (int k = 0; k < 1000; k++) {
+            BigDecimalMatrix matrix = new BigDecimalMatrix(new double[][] {{k, 1}, {0.5, k * 1e-4}});
+            set.add(matrix);
+            hashes.add(matrix.hashCode());
+        }
+        boolean check = set.size() == 1000 && hashes.size() > 990;
+        hashes.clear();
+        for (int k = 0; k < 1000; k++) {
+            hashes.add(new DiagonalMatrix(new double[] {k, -k, 3}).hashCode());
+            hashes.add(new ComplexMatrix(new Complex[][] {{new Complex(k, 1), new Complex(0, -k)}}).hashCode());
+        }
+        check &= hashes.size() > 1980;
+        //a large matrix hashes a sample of its elements, which still sees a changed column
+        double[][] entries = new double[200][200];
+        double[][] changed = new double[200][200];
+        changed[0][0] = 1;
+        check &= new BigDecimalMatrix(entries).hashCode() != new BigDecimalMatrix(changed).hashCode();
+        output += checkTrue("expected distinct matrices of one shape to spread over hash codes", check);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testBigDecimalMatrix();
+        testComplexMatrix();
+        testStructuredTypes();
+        testComplex();
+        testHashSpread();
+    }
+}
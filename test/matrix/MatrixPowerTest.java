@@ -0,0 +1,227 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Testing file for MatrixPower and BigDecimalMatrix.pow
+ * @author ParkerHall
+ *
+ */
+public class MatrixPowerTest {
+    
+    private final static double ERROR = Math.pow(10, -10);
+    private final static long MODULUS = 1000000007;
+    private final static long LARGE_MODULUS = (1L << 61) - 1;
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /**
+     * @return the k-th Fibonacci number modulo m, by fast doubling in BigInteger
+     */
+    private static long fibonacci(long k, long modulus) {
+        BigInteger m = BigInteger.valueOf(modulus);
+        BigInteger a = BigInteger.ZERO;
+        BigInteger b = BigInteger.ONE;
+        for (int bit = 63 - Long.numberOfLeadingZeros(k); bit >= 0; bit--) {
+            //F(2j) = F(j) (2 F(j + 1) - F(j)), F(2j + 1) = F(j)^2 + F(j + 1)^2
+            BigInteger c = a.multiply(b.shiftLeft(1).subtract(a)).mod(m);
+            BigInteger d = a.multiply(a).add(b.multiply(b)).mod(m);
+            if (((k >> bit) & 1) == 1) {
+                a = d;
+                b = c.add(d).mod(m);
+            } else {
+                a = c;
+                b = d;
+            }
+        }
+        return a.longValue();
+    }
+    
+    private static double[][] multiply(double[][] left, double[][] right) {
+        double[][] product = new double[left.length][right[0].length];
+        for (int i = 0; i < left.length; i++) {
+            for (int k = 0; k < right.length; k++) {
+                for (int j = 0; j < right[0].length; j++) {
+                    product[i][j] += left[i][k] * right[k][j];
+                }
+            }
+        }
+        return product;
+    }
+    
+    /*
+     * Testing strategy for MatrixPower:
+     *      entries: double, long, long modulo m, BigDecimal integer, BigDecimal fraction
+     *      k: 0, 1, > 1, near Integer.MAX_VALUE
+     *      method: binary exponentiation, Schur form
+     *      modulus: 1, below 2^31, above 2^31
+     *      exact result: fits in a long, overflows
+     *      input: valid, invalid
+     */
+    public static void testSmallPowers() {
+        String output = "Test 1\t";
+        double[][] matrix = {{0.5, -1, 2}, {0.25, 1, 0}, {3, 0.5, -0.75}};
+        double[][] repeated = {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}};
+        boolean check = true;
+        for (int k = 0; k <= 13; k++) {
+            double[][] power = MatrixPower.pow(matrix, k);
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    check &= Math.abs(power[i][j] - repeated[i][j]) < ERROR * Math.max(1, Math.abs(repeated[i][j]));
+                }
+            }
+            repeated = multiply(repeated, matrix);
+        }
+        check &= matrix[0][0] == 0.5;
+        output += checkTrue("expected powers to match repeated multiplication", check);
+        System.out.println(output);
+    }
+    
+    public static void testExactLong() {
+        String output = "Test 2\t";
+        long[][] fibonacci = {{1, 1}, {1, 0}};
+        long[][] power = MatrixPower.pow(fibonacci, 90);
+        boolean check = power[0][1] == 2880067194370816120L && power[0][0] == 4660046610375530309L;
+        try {
+            MatrixPower.pow(fibonacci, 93);
+            check = false;
+        } catch (ArithmeticException ex) {
+        }
+        output += checkTrue("expected exact powers and overflow to be detected", check);
+        System.out.println(output);
+    }
+    
+    public static void testModular() {
+        String output = "Test 3\t";
+        long[][] fibonacci = {{1, 1}, {1, 0}};
+        boolean check = true;
+        for (long modulus : new long[] {MODULUS, LARGE_MODULUS}) {
+            for (int k : new int[] {1, 2, 1000, 1000000000, Integer.MAX_VALUE}) {
+                check &= MatrixPower.pow(fibonacci, k, modulus)[0][1] == fibonacci(k, modulus);
+            }
+        }
+        //negative entries are reduced into [0, m)
+        check &= MatrixPower.pow(new long[][] {{-1}}, 3, MODULUS)[0][0] == MODULUS - 1;
+        check &= MatrixPower.pow(fibonacci, 0, 1)[0][0] == 0;
+        output += checkTrue("expected powers modulo m to match fast doubling", check);
+        System.out.println(output);
+    }
+    
+    public static void testWalkCounts() {
+        String output = "Test 4\t";
+        //closed walks of length k in the complete graph on n vertices: ((n - 1)^k + (n - 1)(-1)^k) / n
+        int n = 5;
+        int[][] adjacency = new int[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                adjacency[i][j] = i == j ? 0 : 1;
+            }
+        }
+        BigDecimalMatrix graph = new BigDecimalMatrix(adjacency);
+        boolean check = true;
+        for (int k : new int[] {3, 30, 40}) {
+            BigInteger walks = BigInteger.valueOf(n - 1).pow(k).add(BigInteger.valueOf(k % 2 == 0 ? n - 1 : 1 - n))
+                    .divide(BigInteger.valueOf(n));
+            BigDecimal diagonal = graph.pow(k).getElement(2, 2);
+            check &= diagonal.compareTo(new BigDecimal(walks)) == 0;
+        }
+        output += checkTrue("expected exact walk counts, including beyond a long", check);
+        System.out.println(output);
+    }
+    
+    public static void testMarkovChain() {
+        String output = "Test 5\t";
+        //stationary distribution of this chain is (0.25, 0.5, 0.25)
+        double[][] transition = {{0.5, 0.5, 0}, {0.25, 0.5, 0.25}, {0, 0.5, 0.5}};
+        boolean check = true;
+        for (int k : new int[] {1 << 20, Integer.MAX_VALUE}) {
+            Matrix<BigDecimal> power = new BigDecimalMatrix(transition).pow(k);
+            for (int i = 0; i < 3; i++) {
+                check &= Math.abs(power.getElement(i, 0).doubleValue() - 0.25) < ERROR;
+                check &= Math.abs(power.getElement(i, 1).doubleValue() - 0.5) < ERROR;
+                check &= Math.abs(power.getElement(i, 2).doubleValue() - 0.25) < ERROR;
+            }
+        }
+        output += checkTrue("expected high powers to converge to the stationary distribution", check);
+        System.out.println(output);
+    }
+    
+    public static void testDiagonalizable() {
+        String output = "Test 6\t";
+        double[][] matrix = {{0.5, -1, 2}, {0.25, 1, 0}, {3, 0.5, -0.75}};
+        boolean check = true;
+        for (int k : new int[] {0, 1, 7, 40}) {
+            double[][] expected = MatrixPower.pow(matrix, k);
+            double[][] power = MatrixPower.powDiagonalizable(matrix, k);
+            double scale = 0;
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    scale = Math.max(scale, Math.abs(expected[i][j]));
+                }
+            }
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    check &= Math.abs(power[i][j] - expected[i][j]) < ERROR * scale;
+                }
+            }
+        }
+        output += checkTrue("expected powers through the Schur form to match binary exponentiation", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 7\t";
+        int caught = 0;
+        try {
+            MatrixPower.pow(new double[][] {{1, 2}}, 2);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            MatrixPower.pow(new long[][] {{1}}, -1);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            MatrixPower.pow(new long[][] {{1}}, 1, 0);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            new BigDecimalMatrix(new double[][] {{1, 2}}).pow(2);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new BigDecimalMatrix(new double[][] {{1}}).pow(-2);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            MatrixPower.powDiagonalizable(new double[][] {{1, 1}, {0, 1}}, 2);
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 6);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testSmallPowers();
+        testExactLong();
+        testModular();
+        testWalkCounts();
+        testMarkovChain();
+        testDiagonalizable();
+        testInvalidInput();
+    }
+}
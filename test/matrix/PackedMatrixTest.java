@@ -0,0 +1,226 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/**
+ * Testing file for TriangularMatrix and SymmetricMatrix
+ * @author ParkerHall
+ *
+ */
+public class PackedMatrixTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -9);
+    private final static double[][] ENTRIES = {
+        {4, -1, 2, 0.5}, {3, 5, -2, 1}, {-1, 2, 6, -3}, {0.25, 1.5, 2, 7}};
+    private final static double[][] SYMMETRIC = {
+        {4, 1, -2, 0.5}, {1, 5, 3, 0}, {-2, 3, 6, 1}, {0.5, 0, 1, 2}};
+    private final static BigDecimalMatrix DENSE = new BigDecimalMatrix(new double[][] {
+        {1, 2, 0}, {-1, 0.5, 3}, {2, 1, 1}, {0, -2, 4}});
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static double[][] triangle(double[][] entries, boolean upper, boolean unitDiagonal) {
+        int n = entries.length;
+        double[][] triangle = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j && unitDiagonal) {
+                    triangle[i][j] = 1;
+                } else if (upper ? i <= j : i >= j) {
+                    triangle[i][j] = entries[i][j];
+                }
+            }
+        }
+        return triangle;
+    }
+    
+    private static boolean close(double[] first, double[] second) {
+        for (int i = 0; i < first.length; i++) {
+            if (Math.abs(first[i] - second[i]) > TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /*
+     * Testing strategy for packed matrices:
+     *      type: upper triangular, lower triangular, unit diagonal, symmetric
+     *      other operand: dense square, dense rectangular, same type, other orientation
+     *      side: left, right
+     *      operation: getElement, apply, solve, multiply, add, transpose, inverse,
+     *                 determinant, rank update
+     *      source: constructed directly, returned by Cholesky and QR
+     *      input: valid, invalid
+     */
+    public static void testTriangularStorage() {
+        String output = "Test 1\t";
+        boolean check = true;
+        for (boolean upper : new boolean[] {true, false}) {
+            for (boolean unit : new boolean[] {true, false}) {
+                TriangularMatrix triangular = new TriangularMatrix(ENTRIES, upper, unit);
+                BigDecimalMatrix dense = new BigDecimalMatrix(triangle(ENTRIES, upper, unit));
+                check &= triangular.equals(dense);
+                check &= triangular.transpose().equals(dense.transpose());
+                check &= ((TriangularMatrix)triangular.transpose()).isUpper() != upper;
+                double[] x = {1, -2, 0.5, 3};
+                double[] y = new double[4];
+                double[] expected = new double[4];
+                triangular.apply(x, y);
+                new DenseOperator(triangle(ENTRIES, upper, unit)).apply(x, expected);
+                check &= close(y, expected);
+                triangular.applyTranspose(x, y);
+                new DenseOperator(triangle(ENTRIES, upper, unit)).applyTranspose(x, expected);
+                check &= close(y, expected);
+                check &= Math.abs(triangular.determinant().doubleValue() - dense.determinant().doubleValue()) < TOLERANCE;
+            }
+        }
+        output += checkTrue("expected packed triangles to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testTriangularSolve() {
+        String output = "Test 2\t";
+        boolean check = true;
+        double[] b = {2, -1, 0.5, 4};
+        for (boolean upper : new boolean[] {true, false}) {
+            for (boolean unit : new boolean[] {true, false}) {
+                TriangularMatrix triangular = new TriangularMatrix(ENTRIES, upper, unit);
+                double[] x = triangular.solve(b);
+                double[] product = new double[4];
+                triangular.apply(x, product);
+                check &= close(product, b);
+                Matrix<BigDecimal> inverse = triangular.inverse();
+                check &= inverse instanceof TriangularMatrix && ((TriangularMatrix)inverse).isUpper() == upper;
+                check &= inverse.multiply(triangular).equals(BigDecimalMatrix.identity(4));
+                Matrix<BigDecimal> rhs = DENSE.multiply(new BigDecimalMatrix(new double[][] {{1, 0}, {0, 1}, {1, 1}}));
+                check &= triangular.multiply(triangular.solve(rhs)).equals(rhs);
+            }
+        }
+        output += checkTrue("expected substitution to solve triangular systems", check);
+        System.out.println(output);
+    }
+    
+    public static void testTriangularProducts() {
+        String output = "Test 3\t";
+        TriangularMatrix upper = new TriangularMatrix(ENTRIES, true);
+        TriangularMatrix lower = new TriangularMatrix(ENTRIES, false);
+        TriangularMatrix unitLower = new TriangularMatrix(ENTRIES, false, true);
+        Matrix<BigDecimal> product = upper.multiply(upper);
+        boolean check = product instanceof TriangularMatrix && product.equals(upper.toDense().multiply(upper.toDense()));
+        product = lower.multiply(unitLower);
+        check &= product instanceof TriangularMatrix && product.equals(lower.toDense().multiply(unitLower.toDense()));
+        check &= ((TriangularMatrix)unitLower.multiply(unitLower)).isUnitDiagonal();
+        check &= upper.multiply(lower).equals(upper.toDense().multiply(lower.toDense()));
+        Matrix<BigDecimal> square = new BigDecimalMatrix(ENTRIES);
+        check &= upper.multiply(square).equals(upper.toDense().multiply(square));
+        check &= square.multiply(lower).equals(square.multiply(lower.toDense()));
+        check &= DENSE.multiply(new TriangularMatrix(upper.minor(0, 0), true, false)).equals(DENSE.multiply(upper.minor(0, 0)));
+        check &= lower.add(lower) instanceof TriangularMatrix && lower.add(lower).equals(lower.multiply(2));
+        check &= upper.subtract(lower).equals(upper.toDense().subtract(lower.toDense()));
+        output += checkTrue("expected triangular products to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testSymmetric() {
+        String output = "Test 4\t";
+        SymmetricMatrix symmetric = new SymmetricMatrix(SYMMETRIC);
+        BigDecimalMatrix dense = new BigDecimalMatrix(SYMMETRIC);
+        boolean check = symmetric.equals(dense) && symmetric.transpose() == symmetric;
+        check &= symmetric.getElement(3, 0).doubleValue() == 0.5 && symmetric.getElement(0, 3).doubleValue() == 0.5;
+        double[] x = {1, -2, 0.5, 3};
+        double[] y = new double[4];
+        double[] expected = new double[4];
+        symmetric.apply(x, y);
+        new DenseOperator(SYMMETRIC).apply(x, expected);
+        check &= close(y, expected);
+        Matrix<BigDecimal> square = new BigDecimalMatrix(ENTRIES);
+        check &= symmetric.multiply(square).equals(dense.multiply(square));
+        check &= square.multiply(symmetric).equals(square.multiply(dense));
+        check &= symmetric.add(symmetric) instanceof SymmetricMatrix && symmetric.add(symmetric).equals(dense.multiply(2));
+        //C + alpha A A^T with A rectangular
+        double[][] update = {{1, 2}, {0, -1}, {3, 0.5}, {-2, 1}};
+        BigDecimalMatrix a = new BigDecimalMatrix(update);
+        SymmetricMatrix updated = symmetric.rankUpdate(a, -0.5);
+        check &= updated.equals(dense.add(a.multiply(a.transpose()).multiply(-0.5)));
+        check &= symmetric.rankUpdate(update, 2).equals(dense.add(a.multiply(a.transpose()).multiply(2)));
+        check &= Math.abs(symmetric.determinant().doubleValue() - dense.determinant().doubleValue()) < TOLERANCE;
+        output += checkTrue("expected symmetric operations to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testFactors() {
+        String output = "Test 5\t";
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(new BigDecimalMatrix(new double[][] {
+            {4, 2, -2}, {2, 10, 2}, {-2, 2, 6}}));
+        Matrix<BigDecimal> l = cholesky.getL();
+        boolean check = l instanceof TriangularMatrix && !((TriangularMatrix)l).isUpper();
+        check &= l.multiply(l.transpose()).equals(new BigDecimalMatrix(new double[][] {
+            {4, 2, -2}, {2, 10, 2}, {-2, 2, 6}}));
+        QRDecomposition qr = new QRDecomposition(DENSE);
+        check &= qr.getR() instanceof TriangularMatrix;
+        check &= DENSE.multiply(qr.getP()).equals(qr.getQ().multiply(qr.getR()));
+        check &= !(new QRDecomposition(DENSE.transpose()).getR() instanceof TriangularMatrix);
+        output += checkTrue("expected Cholesky and square QR factors to be packed triangles", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 6\t";
+        int caught = 0;
+        try {
+            new SymmetricMatrix(ENTRIES);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new TriangularMatrix(new double[][] {{1, 2}, {3, 4}, {5, 6}}, true);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new TriangularMatrix(new double[][] {{1, 2}, {0, 0}}, true).solve(new double[] {1, 1});
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        try {
+            new TriangularMatrix(new double[][] {{0, 0}, {1, 1}}, false).inverse();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new TriangularMatrix(ENTRIES, true).multiply(new BigDecimalMatrix(new double[][] {{1, 2}}));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new SymmetricMatrix(SYMMETRIC).rankUpdate(DENSE.transpose(), 1);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new SymmetricMatrix(SYMMETRIC).getElement(0, 4);
+        } catch (IndexOutOfBoundsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 7);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testTriangularStorage();
+        testTriangularSolve();
+        testTriangularProducts();
+        testSymmetric();
+        testFactors();
+        testInvalidInput();
+    }
+}
@@ -0,0 +1,213 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import matrix.PartialEigendecomposition.Spectrum;
+
+/**
+ * Testing file for the restarted Krylov eigensolvers Lanczos and Arnoldi
+ * @author ParkerHall
+ *
+ */
+public class PartialEigendecompositionTest {
+    
+    private final static double ERROR = Math.pow(10, -8);
+    private final static int SIZE = 200;
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /**
+     * 1D Laplacian, with eigenvalues 2 - 2 cos(j pi / (n + 1)) for j = 1, ..., n
+     */
+    private static SparseMatrix laplacian(int size) {
+        int[] rows = new int[3 * size - 2];
+        int[] columns = new int[3 * size - 2];
+        double[] values = new double[3 * size - 2];
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            rows[k] = i;
+            columns[k] = i;
+            values[k++] = 2;
+            if (i > 0) {
+                rows[k] = i;
+                columns[k] = i - 1;
+                values[k++] = -1;
+            }
+            if (i < size - 1) {
+                rows[k] = i;
+                columns[k] = i + 1;
+                values[k++] = -1;
+            }
+        }
+        return new SparseMatrix(size, size, rows, columns, values);
+    }
+    
+    private static double laplacianEigenvalue(int size, int j) {
+        return 2 - 2 * Math.cos(j * Math.PI / (size + 1));
+    }
+    
+    private static boolean residualsSmall(PartialEigendecomposition decomposition) {
+        for (double residual : decomposition.getResidualNorms()) {
+            if (residual > ERROR) {
+                return false;
+            }
+        }
+        return decomposition.isConverged();
+    }
+    
+    /*
+     * Testing strategy for PartialEigendecomposition:
+     *      method: Lanczos, Arnoldi
+     *      spectrum: largest magnitude, largest real, smallest real
+     *      eigenvalues: real, complex conjugate pairs, repeated
+     *      subspace: smaller than n, equal to n
+     *      input: valid, invalid count, non-square operator
+     */
+    public static void testLanczosLargest() {
+        String output = "Test 1\t";
+        Lanczos lanczos = new Lanczos(laplacian(SIZE), 6);
+        Complex[] eigenvalues = lanczos.getEigenvalues();
+        boolean check = residualsSmall(lanczos);
+        for (int i = 0; i < 6; i++) {
+            check &= Math.abs(eigenvalues[i].getReal() - laplacianEigenvalue(SIZE, SIZE - i)) < ERROR;
+            check &= eigenvalues[i].getImag() == 0;
+        }
+        output += checkTrue("expected the six largest eigenvalues in decreasing order", check);
+        System.out.println(output);
+    }
+    
+    public static void testLanczosSmallest() {
+        String output = "Test 2\t";
+        Lanczos lanczos = new Lanczos(laplacian(SIZE), 3, Spectrum.SMALLEST_REAL);
+        Complex[] eigenvalues = lanczos.getEigenvalues();
+        boolean check = residualsSmall(lanczos);
+        for (int i = 0; i < 3; i++) {
+            check &= Math.abs(eigenvalues[i].getReal() - laplacianEigenvalue(SIZE, i + 1)) < ERROR;
+        }
+        output += checkTrue("expected the three smallest eigenvalues in increasing order", check);
+        System.out.println(output);
+    }
+    
+    public static void testArnoldiComplexPairs() {
+        String output = "Test 3\t";
+        //Q D Q^T for random orthogonal Q and D block diagonal with blocks {{a, b}, {-b, a}},
+        //whose eigenvalues are a +- bi, so the result is nonsymmetric with a known spectrum
+        int size = 60;
+        double[][] blocks = new double[size][size];
+        for (int i = 0; i < size; i += 2) {
+            double a = 1 + 0.05 * i;
+            double b = i % 4 == 0 ? 0.5 : 0;
+            blocks[i][i] = a;
+            blocks[i + 1][i + 1] = b == 0 ? a - 0.02 : a;
+            blocks[i][i + 1] = b;
+            blocks[i + 1][i] = -b;
+        }
+        Random random = new Random(7);
+        double[][] gaussian = new double[size][size];
+        for (double[] row : gaussian) {
+            for (int j = 0; j < size; j++) {
+                row[j] = random.nextGaussian();
+            }
+        }
+        double[][] q = new QRDecomposition(gaussian).thinQ();
+        double[][] product = new double[size][size];
+        double[][] matrix = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                for (int k = 0; k < size; k++) {
+                    product[i][j] += q[i][k] * blocks[k][j];
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                for (int k = 0; k < size; k++) {
+                    matrix[i][j] += product[i][k] * q[j][k];
+                }
+            }
+        }
+        Arnoldi arnoldi = new Arnoldi(new DenseOperator(matrix), 4);
+        Complex[] eigenvalues = arnoldi.getEigenvalues();
+        //largest magnitudes: 3.9 and 3.88, then 3.8 +- 0.5i
+        Complex[] expected = {new Complex(3.9, 0), new Complex(3.88, 0), new Complex(3.8, 0.5), new Complex(3.8, -0.5)};
+        boolean check = residualsSmall(arnoldi);
+        for (int i = 0; i < 4; i++) {
+            check &= eigenvalues[i].sub(expected[i]).magnitude() < ERROR;
+        }
+        output += checkTrue("expected two real eigenvalues followed by a conjugate pair", check);
+        System.out.println(output);
+    }
+    
+    public static void testEigenMapCompatible() {
+        String output = "Test 4\t";
+        //eigenvalues 3, 3, 1, 1
+        Matrix<BigDecimal> matrix = new BigDecimalMatrix(new double[][] {{2, 1, 0, 0}, {1, 2, 0, 0}, {0, 0, 3, 0}, {0, 0, 0, 1}});
+        Lanczos lanczos = new Lanczos(matrix, 3);
+        Map<Complex, Set<Matrix<Complex>>> mapping = lanczos.eigenMap();
+        boolean check = mapping.size() == 2;
+        for (Map.Entry<Complex, Set<Matrix<Complex>>> entry : mapping.entrySet()) {
+            double value = entry.getKey().getReal();
+            check &= Math.abs(value - 3) < ERROR ? entry.getValue().size() == 2 : Math.abs(value - 1) < ERROR;
+            for (Matrix<Complex> vector : entry.getValue()) {
+                check &= vector.size()[0] == 4 && vector.size()[1] == 1;
+            }
+        }
+        output += checkTrue("expected a repeated eigenvalue mapped to two vectors", check);
+        System.out.println(output);
+    }
+    
+    public static void testFullSubspace() {
+        String output = "Test 5\t";
+        double[][] arr = {{4, 1, -2}, {0, 3, 1}, {1, 0, 2}};
+        Arnoldi arnoldi = new Arnoldi(new DenseOperator(arr), 3, Spectrum.LARGEST_REAL, 3, Math.pow(10, -10));
+        Complex[] eigenvalues = arnoldi.getEigenvalues();
+        Complex[] expected = new BigDecimalMatrix(arr).eigenvalues();
+        boolean check = arnoldi.isConverged() && arnoldi.getRestarts() == 0;
+        for (Complex value : eigenvalues) {
+            boolean found = false;
+            for (Complex other : expected) {
+                found |= value.sub(other).magnitude() < Math.pow(10, -5);
+            }
+            check &= found;
+        }
+        output += checkTrue("expected the whole spectrum without restarting", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 6\t";
+        int caught = 0;
+        try {
+            new Lanczos(laplacian(10), 11);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            new Arnoldi(new DenseOperator(new double[][] {{1, 2, 3}, {4, 5, 6}}), 1);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected invalid count and invalid dimensions", caught == 2);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testLanczosLargest();
+        testLanczosSmallest();
+        testArnoldiComplexPairs();
+        testEigenMapCompatible();
+        testFullSubspace();
+        testInvalidInput();
+    }
+}
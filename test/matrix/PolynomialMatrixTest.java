@@ -0,0 +1,198 @@
+package matrix;
+
+import java.util.Arrays;
+
+/**
+ * Testing file for PolynomialMatrix data type
+ * @author ParkerHall
+ *
+ */
+public class PolynomialMatrixTest {
+    
+    private final static double ERROR = Math.pow(10, -8);
+    private final static Complex ZERO = new Complex(0, 0);
+    private final static Complex ONE = new Complex(1, 0);
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static String checkPolyEquals(String string, Polynomial<Complex> expected, Polynomial<Complex> actual) {
+        String output = "Passed";
+        if (expected.degree() != actual.degree()) {
+            return "Failed: " + string;
+        }
+        for (int deg = 0; deg <= expected.degree(); deg++) {
+            Complex diff = expected.coeffAtDeg(deg).sub(actual.coeffAtDeg(deg));
+            double scale = Math.max(1, expected.coeffAtDeg(deg).magnitude());
+            if (diff.magnitude() > ERROR * scale) {
+                output = "Failed: " + string;
+            }
+        }
+        return output;
+    }
+    
+    /**
+     * Build the grid xI - A
+     */
+    private static Polynomial<Complex>[][] characteristicGrid(double[][] arr) {
+        Polynomial<Complex>[][] grid = new ComplexPoly[arr.length][arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            for (int j = 0; j < arr.length; j++) {
+                Complex elt = new Complex(-arr[i][j], 0);
+                if (i == j) {
+                    Complex[] diagonal = {elt, ONE};
+                    grid[i][j] = new ComplexPoly(diagonal);
+                } else {
+                    grid[i][j] = new ComplexPoly(elt);
+                }
+            }
+        }
+        return grid;
+    }
+    
+    /**
+     * Reference determinant by cofactor expansion along the first row
+     */
+    private static Polynomial<Complex> cofactorDeterminant(Polynomial<Complex>[][] grid) {
+        if (grid.length == 1) {
+            return grid[0][0];
+        }
+        Polynomial<Complex> determinant = new ComplexPoly(ZERO);
+        for (int i = 0; i < grid.length; i++) {
+            Polynomial<Complex>[][] minor = new ComplexPoly[grid.length - 1][grid.length - 1];
+            for (int row = 1; row < grid.length; row++) {
+                int col = 0;
+                for (int column = 0; column < grid.length; column++) {
+                    if (column != i) {
+                        minor[row - 1][col] = grid[row][column];
+                        col++;
+                    }
+                }
+            }
+            double sign = Math.pow(-1, i);
+            determinant = determinant.add(grid[0][i].mult(cofactorDeterminant(minor)).mult(sign));
+        }
+        return determinant;
+    }
+    
+    /*
+     * Testing strategy for determinant:
+     *      size: 1, 2, > 2
+     *      entries: small, large (scaled interpolation radius)
+     *      radius^degree: representable, overflows, underflows
+     *      determinant: zero polynomial, nonzero polynomial
+     *      grid: square, not square
+     */
+    public static void testDeterminantOneByOne() {
+        String output = "Test 1\t";
+        Complex[] coeffs = {new Complex(2, 0), new Complex(0, 1), new Complex(3, 0)};
+        Polynomial<Complex>[][] grid = new ComplexPoly[1][1];
+        grid[0][0] = new ComplexPoly(coeffs);
+        Polynomial<Complex> det = new PolynomialMatrix(grid).determinant();
+        output += checkPolyEquals("expected the single entry", grid[0][0], det);
+        System.out.println(output);
+    }
+    
+    public static void testDeterminantTwoByTwo() {
+        String output = "Test 2\t";
+        double[][] arr = {{7, 2}, {1, 1}};
+        Polynomial<Complex> det = new PolynomialMatrix(characteristicGrid(arr)).determinant();
+        Complex[] solution = {new Complex(5, 0), new Complex(-8, 0), ONE};
+        output += checkPolyEquals("expected x^2 - 8x + 5", new ComplexPoly(solution), det);
+        System.out.println(output);
+    }
+    
+    public static void testDeterminantMatchesCofactor() {
+        String output = "Test 3\t";
+        double[][] arr = {{7,3,-1,2,3,-2},{4,10,-1,-3,4,5},{12,1,4,7,9,2},
+                          {-1,3,-4,-10,5,7},{12,9,5,3,8,1},{-9,12,4,5,1,2}};
+        Polynomial<Complex>[][] grid = characteristicGrid(arr);
+        Polynomial<Complex> det = new PolynomialMatrix(grid).determinant(60);
+        output += checkPolyEquals("expected same polynomial as cofactor expansion", cofactorDeterminant(grid), det);
+        System.out.println(output);
+    }
+    
+    public static void testDeterminantLargeEntries() {
+        String output = "Test 4\t";
+        double[][] arr = {{1500, -200, 30, 4},{-7, 900, 2500, 1},{310, 45, -1200, 60},{8, 1000, -3, 700}};
+        Polynomial<Complex>[][] grid = characteristicGrid(arr);
+        Polynomial<Complex> det = new PolynomialMatrix(grid).determinant(5000);
+        output += checkPolyEquals("expected same polynomial as cofactor expansion", cofactorDeterminant(grid), det);
+        System.out.println(output);
+    }
+    
+    public static void testDeterminantZero() {
+        String output = "Test 5\t";
+        Polynomial<Complex>[][] grid = new ComplexPoly[2][2];
+        Complex[] coeffs = {ONE, ONE};
+        grid[0][0] = new ComplexPoly(coeffs);
+        grid[0][1] = new ComplexPoly(coeffs);
+        grid[1][0] = new ComplexPoly(coeffs);
+        grid[1][1] = new ComplexPoly(coeffs);
+        Polynomial<Complex> det = new PolynomialMatrix(grid).determinant();
+        output += checkPolyEquals("expected zero polynomial", new ComplexPoly(ZERO), det);
+        System.out.println(output);
+    }
+    
+    /**
+     * Grid diag(c x^160, x^155), whose determinant is c x^315
+     */
+    private static boolean checkHighDegree(double c, double radius) {
+        Polynomial<Complex>[][] grid = new ComplexPoly[2][2];
+        Complex[] first = new Complex[161];
+        Complex[] second = new Complex[156];
+        Arrays.fill(first, ZERO);
+        Arrays.fill(second, ZERO);
+        first[160] = new Complex(c, 0);
+        second[155] = ONE;
+        grid[0][0] = new ComplexPoly(first);
+        grid[0][1] = new ComplexPoly(ZERO);
+        grid[1][0] = new ComplexPoly(ZERO);
+        grid[1][1] = new ComplexPoly(second);
+        Polynomial<Complex> det = new PolynomialMatrix(grid).determinant(radius);
+        return det.degree() == 315 && Math.abs(det.coeffAtDeg(315).getReal() / c - 1) < ERROR;
+    }
+    
+    public static void testDeterminantHighDegree() {
+        String output = "Test 6\t";
+        //10^315 overflows and 0.05^315 underflows, though every evaluated determinant is finite
+        boolean check = checkHighDegree(1e-10, 10) && checkHighDegree(1e110, 0.05);
+        output += checkTrue("expected the leading coefficient without overflow", check);
+        System.out.println(output);
+    }
+    
+    public static void testNotSquare() {
+        String output = "Test 7\t";
+        boolean check = false;
+        Polynomial<Complex>[][] grid = new ComplexPoly[2][3];
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++) {
+                grid[i][j] = new ComplexPoly(ONE);
+            }
+        }
+        try {
+            new PolynomialMatrix(grid);
+        } catch (IncompatibleDimensionsException ex) {
+            check = true;
+        }
+        output += checkTrue("expected invalid dimensions", check);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testDeterminantOneByOne();
+        testDeterminantTwoByTwo();
+        testDeterminantMatchesCofactor();
+        testDeterminantLargeEntries();
+        testDeterminantZero();
+        testDeterminantHighDegree();
+        testNotSquare();
+    }
+}
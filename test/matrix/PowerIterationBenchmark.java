@@ -0,0 +1,84 @@
+package matrix;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import matrix.PowerIteration.Acceleration;
+
+/**
+ * Compares iteration counts and times of PageRank on a large random link graph for
+ * each acceleration, with sequential and parallel products, and from a warm start
+ * after a small change to the links
+ * @author ParkerHall
+ *
+ */
+public class PowerIterationBenchmark {
+    
+    private final static int NODES = 300000;
+    private final static int LINKS_PER_NODE = 8;
+    private final static int COMMUNITY = 50;
+    private final static double LOCALITY = 0.99;
+    private final static int CHANGED_LINKS = 1000;
+    private final static double DAMPING = 0.85;
+    private final static double TOLERANCE = Math.pow(10, -10);
+    private final static int MAX_ITERATIONS = 1000;
+    
+    /**
+     * Links mostly within communities of consecutive nodes, which like the sites of a web
+     * graph leave the second eigenvalue close to the damping factor, and otherwise skewed
+     * towards low-numbered nodes, with every 97th node dangling; the extra links are added
+     * from random nodes to random nodes
+     */
+    private static SparseMatrix graph(int extra, Random random) {
+        int total = NODES * LINKS_PER_NODE + extra;
+        int[] rows = new int[total];
+        int[] columns = new int[total];
+        double[] values = new double[total];
+        Arrays.fill(values, 1);
+        int k = 0;
+        for (int i = 0; i < NODES; i++) {
+            if (i % 97 == 0) {
+                continue;
+            }
+            for (int l = 0; l < LINKS_PER_NODE; l++) {
+                rows[k] = i;
+                columns[k++] = random.nextDouble() < LOCALITY ? i / COMMUNITY * COMMUNITY + random.nextInt(COMMUNITY)
+                        : (int)(NODES * Math.pow(random.nextDouble(), 2));
+            }
+        }
+        for (int l = 0; l < extra; l++) {
+            rows[k] = random.nextInt(NODES);
+            columns[k++] = random.nextInt(NODES);
+        }
+        return new SparseMatrix(NODES, NODES, Arrays.copyOf(rows, k), Arrays.copyOf(columns, k), Arrays.copyOf(values, k));
+    }
+    
+    private static void report(String name, long start, EigenpairResult result) {
+        System.out.println(String.format("    %-28s %5d iterations %10.1f ms%s", name, result.getIterations(),
+                (System.nanoTime() - start) / 1e6, result.isConverged() ? "" : ", not converged"));
+    }
+    
+    public static void main(String args[]) {
+        SparseMatrix links = graph(0, new Random(42));
+        System.out.println(String.format("PageRank, %d nodes, %d links, damping %.2f, %d threads", NODES,
+                links.nonZeros(), DAMPING, Runtime.getRuntime().availableProcessors()));
+        double[] rank = null;
+        for (boolean parallel : new boolean[] {false, true}) {
+            for (Acceleration acceleration : Acceleration.values()) {
+                PowerIteration engine = new PowerIteration(TOLERANCE, MAX_ITERATIONS, 0, acceleration, parallel);
+                long start = System.nanoTime();
+                EigenpairResult result = engine.pageRank(links, DAMPING);
+                report(acceleration + (parallel ? ", parallel" : ""), start, result);
+                rank = result.getEigenvector();
+            }
+        }
+        
+        SparseMatrix changed = graph(CHANGED_LINKS, new Random(42));
+        System.out.println(String.format("after adding %d links", CHANGED_LINKS));
+        PowerIteration engine = new PowerIteration(TOLERANCE, MAX_ITERATIONS);
+        long start = System.nanoTime();
+        report("uniform start", start, engine.pageRank(changed, DAMPING));
+        start = System.nanoTime();
+        report("previous vector", start, engine.pageRank(changed, DAMPING, rank));
+    }
+}
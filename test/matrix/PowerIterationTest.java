@@ -0,0 +1,310 @@
+package matrix;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import matrix.PowerIteration.Acceleration;
+
+/**
+ * Testing file for PowerIteration, including its PageRank mode
+ * @author ParkerHall
+ *
+ */
+public class PowerIterationTest {
+    
+    private final static double ERROR = Math.pow(10, -8);
+    private final static int SIZE = 30;
+    private final static double DAMPING = 0.85;
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /**
+     * Q T Q^T for a random orthogonal Q and upper triangular T with the given diagonal,
+     * above which entries are Gaussian times offDiagonal; symmetric if offDiagonal is 0
+     */
+    private static double[][] withSchurForm(double[] diagonal, double offDiagonal, long seed) {
+        int size = diagonal.length;
+        Random random = new Random(seed);
+        double[][] gaussian = new double[size][size];
+        double[][] triangle = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                gaussian[i][j] = random.nextGaussian();
+                triangle[i][j] = i == j ? diagonal[i] : i < j ? offDiagonal * random.nextGaussian() : 0;
+            }
+        }
+        double[][] q = new QRDecomposition(gaussian).thinQ();
+        double[][] product = new double[size][size];
+        double[][] matrix = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                for (int k = 0; k < size; k++) {
+                    product[i][j] += q[i][k] * triangle[k][j];
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                for (int k = 0; k < size; k++) {
+                    matrix[i][j] += product[i][k] * q[j][k];
+                }
+            }
+        }
+        return matrix;
+    }
+    
+    /**
+     * Eigenvalues 10, -8, 6, 5, ... down to 1 over the remaining entries
+     */
+    private static double[] spectrum() {
+        double[] diagonal = new double[SIZE];
+        diagonal[0] = 10;
+        diagonal[1] = -8;
+        for (int i = 2; i < SIZE; i++) {
+            diagonal[i] = 6 - 5.0 * (i - 2) / (SIZE - 3);
+        }
+        return diagonal;
+    }
+    
+    private static double residual(double[][] matrix, double value, double[] vector) {
+        double sum = 0;
+        for (int i = 0; i < matrix.length; i++) {
+            double entry = -value * vector[i];
+            for (int j = 0; j < vector.length; j++) {
+                entry += matrix[i][j] * vector[j];
+            }
+            sum += entry * entry;
+        }
+        return Math.sqrt(sum);
+    }
+    
+    /**
+     * Random directed graph in which each node links to a few others, with a handful
+     * of nodes left without outgoing links
+     */
+    private static SparseMatrix randomGraph(int size, int perNode, long seed) {
+        Random random = new Random(seed);
+        int[] rows = new int[size * perNode];
+        int[] columns = new int[size * perNode];
+        double[] values = new double[size * perNode];
+        int k = 0;
+        for (int i = 0; i < size; i++) {
+            if (i % 97 == 0) {
+                continue;
+            }
+            for (int l = 0; l < perNode; l++) {
+                rows[k] = i;
+                //skewed towards low-numbered nodes, like links to popular pages
+                columns[k] = (int)(size * Math.pow(random.nextDouble(), 2));
+                values[k++] = 1;
+            }
+        }
+        return new SparseMatrix(size, size, Arrays.copyOf(rows, k), Arrays.copyOf(columns, k), Arrays.copyOf(values, k));
+    }
+    
+    /*
+     * Testing strategy for PowerIteration:
+     *      operator: dense symmetric, dense nonsymmetric, sparse link matrix
+     *      dominant eigenvalue: positive, negative
+     *      shift: zero, nonzero
+     *      count: 1, > 1
+     *      acceleration: none, Aitken, Anderson
+     *      start: default, warm
+     *      parallel: false, true
+     *      input: valid, invalid
+     */
+    public static void testDominant() {
+        String output = "Test 1\t";
+        double[][] matrix = withSchurForm(spectrum(), 0, 1);
+        EigenpairResult result = new PowerIteration().solve(new DenseOperator(matrix));
+        boolean check = result.isConverged() && Math.abs(result.getEigenvalue() - 10) < ERROR;
+        check &= residual(matrix, result.getEigenvalue(), result.getEigenvector()) < ERROR;
+        check &= Math.abs(IterativeSolver.norm(result.getEigenvector()) - 1) < ERROR;
+        output += checkTrue("expected eigenvalue 10 with a unit eigenvector", check);
+        System.out.println(output);
+    }
+    
+    public static void testShift() {
+        String output = "Test 2\t";
+        //|lambda - 10| is largest at the negative end, which converges at rate 12 / 18
+        double[][] matrix = withSchurForm(spectrum(), 0, 1);
+        EigenpairResult result = new PowerIteration(Math.pow(10, -10), 1000, 10, Acceleration.NONE, false)
+                .solve(new DenseOperator(matrix));
+        boolean check = result.isConverged() && Math.abs(result.getEigenvalue() + 8) < ERROR;
+        check &= residual(matrix, result.getEigenvalue(), result.getEigenvector()) < ERROR;
+        output += checkTrue("expected the negative eigenvalue -8 from the shifted iteration", check);
+        System.out.println(output);
+    }
+    
+    public static void testDeflation() {
+        String output = "Test 3\t";
+        double[] diagonal = spectrum();
+        double[][] matrix = withSchurForm(diagonal, 0.5, 2);
+        EigenpairResult[] results = new PowerIteration().solve(new DenseOperator(matrix), 3);
+        boolean check = results.length == 3;
+        for (int i = 0; i < 3; i++) {
+            check &= results[i].isConverged() && Math.abs(results[i].getEigenvalue() - diagonal[i > 1 ? 2 : i]) < ERROR;
+            check &= residual(matrix, results[i].getEigenvalue(), results[i].getEigenvector()) < Math.pow(10, -6);
+        }
+        output += checkTrue("expected the three dominant eigenpairs of a nonsymmetric matrix", check);
+        System.out.println(output);
+    }
+    
+    public static void testAcceleration() {
+        String output = "Test 4\t";
+        //ratio 0.95 between the two largest eigenvalues makes plain iteration slow
+        double[] diagonal = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            diagonal[i] = i == 0 ? 1 : i == 1 ? 0.95 : 0.9 - 0.8 * i / SIZE;
+        }
+        DenseOperator operator = new DenseOperator(withSchurForm(diagonal, 0, 3));
+        EigenpairResult plain = new PowerIteration().solve(operator);
+        boolean check = plain.isConverged();
+        for (Acceleration acceleration : new Acceleration[] {Acceleration.AITKEN, Acceleration.ANDERSON}) {
+            EigenpairResult accelerated = new PowerIteration(Math.pow(10, -10), 1000, 0, acceleration, false).solve(operator);
+            check &= accelerated.isConverged() && accelerated.getIterations() < plain.getIterations();
+            check &= Math.abs(accelerated.getEigenvalue() - 1) < ERROR;
+            check &= Math.abs(Math.abs(IterativeSolver.dot(accelerated.getEigenvector(), plain.getEigenvector())) - 1) < ERROR;
+        }
+        output += checkTrue("expected Aitken and Anderson to need fewer iterations for the same pair", check);
+        System.out.println(output);
+    }
+    
+    public static void testPageRank() {
+        String output = "Test 5\t";
+        //node 3 is dangling, and node 0 links to node 1 with twice the weight it gives node 2
+        double[][] arr = {{0, 2, 1, 0}, {0, 0, 1, 0}, {1, 0, 0, 1}, {0, 0, 0, 0}};
+        SparseMatrix links = new SparseMatrix(arr);
+        EigenpairResult result = new PowerIteration(Math.pow(10, -12), 1000).pageRank(links, DAMPING);
+        double[] rank = result.getEigenvector();
+        boolean check = result.isConverged() && Math.abs(result.getEigenvalue() - 1) < ERROR;
+        double sum = 0;
+        for (double entry : rank) {
+            check &= entry > 0;
+            sum += entry;
+        }
+        check &= Math.abs(sum - 1) < ERROR;
+        //rank_j = alpha sum_i rank_i P_ij + (alpha rank_3 + 1 - alpha) / 4
+        double[] outgoing = {3, 1, 2, 0};
+        for (int j = 0; j < 4; j++) {
+            double expected = (DAMPING * rank[3] + 1 - DAMPING) / 4;
+            for (int i = 0; i < 3; i++) {
+                expected += DAMPING * rank[i] * arr[i][j] / outgoing[i];
+            }
+            check &= Math.abs(rank[j] - expected) < ERROR;
+        }
+        output += checkTrue("expected the stationary distribution of the Google matrix", check);
+        System.out.println(output);
+    }
+    
+    public static void testWarmStart() {
+        String output = "Test 6\t";
+        SparseMatrix links = randomGraph(2000, 8, 4);
+        PowerIteration engine = new PowerIteration(Math.pow(10, -10), 1000);
+        double[] previous = engine.pageRank(links, DAMPING).getEigenvector();
+        
+        //the same graph with one more link out of each of a few nodes
+        int[] pointers = links.rowPointers();
+        int[] columns = links.columnIndices();
+        int extra = 20;
+        int[] rows = new int[links.nonZeros() + extra];
+        int[] targets = Arrays.copyOf(columns, links.nonZeros() + extra);
+        double[] values = new double[links.nonZeros() + extra];
+        Arrays.fill(values, 1);
+        for (int i = 0; i < 2000; i++) {
+            for (int k = pointers[i]; k < pointers[i + 1]; k++) {
+                rows[k] = i;
+            }
+        }
+        for (int k = 0; k < extra; k++) {
+            rows[links.nonZeros() + k] = 100 * k + 1;
+            targets[links.nonZeros() + k] = 1999 - k;
+        }
+        SparseMatrix changed = new SparseMatrix(2000, 2000, rows, targets, values);
+        EigenpairResult cold = engine.pageRank(changed, DAMPING);
+        EigenpairResult warm = engine.pageRank(changed, DAMPING, previous);
+        boolean check = cold.isConverged() && warm.isConverged() && warm.getIterations() < cold.getIterations();
+        double[] coldRank = cold.getEigenvector();
+        double[] warmRank = warm.getEigenvector();
+        for (int i = 0; i < 2000; i++) {
+            check &= Math.abs(coldRank[i] - warmRank[i]) < ERROR * coldRank[i] + Math.pow(10, -12);
+        }
+        output += checkTrue("expected a warm start to converge sooner to the same vector", check);
+        System.out.println(output);
+    }
+    
+    public static void testParallel() {
+        String output = "Test 7\t";
+        SparseMatrix links = randomGraph(5000, 6, 5);
+        EigenpairResult sequential = new PowerIteration(Math.pow(10, -10), 1000, 0, Acceleration.NONE, false)
+                .pageRank(links, DAMPING);
+        EigenpairResult parallel = new PowerIteration(Math.pow(10, -10), 1000, 0, Acceleration.NONE, true)
+                .pageRank(links, DAMPING);
+        boolean check = Arrays.equals(sequential.getEigenvector(), parallel.getEigenvector());
+        check &= sequential.getIterations() == parallel.getIterations();
+        double[][] matrix = withSchurForm(spectrum(), 0, 1);
+        check &= Arrays.equals(new PowerIteration(Math.pow(10, -10), 1000, 0, Acceleration.ANDERSON, false)
+                .solve(new DenseOperator(matrix)).getEigenvector(),
+                new PowerIteration(Math.pow(10, -10), 1000, 0, Acceleration.ANDERSON, true)
+                .solve(new DenseOperator(matrix)).getEigenvector());
+        output += checkTrue("expected identical results from parallel products", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 8\t";
+        int caught = 0;
+        SparseMatrix links = new SparseMatrix(new double[][] {{0, 1}, {1, 0}});
+        try {
+            new PowerIteration().pageRank(links, 1);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            new PowerIteration().pageRank(new SparseMatrix(new double[][] {{0, -1}, {1, 0}}), DAMPING);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            new PowerIteration().solve(new DenseOperator(new double[][] {{1, 2, 3}, {4, 5, 6}}));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new PowerIteration().solve(links, new double[2]);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            new PowerIteration().solve(links, 3);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            new PowerIteration(Math.pow(10, -10), 100, Double.NaN, Acceleration.NONE, false);
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 6);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testDominant();
+        testShift();
+        testDeflation();
+        testAcceleration();
+        testPageRank();
+        testWarmStart();
+        testParallel();
+        testInvalidInput();
+    }
+}
@@ -0,0 +1,97 @@
+package matrix;
+
+import java.util.Arrays;
+
+/**
+ * Compares iteration counts and solve times of the Krylov solvers with each
+ * preconditioner on five-point finite difference problems over a square grid:
+ * the Poisson equation for ConjugateGradient, convection-diffusion for GMRES and BiCGSTAB
+ * @author ParkerHall
+ *
+ */
+public class PreconditionerBenchmark {
+    
+    private final static int GRID = 150;
+    private final static double CONVECTION = 0.4;
+    private final static double TOLERANCE = Math.pow(10, -8);
+    private final static int MAX_ITERATIONS = 5000;
+    
+    /**
+     * Five-point stencil on a grid x grid mesh with off-diagonals -1 - c and -1 + c
+     */
+    private static SparseMatrix fivePoint(int grid, double convection) {
+        int size = grid * grid;
+        int[] rows = new int[5 * size];
+        int[] columns = new int[5 * size];
+        double[] values = new double[5 * size];
+        int k = 0;
+        for (int i = 0; i < grid; i++) {
+            for (int j = 0; j < grid; j++) {
+                int row = i * grid + j;
+                int[] neighbours = {i > 0 ? row - grid : -1, j > 0 ? row - 1 : -1,
+                        j < grid - 1 ? row + 1 : -1, i < grid - 1 ? row + grid : -1};
+                rows[k] = row;
+                columns[k] = row;
+                values[k++] = 4;
+                for (int neighbour : neighbours) {
+                    if (neighbour >= 0) {
+                        rows[k] = row;
+                        columns[k] = neighbour;
+                        values[k++] = neighbour < row ? -1 - convection : -1 + convection;
+                    }
+                }
+            }
+        }
+        return new SparseMatrix(size, size, Arrays.copyOf(rows, k), Arrays.copyOf(columns, k), Arrays.copyOf(values, k));
+    }
+    
+    private static void report(String name, long setupStart, long solveStart, SolverResult result) {
+        long end = System.nanoTime();
+        System.out.println(String.format("    %-24s %6d iterations %10.1f ms setup %10.1f ms solve%s",
+                name, result.getIterations(), (solveStart - setupStart) / 1e6, (end - solveStart) / 1e6,
+                result.isConverged() ? "" : ", not converged"));
+    }
+    
+    public static void main(String args[]) {
+        SparseMatrix poisson = fivePoint(GRID, 0);
+        double[] b = new double[poisson.size()[0]];
+        Arrays.fill(b, 1);
+        System.out.println(String.format("Poisson %dx%d grid, ConjugateGradient", GRID, GRID));
+        String[] names = {"none", "Jacobi", "SSOR(1.0)", "SSOR(1.8)", "IC(0)"};
+        for (int method = 0; method < names.length; method++) {
+            long setupStart = System.nanoTime();
+            Preconditioner preconditioner;
+            switch (method) {
+                case 0: preconditioner = Preconditioner.IDENTITY; break;
+                case 1: preconditioner = new JacobiPreconditioner(poisson); break;
+                case 2: preconditioner = new SSORPreconditioner(poisson); break;
+                case 3: preconditioner = new SSORPreconditioner(poisson, 1.8); break;
+                default: preconditioner = new IncompleteCholesky(poisson);
+            }
+            long solveStart = System.nanoTime();
+            SolverResult result = new ConjugateGradient(TOLERANCE, MAX_ITERATIONS, preconditioner).solve(poisson, b);
+            report(names[method], setupStart, solveStart, result);
+        }
+        
+        SparseMatrix convection = fivePoint(GRID, CONVECTION);
+        System.out.println(String.format("convection-diffusion %dx%d grid, c = %.1f", GRID, GRID, CONVECTION));
+        names = new String[] {"none", "SSOR(1.0)", "ILU(0)", "ILUT(1e-3, 10)"};
+        for (int method = 0; method < names.length; method++) {
+            for (int solver = 0; solver < 2; solver++) {
+                long setupStart = System.nanoTime();
+                Preconditioner preconditioner;
+                switch (method) {
+                    case 0: preconditioner = Preconditioner.IDENTITY; break;
+                    case 1: preconditioner = new SSORPreconditioner(convection); break;
+                    case 2: preconditioner = new IncompleteLU(convection); break;
+                    default: preconditioner = new IncompleteLU(convection, Math.pow(10, -3), 10);
+                }
+                long solveStart = System.nanoTime();
+                SolverResult result = solver == 0
+                        ? new GMRES(30, TOLERANCE, MAX_ITERATIONS, preconditioner).solve(convection, b)
+                        : new BiCGSTAB(TOLERANCE, MAX_ITERATIONS, preconditioner).solve(convection, b);
+                report((solver == 0 ? "GMRES(30) " : "BiCGSTAB  ") + names[method], setupStart, solveStart, result);
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Testing file for QRDecomposition
+ * @author ParkerHall
+ *
+ */
+public class QRDecompositionTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -10);
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /**
+     * @return true if every entry of first and second differs by at most TOLERANCE
+     */
+    private static boolean close(Matrix<BigDecimal> first, Matrix<BigDecimal> second) {
+        int[] size = first.size();
+        if (size[0] != second.size()[0] || size[1] != second.size()[1]) {
+            return false;
+        }
+        for (int i = 0; i < size[0]; i++) {
+            for (int j = 0; j < size[1]; j++) {
+                double difference = first.getElement(i, j).subtract(second.getElement(i, j)).doubleValue();
+                if (Math.abs(difference) > TOLERANCE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return true if the vectors in basis are orthonormal
+     */
+    private static boolean orthonormal(Set<Matrix<BigDecimal>> basis) throws IncompatibleDimensionsException {
+        List<Matrix<BigDecimal>> vectors = new ArrayList<>(basis);
+        for (int i = 0; i < vectors.size(); i++) {
+            for (int j = 0; j < vectors.size(); j++) {
+                double dot = vectors.get(i).transpose().multiply(vectors.get(j)).getElement(0, 0).doubleValue();
+                if (Math.abs(dot - (i == j ? 1 : 0)) > TOLERANCE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return true if matrix maps every vector in basis to zero
+     */
+    private static boolean annihilates(Matrix<BigDecimal> matrix, Set<Matrix<BigDecimal>> basis)
+            throws IncompatibleDimensionsException {
+        for (Matrix<BigDecimal> vector : basis) {
+            if (!close(matrix.multiply(vector), new BigDecimalMatrix(new double[matrix.size()[0]][1]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /*
+     * Testing strategy for QRDecomposition:
+     *      shape: square, tall, wide
+     *      rank: full, deficient exactly, deficient only in floating point, zero
+     *      methods: getQ, getR, getP, rank, nullspaceBasis, rangeBasis, solve
+     *      agreement: BigDecimalMatrix rank, nullity and nullspace
+     */
+    public static void testFactorization() throws IncompatibleDimensionsException {
+        String output = "Test 1\t";
+        double[][][] cases = {
+            {{4, 1, -2}, {1, 3, 0.5}, {-2, 0.5, 6}},
+            {{1, 2}, {3, 4}, {5, 6}, {7, 8.5}},
+            {{1, -1, 2, 0}, {0.5, 3, 1, -4}}
+        };
+        boolean check = true;
+        for (double[][] entries : cases) {
+            BigDecimalMatrix matrix = new BigDecimalMatrix(entries);
+            QRDecomposition qr = new QRDecomposition(matrix);
+            Matrix<BigDecimal> q = qr.getQ();
+            Matrix<BigDecimal> r = qr.getR();
+            check &= close(q.multiply(r), matrix.multiply(qr.getP()));
+            int k = Math.min(entries.length, entries[0].length);
+            check &= close(q.transpose().multiply(q), BigDecimalMatrix.identity(k));
+            for (int i = 0; i < r.size()[0]; i++) {
+                for (int j = 0; j < i; j++) {
+                    check &= r.getElement(i, j).signum() == 0;
+                }
+                if (i > 0) {
+                    check &= r.getElement(i, i).abs().compareTo(r.getElement(i - 1, i - 1).abs()) <= 0;
+                }
+            }
+            check &= qr.rank() == k && matrix.rank() == k;
+        }
+        output += checkTrue("expected AP = QR with orthonormal Q and decreasing |R_jj|", check);
+        System.out.println(output);
+    }
+    
+    public static void testRankDeficient() throws IncompatibleDimensionsException {
+        String output = "Test 2\t";
+        //third row is twice the second minus the first, but not exactly so in binary
+        BigDecimalMatrix tenths = new BigDecimalMatrix(new double[][] {{0.1, 0.2, 0.3}, {0.4, 0.5, 0.6}, {0.7, 0.8, 0.9}});
+        boolean check = new QRDecomposition(tenths).rank() == 2 && tenths.rank() == 2 && tenths.nullity() == 1;
+        //second column is negligible next to the first
+        BigDecimalMatrix tiny = new BigDecimalMatrix(new double[][] {{1, 1e-17}, {1, 0}});
+        check &= tiny.rank() == 1 && tiny.nullity() == 1;
+        //a larger tolerance drops more of R
+        QRDecomposition graded = new QRDecomposition(new double[][] {{1, 0, 0}, {0, 1e-3, 0}, {0, 0, 1e-8}});
+        check &= graded.rank() == 3 && graded.rank(1e-6) == 2 && graded.rank(1e-2) == 1;
+        check &= new QRDecomposition(new double[][] {{0, 0}, {0, 0}}).rank() == 0;
+        double[][] wide = {{1, 2, 3, 4}, {2, 4, 6, 8}, {1, 0, 1, 0}};
+        check &= new QRDecomposition(wide).rank() == 2;
+        output += checkTrue("expected the numerical rank of rank-deficient matrices", check);
+        System.out.println(output);
+    }
+    
+    public static void testNullspace() throws IncompatibleDimensionsException {
+        String output = "Test 3\t";
+        double[][][] cases = {
+            {{0.1, 0.2, 0.3}, {0.4, 0.5, 0.6}, {0.7, 0.8, 0.9}},
+            {{1, 1e-17}, {1, 0}},
+            {{1, 2, 3, 4}, {2, 4, 6, 8}, {1, 0, 1, 0}},
+            {{1, 2}, {3, 4}, {5, 6}},
+            {{0, 0}, {0, 0}}
+        };
+        int[] nullities = {1, 1, 2, 0, 2};
+        boolean check = true;
+        for (int c = 0; c < cases.length; c++) {
+            BigDecimalMatrix matrix = new BigDecimalMatrix(cases[c]);
+            QRDecomposition qr = new QRDecomposition(matrix);
+            Set<Matrix<BigDecimal>> basis = qr.nullspaceBasis();
+            check &= basis.size() == nullities[c] && orthonormal(basis) && annihilates(matrix, basis);
+            Set<Matrix<BigDecimal>> range = qr.rangeBasis();
+            check &= range.size() == qr.rank() && orthonormal(range);
+            //BigDecimalMatrix agrees with itself on the dimension of the nullspace
+            Set<Matrix<BigDecimal>> nullspace = matrix.nullspace();
+            check &= matrix.nullity() == nullities[c] && nullspace.size() == matrix.nullity();
+            check &= orthonormal(nullspace) && annihilates(matrix, nullspace);
+        }
+        output += checkTrue("expected an orthonormal nullspace basis with nullity() vectors", check);
+        System.out.println(output);
+    }
+    
+    public static void testSolve() throws IncompatibleDimensionsException {
+        String output = "Test 4\t";
+        //square system with a known solution
+        BigDecimalMatrix square = new BigDecimalMatrix(new double[][] {{4, 1, -2}, {1, 3, 0.5}, {-2, 0.5, 6}});
+        BigDecimalMatrix x = new BigDecimalMatrix(new double[][] {{1, -2}, {0.5, 3}, {-1, 0}});
+        boolean check = close(new QRDecomposition(square).solve(square.multiply(x)), x);
+        //overdetermined system: the residual is orthogonal to the range
+        BigDecimalMatrix tall = new BigDecimalMatrix(new double[][] {{1, 1}, {1, 2}, {1, 3}, {1, 4}});
+        BigDecimalMatrix b = new BigDecimalMatrix(new double[][] {{6}, {5}, {7}, {10}});
+        Matrix<BigDecimal> fit = new QRDecomposition(tall).solve(b);
+        check &= close(fit, new BigDecimalMatrix(new double[][] {{3.5}, {1.4}}));
+        Matrix<BigDecimal> residual = b.subtract(tall.multiply(fit));
+        check &= close(tall.transpose().multiply(residual), new BigDecimalMatrix(new double[2][1]));
+        //rank-deficient system: a basic solution that still fits a consistent right-hand side
+        BigDecimalMatrix deficient = new BigDecimalMatrix(new double[][] {{1, 2, 3}, {2, 4, 6}, {1, 0, 1}});
+        BigDecimalMatrix consistent = new BigDecimalMatrix(new double[][] {{6}, {12}, {2}});
+        check &= close(deficient.multiply(new QRDecomposition(deficient).solve(consistent)), consistent);
+        output += checkTrue("expected least-squares solutions", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 5\t";
+        int caught = 0;
+        QRDecomposition qr = new QRDecomposition(new double[][] {{1, 2}, {3, 4}, {5, 6}});
+        try {
+            qr.solve(new BigDecimalMatrix(new double[2][1]));
+        } catch (IncompatibleDimensionsException e) {
+            caught++;
+        }
+        try {
+            qr.solve(new BigDecimalMatrix(new double[4][2]));
+        } catch (IncompatibleDimensionsException e) {
+            caught++;
+        }
+        output += checkTrue("expected right-hand sides of the wrong height to be caught", caught == 2);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) throws IncompatibleDimensionsException {
+        testFactorization();
+        testRankDeficient();
+        testNullspace();
+        testSolve();
+        testInvalidInput();
+    }
+}
@@ -0,0 +1,85 @@
+package matrix;
+
+import java.util.Random;
+
+/**
+ * Compares the randomized truncated SVD with the full Jacobi SVD on a dense
+ * low-rank-plus-noise matrix, then runs it alone on a large sparse matrix
+ * @author ParkerHall
+ *
+ */
+public class RandomizedSVDBenchmark {
+    
+    private final static int DENSE_ROWS = 2000;
+    private final static int DENSE_COLS = 400;
+    private final static int SPARSE_ROWS = 20000;
+    private final static int SPARSE_COLS = 5000;
+    private final static int SPARSE_PER_ROW = 10;
+    private final static int RANK = 20;
+    private final static double NOISE = 1e-3;
+    
+    public static void main(String args[]) {
+        Random random = new Random(42);
+        
+        //geometrically decaying spectrum plus small dense noise
+        double[][] dense = new double[DENSE_ROWS][DENSE_COLS];
+        for (int r = 0; r < 2 * RANK; r++) {
+            double weight = Math.pow(0.8, r) * DENSE_ROWS;
+            double[] u = new double[DENSE_ROWS];
+            double[] v = new double[DENSE_COLS];
+            for (int i = 0; i < DENSE_ROWS; i++) {
+                u[i] = random.nextGaussian() / Math.sqrt(DENSE_ROWS);
+            }
+            for (int j = 0; j < DENSE_COLS; j++) {
+                v[j] = random.nextGaussian() / Math.sqrt(DENSE_COLS);
+            }
+            for (int i = 0; i < DENSE_ROWS; i++) {
+                for (int j = 0; j < DENSE_COLS; j++) {
+                    dense[i][j] += weight * u[i] * v[j];
+                }
+            }
+        }
+        for (double[] row : dense) {
+            for (int j = 0; j < DENSE_COLS; j++) {
+                row[j] += NOISE * random.nextGaussian();
+            }
+        }
+        
+        long start = System.nanoTime();
+        SingularValueDecomposition full = new SingularValueDecomposition(dense, false, true);
+        double fullMillis = (System.nanoTime() - start) / 1e6;
+        start = System.nanoTime();
+        RandomizedSVD randomized = new RandomizedSVD(new DenseOperator(dense), RANK);
+        double randomizedMillis = (System.nanoTime() - start) / 1e6;
+        
+        double[] exact = full.getSingularValues();
+        double[] approximate = randomized.getSingularValues();
+        double worst = 0;
+        for (int k = 0; k < RANK; k++) {
+            worst = Math.max(worst, Math.abs(exact[k] - approximate[k]) / exact[k]);
+        }
+        System.out.println(String.format("dense %dx%d, rank %d", DENSE_ROWS, DENSE_COLS, RANK));
+        System.out.println(String.format("    full SVD       %10.1f ms", fullMillis));
+        System.out.println(String.format("    randomized SVD %10.1f ms", randomizedMillis));
+        System.out.println(String.format("    worst relative singular value error %.2e", worst));
+        System.out.println(String.format("    optimal error %.4e, error bound %.4e", exact[RANK], randomized.errorBound()));
+        
+        int nonZeros = SPARSE_ROWS * SPARSE_PER_ROW;
+        int[] rows = new int[nonZeros];
+        int[] columns = new int[nonZeros];
+        double[] values = new double[nonZeros];
+        for (int k = 0; k < nonZeros; k++) {
+            rows[k] = k / SPARSE_PER_ROW;
+            columns[k] = random.nextInt(SPARSE_COLS);
+            values[k] = random.nextGaussian();
+        }
+        SparseMatrix sparse = new SparseMatrix(SPARSE_ROWS, SPARSE_COLS, rows, columns, values);
+        start = System.nanoTime();
+        RandomizedSVD sparseSvd = new RandomizedSVD(sparse, 50);
+        double sparseMillis = (System.nanoTime() - start) / 1e6;
+        System.out.println(String.format("sparse %dx%d, %d nonzeros, rank 50", SPARSE_ROWS, SPARSE_COLS, sparse.nonZeros()));
+        System.out.println(String.format("    randomized SVD %10.1f ms", sparseMillis));
+        System.out.println(String.format("    largest singular value %.4f, error bound %.4f",
+                sparseSvd.getSingularValues()[0], sparseSvd.errorBound()));
+    }
+}
@@ -0,0 +1,191 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Testing file for RandomizedSVD
+ * @author ParkerHall
+ *
+ */
+public class RandomizedSVDTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -9);
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /**
+     * @return m x n array U diag(values) V^T with random orthonormal U and V
+     */
+    private static double[][] withSingularValues(int m, int n, double[] values, long seed) {
+        Random random = new Random(seed);
+        double[][] u = orthonormalColumns(m, values.length, random);
+        double[][] v = orthonormalColumns(n, values.length, random);
+        double[][] output = new double[m][n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                for (int k = 0; k < values.length; k++) {
+                    output[i][j] += u[i][k] * values[k] * v[j][k];
+                }
+            }
+        }
+        return output;
+    }
+    
+    private static double[][] orthonormalColumns(int rows, int cols, Random random) {
+        double[][] gaussian = new double[rows][cols];
+        for (double[] row : gaussian) {
+            for (int j = 0; j < cols; j++) {
+                row[j] = random.nextGaussian();
+            }
+        }
+        return BigDecimalMatrix.toArray(new QRDecomposition(gaussian).getQ());
+    }
+    
+    /**
+     * @return largest entry of |A - U S V^T|
+     */
+    private static double approximationError(double[][] entries, RandomizedSVD svd) throws IncompatibleDimensionsException {
+        Matrix<BigDecimal> approximation = svd.getU().multiply(svd.getS()).multiply(svd.getV().transpose());
+        double largest = 0;
+        for (int i = 0; i < entries.length; i++) {
+            for (int j = 0; j < entries[0].length; j++) {
+                largest = Math.max(largest, Math.abs(entries[i][j] - approximation.getElement(i, j).doubleValue()));
+            }
+        }
+        return largest;
+    }
+    
+    private static boolean close(double[] first, double[] second, double tolerance) {
+        boolean check = first.length == second.length;
+        for (int i = 0; i < first.length && check; i++) {
+            check = Math.abs(first[i] - second[i]) <= tolerance * Math.max(1, Math.abs(second[i]));
+        }
+        return check;
+    }
+    
+    /*
+     * Testing strategy for RandomizedSVD:
+     *      rank of A: equal to k, greater than k
+     *      shape: tall, wide
+     *      operator: dense, sparse
+     *      methods: getSingularValues, getU, getS, getV, getApproximation, errorBound
+     */
+    public static void testExactRank() throws IncompatibleDimensionsException {
+        String output = "Test 1\t";
+        double[] values = {10, 5, 1};
+        double[][] entries = withSingularValues(60, 40, values, 1);
+        RandomizedSVD svd = new RandomizedSVD(new BigDecimalMatrix(entries), 3);
+        boolean check = close(svd.getSingularValues(), values, TOLERANCE);
+        check &= svd.getS() instanceof DiagonalMatrix;
+        check &= approximationError(entries, svd) < TOLERANCE && svd.errorBound() < TOLERANCE;
+        Matrix<BigDecimal> u = svd.getU();
+        check &= u.transpose().multiply(u).equals(BigDecimalMatrix.identity(3));
+        check &= svd.getApproximation().equals(new BigDecimalMatrix(entries));
+        //a wide matrix through the same path
+        double[][] wide = withSingularValues(25, 70, values, 2);
+        RandomizedSVD wideSvd = new RandomizedSVD(new BigDecimalMatrix(wide), 3);
+        check &= close(wideSvd.getSingularValues(), values, TOLERANCE) && approximationError(wide, wideSvd) < TOLERANCE;
+        output += checkTrue("expected an exact decomposition of a matrix of rank k", check);
+        System.out.println(output);
+    }
+    
+    public static void testTruncation() throws IncompatibleDimensionsException {
+        String output = "Test 2\t";
+        double[] values = {10, 5, 1, 0.1, 0.01};
+        double[][] entries = withSingularValues(50, 30, values, 3);
+        RandomizedSVD svd = new RandomizedSVD(new BigDecimalMatrix(entries), 2);
+        boolean check = close(svd.getSingularValues(), new double[] {10, 5}, TOLERANCE);
+        //the best rank-2 approximation leaves the third singular value behind
+        check &= svd.errorBound() >= 1 - TOLERANCE && svd.errorBound() < 1 + Math.pow(10, -6);
+        Vector x = new Vector(new double[30]);
+        Random random = new Random(4);
+        double residual = 0;
+        for (int trial = 0; trial < 20; trial++) {
+            for (int j = 0; j < 30; j++) {
+                x.set(j, random.nextGaussian());
+            }
+            double[] exact = new BigDecimalMatrix(entries).multiply(x).toArray();
+            double[] approximate = svd.getApproximation().multiply(x).toArray();
+            for (int i = 0; i < exact.length; i++) {
+                exact[i] -= approximate[i];
+            }
+            residual = Math.max(residual, Vector.norm(exact) / x.norm());
+        }
+        check &= residual <= svd.errorBound();
+        double[] exact = new SingularValueDecomposition(entries, false, false).getSingularValues();
+        check &= close(Arrays.copyOf(exact, values.length), values, TOLERANCE);
+        output += checkTrue("expected the k largest singular values and a valid error bound", check);
+        System.out.println(output);
+    }
+    
+    public static void testSparse() throws IncompatibleDimensionsException {
+        String output = "Test 3\t";
+        //nonzeros confined to three columns, so the rank is at most three
+        int rows = 80;
+        int[] rowIndices = new int[3 * rows];
+        int[] colIndices = new int[3 * rows];
+        double[] entries = new double[3 * rows];
+        for (int i = 0; i < rows; i++) {
+            for (int c = 0; c < 3; c++) {
+                rowIndices[3 * i + c] = i;
+                colIndices[3 * i + c] = 7 * c + 2;
+                entries[3 * i + c] = Math.sin(i + 3 * c) + c;
+            }
+        }
+        SparseMatrix sparse = new SparseMatrix(rows, 20, rowIndices, colIndices, entries);
+        double[][] dense = BigDecimalMatrix.toArray(sparse.toDense());
+        RandomizedSVD fromSparse = new RandomizedSVD(sparse, 3);
+        RandomizedSVD fromDense = new RandomizedSVD(new BigDecimalMatrix(dense), 3);
+        double[] exact = new SingularValueDecomposition(dense, false, false).getSingularValues();
+        boolean check = close(fromSparse.getSingularValues(), fromDense.getSingularValues(), TOLERANCE);
+        check &= close(fromSparse.getSingularValues(), Arrays.copyOf(exact, 3), TOLERANCE);
+        check &= approximationError(dense, fromSparse) < TOLERANCE;
+        output += checkTrue("expected sparse and dense operators to give the same decomposition", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 4\t";
+        int caught = 0;
+        SparseMatrix sparse = new SparseMatrix(new double[][] {{1, 0, 2}, {0, 3, 0}});
+        try {
+            new RandomizedSVD(sparse, 0);
+        } catch (IllegalArgumentException e) {
+            caught++;
+        }
+        try {
+            new RandomizedSVD(sparse, 3);
+        } catch (IllegalArgumentException e) {
+            caught++;
+        }
+        try {
+            new RandomizedSVD(sparse, 1, -1, 2, 0);
+        } catch (IllegalArgumentException e) {
+            caught++;
+        }
+        try {
+            new RandomizedSVD(sparse, 1, 10, -1, 0);
+        } catch (IllegalArgumentException e) {
+            caught++;
+        }
+        output += checkTrue("expected all four invalid parameters to be caught", caught == 4);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) throws IncompatibleDimensionsException {
+        testExactRank();
+        testTruncation();
+        testSparse();
+        testInvalidInput();
+    }
+}
@@ -0,0 +1,80 @@
+package matrix;
+
+import java.util.Random;
+
+/**
+ * Compares the root finding strategies of ComplexPoly on polynomials with known roots
+ * @author ParkerHall
+ *
+ */
+public class RootFindingBenchmark {
+    
+    private final static int NUM_PLACES = 8;
+    private final static int WARMUP_RUNS = 3;
+    private final static int TIMED_RUNS = 5;
+    private final static int[] DEGREES = {5, 10, 20, 40, 80};
+    
+    /**
+     * Build the monic polynomial with the given roots
+     */
+    private static ComplexPoly fromRoots(Complex[] roots) {
+        Polynomial<Complex> product = new ComplexPoly(new Complex(1, 0));
+        for (Complex root: roots) {
+            Complex[] linear = {root.mult(-1), new Complex(1, 0)};
+            product = product.mult(new ComplexPoly(linear));
+        }
+        return (ComplexPoly)product;
+    }
+    
+    /**
+     * @return largest distance from an expected root to its nearest computed root
+     */
+    private static double maxError(Complex[] expected, Complex[] actual) {
+        double worst = 0;
+        for (Complex root: expected) {
+            double nearest = Double.MAX_VALUE;
+            for (Complex candidate: actual) {
+                nearest = Math.min(nearest, root.sub(candidate).magnitude());
+            }
+            worst = Math.max(worst, nearest);
+        }
+        return worst;
+    }
+    
+    private static void benchmark(ComplexPoly poly, Complex[] roots, ComplexPoly.RootMethod method) {
+        Complex[] result = null;
+        long start = 0;
+        try {
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                result = poly.zeroes(NUM_PLACES, method);
+            }
+            start = System.nanoTime();
+            for (int i = 0; i < TIMED_RUNS; i++) {
+                result = poly.zeroes(NUM_PLACES, method);
+            }
+        } catch (ArithmeticException | NumberFormatException ex) {
+            //a diverged iteration surfaces as a NumberFormatException when its NaN roots are rounded
+            System.out.println(String.format("%-18s degree %3d\tdid not converge", method, poly.degree()));
+            return;
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / TIMED_RUNS;
+        System.out.println(String.format("%-18s degree %3d\t%10.3f ms\tmax error %.2e",
+                method, poly.degree(), millis, maxError(roots, result)));
+    }
+    
+    public static void main(String args[]) {
+        Random random = new Random(42);
+        for (int degree: DEGREES) {
+            //roots spread over the disk |x| < 2
+            Complex[] roots = new Complex[degree];
+            for (int i = 0; i < degree; i++) {
+                double radius = 2 * Math.sqrt(random.nextDouble());
+                double angle = 2 * Math.PI * random.nextDouble();
+                roots[i] = new Complex(radius * Math.cos(angle), radius * Math.sin(angle));
+            }
+            ComplexPoly poly = fromRoots(roots);
+            benchmark(poly, roots, ComplexPoly.RootMethod.DURAND_KERNER);
+            benchmark(poly, roots, ComplexPoly.RootMethod.COMPANION_MATRIX);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Testing file for SingularValueDecomposition data type
+ * @author ParkerHall
+ *
+ */
+public class SingularValueDecompositionTest {
+    
+    private final static double ERROR = Math.pow(10, -8);
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static String checkEquals(String string, Object expected, Object actual) {
+        String output;
+        if (expected.equals(actual)) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static boolean arraysClose(double[] expected, double[] actual) {
+        if (expected.length != actual.length) {
+            return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+            if (Math.abs(expected[i] - actual[i]) > ERROR) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static Matrix<BigDecimal> reconstruct(SingularValueDecomposition svd) {
+        return svd.getU().multiply(svd.getS()).multiply(svd.getV().transpose());
+    }
+    
+    private static boolean isOrthonormal(Matrix<BigDecimal> columns) {
+        int size = columns.size()[1];
+        double[][] identity = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            identity[i][i] = 1;
+        }
+        return columns.transpose().multiply(columns).equals(new BigDecimalMatrix(identity));
+    }
+    
+    /*
+     * Testing strategy for SingularValueDecomposition:
+     *      shape: tall, wide, square
+     *      mode: thin, full, parallel
+     *      rank: full, deficient
+     *      derived quantities: pseudoInverse, conditionNumber, lowRankApproximation
+     */
+    public static void testSingularValuesKnown() {
+        String output = "Test 1\t";
+        double[][] arr = {{3, 0}, {0, -4}, {0, 0}};
+        SingularValueDecomposition svd = new SingularValueDecomposition(new BigDecimalMatrix(arr));
+        double[] expected = {4, 3};
+        output += checkTrue("expected singular values 4 and 3", arraysClose(expected, svd.getSingularValues()));
+        System.out.println(output);
+    }
+    
+    public static void testThinTall() {
+        String output = "Test 2\t";
+        double[][] arr = {{7, 3, -1}, {4, 10, -1}, {12, 1, 4}, {-1, 3, -4}, {12, 9, 5}};
+        Matrix<BigDecimal> matrix = new BigDecimalMatrix(arr);
+        SingularValueDecomposition svd = new SingularValueDecomposition(matrix);
+        boolean shapes = Arrays.equals(new int[] {5, 3}, svd.getU().size())
+                && Arrays.equals(new int[] {3, 3}, svd.getV().size());
+        boolean orthonormal = isOrthonormal(svd.getU()) && isOrthonormal(svd.getV());
+        output += checkTrue("expected thin factors reproducing the matrix",
+                shapes && orthonormal && matrix.equals(reconstruct(svd)));
+        System.out.println(output);
+    }
+    
+    public static void testFullWide() {
+        String output = "Test 3\t";
+        double[][] arr = {{1, 2, 3, 4}, {2, 4, 6, 8}};
+        Matrix<BigDecimal> matrix = new BigDecimalMatrix(arr);
+        SingularValueDecomposition svd = new SingularValueDecomposition(matrix, true, false);
+        boolean shapes = Arrays.equals(new int[] {2, 2}, svd.getU().size())
+                && Arrays.equals(new int[] {2, 4}, svd.getS().size())
+                && Arrays.equals(new int[] {4, 4}, svd.getV().size());
+        boolean orthonormal = isOrthonormal(svd.getU()) && isOrthonormal(svd.getV());
+        output += checkTrue("expected square factors reproducing the matrix",
+                shapes && orthonormal && svd.rank() == 1 && matrix.equals(reconstruct(svd)));
+        System.out.println(output);
+    }
+    
+    public static void testParallelMatchesSequential() {
+        String output = "Test 4\t";
+        double[][] arr = {{7,3,-1,2,3,-2},{4,10,-1,-3,4,5},{12,1,4,7,9,2},
+                          {-1,3,-4,-10,5,7},{12,9,5,3,8,1},{-9,12,4,5,1,2}};
+        SingularValueDecomposition sequential = new SingularValueDecomposition(arr, false, false);
+        SingularValueDecomposition parallel = new SingularValueDecomposition(arr, false, true);
+        output += checkTrue("expected same singular values",
+                arraysClose(sequential.getSingularValues(), parallel.getSingularValues()));
+        System.out.println(output);
+    }
+    
+    public static void testPseudoInverseSingular() {
+        String output = "Test 5\t";
+        double[][] arr = {{1, 2}, {2, 4}};
+        double[][] solution = {{0.04, 0.08}, {0.08, 0.16}};
+        Matrix<BigDecimal> pseudoInverse = new BigDecimalMatrix(arr).pseudoInverse();
+        output += checkEquals("expected A^T / 25", new BigDecimalMatrix(solution), pseudoInverse);
+        System.out.println(output);
+    }
+    
+    public static void testPseudoInverseInvertible() {
+        String output = "Test 6\t";
+        double[][] arr = {{7, 2}, {1, 1}};
+        BigDecimalMatrix matrix = new BigDecimalMatrix(arr);
+        output += checkEquals("expected inverse", matrix.inverse(), matrix.pseudoInverse());
+        System.out.println(output);
+    }
+    
+    public static void testConditionNumber() {
+        String output = "Test 7\t";
+        double[][] arr = {{3, 0}, {0, 4}};
+        double[][] singular = {{1, 2}, {2, 4}};
+        boolean check = Math.abs(new BigDecimalMatrix(arr).conditionNumber() - 4.0 / 3) < ERROR
+                && Double.isInfinite(new BigDecimalMatrix(singular).conditionNumber());
+        output += checkTrue("expected 4/3 and infinity", check);
+        System.out.println(output);
+    }
+    
+    public static void testLowRankApproximation() {
+        String output = "Test 8\t";
+        double[][] arr = {{3, 0}, {0, 4}, {0, 0}};
+        double[][] solution = {{0, 0}, {0, 4}, {0, 0}};
+        SingularValueDecomposition svd = new SingularValueDecomposition(new BigDecimalMatrix(arr));
+        output += checkEquals("expected largest singular triplet", new BigDecimalMatrix(solution), svd.lowRankApproximation(1));
+        System.out.println(output);
+    }
+    
+    public static void testLowRankInvalid() {
+        String output = "Test 9\t";
+        boolean check = false;
+        double[][] arr = {{3, 0}, {0, 4}};
+        try {
+            new SingularValueDecomposition(new BigDecimalMatrix(arr)).lowRankApproximation(3);
+        } catch (IllegalArgumentException ex) {
+            check = true;
+        }
+        output += checkTrue("expected invalid rank", check);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testSingularValuesKnown();
+        testThinTall();
+        testFullWide();
+        testParallelMatchesSequential();
+        testPseudoInverseSingular();
+        testPseudoInverseInvertible();
+        testConditionNumber();
+        testLowRankApproximation();
+        testLowRankInvalid();
+    }
+}
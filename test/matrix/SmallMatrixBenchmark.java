@@ -0,0 +1,81 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Times 4 x 4 products and inverses through BigDecimalMatrix against Matrix4 and its
+ * allocation-free *Into forms
+ * @author ParkerHall
+ *
+ */
+public class SmallMatrixBenchmark {
+    
+    private final static int GENERIC_REPEATS = 200;
+    private final static int REPEATS = 10000000;
+    
+    private static double[][] random(long seed) {
+        Random random = new Random(seed);
+        double[][] values = new double[4][4];
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                values[i][j] = random.nextGaussian();
+            }
+        }
+        return values;
+    }
+    
+    private static void report(String label, long time, int repeats) {
+        System.out.println(String.format("    %-36s %12.1f ns", label, (double)time / repeats));
+    }
+    
+    public static void main(String args[]) {
+        BigDecimalMatrix a = new BigDecimalMatrix(random(1));
+        BigDecimalMatrix b = new BigDecimalMatrix(random(2));
+        Matrix4 first = new Matrix4(a);
+        Matrix4 second = new Matrix4(b);
+        Matrix4 dest = new Matrix4();
+        
+        //warm up before timing
+        for (int r = 0; r < GENERIC_REPEATS; r++) {
+            a.multiply(b);
+            a.inverse();
+        }
+        for (int r = 0; r < REPEATS; r++) {
+            first.multiplyInto(second, dest);
+            first.inverseInto(dest);
+        }
+        
+        System.out.println("4 x 4 operations, time per call");
+        long start = System.nanoTime();
+        Matrix<BigDecimal> product = null;
+        for (int r = 0; r < GENERIC_REPEATS; r++) {
+            product = a.multiply(b);
+        }
+        report("BigDecimalMatrix multiply", System.nanoTime() - start, GENERIC_REPEATS);
+        start = System.nanoTime();
+        for (int r = 0; r < REPEATS; r++) {
+            first.multiply(second);
+        }
+        report("Matrix4 multiply", System.nanoTime() - start, REPEATS);
+        start = System.nanoTime();
+        for (int r = 0; r < REPEATS; r++) {
+            first.multiplyInto(second, dest);
+        }
+        report("Matrix4 multiplyInto", System.nanoTime() - start, REPEATS);
+        System.out.println(String.format("    products agree: %b", dest.equals(product)));
+        
+        start = System.nanoTime();
+        Matrix<BigDecimal> inverse = null;
+        for (int r = 0; r < GENERIC_REPEATS; r++) {
+            inverse = a.inverse();
+        }
+        report("BigDecimalMatrix inverse", System.nanoTime() - start, GENERIC_REPEATS);
+        start = System.nanoTime();
+        for (int r = 0; r < REPEATS; r++) {
+            first.inverseInto(dest);
+        }
+        report("Matrix4 inverseInto", System.nanoTime() - start, REPEATS);
+        System.out.println(String.format("    inverses agree: %b", dest.equals(inverse)));
+    }
+}
@@ -0,0 +1,230 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Testing file for Matrix2, Matrix3 and Matrix4
+ * @author ParkerHall
+ *
+ */
+public class SmallMatrixTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -9);
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static BigDecimalMatrix random(int n, long seed) {
+        Random random = new Random(seed);
+        double[][] values = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                values[i][j] = random.nextGaussian();
+            }
+        }
+        return new BigDecimalMatrix(values);
+    }
+    
+    private static boolean close(Matrix<BigDecimal> first, Matrix<BigDecimal> second) {
+        int[] dimensions = first.size();
+        if (dimensions[0] != second.size()[0] || dimensions[1] != second.size()[1]) {
+            return false;
+        }
+        for (int i = 0; i < dimensions[0]; i++) {
+            for (int j = 0; j < dimensions[1]; j++) {
+                double difference = first.getElement(i, j).doubleValue() - second.getElement(i, j).doubleValue();
+                if (Math.abs(difference) > TOLERANCE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return a Matrix2, Matrix3 or Matrix4 holding the entries of matrix
+     */
+    private static StructuredMatrix small(Matrix<BigDecimal> matrix) {
+        switch (matrix.size()[0]) {
+            case 2: return new Matrix2(matrix);
+            case 3: return new Matrix3(matrix);
+            default: return new Matrix4(matrix);
+        }
+    }
+    
+    /*
+     * Testing strategy for Matrix2, Matrix3, Matrix4:
+     *      size: 2, 3, 4
+     *      construction: fields, identity, from a dense matrix, set
+     *      operation: multiply, add, subtract, scale, transpose, determinant, inverse,
+     *                 rank, eigenvalues, apply, applyTranspose
+     *      form: allocating, *Into with a fresh destination, *Into with an operand as destination
+     *      other operand: same type, dense on either side, Vector
+     *      input: valid, invalid
+     */
+    public static void testConstruction() {
+        String output = "Test 1\t";
+        Matrix3 matrix = new Matrix3(1, 2, 3, 4, 5, 6, 7, 8, 10);
+        BigDecimalMatrix dense = new BigDecimalMatrix(new double[][] {{1, 2, 3}, {4, 5, 6}, {7, 8, 10}});
+        boolean check = matrix.equals(dense) && dense.equals(matrix) && matrix.hashCode() == dense.hashCode();
+        check &= new Matrix3(dense).equals(matrix) && matrix.get(1, 2) == 6 && matrix.getElement(2, 0).doubleValue() == 7;
+        check &= matrix.size()[0] == 3 && matrix.size()[1] == 3;
+        check &= Matrix2.identity().equals(BigDecimalMatrix.identity(2)) && Matrix3.identity().equals(BigDecimalMatrix.identity(3));
+        check &= Matrix4.identity().equals(BigDecimalMatrix.identity(4));
+        Matrix4 copy = new Matrix4().set(Matrix4.identity()).set(0, 3, 5);
+        check &= copy.get(0, 3) == 5 && copy.get(3, 3) == 1 && new Matrix4().rank() == 0;
+        check &= new Matrix2(1, 2, 3, 4).getRow(1)[0].doubleValue() == 3 && new Matrix2(1, 2, 3, 4).getColumn(1)[0].doubleValue() == 2;
+        output += checkTrue("expected the fields to hold the entries in row-major order", check);
+        System.out.println(output);
+    }
+    
+    public static void testArithmetic() {
+        String output = "Test 2\t";
+        boolean check = true;
+        for (int n = 2; n <= 4; n++) {
+            BigDecimalMatrix a = random(n, n);
+            BigDecimalMatrix b = random(n, n + 10);
+            StructuredMatrix first = small(a);
+            StructuredMatrix second = small(b);
+            Matrix<BigDecimal> product = first.multiply(second);
+            check &= product.getClass() == first.getClass() && close(product, a.multiply(b));
+            check &= first.add(second).getClass() == first.getClass() && close(first.add(second), a.add(b));
+            check &= close(first.subtract(second), a.subtract(b)) && close(first.multiply(-1.5), a.multiply(-1.5));
+            check &= close(first.transpose(), a.transpose());
+        }
+        //the destination may be either operand
+        Matrix4 a = new Matrix4(random(4, 1));
+        Matrix4 b = new Matrix4(random(4, 2));
+        Matrix4 expected = a.multiply(b);
+        Matrix4 result = new Matrix4();
+        check &= a.multiplyInto(b, result) == result && close(result, expected);
+        Matrix4 left = new Matrix4().set(a);
+        check &= close(left.multiplyInto(b, left), expected);
+        Matrix4 right = new Matrix4().set(b);
+        check &= close(a.multiplyInto(right, right), expected);
+        Matrix4 square = new Matrix4().set(a);
+        check &= close(square.multiplyInto(square, square), a.multiply(a));
+        Matrix3 c = new Matrix3(random(3, 3));
+        Matrix3 expectedTranspose = (Matrix3)c.transpose();
+        check &= close(c.transposeInto(c), expectedTranspose);
+        check &= close(c.addInto(c, c), expectedTranspose.multiply(2)) && close(c.scaleInto(0.5, c), expectedTranspose);
+        check &= close(c.subtractInto(c, c), new Matrix3());
+        output += checkTrue("expected closed-form arithmetic to match dense arithmetic", check);
+        System.out.println(output);
+    }
+    
+    public static void testDeterminantAndInverse() {
+        String output = "Test 3\t";
+        boolean check = true;
+        for (int n = 2; n <= 4; n++) {
+            for (long seed = 0; seed < 5; seed++) {
+                BigDecimalMatrix a = random(n, 20 * n + seed);
+                StructuredMatrix small = small(a);
+                check &= Math.abs(small.determinant().doubleValue() - a.determinant().doubleValue()) < TOLERANCE;
+                Matrix<BigDecimal> inverse = small.inverse();
+                check &= inverse.getClass() == small.getClass() && close(inverse.multiply(small), BigDecimalMatrix.identity(n));
+                check &= close(inverse, a.inverse()) && small.rank() == n;
+            }
+        }
+        Matrix4 transform = new Matrix4(2, 0, 0, 1, 0, 3, 0, -2, 0, 0, 0.5, 4, 0, 0, 0, 1);
+        check &= transform.det() == 3;
+        Matrix4 inverse = (Matrix4)transform.inverse();
+        check &= close(transform.inverseInto(transform), inverse) && close(inverse.inverseInto(inverse), new Matrix4(2, 0, 0, 1, 0, 3, 0, -2, 0, 0, 0.5, 4, 0, 0, 0, 1));
+        //rank of a singular matrix comes from the dense matrix
+        check &= new Matrix3(1, 2, 3, 2, 4, 6, 0, 1, 1).rank() == 2 && new Matrix2(1, 2, 2, 4).det() == 0;
+        Complex[] rotation = new Matrix2(0, -1, 1, 0).eigenvalues();
+        check &= rotation[0].equals(new Complex(0, 1)) && rotation[1].equals(new Complex(0, -1));
+        Complex[] real = new Matrix2(2, 1, 1, 2).eigenvalues();
+        check &= real[0].equals(new Complex(3, 0)) && real[1].equals(new Complex(1, 0));
+        output += checkTrue("expected closed-form determinants and inverses to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testInteroperation() {
+        String output = "Test 4\t";
+        BigDecimalMatrix a = random(3, 7);
+        Matrix3 small = new Matrix3(a);
+        BigDecimalMatrix rectangular = new BigDecimalMatrix(new double[][] {{1, 0}, {2, -1}, {0.5, 3}});
+        boolean check = close(small.multiply(rectangular), a.multiply(rectangular));
+        check &= close(rectangular.transpose().multiply(small), rectangular.transpose().multiply(a));
+        check &= close(small.add(a), a.multiply(2)) && close(a.multiply(small), a.multiply(a));
+        Vector x = new Vector(1, -2, 0.5);
+        check &= close(small.multiply(x), a.multiply(x.toDense()));
+        double[] point = {1, -2, 0.5};
+        double[] expected = new double[3];
+        double[] expectedTranspose = new double[3];
+        new DenseOperator(a).apply(point, expected);
+        new DenseOperator(a).applyTranspose(point, expectedTranspose);
+        double[] transposed = point.clone();
+        //the point may be transformed in place
+        small.apply(point, point);
+        small.applyTranspose(transposed, transposed);
+        for (int i = 0; i < 3; i++) {
+            check &= Math.abs(point[i] - expected[i]) < TOLERANCE && Math.abs(transposed[i] - expectedTranspose[i]) < TOLERANCE;
+        }
+        //homogeneous translation by (1, 2, 3)
+        double[] homogeneous = {1, 1, 1, 1};
+        new Matrix4(1, 0, 0, 1, 0, 1, 0, 2, 0, 0, 1, 3, 0, 0, 0, 1).apply(homogeneous, homogeneous);
+        check &= homogeneous[0] == 2 && homogeneous[1] == 3 && homogeneous[2] == 4 && homogeneous[3] == 1;
+        output += checkTrue("expected small matrices to interoperate with other matrices", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 5\t";
+        int caught = 0;
+        try {
+            new Matrix3(random(4, 0));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new Matrix2(1, 2, 2, 4).inverse();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new Matrix4().inverseInto(new Matrix4());
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new Matrix3(1, 2, 3, 2, 4, 6, 0, 1, 1).inverse();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            Matrix3.identity().multiply(random(2, 0));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            Matrix2.identity().get(2, 0);
+        } catch (IndexOutOfBoundsException ex) {
+            caught++;
+        }
+        try {
+            Matrix4.identity().set(0, -1, 1);
+        } catch (IndexOutOfBoundsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 7);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testConstruction();
+        testArithmetic();
+        testDeterminantAndInverse();
+        testInteroperation();
+        testInvalidInput();
+    }
+}
@@ -0,0 +1,164 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Testing file for SparseMatrix
+ * @author ParkerHall
+ *
+ */
+public class SparseMatrixTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -12);
+    private final static double[][] ENTRIES = {{4, 0, 0, -1, 0}, {0, 0, 0, 0, 0}, {2.5, 3, 0, 0, 1}, {0, 0, -7, 0, 0}};
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static boolean close(double[] first, double[] second) {
+        boolean check = first.length == second.length;
+        for (int i = 0; i < first.length && check; i++) {
+            check = Math.abs(first[i] - second[i]) <= TOLERANCE;
+        }
+        return check;
+    }
+    
+    /**
+     * @return dense product of entries with the column x, with BigDecimal arithmetic
+     */
+    private static double[] denseProduct(double[][] entries, double[] x) throws IncompatibleDimensionsException {
+        double[][] column = new double[x.length][1];
+        for (int i = 0; i < x.length; i++) {
+            column[i][0] = x[i];
+        }
+        Matrix<BigDecimal> product = new BigDecimalMatrix(entries).multiply(new BigDecimalMatrix(column));
+        double[] output = new double[entries.length];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = product.getElement(i, 0).doubleValue();
+        }
+        return output;
+    }
+    
+    private static double[][] transpose(double[][] entries) {
+        double[][] output = new double[entries[0].length][entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            for (int j = 0; j < entries[0].length; j++) {
+                output[j][i] = entries[i][j];
+            }
+        }
+        return output;
+    }
+    
+    /*
+     * Testing strategy for SparseMatrix:
+     *      construction: dense array, triplets in any order, repeated triplets
+     *      rows: empty, one entry, several entries
+     *      products: apply, applyParallel, applyTranspose, applyBlock, applyTransposeBlock, Vector
+     *      compared against: dense BigDecimalMatrix products
+     */
+    public static void testConstruction() {
+        String output = "Test 1\t";
+        SparseMatrix fromDense = new SparseMatrix(ENTRIES);
+        //triplets out of order, with the (2, 0) entry split into two parts
+        int[] rows = {3, 0, 2, 2, 0, 2, 2};
+        int[] columns = {2, 3, 4, 0, 0, 1, 0};
+        double[] values = {-7, -1, 1, 2, 4, 3, 0.5};
+        SparseMatrix fromTriplets = new SparseMatrix(4, 5, rows, columns, values);
+        boolean check = fromDense.nonZeros() == 6 && fromTriplets.nonZeros() == 6;
+        for (int i = 0; i < ENTRIES.length; i++) {
+            for (int j = 0; j < ENTRIES[0].length; j++) {
+                check &= fromDense.getElement(i, j) == ENTRIES[i][j] && fromTriplets.getElement(i, j) == ENTRIES[i][j];
+            }
+        }
+        check &= fromTriplets.toDense().equals(new BigDecimalMatrix(ENTRIES));
+        check &= fromDense.transpose().toDense().equals(new BigDecimalMatrix(transpose(ENTRIES)));
+        check &= fromDense.size()[0] == 4 && fromDense.size()[1] == 5;
+        output += checkTrue("expected triplet and dense construction to agree", check);
+        System.out.println(output);
+    }
+    
+    public static void testProducts() throws IncompatibleDimensionsException {
+        String output = "Test 2\t";
+        SparseMatrix sparse = new SparseMatrix(ENTRIES);
+        double[] x = {1, -2, 0.5, 3, -1};
+        double[] z = {2, 5, -1, 0.25};
+        double[] y = new double[4];
+        sparse.apply(x, y);
+        boolean check = close(y, denseProduct(ENTRIES, x));
+        y = new double[4];
+        sparse.applyParallel(x, y);
+        check &= close(y, denseProduct(ENTRIES, x));
+        //stale contents of the output are overwritten
+        double[] w = {9, 9, 9, 9, 9};
+        sparse.applyTranspose(z, w);
+        check &= close(w, denseProduct(transpose(ENTRIES), z));
+        check &= close(sparse.multiply(new Vector(x)).toArray(), denseProduct(ENTRIES, x));
+        check &= close(sparse.transposeMultiply(new Vector(z)).toArray(), denseProduct(transpose(ENTRIES), z));
+        check &= close(sparse.transpose().multiply(new Vector(z)).toArray(), denseProduct(transpose(ENTRIES), z));
+        //a larger random matrix, by blocks of vectors
+        Random random = new Random(33);
+        int m = 120;
+        int n = 90;
+        double[][] dense = new double[m][n];
+        for (int k = 0; k < 600; k++) {
+            dense[random.nextInt(m)][random.nextInt(n)] = random.nextGaussian();
+        }
+        SparseMatrix large = new SparseMatrix(dense);
+        double[][] block = new double[4][n];
+        double[][] coBlock = new double[4][m];
+        for (int j = 0; j < 4; j++) {
+            for (int i = 0; i < n; i++) {
+                block[j][i] = random.nextGaussian();
+            }
+            for (int i = 0; i < m; i++) {
+                coBlock[j][i] = random.nextGaussian();
+            }
+        }
+        double[][] images = new double[4][m];
+        double[][] coImages = new double[4][n];
+        large.applyBlock(block, images);
+        large.applyTransposeBlock(coBlock, coImages);
+        for (int j = 0; j < 4; j++) {
+            check &= close(images[j], denseProduct(dense, block[j]));
+            check &= close(coImages[j], denseProduct(transpose(dense), coBlock[j]));
+        }
+        output += checkTrue("expected sparse products to match dense products", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 3\t";
+        int caught = 0;
+        try {
+            new SparseMatrix(2, 2, new int[] {0, 1}, new int[] {0}, new double[] {1, 2});
+        } catch (IncompatibleDimensionsException e) {
+            caught++;
+        }
+        try {
+            new SparseMatrix(2, 2, new int[] {0, 2}, new int[] {0, 1}, new double[] {1, 2});
+        } catch (IndexOutOfBoundsException e) {
+            caught++;
+        }
+        try {
+            new SparseMatrix(ENTRIES).getElement(0, 5);
+        } catch (IndexOutOfBoundsException e) {
+            caught++;
+        }
+        output += checkTrue("expected all three invalid inputs to be caught", caught == 3);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) throws IncompatibleDimensionsException {
+        testConstruction();
+        testProducts();
+        testInvalidInput();
+    }
+}
@@ -0,0 +1,164 @@
+package matrix;
+
+import java.math.BigDecimal;
+
+/**
+ * Testing file for DiagonalMatrix, ScalarMatrix, IdentityMatrix and PermutationMatrix
+ * @author ParkerHall
+ *
+ */
+public class StructuredMatrixTest {
+    
+    private final static BigDecimalMatrix DENSE = new BigDecimalMatrix(new double[][] {
+        {1, -2, 3.5}, {0.25, 4, -1}, {2, 0, 6}});
+    private final static BigDecimalMatrix WIDE = new BigDecimalMatrix(new double[][] {
+        {1, 2, 3, 4}, {5, 6, 7, 8}, {9, 10, 11, 12}});
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    /*
+     * Testing strategy for structured matrices:
+     *      type: diagonal, scalar, identity, permutation
+     *      other operand: dense square, dense rectangular, same type, other structured type
+     *      side: left, right
+     *      operation: multiply, add, subtract, determinant, inverse, transpose, rank, eigenvalues
+     *      source: constructed directly, returned by identity, QR and SVD
+     *      input: valid, invalid
+     */
+    public static void testDiagonal() {
+        String output = "Test 1\t";
+        DiagonalMatrix diagonal = new DiagonalMatrix(new double[] {2, -0.5, 3});
+        boolean check = diagonal.getElement(1, 1).doubleValue() == -0.5 && diagonal.getElement(0, 2).signum() == 0;
+        check &= diagonal.multiply(DENSE).equals(diagonal.toDense().multiply(DENSE));
+        check &= DENSE.multiply(diagonal).equals(DENSE.multiply(diagonal.toDense()));
+        check &= diagonal.multiply(WIDE).equals(diagonal.toDense().multiply(WIDE));
+        check &= diagonal.add(DENSE).equals(diagonal.toDense().add(DENSE));
+        check &= diagonal.subtract(DENSE).equals(diagonal.toDense().subtract(DENSE));
+        Matrix<BigDecimal> product = diagonal.multiply(diagonal);
+        check &= product instanceof DiagonalMatrix && product.getElement(2, 2).doubleValue() == 9;
+        check &= diagonal.add(diagonal) instanceof DiagonalMatrix;
+        check &= diagonal.determinant().doubleValue() == -3;
+        check &= diagonal.inverse().multiply(diagonal).equals(BigDecimalMatrix.identity(3));
+        //reciprocals kept beyond double precision
+        BigDecimal third = new DiagonalMatrix(new double[] {3}).inverse().getElement(0, 0);
+        check &= third.multiply(new BigDecimal(3)).subtract(BigDecimal.ONE).abs().compareTo(new BigDecimal("1e-30")) < 0;
+        check &= diagonal.transpose() == diagonal && diagonal.rank() == 3;
+        check &= diagonal.eigenvalues()[1].equals(new Complex(-0.5, 0));
+        output += checkTrue("expected diagonal operations to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testScalarAndIdentity() {
+        String output = "Test 2\t";
+        Matrix<BigDecimal> identity = BigDecimalMatrix.identity(3);
+        boolean check = identity instanceof IdentityMatrix;
+        check &= identity.multiply(DENSE) == DENSE && DENSE.multiply(identity) == DENSE;
+        check &= identity.equals(new BigDecimalMatrix(new double[][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}));
+        check &= identity.hashCode() == new BigDecimalMatrix(new double[][] {{1, 0, 0}, {0, 1, 0}, {0, 0, 1}}).hashCode();
+        check &= identity.inverse() == identity && identity.determinant().compareTo(BigDecimal.ONE) == 0;
+        ScalarMatrix scalar = new ScalarMatrix(3, 2.5);
+        check &= scalar.multiply(DENSE).equals(DENSE.multiply(2.5));
+        check &= DENSE.multiply(scalar).equals(DENSE.multiply(2.5));
+        Matrix<BigDecimal> sum = scalar.add(identity);
+        check &= sum instanceof ScalarMatrix && ((ScalarMatrix)sum).getValue().doubleValue() == 3.5;
+        check &= scalar.multiply(scalar) instanceof ScalarMatrix;
+        check &= scalar.determinant().doubleValue() == 15.625;
+        check &= scalar.inverse().equals(new ScalarMatrix(3, 0.4));
+        BigDecimal inverse = ((ScalarMatrix)new ScalarMatrix(2, 7).inverse()).getValue();
+        check &= inverse.multiply(new BigDecimal(7)).subtract(BigDecimal.ONE).abs().compareTo(new BigDecimal("1e-30")) < 0;
+        check &= identity.subtract(identity).rank() == 0;
+        output += checkTrue("expected scalar and identity operations to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testPermutation() {
+        String output = "Test 3\t";
+        PermutationMatrix permutation = new PermutationMatrix(new int[] {2, 0, 1});
+        boolean check = permutation.multiply(DENSE).equals(permutation.toDense().multiply(DENSE));
+        check &= DENSE.multiply(permutation).equals(DENSE.multiply(permutation.toDense()));
+        check &= permutation.multiply(WIDE).equals(permutation.toDense().multiply(WIDE));
+        check &= permutation.multiply(DENSE).getRow(0)[2].doubleValue() == 6;
+        PermutationMatrix swap = new PermutationMatrix(new int[] {1, 0, 2});
+        Matrix<BigDecimal> composed = permutation.multiply(swap);
+        check &= composed instanceof PermutationMatrix;
+        check &= composed.equals(permutation.toDense().multiply(swap.toDense()));
+        check &= permutation.determinant().intValue() == 1 && swap.determinant().intValue() == -1;
+        check &= permutation.inverse().multiply(permutation).equals(BigDecimalMatrix.identity(3));
+        check &= permutation.transpose().equals(permutation.toDense().transpose());
+        Complex[] eigenvalues = permutation.eigenvalues();
+        check &= eigenvalues.length == 3 && eigenvalues[0].equals(new Complex(1, 0));
+        output += checkTrue("expected permutation operations to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testMixed() {
+        String output = "Test 4\t";
+        DiagonalMatrix diagonal = new DiagonalMatrix(new double[] {2, -0.5, 3});
+        PermutationMatrix permutation = new PermutationMatrix(new int[] {2, 0, 1});
+        boolean check = diagonal.multiply(permutation).equals(diagonal.toDense().multiply(permutation.toDense()));
+        check &= permutation.multiply(diagonal).equals(permutation.toDense().multiply(diagonal.toDense()));
+        check &= permutation.add(diagonal).equals(permutation.toDense().add(diagonal.toDense()));
+        //decompositions return structured factors that still reconstruct the matrix
+        QRDecomposition qr = new QRDecomposition(DENSE);
+        check &= qr.getP() instanceof PermutationMatrix;
+        check &= DENSE.multiply(qr.getP()).equals(qr.getQ().multiply(qr.getR()));
+        SingularValueDecomposition svd = new SingularValueDecomposition(DENSE);
+        check &= svd.getS() instanceof DiagonalMatrix;
+        check &= svd.getU().multiply(svd.getS()).multiply(svd.getV().transpose()).equals(DENSE);
+        output += checkTrue("expected mixed structured products to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 5\t";
+        int caught = 0;
+        try {
+            new PermutationMatrix(new int[] {0, 0, 1});
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            new DiagonalMatrix(new double[0]);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new DiagonalMatrix(new double[] {1, 2}).multiply(DENSE);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            BigDecimalMatrix.identity(4).multiply(WIDE);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new DiagonalMatrix(new double[] {1, 0}).inverse();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new ScalarMatrix(3, 1).getElement(3, 0);
+        } catch (IndexOutOfBoundsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 6);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testDiagonal();
+        testScalarAndIdentity();
+        testPermutation();
+        testMixed();
+        testInvalidInput();
+    }
+}
@@ -0,0 +1,248 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Testing file for ToeplitzMatrix and CirculantMatrix
+ * @author ParkerHall
+ *
+ */
+public class ToeplitzMatrixTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -9);
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static double[] random(int n, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextGaussian();
+        }
+        return values;
+    }
+    
+    private static boolean close(double[] first, double[] second) {
+        for (int i = 0; i < first.length; i++) {
+            if (Math.abs(first[i] - second[i]) > TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * @return whether the structured products match those of the dense matrix
+     */
+    private static boolean productsMatch(LinearOperator structured, Matrix<BigDecimal> dense, long seed) {
+        int n = dense.size()[0];
+        double[] x = random(n, seed);
+        double[] y = new double[n];
+        double[] expected = new double[n];
+        DenseOperator operator = new DenseOperator(BigDecimalMatrix.toArray(dense));
+        structured.apply(x, y);
+        operator.apply(x, expected);
+        boolean check = close(y, expected);
+        structured.applyTranspose(x, y);
+        operator.applyTranspose(x, expected);
+        return check && close(y, expected);
+    }
+    
+    /*
+     * Testing strategy for Toeplitz and circulant matrices:
+     *      type: circulant, symmetric Toeplitz, nonsymmetric Toeplitz
+     *      size: 1, power of two, not a power of two
+     *      operation: apply, applyTranspose, solve, inverse, determinant, multiply, add, transpose
+     *      leading blocks: all nonsingular, one singular, one nearly singular (Levinson falls back to LU)
+     *      input: valid, invalid
+     */
+    public static void testTransform() {
+        String output = "Test 1\t";
+        boolean check = true;
+        for (int n : new int[] {1, 3, 8, 12}) {
+            double[] re = random(n, n);
+            double[] im = random(n, n + 1);
+            double[] expectedRe = new double[n];
+            double[] expectedIm = new double[n];
+            for (int k = 0; k < n; k++) {
+                for (int j = 0; j < n; j++) {
+                    double angle = -2 * Math.PI * ((long)j * k % n) / n;
+                    expectedRe[k] += re[j] * Math.cos(angle) - im[j] * Math.sin(angle);
+                    expectedIm[k] += re[j] * Math.sin(angle) + im[j] * Math.cos(angle);
+                }
+            }
+            double[] originalRe = re.clone();
+            FFT.transformAnyLength(re, im, false);
+            check &= close(re, expectedRe) && close(im, expectedIm);
+            FFT.transformAnyLength(re, im, true);
+            check &= close(re, originalRe);
+        }
+        output += checkTrue("expected the transform of any length to match the DFT", check);
+        System.out.println(output);
+    }
+    
+    public static void testCirculant() {
+        String output = "Test 2\t";
+        boolean check = true;
+        for (int n : new int[] {1, 4, 7}) {
+            double[] column = random(n, n);
+            column[0] += 3;
+            CirculantMatrix circulant = new CirculantMatrix(column);
+            Matrix<BigDecimal> dense = circulant.toDense();
+            check &= circulant.getElement(0, n - 1).doubleValue() == column[1 % n];
+            check &= productsMatch(circulant, dense, n);
+            double[] b = random(n, 2 * n);
+            double[] product = new double[n];
+            circulant.apply(circulant.solve(b), product);
+            check &= close(product, b);
+            Matrix<BigDecimal> inverse = circulant.inverse();
+            check &= inverse instanceof CirculantMatrix && inverse.multiply(dense).equals(BigDecimalMatrix.identity(n));
+            check &= Math.abs(circulant.determinant().doubleValue() - dense.determinant().doubleValue()) < TOLERANCE * Math.abs(dense.determinant().doubleValue());
+            check &= circulant.transpose().equals(dense.transpose());
+            Matrix<BigDecimal> squared = circulant.multiply(circulant);
+            check &= squared instanceof CirculantMatrix && squared.equals(dense.multiply(dense));
+            check &= circulant.add(circulant) instanceof CirculantMatrix && circulant.add(circulant).equals(dense.multiply(2));
+        }
+        //the all-ones matrix has rank one
+        check &= new CirculantMatrix(new double[] {1, 1, 1, 1, 1}).rank() == 1;
+        output += checkTrue("expected circulant operations to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testToeplitz() {
+        String output = "Test 3\t";
+        boolean check = true;
+        for (int n : new int[] {1, 5, 8}) {
+            double[] column = random(n, n);
+            double[] row = random(n, 3 * n);
+            column[0] = n + 1;
+            row[0] = n + 1;
+            ToeplitzMatrix toeplitz = new ToeplitzMatrix(column, row);
+            Matrix<BigDecimal> dense = toeplitz.toDense();
+            check &= n == 1 || (toeplitz.getElement(n - 1, 0).doubleValue() == column[n - 1] && toeplitz.getElement(0, n - 1).doubleValue() == row[n - 1]);
+            check &= productsMatch(toeplitz, dense, n);
+            double[] b = random(n, 4 * n);
+            double[] product = new double[n];
+            toeplitz.apply(toeplitz.solve(b), product);
+            check &= close(product, b);
+            check &= toeplitz.inverse().multiply(dense).equals(BigDecimalMatrix.identity(n));
+            check &= Math.abs(toeplitz.determinant().doubleValue() - dense.determinant().doubleValue()) < TOLERANCE * Math.abs(dense.determinant().doubleValue());
+            check &= toeplitz.transpose() instanceof ToeplitzMatrix && toeplitz.transpose().equals(dense.transpose());
+            Matrix<BigDecimal> square = dense.transpose();
+            check &= toeplitz.multiply(square).equals(dense.multiply(square));
+            check &= square.multiply(toeplitz).equals(square.multiply(dense));
+            check &= toeplitz.subtract(toeplitz.transpose()) instanceof ToeplitzMatrix;
+        }
+        //symmetric positive definite: the autocorrelation of an AR(1) process
+        double[] autocorrelation = new double[6];
+        for (int k = 0; k < 6; k++) {
+            autocorrelation[k] = Math.pow(0.6, k);
+        }
+        ToeplitzMatrix symmetric = new ToeplitzMatrix(autocorrelation);
+        check &= symmetric.equals(symmetric.transpose());
+        check &= symmetric.inverse().multiply(symmetric).equals(BigDecimalMatrix.identity(6));
+        output += checkTrue("expected Toeplitz operations to match dense ones", check);
+        System.out.println(output);
+    }
+    
+    public static void testSingularLeadingBlock() {
+        String output = "Test 4\t";
+        //zero diagonal: the leading 1 x 1 and 3 x 3 blocks are singular but the matrix is not
+        ToeplitzMatrix toeplitz = new ToeplitzMatrix(new double[] {0, 1, 0, 2}, new double[] {0, 1, 0, 3});
+        Matrix<BigDecimal> dense = toeplitz.toDense();
+        double[] b = {1, 2, 3, 4};
+        double[] product = new double[4];
+        toeplitz.apply(toeplitz.solve(b), product);
+        boolean check = close(product, b);
+        check &= toeplitz.inverse().multiply(dense).equals(BigDecimalMatrix.identity(4));
+        check &= Math.abs(toeplitz.determinant().doubleValue() - dense.determinant().doubleValue()) < TOLERANCE;
+        output += checkTrue("expected singular leading blocks to fall back to pivoted LU", check);
+        System.out.println(output);
+    }
+    
+    public static void testNearlySingularLeadingBlock() {
+        String output = "Test 5\t";
+        //a tiny diagonal: Levinson runs to completion but loses most of its accuracy
+        double[] column = {1e-13, 1, 0.5, 0.2};
+        double[] row = {1e-13, 2, 0.3, 0.1};
+        ToeplitzMatrix toeplitz = new ToeplitzMatrix(column, row);
+        Matrix<BigDecimal> dense = toeplitz.toDense();
+        double[] b = {1, 2, 3, 4};
+        double[] product = new double[4];
+        toeplitz.apply(toeplitz.solve(b), product);
+        boolean check = true;
+        for (int i = 0; i < 4; i++) {
+            check &= Math.abs(product[i] - b[i]) < Math.pow(10, -13);
+        }
+        double determinant = dense.determinant().doubleValue();
+        check &= Math.abs(toeplitz.determinant().doubleValue() - determinant) < TOLERANCE * Math.abs(determinant);
+        Matrix<BigDecimal> identity = toeplitz.inverse().multiply(dense);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                check &= Math.abs(identity.getElement(i, j).doubleValue() - (i == j ? 1 : 0)) < Math.pow(10, -13);
+            }
+        }
+        output += checkTrue("expected nearly singular leading blocks to fall back to pivoted LU", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 6\t";
+        int caught = 0;
+        try {
+            new ToeplitzMatrix(new double[] {1, 2}, new double[] {2, 2});
+        } catch (IllegalArgumentException ex) {
+            caught++;
+        }
+        try {
+            new ToeplitzMatrix(new double[] {1, 2}, new double[] {1, 2, 3});
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new CirculantMatrix(new double[0]);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new CirculantMatrix(new double[] {1, -1}).solve(new double[] {1, 1});
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        try {
+            new CirculantMatrix(new double[] {1, 1, 1}).inverse();
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new ToeplitzMatrix(new double[] {1, 1}).solve(new double[] {1, 1});
+        } catch (ArithmeticException ex) {
+            caught++;
+        }
+        try {
+            new ToeplitzMatrix(new double[] {1, 2, 3}).multiply(new BigDecimalMatrix(new double[][] {{1, 2}}));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 7);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testTransform();
+        testCirculant();
+        testToeplitz();
+        testSingularLeadingBlock();
+        testNearlySingularLeadingBlock();
+        testInvalidInput();
+    }
+}
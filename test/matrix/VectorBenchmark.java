@@ -0,0 +1,67 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Times matrix-vector products with the vector as an n x 1 BigDecimalMatrix against
+ * the Vector paths
+ * @author ParkerHall
+ *
+ */
+public class VectorBenchmark {
+    
+    private final static int SIZE = 1000;
+    private final static int REPEATS = 20;
+    
+    private static double[][] random(int rows, int columns, long seed) {
+        Random random = new Random(seed);
+        double[][] values = new double[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                values[i][j] = random.nextGaussian();
+            }
+        }
+        return values;
+    }
+    
+    public static void main(String args[]) {
+        BigDecimalMatrix matrix = new BigDecimalMatrix(random(SIZE, SIZE, 1));
+        DenseOperator operator = new DenseOperator(matrix);
+        double[][] entries = random(SIZE, 1, 2);
+        BigDecimalMatrix column = new BigDecimalMatrix(entries);
+        Vector vector = new Vector(column);
+        
+        //warm up before timing
+        matrix.multiply(column);
+        for (int r = 0; r < REPEATS; r++) {
+            matrix.multiply(vector);
+            operator.multiply(vector);
+        }
+        
+        System.out.println(String.format("Matrix-vector products, n = %d", SIZE));
+        long start = System.nanoTime();
+        Matrix<BigDecimal> generic = matrix.multiply(column);
+        long time = System.nanoTime() - start;
+        System.out.println(String.format("    %-36s %10.3f ms", "BigDecimalMatrix times n x 1 matrix", time / 1e6));
+        start = System.nanoTime();
+        Vector fast = null;
+        for (int r = 0; r < REPEATS; r++) {
+            fast = matrix.multiply(vector);
+        }
+        time = System.nanoTime() - start;
+        System.out.println(String.format("    %-36s %10.3f ms", "BigDecimalMatrix times Vector", time / 1e6 / REPEATS));
+        BigDecimalMatrix fresh = new BigDecimalMatrix(random(SIZE, SIZE, 5));
+        start = System.nanoTime();
+        fresh.multiply(vector);
+        time = System.nanoTime() - start;
+        System.out.println(String.format("    %-36s %10.3f ms", "  first product, converting entries", time / 1e6));
+        start = System.nanoTime();
+        for (int r = 0; r < REPEATS; r++) {
+            fast = operator.multiply(vector);
+        }
+        time = System.nanoTime() - start;
+        System.out.println(String.format("    %-36s %10.3f ms", "DenseOperator times Vector", time / 1e6 / REPEATS));
+        System.out.println(String.format("    results agree: %b", fast.equals(generic)));
+    }
+}
@@ -0,0 +1,213 @@
+package matrix;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * Testing file for Vector
+ * @author ParkerHall
+ *
+ */
+public class VectorTest {
+    
+    private final static double TOLERANCE = Math.pow(10, -9);
+    private final static double[][] ENTRIES = {{2, -1, 0}, {0.5, 3, 1}, {0, 0, 4}, {1, 1, -2}};
+    
+    private static String checkTrue(String string, boolean result) {
+        String output;
+        if (result) {
+            output = "Passed";
+        } else {
+            output = "Failed: " + string;
+        }
+        return output;
+    }
+    
+    private static double[] random(int n, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = random.nextGaussian();
+        }
+        return values;
+    }
+    
+    private static boolean close(double[] first, double[] second) {
+        for (int i = 0; i < first.length; i++) {
+            if (Math.abs(first[i] - second[i]) > TOLERANCE) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /*
+     * Testing strategy for Vector:
+     *      length: 1, several
+     *      magnitude: ordinary, near overflow, near underflow
+     *      level: 1 (dot, norm, asum, maxIndex, axpy, scale, copy), 2 (gemv, outer)
+     *      operator: dense, sparse, BigDecimalMatrix, structured; plain or transposed
+     *      Matrix operations: equals, add, multiply, transpose, stack
+     *      input: valid, invalid
+     */
+    public static void testArrayKernels() {
+        String output = "Test 1\t";
+        boolean check = true;
+        for (int n = 1; n <= 9; n++) {
+            double[] x = random(n, n);
+            double[] y = random(n, n + 10);
+            double expected = 0;
+            for (int i = 0; i < n; i++) {
+                expected += x[i] * y[i];
+            }
+            check &= Math.abs(Vector.dot(x, y) - expected) < TOLERANCE;
+            check &= Math.abs(Vector.norm(x) - Math.sqrt(Vector.dot(x, x))) < TOLERANCE;
+            double[] sum = y.clone();
+            Vector.axpy(-2, x, sum);
+            for (int i = 0; i < n; i++) {
+                check &= Math.abs(sum[i] - (y[i] - 2 * x[i])) < TOLERANCE;
+            }
+        }
+        //the plain sum of squares overflows or underflows at these magnitudes
+        check &= Math.abs(Vector.norm(new double[] {3e200, 4e200}) / 5e200 - 1) < TOLERANCE;
+        check &= Math.abs(Vector.norm(new double[] {3e-200, -4e-200}) / 5e-200 - 1) < TOLERANCE;
+        check &= Vector.norm(new double[] {0, 0, 0}) == 0;
+        output += checkTrue("expected the array kernels to match plain loops", check);
+        System.out.println(output);
+    }
+    
+    public static void testLevelOne() {
+        String output = "Test 2\t";
+        Vector x = new Vector(1, -4, 2.5, 0);
+        Vector y = new Vector(4);
+        boolean check = y.length() == 4 && y.norm() == 0;
+        check &= x.dot(x) == 23.25 && x.asum() == 7.5 && x.maxIndex() == 1;
+        y.copy(x).scale(2).axpy(-1, x);
+        check &= y.equals(x) && y != x;
+        double[] backing = {1, 2};
+        Vector wrapped = Vector.wrap(backing);
+        wrapped.set(0, 5);
+        backing[1] = 7;
+        check &= backing[0] == 5 && wrapped.get(1) == 7;
+        Vector copied = new Vector(backing);
+        backing[0] = 0;
+        check &= copied.get(0) == 5 && copied.toArray()[1] == 7;
+        output += checkTrue("expected level 1 operations to update in place", check);
+        System.out.println(output);
+    }
+    
+    public static void testLevelTwo() {
+        String output = "Test 3\t";
+        Vector x = new Vector(1, -2, 0.5);
+        Vector z = new Vector(2, 0, -1, 1);
+        double[] expected = new double[4];
+        double[] expectedTranspose = new double[3];
+        new DenseOperator(ENTRIES).apply(x.toArray(), expected);
+        new DenseOperator(ENTRIES).applyTranspose(z.toArray(), expectedTranspose);
+        BigDecimalMatrix dense = new BigDecimalMatrix(ENTRIES);
+        boolean check = close(dense.multiply(x).toArray(), expected);
+        check &= close(dense.transposeMultiply(z).toArray(), expectedTranspose);
+        check &= close(new DenseOperator(ENTRIES).multiply(x).toArray(), expected);
+        check &= close(dense.asOperator().multiply(x).toArray(), expected);
+        check &= close(dense.asOperator().transposeMultiply(z).toArray(), expectedTranspose);
+        check &= close(new SparseMatrix(ENTRIES).multiply(x).toArray(), expected);
+        check &= close(new SparseMatrix(ENTRIES).transposeMultiply(z).toArray(), expectedTranspose);
+        //the generic product keeps BigDecimal precision for vectors too
+        Matrix<BigDecimal> product = dense.multiply((Matrix<BigDecimal>)x);
+        Matrix<BigDecimal> exact = dense.multiply(x.toDense());
+        check &= !(product instanceof Vector) && product.equals(exact);
+        BigDecimalMatrix tenths = new BigDecimalMatrix(new double[][] {{0.1, 0.2, 0.3}});
+        Vector thirds = new Vector(1.0 / 3, 2.0 / 3, 1.0 / 7);
+        check &= tenths.multiply((Matrix<BigDecimal>)thirds).getElement(0, 0).compareTo(
+                tenths.multiply(thirds.toDense()).getElement(0, 0)) == 0;
+        for (int i = 0; i < 4; i++) {
+            check &= product.getElement(i, 0).compareTo(exact.getElement(i, 0)) == 0;
+        }
+        //y = 2 A x - y
+        Vector y = new Vector(1, 1, 1, 1);
+        Vector.gemv(2, new DenseOperator(ENTRIES), x, -1, y);
+        for (int i = 0; i < 4; i++) {
+            check &= Math.abs(y.get(i) - (2 * expected[i] - 1)) < TOLERANCE;
+        }
+        Vector w = new Vector(3);
+        Vector.gemvTranspose(0.5, new SparseMatrix(ENTRIES), z, 0, w);
+        for (int i = 0; i < 3; i++) {
+            check &= Math.abs(w.get(i) - 0.5 * expectedTranspose[i]) < TOLERANCE;
+        }
+        //structured operators get the same products through LinearOperator
+        TriangularMatrix triangular = new TriangularMatrix(new double[][] {{1, 2, 3}, {0, 4, 5}, {0, 0, 6}}, true);
+        check &= triangular.multiply(x).equals(triangular.toDense().multiply(x.toDense()));
+        LowRankMatrix outer = z.outer(x);
+        check &= outer.factorRank() == 1 && outer.equals(z.toDense().multiply(x.toDense().transpose()));
+        output += checkTrue("expected level 2 operations to match dense products", check);
+        System.out.println(output);
+    }
+    
+    public static void testMatrixOperations() {
+        String output = "Test 4\t";
+        Vector x = new Vector(1, -2, 0.5);
+        BigDecimalMatrix column = new BigDecimalMatrix(new double[][] {{1}, {-2}, {0.5}});
+        boolean check = x.equals(column) && column.equals(x) && x.hashCode() == column.hashCode();
+        check &= x.size()[0] == 3 && x.size()[1] == 1 && x.getElement(1, 0).doubleValue() == -2;
+        check &= new Vector(column).equals(x);
+        check &= x.add(x) instanceof Vector && x.add(x).equals(column.multiply(2));
+        //a dense operand keeps the BigDecimal arithmetic of the dense matrix
+        check &= !(x.add(column) instanceof Vector) && x.add(column).equals(column.multiply(2));
+        check &= x.subtract(column).equals(new Vector(3));
+        check &= x.subtract(x).equals(new Vector(3)) && x.multiply(3).equals(column.multiply(3));
+        check &= x.transpose().equals(column.transpose());
+        Matrix<BigDecimal> row = new BigDecimalMatrix(new double[][] {{2, 0, 1, -1}});
+        check &= x.multiply(row).equals(column.multiply(row));
+        Matrix<BigDecimal> stacked = x.stack(x);
+        check &= stacked instanceof Vector && stacked.equals(column.stack(column));
+        check &= !(x.stack(column) instanceof Vector) && x.stack(column).equals(column.stack(column));
+        check &= x.rank() == 1 && new Vector(2).rank() == 0;
+        output += checkTrue("expected vectors to behave as n x 1 matrices", check);
+        System.out.println(output);
+    }
+    
+    public static void testInvalidInput() {
+        String output = "Test 5\t";
+        int caught = 0;
+        try {
+            new Vector(0);
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new Vector(1, 2).dot(new Vector(1, 2, 3));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new Vector(new BigDecimalMatrix(ENTRIES));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new BigDecimalMatrix(ENTRIES).multiply(new Vector(1, 2));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            Vector.gemv(1, new DenseOperator(ENTRIES), new Vector(1, 2, 3), 0, new Vector(3));
+        } catch (IncompatibleDimensionsException ex) {
+            caught++;
+        }
+        try {
+            new Vector(1, 2).getElement(0, 1);
+        } catch (IndexOutOfBoundsException ex) {
+            caught++;
+        }
+        output += checkTrue("expected every invalid input to be rejected", caught == 6);
+        System.out.println(output);
+    }
+    
+    public static void main(String args[]) {
+        testArrayKernels();
+        testLevelOne();
+        testLevelTwo();
+        testMatrixOperations();
+        testInvalidInput();
+    }
+}